@@ -35,6 +35,12 @@ dependencies {
     exclude("commons-beanutils")
   }
 
+  // catalog clients used to read the metadata location, provided at runtime by the CLI
+  compileOnly(libs.aws.sdk.glue)
+  compileOnly(libs.aws.sdk.dynamo)
+  compileOnly("org.apache.hive:hive-metastore:${libs.versions.hive.get()}") { isTransitive = false }
+  compileOnly("org.apache.thrift:libthrift:0.9.3") { isTransitive = false }
+
   compileOnly(libs.immutables.value.annotations)
   annotationProcessor(libs.immutables.value.processor)
 
@@ -44,6 +50,10 @@ dependencies {
   testImplementation(libs.junit.jupiter.engine)
   testImplementation(libs.assertj)
   testImplementation(libs.logcaptor)
+  testImplementation(libs.sqlite.jdbc)
+  testImplementation(libs.h2)
+  testImplementation(libs.aws.sdk.glue)
+  testImplementation(libs.aws.sdk.dynamo)
 
   testImplementation(project(":iceberg-catalog-migrator-api-test"))
 
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.catalog.Catalog;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.jdbc.JdbcCatalog;
+import org.apache.iceberg.nessie.NessieCatalog;
+
+/**
+ * Registers a batch of tables in a catalog with a single request against the catalog's backing
+ * store, instead of one {@link Catalog#registerTable(TableIdentifier, String)} request per table.
+ *
+ * <p>The JDBC registrar doesn't read the metadata files while registering, unlike {@link
+ * Catalog#registerTable(TableIdentifier, String)}. The namespaces of the tables have to exist
+ * already. Implementations must be thread-safe.
+ */
+public interface BatchTableRegistrar extends AutoCloseable {
+
+  /**
+   * Registers the tables with the given metadata locations.
+   *
+   * @param metadataLocations location of the current metadata file of every table to register
+   * @return the failure of every table which could not be registered, like an {@link
+   *     org.apache.iceberg.exceptions.AlreadyExistsException} if the table exists already
+   */
+  Map<TableIdentifier, RuntimeException> registerTables(
+      Map<TableIdentifier, String> metadataLocations);
+
+  @Override
+  default void close() {}
+
+  /**
+   * Same as {@link #forCatalog(Catalog, Map, Map)} without any Hadoop configuration.
+   *
+   * @param catalog catalog to register the tables in
+   * @param catalogProperties properties the catalog was initialized with
+   */
+  static Optional<BatchTableRegistrar> forCatalog(
+      Catalog catalog, Map<String, String> catalogProperties) {
+    return forCatalog(catalog, catalogProperties, Map.of());
+  }
+
+  /**
+   * Returns a registrar for the JDBC and Nessie catalogs, or an empty optional if there is no
+   * batched registration for the type of the catalog. The Nessie registrar commits every batch of
+   * tables with a single commit.
+   *
+   * <p>The returned registrar uses its own connections, configured from the same properties as the
+   * catalog, and has to be closed.
+   *
+   * @param catalog catalog to register the tables in
+   * @param catalogProperties properties the catalog was initialized with
+   * @param hadoopConf Hadoop configuration the catalog was initialized with, used to read the
+   *     metadata files
+   */
+  static Optional<BatchTableRegistrar> forCatalog(
+      Catalog catalog, Map<String, String> catalogProperties, Map<String, String> hadoopConf) {
+    Preconditions.checkArgument(catalog != null, "catalog is null");
+    Preconditions.checkArgument(catalogProperties != null, "catalog properties is null");
+    Preconditions.checkArgument(hadoopConf != null, "hadoop configuration is null");
+    if (catalog instanceof JdbcCatalog) {
+      return Optional.of(new JdbcBatchTableRegistrar(catalog.name(), catalogProperties));
+    } else if (catalog instanceof NessieCatalog) {
+      Configuration conf = new Configuration();
+      hadoopConf.forEach(conf::set);
+      return Optional.of(new NessieBatchTableRegistrar(catalogProperties, conf));
+    }
+    return Optional.empty();
+  }
+}
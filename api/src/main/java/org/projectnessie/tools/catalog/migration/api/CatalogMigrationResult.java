@@ -15,11 +15,20 @@
  */
 package org.projectnessie.tools.catalog.migration.api;
 
+import com.google.common.collect.ImmutableList;
 import java.util.List;
 import org.apache.iceberg.catalog.TableIdentifier;
 import org.immutables.value.Value;
 
+/**
+ * Outcome of a registration or migration.
+ *
+ * <p>The lists are kept as given to the builder rather than copied, so that the result collected
+ * by a {@link CatalogMigrator} holds list views of its compact {@link TableIdentifierSet}s instead
+ * of an object per table. Lists which aren't immutable are copied by {@link #immutableLists()}.
+ */
 @Value.Immutable
+@Value.Style(builtinContainerAttributes = false)
 public interface CatalogMigrationResult {
 
   List<TableIdentifier> registeredTableIdentifiers();
@@ -27,4 +36,78 @@ public interface CatalogMigrationResult {
   List<TableIdentifier> failedToRegisterTableIdentifiers();
 
   List<TableIdentifier> failedToDeleteTableIdentifiers();
+
+  /**
+   * Tables dropped from the target catalog by an incremental re-sync, as they disappeared from the
+   * source catalog.
+   */
+  List<TableIdentifier> droppedTableIdentifiers();
+
+  /** {@link #registeredTableIdentifiers()} in a compact set, duplicates removed. */
+  @Value.Lazy
+  default TableIdentifierSet registeredTables() {
+    return TableIdentifierSet.of(registeredTableIdentifiers());
+  }
+
+  /** {@link #failedToRegisterTableIdentifiers()} in a compact set, duplicates removed. */
+  @Value.Lazy
+  default TableIdentifierSet failedToRegisterTables() {
+    return TableIdentifierSet.of(failedToRegisterTableIdentifiers());
+  }
+
+  /** {@link #failedToDeleteTableIdentifiers()} in a compact set, duplicates removed. */
+  @Value.Lazy
+  default TableIdentifierSet failedToDeleteTables() {
+    return TableIdentifierSet.of(failedToDeleteTableIdentifiers());
+  }
+
+  /** {@link #droppedTableIdentifiers()} in a compact set, duplicates removed. */
+  @Value.Lazy
+  default TableIdentifierSet droppedTables() {
+    return TableIdentifierSet.of(droppedTableIdentifiers());
+  }
+
+  /**
+   * Number of successfully registered tables. Differs from the size of {@link
+   * #registeredTableIdentifiers()} when the registered identifiers were passed to a sink instead.
+   */
+  @Value.Default
+  default long registeredTablesCount() {
+    return registeredTableIdentifiers().size();
+  }
+
+  /**
+   * Number of tables skipped by an incremental re-sync, as their metadata location didn't change
+   * since they were last registered.
+   */
+  @Value.Default
+  default long unchangedTablesCount() {
+    return 0;
+  }
+
+  /** Copies the lists given to the builder which may still be modified by the caller. */
+  @Value.Check
+  default CatalogMigrationResult immutableLists() {
+    if (isImmutable(registeredTableIdentifiers())
+        && isImmutable(failedToRegisterTableIdentifiers())
+        && isImmutable(failedToDeleteTableIdentifiers())
+        && isImmutable(droppedTableIdentifiers())) {
+      return this;
+    }
+    return ImmutableCatalogMigrationResult.builder()
+        .from(this)
+        .registeredTableIdentifiers(immutable(registeredTableIdentifiers()))
+        .failedToRegisterTableIdentifiers(immutable(failedToRegisterTableIdentifiers()))
+        .failedToDeleteTableIdentifiers(immutable(failedToDeleteTableIdentifiers()))
+        .droppedTableIdentifiers(immutable(droppedTableIdentifiers()))
+        .build();
+  }
+
+  private static boolean isImmutable(List<TableIdentifier> identifiers) {
+    return identifiers instanceof ImmutableList || TableIdentifierSet.isListView(identifiers);
+  }
+
+  private static List<TableIdentifier> immutable(List<TableIdentifier> identifiers) {
+    return isImmutable(identifiers) ? identifiers : ImmutableList.copyOf(identifiers);
+  }
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.apache.iceberg.catalog.TableIdentifier;
+
+/**
+ * Collects the outcome of concurrent table registrations.
+ *
+ * <p>Counts are kept in {@link LongAdder}s and can be read while the registrations are running.
+ * Failed identifiers are added to compact {@link TableIdentifierSet}s, striped by thread so that
+ * the registering threads rarely wait for each other, and merged by {@link #result()}. Successfully
+ * registered identifiers are either kept in the same way or, if a sink is given, passed to the sink
+ * and not kept in memory.
+ */
+public final class CatalogMigrationResultCollector {
+
+  private final LongAdder inFlight = new LongAdder();
+  private final LongAdder registered = new LongAdder();
+  private final LongAdder failedToRegister = new LongAdder();
+  private final LongAdder failedToDelete = new LongAdder();
+  private final LongAdder unchanged = new LongAdder();
+  private final StripedIdentifiers registeredIdentifiers = new StripedIdentifiers();
+  private final StripedIdentifiers failedToRegisterIdentifiers = new StripedIdentifiers();
+  private final StripedIdentifiers failedToDeleteIdentifiers = new StripedIdentifiers();
+  private final StripedIdentifiers droppedIdentifiers = new StripedIdentifiers();
+  private final Consumer<TableIdentifier> registeredSink;
+
+  /** Creates a collector which keeps the successfully registered identifiers in memory. */
+  CatalogMigrationResultCollector() {
+    this(null);
+  }
+
+  /**
+   * @param registeredSink receives the successfully registered identifiers, possibly concurrently.
+   *     If null, the identifiers are kept in memory.
+   */
+  CatalogMigrationResultCollector(Consumer<TableIdentifier> registeredSink) {
+    this.registeredSink = registeredSink;
+  }
+
+  void started() {
+    inFlight.increment();
+  }
+
+  void finished() {
+    inFlight.decrement();
+  }
+
+  void registered(TableIdentifier identifier) {
+    registered.increment();
+    if (registeredSink != null) {
+      registeredSink.accept(identifier);
+    } else {
+      registeredIdentifiers.add(identifier);
+    }
+  }
+
+  void failedToRegister(TableIdentifier identifier) {
+    failedToRegister.increment();
+    failedToRegisterIdentifiers.add(identifier);
+  }
+
+  void failedToDelete(TableIdentifier identifier) {
+    failedToDelete.increment();
+    failedToDeleteIdentifiers.add(identifier);
+  }
+
+  void unchanged() {
+    unchanged.increment();
+  }
+
+  void dropped(TableIdentifier identifier) {
+    droppedIdentifiers.add(identifier);
+  }
+
+  /** Number of tables currently being registered or migrated. */
+  public long inFlightCount() {
+    return inFlight.sum();
+  }
+
+  /** Number of tables successfully registered so far. */
+  public long registeredCount() {
+    return registered.sum();
+  }
+
+  /** Number of tables which failed to register so far. */
+  public long failedToRegisterCount() {
+    return failedToRegister.sum();
+  }
+
+  /** Number of tables which failed to delete from the source catalog so far. */
+  public long failedToDeleteCount() {
+    return failedToDelete.sum();
+  }
+
+  /** Number of tables skipped so far as unchanged since they were last registered. */
+  public long unchangedCount() {
+    return unchanged.sum();
+  }
+
+  /**
+   * Returns a snapshot of the collected result. {@link
+   * CatalogMigrationResult#registeredTableIdentifiers()} is empty if the registered identifiers
+   * were passed to a sink.
+   */
+  CatalogMigrationResult result() {
+    return ImmutableCatalogMigrationResult.builder()
+        .registeredTableIdentifiers(registeredIdentifiers.merged().asList())
+        .failedToRegisterTableIdentifiers(failedToRegisterIdentifiers.merged().asList())
+        .failedToDeleteTableIdentifiers(failedToDeleteIdentifiers.merged().asList())
+        .droppedTableIdentifiers(droppedIdentifiers.merged().asList())
+        .registeredTablesCount(registeredCount())
+        .unchangedTablesCount(unchangedCount())
+        .build();
+  }
+
+  /**
+   * Identifiers added to one of a fixed number of sets chosen by the adding thread, each behind its
+   * own lock. The sets are created on first use, most collectors never see a failure.
+   */
+  private static final class StripedIdentifiers {
+
+    private static final int STRIPES = 16;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final TableIdentifierSet[] sets = new TableIdentifierSet[STRIPES];
+
+    StripedIdentifiers() {
+      for (int i = 0; i < STRIPES; i++) {
+        locks[i] = new ReentrantLock();
+      }
+    }
+
+    void add(TableIdentifier identifier) {
+      int stripe = (int) (Thread.currentThread().threadId() & (STRIPES - 1));
+      ReentrantLock lock = locks[stripe];
+      lock.lock();
+      try {
+        if (sets[stripe] == null) {
+          sets[stripe] = new TableIdentifierSet();
+        }
+        sets[stripe].add(identifier);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * Returns the identifiers added so far. The set of the only stripe used, if any, is returned
+     * as a snapshot instead of being copied.
+     */
+    TableIdentifierSet merged() {
+      TableIdentifierSet merged = null;
+      TableIdentifierSet single = null;
+      for (int i = 0; i < STRIPES; i++) {
+        TableIdentifierSet snapshot = snapshot(i);
+        if (snapshot == null || snapshot.isEmpty()) {
+          continue;
+        }
+        if (single == null && merged == null) {
+          single = snapshot;
+        } else {
+          if (merged == null) {
+            merged = new TableIdentifierSet();
+            merged.addAll(single);
+          }
+          merged.addAll(snapshot);
+        }
+      }
+      if (merged != null) {
+        return merged.snapshot();
+      }
+      return single != null ? single : new TableIdentifierSet().snapshot();
+    }
+
+    private TableIdentifierSet snapshot(int stripe) {
+      ReentrantLock lock = locks[stripe];
+      lock.lock();
+      try {
+        return sets[stripe] == null ? null : sets[stripe].snapshot();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+}
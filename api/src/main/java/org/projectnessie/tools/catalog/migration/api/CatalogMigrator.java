@@ -16,17 +16,42 @@
 package org.projectnessie.tools.catalog.migration.api;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.regex.Pattern;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import org.apache.iceberg.BaseTable;
-import org.apache.iceberg.TableOperations;
 import org.apache.iceberg.catalog.Catalog;
 import org.apache.iceberg.catalog.Namespace;
 import org.apache.iceberg.catalog.SupportsNamespaces;
@@ -50,14 +75,293 @@ public abstract class CatalogMigrator {
   /** Delete the table entries from the source catalog after successful registration. */
   public abstract boolean deleteEntriesFromSourceCatalog();
 
+  /**
+   * Receives the identifier of every successfully registered table, possibly concurrently from the
+   * registration workers. If set, these identifiers are not kept in memory and {@link
+   * CatalogMigrationResult#registeredTableIdentifiers()} stays empty.
+   */
+  public abstract Optional<Consumer<TableIdentifier>> registeredTableIdentifiersSink();
+
+  /**
+   * Resolves the location of the current metadata file of the source tables. Loads the table from
+   * the source catalog by default. Use {@link MetadataLocationResolver#forCatalog} to read the
+   * metadata pointer without parsing the metadata file.
+   */
+  @Value.Default
+  public MetadataLocationResolver sourceMetadataLocationResolver() {
+    return MetadataLocationResolver.loadTable(sourceCatalog());
+  }
+
+  /**
+   * Enumerates the tables of the source catalog together with their metadata locations in bulk.
+   * If set, the tables of the source catalog are identified without listing its namespaces, and
+   * {@link #registerMatchingTablesFromSource} registers them with the metadata locations read
+   * during identification. Use {@link TableEnumerator#forCatalog} to create one.
+   */
+  public abstract Optional<TableEnumerator> sourceTableEnumerator();
+
+  /**
+   * Registers the tables in the target catalog in batches of up to {@link #registrationBatchSize()}
+   * tables. If set, every registration worker takes a whole batch of tables at once and registers
+   * them with a single request. Use {@link BatchTableRegistrar#forCatalog} to create one.
+   */
+  public abstract Optional<BatchTableRegistrar> targetBatchTableRegistrar();
+
+  /**
+   * Records the outcome of every table durably, so that an interrupted run can be resumed. If the
+   * journal was {@linkplain CheckpointJournal#resume resumed}, the tables the interrupted run
+   * completed are skipped, and the tables it registered but didn't delete from the source catalog
+   * yet are only deleted.
+   */
+  public abstract Optional<CheckpointJournal> checkpointJournal();
+
+  /**
+   * Metadata location every table was last registered with, for an incremental re-sync. If set,
+   * the tables whose source metadata location didn't move since they were last registered are
+   * skipped, and the tables whose metadata location moved are dropped from the target catalog and
+   * registered again. The state is updated with every registered table, use {@link
+   * SyncState#save()} to keep it for the next run and {@link #dropDisappearedTables(String)} to
+   * drop the tables which disappeared from the source catalog. Not applicable when deleting the
+   * entries from the source catalog.
+   */
+  public abstract Optional<SyncState> syncState();
+
+  /** Maximum number of tables registered at once by the {@link #targetBatchTableRegistrar()}. */
+  @Value.Default
+  public int registrationBatchSize() {
+    return 100;
+  }
+
   /** Enable the stacktrace in logs in case of failures. */
   @Value.Default
   public boolean enableStacktrace() {
     return false;
   }
 
+  /**
+   * Run every table registration on its own virtual thread instead of a bounded pool of platform
+   * threads. Registrations are I/O bound, so this allows a large number of them to be in flight at
+   * once. The {@code parallelism} of the registration methods is ignored, use {@link
+   * #maxConcurrentSourceRequests()} and {@link #maxConcurrentTargetRequests()} to cap the requests
+   * issued to each catalog instead.
+   */
+  @Value.Default
+  public boolean useVirtualThreads() {
+    return false;
+  }
+
+  /**
+   * Maximum number of times the registration of a table is retried after failing with a transient
+   * error, like a network failure, a throttled request or a server error. Registrations failing
+   * because the table already exists, doesn't exist or isn't accessible are never retried. Tables
+   * waiting for a retry don't hold a registration worker. Not retried by default.
+   */
+  @Value.Default
+  public int maxRetries() {
+    return 0;
+  }
+
+  /**
+   * Backoff before the first retry of a table, doubled for every further retry up to {@link
+   * #retryMaxBackoff()}. A random part of up to half of the backoff is left out, so that the tables
+   * which failed together are not retried together.
+   */
+  @Value.Default
+  public Duration retryInitialBackoff() {
+    return Duration.ofSeconds(1);
+  }
+
+  /** Maximum backoff before a retry of a table. */
+  @Value.Default
+  public Duration retryMaxBackoff() {
+    return Duration.ofSeconds(30);
+  }
+
+  /**
+   * Percentile of the recent latencies of the source metadata location reads after which a read
+   * which hasn't returned yet is issued a second time, using the first response. Hedges the
+   * stragglers of catalogs with a heavy latency tail, like Hive metastores and REST catalogs. If
+   * not set, reads are not hedged.
+   */
+  public abstract OptionalDouble sourceLoadHedgePercentile();
+
+  /**
+   * Maximum number of duplicate source metadata location reads in flight at once with {@link
+   * #sourceLoadHedgePercentile()}. A duplicate read is issued within the rate and concurrency
+   * slot of the read it duplicates, so this caps the requests sent beyond those limits.
+   */
+  @Value.Default
+  public int maxOutstandingHedges() {
+    return 10;
+  }
+
+  /** Maximum number of requests that can be in flight against the source catalog at once. */
+  @Value.Default
+  public int maxConcurrentSourceRequests() {
+    return Integer.MAX_VALUE;
+  }
+
+  /** Maximum number of requests that can be in flight against the target catalog at once. */
+  @Value.Default
+  public int maxConcurrentTargetRequests() {
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * Maximum number of requests per second issued to the source catalog, over all the operations.
+   * If not set, the requests are not rate limited.
+   */
+  public abstract OptionalDouble sourceRateLimit();
+
+  /** Maximum number of requests per second issued to the target catalog, over all the operations. */
+  public abstract OptionalDouble targetRateLimit();
+
+  /**
+   * Maximum number of requests per second of each {@link CatalogOperation} issued to the source
+   * catalog, which apply in addition to the {@link #sourceRateLimit()}.
+   */
+  public abstract Map<CatalogOperation, Double> sourceOperationRateLimits();
+
+  /**
+   * Maximum number of requests per second of each {@link CatalogOperation} issued to the target
+   * catalog, which apply in addition to the {@link #targetRateLimit()}.
+   */
+  public abstract Map<CatalogOperation, Double> targetOperationRateLimits();
+
+  /**
+   * Adapt the number of concurrent requests issued to each catalog to its health instead of
+   * allowing up to {@link #maxConcurrentSourceRequests()} and {@link
+   * #maxConcurrentTargetRequests()} requests at once. The limit of each catalog starts at 8, or its
+   * maximum if lower, grows by one while the requests succeed without their latency degrading, and
+   * is halved whenever the catalog throttles a request or a request times out.
+   */
+  @Value.Default
+  public boolean adaptiveConcurrency() {
+    return false;
+  }
+
+  /** Receives every change of the request limits made with {@link #adaptiveConcurrency()}. */
+  public abstract Optional<RequestLimitListener> requestLimitListener();
+
+  /**
+   * Maximum number of concurrent {@code listNamespaces} calls used to discover the namespace
+   * hierarchy of a catalog. Sibling subtrees are listed concurrently when greater than 1.
+   */
+  @Value.Default
+  public int namespaceDiscoveryParallelism() {
+    return 1;
+  }
+
+  /**
+   * Outcome of the registrations of this migrator, which can be read while the registrations are
+   * running.
+   */
+  @Value.Lazy
+  public CatalogMigrationResultCollector resultCollector() {
+    return new CatalogMigrationResultCollector(registeredTableIdentifiersSink().orElse(null));
+  }
+
+  @Value.Lazy
+  RequestRateLimiter sourceRateLimiter() {
+    return new RequestRateLimiter(sourceRateLimit(), sourceOperationRateLimits());
+  }
+
+  @Value.Lazy
+  RequestRateLimiter targetRateLimiter() {
+    return new RequestRateLimiter(targetRateLimit(), targetOperationRateLimits());
+  }
+
+  @Value.Lazy
+  ConcurrencyLimiter sourceRequestLimiter() {
+    return requestLimiter("source", maxConcurrentSourceRequests());
+  }
+
+  @Value.Lazy
+  ConcurrencyLimiter targetRequestLimiter() {
+    return requestLimiter("target", maxConcurrentTargetRequests());
+  }
+
+  @Value.Lazy
+  Optional<RequestHedger> sourceLoadHedger() {
+    if (sourceLoadHedgePercentile().isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        new RequestHedger(sourceLoadHedgePercentile().getAsDouble(), maxOutstandingHedges()));
+  }
+
+  /** Counters of the hedged source metadata location reads so far. */
+  public HedgingMetrics sourceLoadHedgingMetrics() {
+    return sourceLoadHedger()
+        .map(RequestHedger::metrics)
+        .orElseGet(
+            () ->
+                ImmutableHedgingMetrics.builder()
+                    .requests(0)
+                    .hedgedRequests(0)
+                    .hedgeWins(0)
+                    .skippedHedges(0)
+                    .build());
+  }
+
+  /**
+   * Current limit of concurrent requests to the source catalog, which only differs from {@link
+   * #maxConcurrentSourceRequests()} with {@link #adaptiveConcurrency()}.
+   */
+  public int currentSourceRequestLimit() {
+    return sourceRequestLimiter().limit();
+  }
+
+  /**
+   * Current limit of concurrent requests to the target catalog, which only differs from {@link
+   * #maxConcurrentTargetRequests()} with {@link #adaptiveConcurrency()}.
+   */
+  public int currentTargetRequestLimit() {
+    return targetRequestLimiter().limit();
+  }
+
+  private ConcurrencyLimiter requestLimiter(String catalog, int maxConcurrentRequests) {
+    if (!adaptiveConcurrency()) {
+      return ConcurrencyLimiter.fixed(catalog, maxConcurrentRequests);
+    }
+    return ConcurrencyLimiter.adaptive(
+        catalog,
+        Math.min(ConcurrencyLimiter.DEFAULT_INITIAL_ADAPTIVE_LIMIT, maxConcurrentRequests),
+        maxConcurrentRequests,
+        requestLimitListener().orElse(null));
+  }
+
   @Value.Check
   void check() {
+    Preconditions.checkArgument(
+        maxConcurrentSourceRequests() > 0, "maxConcurrentSourceRequests should be greater than 0");
+    Preconditions.checkArgument(
+        maxConcurrentTargetRequests() > 0, "maxConcurrentTargetRequests should be greater than 0");
+    Preconditions.checkArgument(maxRetries() >= 0, "maxRetries should not be negative");
+    Preconditions.checkArgument(
+        !retryInitialBackoff().isNegative(), "retryInitialBackoff should not be negative");
+    Preconditions.checkArgument(
+        retryMaxBackoff().compareTo(retryInitialBackoff()) >= 0,
+        "retryMaxBackoff should not be less than retryInitialBackoff");
+    Preconditions.checkArgument(
+        sourceLoadHedgePercentile().isEmpty()
+            || (sourceLoadHedgePercentile().getAsDouble() > 0
+                && sourceLoadHedgePercentile().getAsDouble() < 100),
+        "sourceLoadHedgePercentile should be between 0 and 100");
+    Preconditions.checkArgument(
+        maxOutstandingHedges() > 0, "maxOutstandingHedges should be greater than 0");
+    checkRateLimits("source", sourceRateLimit(), sourceOperationRateLimits());
+    checkRateLimits("target", targetRateLimit(), targetOperationRateLimits());
+    Preconditions.checkArgument(
+        namespaceDiscoveryParallelism() > 0,
+        "namespaceDiscoveryParallelism should be greater than 0");
+    Preconditions.checkArgument(
+        registrationBatchSize() > 0, "registrationBatchSize should be greater than 0");
+
+    Preconditions.checkArgument(
+        syncState().isEmpty() || !deleteEntriesFromSourceCatalog(),
+        "syncState is not applicable when deleting the table entries from the source catalog");
+
     if (!(targetCatalog() instanceof SupportsNamespaces)) {
       throw new UnsupportedOperationException(
           String.format(
@@ -78,10 +382,31 @@ public abstract class CatalogMigrator {
     }
   }
 
+  private static void checkRateLimits(
+      String catalog, OptionalDouble rateLimit, Map<CatalogOperation, Double> operationRateLimits) {
+    Preconditions.checkArgument(
+        rateLimit.isEmpty() || rateLimit.getAsDouble() > 0,
+        "%s rate limit should be greater than 0",
+        catalog);
+    operationRateLimits.forEach(
+        (operation, limit) ->
+            Preconditions.checkArgument(
+                limit > 0, "%s %s rate limit should be greater than 0", catalog, operation));
+  }
+
   private static final Logger LOG = LoggerFactory.getLogger(CatalogMigrator.class);
-  private final ImmutableCatalogMigrationResult.Builder resultBuilder =
-      ImmutableCatalogMigrationResult.builder();
-  private final Set<Namespace> processedNamespaces = new HashSet<>();
+  private static final int MAX_VIRTUAL_THREAD_REGISTRATIONS = 10_000;
+  private static final CompletableFuture<Void> NAMESPACE_CREATED =
+      CompletableFuture.completedFuture(null);
+  // completed once the namespace exists on the target catalog, so that only the registrations of
+  // tables in the same namespace wait for its creation
+  private final Map<Namespace, CompletableFuture<Void>> namespaceCreations =
+      new ConcurrentHashMap<>();
+  // metadata locations read by the source table enumerator for the tables waiting to be registered
+  private final Map<TableIdentifier, String> identifiedMetadataLocations =
+      new ConcurrentHashMap<>();
+  // tables being registered, with the metadata locations read along with them by the enumerator
+  private final AtomicReference<TableIdentifierSet> identifiedTables = new AtomicReference<>();
 
   public Set<TableIdentifier> getMatchingTableIdentifiersFromSource(String identifierRegex) {
     return getMatchingTableIdentifiers(sourceCatalog(), identifierRegex);
@@ -97,46 +422,104 @@ public abstract class CatalogMigrator {
    *
    * @param identifierRegex regular expression pattern. If null, fetches all the table identifiers
    *     from all the namespaces.
-   * @return Set of table identifiers.
+   * @return Set of table identifiers, in a compact {@link TableIdentifierSet}. If they were read
+   *     by the {@link #sourceTableEnumerator()}, the set also keeps the metadata locations read
+   *     along with them, which {@link #registerTables(Collection, int)} registers the tables with.
    */
   public Set<TableIdentifier> getMatchingTableIdentifiers(Catalog catalog, String identifierRegex) {
+    TableIdentifierSet identifiers = new TableIdentifierSet();
+    if (catalog == sourceCatalog() && sourceTableEnumerator().isPresent()) {
+      forEachMatchingSourceTable(identifierRegex, identifiers::add);
+    } else {
+      forEachMatchingTableIdentifier(catalog, identifierRegex, identifiers::add);
+    }
+    return identifiers;
+  }
+
+  /**
+   * Same as {@link #getMatchingTableIdentifiers(Catalog, String)}, but passes every matching table
+   * identifier to {@code consumer} as soon as the tables of its namespace are listed instead of
+   * collecting them.
+   *
+   * @param identifierRegex regular expression pattern. If null, passes all the table identifiers
+   *     from all the namespaces.
+   * @param consumer receives the matching table identifiers
+   */
+  public void forEachMatchingTableIdentifier(
+      Catalog catalog, String identifierRegex, Consumer<TableIdentifier> consumer) {
+    if (catalog == sourceCatalog() && sourceTableEnumerator().isPresent()) {
+      forEachMatchingSourceTable(
+          identifierRegex, (identifier, metadataLocation) -> consumer.accept(identifier));
+      return;
+    }
+
+    IdentifierPattern pattern = identifierPattern(identifierRegex);
     LOG.info("Collecting all the namespaces from catalog...");
-    Set<Namespace> namespaces = new LinkedHashSet<>();
-    getAllNamespacesFromCatalog(catalog, Namespace.empty(), namespaces);
+    Set<Namespace> namespaces =
+        pattern != null
+            ? getAllNamespacesFromCatalog(catalog, pattern::mayMatchTablesIn)
+            : getAllNamespacesFromCatalog(catalog);
+
+    for (Namespace namespace : namespaces) {
+      List<TableIdentifier> tableIdentifiers;
+      try {
+        tableIdentifiers =
+            request(catalog, CatalogOperation.LIST, () -> catalog.listTables(namespace));
+      } catch (IllegalArgumentException | NoSuchNamespaceException exception) {
+        if (namespace.isEmpty()) {
+          // some catalogs don't support empty namespace.
+          // Hence, just log the warning and ignore the exception.
+          LOG.warn("Failed to identify tables from empty namespace : {}", exception.getMessage());
+          continue;
+        } else {
+          throw exception;
+        }
+      }
+      for (TableIdentifier identifier : tableIdentifiers) {
+        if (pattern == null || pattern.matches(identifier)) {
+          consumer.accept(identifier);
+        }
+      }
+    }
+  }
+
+  /**
+   * Pass every table of the source catalog which matches the regular expression and its metadata
+   * location to {@code consumer}, reading both with the {@link #sourceTableEnumerator()}.
+   */
+  private void forEachMatchingSourceTable(
+      String identifierRegex, BiConsumer<TableIdentifier, String> consumer) {
+    IdentifierPattern pattern = identifierPattern(identifierRegex);
+    // not limited by the source request limiter, as the single request lasts until all the tables
+    // are consumed, but every page or batch of tables waits for the LIST rate limits
+    sourceTableEnumerator()
+        .get()
+        .forEachTable(
+            () -> sourceRateLimiter().acquire(CatalogOperation.LIST),
+            (identifier, metadataLocation) -> {
+              if (pattern == null || pattern.matches(identifier)) {
+                consumer.accept(identifier, metadataLocation);
+              }
+            });
+  }
 
-    Predicate<TableIdentifier> matchedIdentifiersPredicate;
+  /** Returns the compiled regular expression, or null if all the tables are selected. */
+  private static IdentifierPattern identifierPattern(String identifierRegex) {
     if (identifierRegex == null) {
       LOG.info("Collecting all the tables from all the namespaces of catalog...");
-      matchedIdentifiersPredicate = tableIdentifier -> true;
-    } else {
+      return null;
+    }
+    LOG.info(
+        "Collecting all the tables from all the namespaces of catalog"
+            + " which matches the regex pattern:{}",
+        identifierRegex);
+    IdentifierPattern pattern = IdentifierPattern.compile(identifierRegex);
+    if (!pattern.literalPrefix().isEmpty()) {
       LOG.info(
-          "Collecting all the tables from all the namespaces of catalog"
-              + " which matches the regex pattern:{}",
-          identifierRegex);
-      Pattern pattern = Pattern.compile(identifierRegex);
-      matchedIdentifiersPredicate =
-          tableIdentifier -> pattern.matcher(tableIdentifier.toString()).matches();
-    }
-    return namespaces.stream()
-        .flatMap(
-            namespace -> {
-              try {
-                return catalog.listTables(namespace).stream()
-                    .filter(matchedIdentifiersPredicate);
-              } catch (IllegalArgumentException | NoSuchNamespaceException exception) {
-                if (namespace.isEmpty()) {
-                  // some catalogs don't support empty namespace.
-                  // Hence, just log the warning and ignore the exception.
-                  LOG.warn(
-                      "Failed to identify tables from empty namespace : {}",
-                      exception.getMessage());
-                  return Stream.empty();
-                } else {
-                  throw exception;
-                }
-              }
-            })
-        .collect(Collectors.toCollection(LinkedHashSet::new));
+          "Only listing the namespaces which may contain tables starting with '{}'",
+          pattern.literalPrefix());
+    }
+    return pattern;
   }
 
   /**
@@ -146,27 +529,214 @@ public abstract class CatalogMigrator {
    * <p>Users must make sure that no in-progress commits on the tables of source catalog during
    * registration.
    *
+   * <p>A registration which fails with a transient error is retried up to {@link #maxRetries()}
+   * times, waiting for the backoff in between.
+   *
    * @param identifier table identifier to register or migrate
    * @return {@code this} for use in a chained invocation
    */
   public CatalogMigrator registerTable(TableIdentifier identifier) {
     Preconditions.checkArgument(identifier != null, "Identifier is null");
+    registerTables(List.of(identifier).iterator(), 1, processed -> {});
+    return this;
+  }
+
+  /**
+   * Registers the given tables once, with the {@link #targetBatchTableRegistrar()} if set, and
+   * returns the failure of every table which couldn't be registered.
+   *
+   * @param identifiers tables to register
+   * @param retry whether the tables are retried after a failed attempt
+   */
+  private Map<TableIdentifier, Exception> registerTablesOnce(
+      List<TableIdentifier> identifiers, boolean retry) {
+    Map<TableIdentifier, Exception> failures = new HashMap<>();
+    // metadata location of every table to register, or null if it is still to be read
+    Map<TableIdentifier, String> tables = new LinkedHashMap<>();
+    for (TableIdentifier identifier : identifiers) {
+      if (checkpointJournal().isPresent() && checkpointJournal().get().wasRegistered(identifier)) {
+        // migrated halfway by the resumed run
+        LOG.info("The table {} was already registered by the resumed run", identifier);
+        resultCollector().registered(identifier);
+        deleteFromSourceCatalogIfRequired(identifier);
+      } else {
+        tables.put(identifier, null);
+      }
+    }
+    if (syncState().isPresent()) {
+      tables = changedTables(tables.keySet(), failures);
+    }
 
-    boolean isRegistered = registerTableToTargetCatalog(identifier);
-    if (isRegistered) {
-      resultBuilder.addRegisteredTableIdentifiers(identifier);
+    if (targetBatchTableRegistrar().isPresent()) {
+      registerTablesInBatch(tables, failures);
     } else {
-      resultBuilder.addFailedToRegisterTableIdentifiers(identifier);
+      for (Map.Entry<TableIdentifier, String> table : tables.entrySet()) {
+        try {
+          registerTableToTargetCatalog(table);
+        } catch (Exception ex) {
+          failures.put(table.getKey(), ex);
+          continue;
+        }
+        registered(table.getKey(), table.getValue());
+      }
+    }
+
+    if (syncState().isPresent() || retry) {
+      adoptAlreadyRegisteredTables(tables, failures, retry);
+    }
+    return failures;
+  }
+
+  private void registerTablesInBatch(
+      Map<TableIdentifier, String> tables, Map<TableIdentifier, Exception> failures) {
+    Map<TableIdentifier, String> metadataLocations = new LinkedHashMap<>();
+    for (Map.Entry<TableIdentifier, String> table : tables.entrySet()) {
+      TableIdentifier identifier = table.getKey();
+      try {
+        createNamespacesIfNotExistOnTargetCatalog(identifier.namespace());
+        if (table.getValue() == null) {
+          table.setValue(sourceMetadataLocation(identifier));
+        }
+        metadataLocations.put(identifier, table.getValue());
+      } catch (Exception ex) {
+        failures.put(identifier, ex);
+      }
+    }
+
+    Map<TableIdentifier, RuntimeException> registrationFailures;
+    try {
+      registrationFailures =
+          targetRequest(
+              CatalogOperation.REGISTER,
+              () -> targetBatchTableRegistrar().get().registerTables(metadataLocations));
+    } catch (RuntimeException ex) {
+      registrationFailures = new HashMap<>();
+      for (TableIdentifier identifier : metadataLocations.keySet()) {
+        registrationFailures.put(identifier, ex);
+      }
+    }
+
+    for (Map.Entry<TableIdentifier, String> table : metadataLocations.entrySet()) {
+      RuntimeException failure = registrationFailures.get(table.getKey());
+      if (failure == null) {
+        registered(table.getKey(), table.getValue());
+      } else {
+        failures.put(table.getKey(), failure);
+      }
+    }
+  }
+
+  /**
+   * Returns the given tables whose source metadata location differs from the one they were last
+   * registered with according to the {@link #syncState()}, with their current metadata location.
+   * The tables whose metadata location moved are dropped from the target catalog, so that they can
+   * be registered again with the new one.
+   */
+  private Map<TableIdentifier, String> changedTables(
+      Collection<TableIdentifier> identifiers, Map<TableIdentifier, Exception> failures) {
+    SyncState state = syncState().get();
+    Map<TableIdentifier, String> changed = new LinkedHashMap<>();
+    for (TableIdentifier identifier : identifiers) {
+      try {
+        String metadataLocation = sourceMetadataLocation(identifier);
+        String syncedMetadataLocation = state.metadataLocation(identifier);
+        if (metadataLocation.equals(syncedMetadataLocation)) {
+          resultCollector().unchanged();
+          continue;
+        }
+        if (syncedMetadataLocation != null) {
+          LOG.info(
+              "The metadata location of the table {} moved from {} to {}",
+              identifier,
+              syncedMetadataLocation,
+              metadataLocation);
+          // the catalog API has no way to only move the metadata location of a table
+          targetRequest(CatalogOperation.DROP, () -> targetCatalog().dropTable(identifier, false));
+          // no longer in the target catalog, even if it then fails to be registered again
+          state.removed(identifier);
+        }
+        changed.put(identifier, metadataLocation);
+      } catch (Exception ex) {
+        failures.put(identifier, ex);
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Takes the tables which failed to register because they already exist in the target catalog
+   * with the current metadata location of the source table as done. On a {@code retry}, they are
+   * registered, by the previous attempt whose response was lost. Otherwise they are unchanged, e.g.
+   * after a run which wasn't incremental or didn't save the {@link #syncState()}. A table
+   * registered with another metadata location is left failed, as it may not be the same table.
+   */
+  private void adoptAlreadyRegisteredTables(
+      Map<TableIdentifier, String> tables,
+      Map<TableIdentifier, Exception> failures,
+      boolean retry) {
+    SyncState state = syncState().orElse(null);
+    for (Map.Entry<TableIdentifier, String> table : tables.entrySet()) {
+      TableIdentifier identifier = table.getKey();
+      if (!(failures.get(identifier) instanceof AlreadyExistsException)
+          || table.getValue() == null
+          || (!retry && state.metadataLocation(identifier) != null)) {
+        continue;
+      }
+      try {
+        String targetMetadataLocation =
+            targetRequest(
+                CatalogOperation.LOAD,
+                () ->
+                    MetadataLocationResolver.loadTable(targetCatalog())
+                        .metadataLocation(identifier));
+        if (!targetMetadataLocation.equals(table.getValue())) {
+          continue;
+        }
+        failures.remove(identifier);
+        if (retry) {
+          LOG.info(
+              "The table {} was registered by the previous attempt, whose response was lost",
+              identifier);
+          registered(identifier, targetMetadataLocation);
+        } else {
+          LOG.info(
+              "The table {} is already registered with its current metadata location", identifier);
+          state.synced(identifier, targetMetadataLocation);
+          resultCollector().unchanged();
+        }
+      } catch (Exception ex) {
+        LOG.warn(
+            "Failed to read the metadata location of the table {} in the target catalog: {}",
+            identifier,
+            ex.getMessage());
+      }
     }
+  }
+
+  private void registered(TableIdentifier identifier, String metadataLocation) {
+    LOG.info("Successfully registered the table {}", identifier);
+    checkpointJournal().ifPresent(journal -> journal.registered(identifier));
+    syncState().ifPresent(state -> state.synced(identifier, metadataLocation));
+    resultCollector().registered(identifier);
+    deleteFromSourceCatalogIfRequired(identifier);
+  }
 
+  private void deleteFromSourceCatalogIfRequired(TableIdentifier identifier) {
+    if (!deleteEntriesFromSourceCatalog()) {
+      return;
+    }
+    CatalogMigrationResultCollector collector = resultCollector();
     try {
-      if (isRegistered
-          && deleteEntriesFromSourceCatalog()
-          && !sourceCatalog().dropTable(identifier, false)) {
-        resultBuilder.addFailedToDeleteTableIdentifiers(identifier);
+      if (sourceRequest(
+          CatalogOperation.DROP, () -> sourceCatalog().dropTable(identifier, false))) {
+        checkpointJournal().ifPresent(journal -> journal.deleted(identifier));
+      } else {
+        collector.failedToDelete(identifier);
+        checkpointJournal().ifPresent(journal -> journal.failedToDelete(identifier));
       }
     } catch (Exception exception) {
-      resultBuilder.addFailedToDeleteTableIdentifiers(identifier);
+      collector.failedToDelete(identifier);
+      checkpointJournal().ifPresent(journal -> journal.failedToDelete(identifier));
       if (enableStacktrace()) {
         LOG.error("Failed to delete the table after migration {}", identifier, exception);
       } else {
@@ -176,43 +746,533 @@ public abstract class CatalogMigrator {
             exception.getMessage());
       }
     }
+  }
+
+  /**
+   * Register or Migrate the given tables from one catalog(source catalog) to another catalog(target
+   * catalog) using up to {@code parallelism} concurrent worker threads.
+   *
+   * <p>If the identifiers were returned by {@link #getMatchingTableIdentifiersFromSource(String)}
+   * with a {@link #sourceTableEnumerator()}, the tables are registered with the metadata locations
+   * read along with their identifiers, without any further source catalog request.
+   *
+   * @param identifiers table identifiers to register or migrate
+   * @param parallelism maximum number of tables to register or migrate concurrently, ignored with
+   *     {@link #useVirtualThreads()}
+   * @return {@code this} for use in a chained invocation
+   * @see #registerTable(TableIdentifier)
+   */
+  public CatalogMigrator registerTables(Collection<TableIdentifier> identifiers, int parallelism) {
+    return registerTables(identifiers, parallelism, identifier -> {});
+  }
+
+  /**
+   * Same as {@link #registerTables(Collection, int)}, but invokes {@code onProcessed} after each
+   * table has been attempted. The callback can be invoked concurrently from the worker threads.
+   *
+   * @param identifiers table identifiers to register or migrate
+   * @param parallelism maximum number of tables to register or migrate concurrently, ignored with
+   *     {@link #useVirtualThreads()}
+   * @param onProcessed callback invoked with the identifier of every attempted table
+   * @return {@code this} for use in a chained invocation
+   */
+  public CatalogMigrator registerTables(
+      Collection<TableIdentifier> identifiers,
+      int parallelism,
+      Consumer<TableIdentifier> onProcessed) {
+    Preconditions.checkArgument(identifiers != null, "Identifiers is null");
+    Preconditions.checkArgument(parallelism > 0, "Parallelism should be greater than 0");
+    Preconditions.checkArgument(onProcessed != null, "Callback is null");
+
+    if (identifiers instanceof TableIdentifierSet
+        && ((TableIdentifierSet) identifiers).hasMetadataLocations()) {
+      identifiedTables.set(((TableIdentifierSet) identifiers).snapshot());
+    }
+    try {
+      registerTables(
+          identifiers.iterator(), Math.min(parallelism, identifiers.size()), onProcessed);
+    } finally {
+      identifiedTables.set(null);
+    }
+    return this;
+  }
+
+  /**
+   * Register or Migrate the tables of the source catalog which match the regular expression while
+   * they are still being identified.
+   *
+   * <p>The identifiers are discovered on a separate thread and handed over to the registration
+   * workers through a queue of at most {@code queueCapacity} identifiers. Discovery waits while the
+   * queue is full, so the first tables are registered right away and the identifiers of the whole
+   * catalog are never held in memory at once.
+   *
+   * <p>If a {@link #sourceTableEnumerator()} is set, the tables are registered with the metadata
+   * locations read along with their identifiers, without any further source catalog request. The
+   * tables the enumerator passes on without a metadata location are resolved with the {@link
+   * #sourceMetadataLocationResolver()} instead.
+   *
+   * @param identifierRegex regular expression pattern. If null, registers all the tables from all
+   *     the namespaces.
+   * @param parallelism maximum number of tables to register or migrate concurrently, ignored with
+   *     {@link #useVirtualThreads()}
+   * @param queueCapacity maximum number of identified tables waiting to be registered
+   * @param onProcessed callback invoked with the identifier of every attempted table
+   * @return {@code this} for use in a chained invocation
+   */
+  public CatalogMigrator registerMatchingTablesFromSource(
+      String identifierRegex,
+      int parallelism,
+      int queueCapacity,
+      Consumer<TableIdentifier> onProcessed) {
+    Preconditions.checkArgument(parallelism > 0, "Parallelism should be greater than 0");
+    Preconditions.checkArgument(queueCapacity > 0, "Queue capacity should be greater than 0");
+    Preconditions.checkArgument(onProcessed != null, "Callback is null");
+
+    Consumer<Consumer<TableIdentifier>> discovery;
+    if (sourceTableEnumerator().isPresent()) {
+      discovery =
+          consumer ->
+              forEachMatchingSourceTable(
+                  identifierRegex,
+                  (identifier, metadataLocation) -> {
+                    if (metadataLocation != null) {
+                      identifiedMetadataLocations.put(identifier, metadataLocation);
+                    }
+                    consumer.accept(identifier);
+                  });
+    } else {
+      discovery =
+          consumer -> forEachMatchingTableIdentifier(sourceCatalog(), identifierRegex, consumer);
+    }
+    try (IdentifierQueue queue = new IdentifierQueue(discovery, queueCapacity)) {
+      registerTables(queue, parallelism, onProcessed);
+    } finally {
+      identifiedMetadataLocations.clear();
+    }
     return this;
   }
 
+  /**
+   * Drops from the target catalog the tables of the {@link #syncState()} which match the regular
+   * expression but were not passed to any registration of this migrator, as they disappeared from
+   * the source catalog. Must only be called once all the tables of the source catalog which match
+   * the regular expression have been registered.
+   *
+   * @param identifierRegex regular expression pattern the registered tables were selected with. If
+   *     null, all the tables of the state which were not registered are dropped.
+   * @return {@code this} for use in a chained invocation
+   */
+  public CatalogMigrator dropDisappearedTables(String identifierRegex) {
+    Preconditions.checkState(syncState().isPresent(), "syncState is not set");
+    SyncState state = syncState().get();
+    IdentifierPattern pattern =
+        identifierRegex != null ? IdentifierPattern.compile(identifierRegex) : null;
+    dropSyncedTables(state.unseen(identifier -> pattern == null || pattern.matches(identifier)));
+    return this;
+  }
+
+  /**
+   * Drops the tables which disappeared from the source catalog from the target catalog and from
+   * the {@link #syncState()}.
+   *
+   * @return the tables which could not be dropped, and are kept in the state
+   */
+  List<TableIdentifier> dropSyncedTables(Collection<TableIdentifier> identifiers) {
+    SyncState state = syncState().get();
+    List<TableIdentifier> failed = new ArrayList<>();
+    for (TableIdentifier identifier : identifiers) {
+      try {
+        targetRequest(CatalogOperation.DROP, () -> targetCatalog().dropTable(identifier, false));
+        state.removed(identifier);
+        resultCollector().dropped(identifier);
+        LOG.info(
+            "Dropped the table {} from the target catalog, as it disappeared from the source catalog",
+            identifier);
+      } catch (Exception ex) {
+        // kept in the state, so that the next run drops it
+        failed.add(identifier);
+        LOG.error(
+            "Unable to drop the table {} which disappeared from the source catalog : {}",
+            identifier,
+            ex.getMessage());
+      }
+    }
+    return failed;
+  }
+
+  private void registerTables(
+      Iterator<TableIdentifier> identifiers,
+      int parallelism,
+      Consumer<TableIdentifier> onProcessed) {
+    int batchSize = targetBatchTableRegistrar().isPresent() ? registrationBatchSize() : 1;
+    if (syncState().isPresent()) {
+      // marked before skipping the tables completed by a resumed run, which must not be taken for
+      // disappeared tables
+      SyncState state = syncState().get();
+      identifiers =
+          Iterators.transform(
+              identifiers,
+              identifier -> {
+                state.seen(identifier);
+                return identifier;
+              });
+    }
+    if (checkpointJournal().isPresent()) {
+      identifiers = Iterators.filter(identifiers, this::notCompletedByResumedRun);
+    }
+    RegistrationQueue queue = new RegistrationQueue(identifiers, batchSize);
+    if (useVirtualThreads()) {
+      registerTablesOnVirtualThreads(queue, onProcessed);
+      return;
+    }
+
+    if (parallelism <= 1) {
+      RegistrationQueue.Work work;
+      while ((work = takeWork(queue)) != null) {
+        registerWork(queue, work, onProcessed);
+      }
+      return;
+    }
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            parallelism,
+            new ThreadFactoryBuilder()
+                .setNameFormat("catalog-migrator-%d")
+                .setDaemon(true)
+                .build());
+    try {
+      List<Future<?>> futures = new ArrayList<>(parallelism);
+      for (int i = 0; i < parallelism; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  RegistrationQueue.Work work;
+                  while (!Thread.currentThread().isInterrupted()
+                      && (work = takeWork(queue)) != null) {
+                    registerWork(queue, work, onProcessed);
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while registering the tables", e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void registerTablesOnVirtualThreads(
+      RegistrationQueue queue, Consumer<TableIdentifier> onProcessed) {
+    // only bounds the memory of the registrations waiting for a request permit, the concurrency is
+    // limited by the request limiters of the catalogs
+    Semaphore tablePermits = new Semaphore(MAX_VIRTUAL_THREAD_REGISTRATIONS);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    try (ExecutorService executor =
+        Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("catalog-migrator-virtual-", 0).factory())) {
+      RegistrationQueue.Work nextWork;
+      while ((nextWork = queue.take()) != null) {
+        RegistrationQueue.Work work = nextWork;
+        tablePermits.acquire();
+        if (failure.get() != null) {
+          break;
+        }
+        executor.execute(
+            () -> {
+              try {
+                registerWork(queue, work, onProcessed);
+              } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+              } finally {
+                tablePermits.release();
+              }
+            });
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while registering the tables", e);
+    }
+    if (failure.get() != null) {
+      Throwables.throwIfUnchecked(failure.get());
+      throw new RuntimeException(failure.get());
+    }
+  }
+
+  private static RegistrationQueue.Work takeWork(RegistrationQueue queue) {
+    try {
+      return queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while registering the tables", e);
+    }
+  }
+
+  /**
+   * Registers the tables of {@code work} once. The tables which failed with a retryable error and
+   * have retries left are handed back to the {@code queue} to be retried after the backoff, the
+   * others are reported to the {@link #resultCollector()} and to {@code onProcessed}.
+   */
+  private void registerWork(
+      RegistrationQueue queue, RegistrationQueue.Work work, Consumer<TableIdentifier> onProcessed) {
+    CatalogMigrationResultCollector collector = resultCollector();
+    if (work.retries() == 0) {
+      work.tables().forEach(identifier -> collector.started());
+    }
+    List<TableIdentifier> tablesToRetry = new ArrayList<>();
+    long backoffNanos = retryBackoffNanos(work.retries() + 1);
+    try {
+      Map<TableIdentifier, Exception> failures =
+          registerTablesOnce(work.tables(), work.retries() > 0);
+      for (TableIdentifier identifier : work.tables()) {
+        Exception failure = failures.get(identifier);
+        if (failure != null
+            && work.retries() < maxRetries()
+            && CatalogRequestFailures.isRetryable(failure)) {
+          LOG.warn(
+              "Retrying the registration of the table {} in {} ms after attempt {} failed: {}",
+              identifier,
+              TimeUnit.NANOSECONDS.toMillis(backoffNanos),
+              work.retries() + 1,
+              CatalogRequestFailures.describe(failure));
+          tablesToRetry.add(identifier);
+          continue;
+        }
+        if (failure != null) {
+          logRegistrationFailure(identifier, failure);
+          checkpointJournal().ifPresent(journal -> journal.failedToRegister(identifier));
+          collector.failedToRegister(identifier);
+        }
+        collector.finished();
+        onProcessed.accept(identifier);
+      }
+    } finally {
+      queue.finish(work, tablesToRetry, backoffNanos);
+    }
+  }
+
+  /**
+   * Returns the backoff before the given retry: the initial backoff doubled for every previous
+   * retry, capped by the maximum backoff, of which a random half is left out.
+   */
+  private long retryBackoffNanos(int retry) {
+    long maxNanos = retryMaxBackoff().toNanos();
+    long backoffNanos = retryInitialBackoff().toNanos();
+    for (int i = 1; i < retry && backoffNanos < maxNanos; i++) {
+      backoffNanos *= 2;
+    }
+    backoffNanos = Math.min(backoffNanos, maxNanos);
+    return backoffNanos / 2 + ThreadLocalRandom.current().nextLong(backoffNanos / 2 + 1);
+  }
+
   public CatalogMigrationResult result() {
-    processedNamespaces.clear();
-    return resultBuilder.build();
+    namespaceCreations.clear();
+    return resultCollector().result();
+  }
+
+  /**
+   * Create the namespaces of the given tables which are missing on the target catalog before any of
+   * the tables is registered, so that registering them doesn't issue any namespace requests.
+   *
+   * <p>The existing namespaces are listed level by level, only below parents which already existed
+   * on the target catalog, and the missing namespaces of each level are created concurrently.
+   *
+   * @param identifiers table identifiers which are going to be registered or migrated
+   * @param parallelism maximum number of concurrent namespace requests
+   * @return {@code this} for use in a chained invocation
+   */
+  public CatalogMigrator createMissingNamespacesOnTargetCatalog(
+      Collection<TableIdentifier> identifiers, int parallelism) {
+    Preconditions.checkArgument(identifiers != null, "Identifiers is null");
+    Preconditions.checkArgument(parallelism > 0, "Parallelism should be greater than 0");
+
+    SortedMap<Integer, Set<Namespace>> namespacesByLevel = new TreeMap<>();
+    for (TableIdentifier identifier : identifiers) {
+      String[] levels = identifier.namespace().levels();
+      for (int index = 1; index <= levels.length; index++) {
+        namespacesByLevel
+            .computeIfAbsent(index, level -> new LinkedHashSet<>())
+            .add(Namespace.of(Arrays.copyOfRange(levels, 0, index)));
+      }
+    }
+
+    LOG.info("Creating the missing namespaces on target catalog...");
+    SupportsNamespaces targetCatalog = (SupportsNamespaces) targetCatalog();
+    // namespaces created by this method have no children yet, so they are never listed
+    Set<Namespace> existingParents = Collections.singleton(Namespace.empty());
+    AtomicInteger createdNamespaces = new AtomicInteger();
+    Set<Namespace> failedNamespaces = ConcurrentHashMap.newKeySet();
+    for (Set<Namespace> namespaces : namespacesByLevel.values()) {
+      Set<Namespace> parentsToList = new LinkedHashSet<>();
+      for (Namespace namespace : namespaces) {
+        Namespace parent = parent(namespace);
+        if (existingParents.contains(parent)) {
+          parentsToList.add(parent);
+        }
+      }
+
+      Set<Namespace> existing = ConcurrentHashMap.newKeySet();
+      forEachInParallel(
+          parentsToList,
+          parallelism,
+          parent -> {
+            try {
+              existing.addAll(
+                  targetRequest(CatalogOperation.LIST, () -> targetCatalog.listNamespaces(parent)));
+            } catch (NoSuchNamespaceException ex) {
+              LOG.debug("Namespace {} doesn't exist on target catalog.", parent);
+            }
+          });
+
+      List<Namespace> missing =
+          namespaces.stream().filter(namespace -> !existing.contains(namespace)).toList();
+      forEachInParallel(
+          missing,
+          parallelism,
+          namespace -> {
+            try {
+              targetRequest(
+                  CatalogOperation.CREATE_NAMESPACE,
+                  () -> {
+                    targetCatalog.createNamespace(namespace);
+                    return null;
+                  });
+              createdNamespaces.incrementAndGet();
+            } catch (AlreadyExistsException ex) {
+              LOG.debug(
+                  "{}.Ignoring the error as namespace was created concurrently.", ex.getMessage());
+            } catch (Exception ex) {
+              // left to the registration of its tables, which reports them as failed
+              failedNamespaces.add(namespace);
+              LOG.warn(
+                  "Failed to create the namespace {} on target catalog : {}",
+                  namespace,
+                  ex.getMessage());
+            }
+          });
+
+      namespaces.stream()
+          .filter(namespace -> !failedNamespaces.contains(namespace))
+          .forEach(namespace -> namespaceCreations.put(namespace, NAMESPACE_CREATED));
+      existingParents = existing;
+    }
+    LOG.info("Created {} missing namespaces on target catalog.", createdNamespaces.get());
+    return this;
   }
 
   protected void createNamespacesIfNotExistOnTargetCatalog(Namespace identifierNamespace) {
-    if (!processedNamespaces.contains(identifierNamespace)) {
-      String[] levels = identifierNamespace.levels();
-      for (int index = 0; index < levels.length; index++) {
-        Namespace namespace = Namespace.of(Arrays.copyOfRange(levels, 0, index + 1));
-        if (processedNamespaces.add(namespace)) {
-          try {
-            ((SupportsNamespaces) targetCatalog()).createNamespace(namespace);
-          } catch (AlreadyExistsException ex) {
-            LOG.debug(
-                "{}.Ignoring the error as forcefully creating the namespace even if it exists to avoid "
-                    + "namespaceExists() check.",
-                ex.getMessage());
-          }
+    if (isCreated(namespaceCreations.get(identifierNamespace))) {
+      return;
+    }
+    String[] levels = identifierNamespace.levels();
+    for (int index = 0; index < levels.length; index++) {
+      createNamespaceOnTargetCatalog(Namespace.of(Arrays.copyOfRange(levels, 0, index + 1)));
+    }
+  }
+
+  /**
+   * Creates the namespace on the target catalog unless it was already created. Namespaces are only
+   * marked as created once they exist on the target catalog, so that concurrent registrations
+   * never race ahead of the namespace creation: they wait for the registration creating it instead,
+   * and retry the creation themselves if it failed.
+   */
+  private void createNamespaceOnTargetCatalog(Namespace namespace) {
+    while (true) {
+      CompletableFuture<Void> creation = new CompletableFuture<>();
+      CompletableFuture<Void> previous = namespaceCreations.putIfAbsent(namespace, creation);
+      if (previous == null) {
+        try {
+          targetRequest(
+              CatalogOperation.CREATE_NAMESPACE,
+              () -> {
+                ((SupportsNamespaces) targetCatalog()).createNamespace(namespace);
+                return null;
+              });
+        } catch (AlreadyExistsException ex) {
+          LOG.debug(
+              "{}.Ignoring the error as forcefully creating the namespace even if it exists to avoid "
+                  + "namespaceExists() check.",
+              ex.getMessage());
+        } catch (RuntimeException | Error ex) {
+          namespaceCreations.remove(namespace, creation);
+          creation.completeExceptionally(ex);
+          throw ex;
         }
+        creation.complete(null);
+        return;
       }
+      try {
+        previous.join();
+        return;
+      } catch (CompletionException ex) {
+        // the failure is reported by the registration which attempted the creation
+        namespaceCreations.remove(namespace, previous);
+      }
+    }
+  }
+
+  private static boolean isCreated(CompletableFuture<Void> creation) {
+    return creation != null && creation.isDone() && !creation.isCompletedExceptionally();
+  }
+
+  /**
+   * Collect all the namespaces of the catalog in depth-first order, listing sibling subtrees
+   * concurrently when {@link #namespaceDiscoveryParallelism()} is greater than 1.
+   *
+   * @param catalog catalog whose namespaces are collected
+   * @return Set of namespaces including the empty namespace.
+   */
+  protected Set<Namespace> getAllNamespacesFromCatalog(Catalog catalog) {
+    return getAllNamespacesFromCatalog(catalog, namespace -> true);
+  }
+
+  /**
+   * Same as {@link #getAllNamespacesFromCatalog(Catalog)}, but skips the namespaces rejected by
+   * {@code filter} without listing the namespaces below them.
+   */
+  private Set<Namespace> getAllNamespacesFromCatalog(Catalog catalog, Predicate<Namespace> filter) {
+    if (namespaceDiscoveryParallelism() == 1) {
+      Set<Namespace> namespaces = new LinkedHashSet<>();
+      getAllNamespacesFromCatalog(catalog, Namespace.empty(), filter, namespaces);
+      return namespaces;
     }
+    return new NamespaceCrawler(
+            namespace -> listChildNamespaces(catalog, namespace, filter),
+            namespaceDiscoveryParallelism())
+        .crawl(Namespace.empty());
   }
 
-  protected void getAllNamespacesFromCatalog(Catalog catalog, Namespace namespace, Set<Namespace> visited) {
+  protected void getAllNamespacesFromCatalog(
+      Catalog catalog, Namespace namespace, Set<Namespace> visited) {
+    getAllNamespacesFromCatalog(catalog, namespace, child -> true, visited);
+  }
+
+  private void getAllNamespacesFromCatalog(
+      Catalog catalog, Namespace namespace, Predicate<Namespace> filter, Set<Namespace> visited) {
     if (!visited.add(namespace)) {
       return;
     }
-    List<Namespace> children = ((SupportsNamespaces) catalog).listNamespaces(namespace);
-    for (Namespace child : children) {
-      getAllNamespacesFromCatalog(catalog, child, visited);
+    for (Namespace child : listChildNamespaces(catalog, namespace, filter)) {
+      getAllNamespacesFromCatalog(catalog, child, filter, visited);
     }
   }
 
+  private List<Namespace> listChildNamespaces(
+      Catalog catalog, Namespace namespace, Predicate<Namespace> filter) {
+    List<Namespace> children =
+        request(
+            catalog,
+            CatalogOperation.LIST,
+            () -> ((SupportsNamespaces) catalog).listNamespaces(namespace));
+    return children.stream().filter(filter).collect(Collectors.toList());
+  }
+
   public CatalogMigrator dropTableFromTargetCatalog(TableIdentifier identifier) {
     Preconditions.checkArgument(identifier != null, "Identifier is null");
     targetCatalog().dropTable(identifier, false);
@@ -222,21 +1282,122 @@ public abstract class CatalogMigrator {
     return this;
   }
 
-  private boolean registerTableToTargetCatalog(TableIdentifier tableIdentifier) {
+  /**
+   * Registers the table to the target catalog, with its metadata location if already known, which
+   * is otherwise read from the source catalog and set on the {@code table} entry.
+   */
+  private void registerTableToTargetCatalog(Map.Entry<TableIdentifier, String> table) {
+    TableIdentifier tableIdentifier = table.getKey();
+    createNamespacesIfNotExistOnTargetCatalog(tableIdentifier.namespace());
+    if (table.getValue() == null) {
+      table.setValue(sourceMetadataLocation(tableIdentifier));
+    }
+    // register the table to the target catalog
+    String metadataLocation = table.getValue();
+    targetRequest(
+        CatalogOperation.REGISTER,
+        () -> targetCatalog().registerTable(tableIdentifier, metadataLocation));
+  }
+
+  private String sourceMetadataLocation(TableIdentifier tableIdentifier) {
+    String identifiedMetadataLocation = identifiedMetadataLocations.remove(tableIdentifier);
+    if (identifiedMetadataLocation == null) {
+      TableIdentifierSet tables = identifiedTables.get();
+      identifiedMetadataLocation = tables != null ? tables.metadataLocation(tableIdentifier) : null;
+    }
+    if (identifiedMetadataLocation != null) {
+      return identifiedMetadataLocation;
+    }
+    Supplier<String> load =
+        () -> sourceMetadataLocationResolver().metadataLocation(tableIdentifier);
+    // reading the metadata location is idempotent, so a slow read can be hedged. The hedger runs
+    // within the limits, so that it only times and duplicates the read itself: waiting for the
+    // limits of a saturated catalog must not look like a slow read to be hedged
+    Optional<RequestHedger> hedger = sourceLoadHedger();
+    return sourceRequest(
+        CatalogOperation.LOAD, hedger.isPresent() ? () -> hedger.get().call(load) : load);
+  }
+
+  private boolean notCompletedByResumedRun(TableIdentifier identifier) {
+    CheckpointJournal journal = checkpointJournal().get();
+    boolean completed =
+        deleteEntriesFromSourceCatalog()
+            ? journal.wasDeleted(identifier)
+            : journal.wasRegistered(identifier);
+    if (completed) {
+      LOG.info("Skipping the table {} completed by the resumed run", identifier);
+    }
+    return !completed;
+  }
+
+  private void logRegistrationFailure(TableIdentifier tableIdentifier, Exception ex) {
+    if (enableStacktrace()) {
+      LOG.error("Unable to register the table {}", tableIdentifier, ex);
+    } else {
+      LOG.error("Unable to register the table {} : {}", tableIdentifier, ex.getMessage());
+    }
+  }
+
+  private static Namespace parent(Namespace namespace) {
+    String[] levels = namespace.levels();
+    return Namespace.of(Arrays.copyOf(levels, levels.length - 1));
+  }
+
+  private static <T> void forEachInParallel(
+      Collection<T> items, int parallelism, Consumer<T> action) {
+    int workers = Math.min(parallelism, items.size());
+    if (workers <= 1) {
+      items.forEach(action);
+      return;
+    }
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            workers,
+            new ThreadFactoryBuilder()
+                .setNameFormat("catalog-migrator-namespaces-%d")
+                .setDaemon(true)
+                .build());
     try {
-      createNamespacesIfNotExistOnTargetCatalog(tableIdentifier.namespace());
-      // register the table to the target catalog
-      TableOperations ops = ((BaseTable) sourceCatalog().loadTable(tableIdentifier)).operations();
-      targetCatalog().registerTable(tableIdentifier, ops.current().metadataFileLocation());
-      LOG.info("Successfully registered the table {}", tableIdentifier);
-      return true;
-    } catch (Exception ex) {
-      if (enableStacktrace()) {
-        LOG.error("Unable to register the table {}", tableIdentifier, ex);
-      } else {
-        LOG.error("Unable to register the table {} : {}", tableIdentifier, ex.getMessage());
+      List<Future<?>> futures = new ArrayList<>(items.size());
+      for (T item : items) {
+        futures.add(executor.submit(() -> action.accept(item)));
+      }
+      for (Future<?> future : futures) {
+        future.get();
       }
-      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while creating the namespaces", e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private <T> T request(Catalog catalog, CatalogOperation operation, Supplier<T> request) {
+    if (catalog == sourceCatalog()) {
+      return sourceRequest(operation, request);
+    } else if (catalog == targetCatalog()) {
+      return targetRequest(operation, request);
     }
+    return request.get();
+  }
+
+  /**
+   * Issues a request to the source catalog once the rate limits of the catalog and of the {@code
+   * operation} allow it and fewer requests than the limit are in flight. The rate is waited for
+   * first, so that waiting requests don't take up the concurrent request slots.
+   */
+  private <T> T sourceRequest(CatalogOperation operation, Supplier<T> request) {
+    sourceRateLimiter().acquire(operation);
+    return sourceRequestLimiter().call(request);
+  }
+
+  /** Same as {@link #sourceRequest(CatalogOperation, Supplier)} for the target catalog. */
+  private <T> T targetRequest(CatalogOperation operation, Supplier<T> request) {
+    targetRateLimiter().acquire(operation);
+    return targetRequestLimiter().call(request);
   }
 }
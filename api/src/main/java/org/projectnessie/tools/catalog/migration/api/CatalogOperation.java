@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.Locale;
+
+/** Classes of requests issued to a catalog, which can be rate limited separately. */
+public enum CatalogOperation {
+  /** Listing the namespaces or the tables of a namespace. */
+  LIST,
+  /** Loading a table or reading its metadata location. */
+  LOAD,
+  /** Registering a table, or a batch of tables. */
+  REGISTER,
+  /**
+   * Dropping a table, from the source catalog after its migration or from the target catalog once
+   * it disappeared from the source catalog.
+   */
+  DROP,
+  /** Creating a missing namespace. */
+  CREATE_NAMESPACE;
+
+  /**
+   * Returns the operation with the given name, ignoring the case and the separators, so that
+   * {@code create-namespace}, {@code create_namespace} and {@code createNamespace} are all accepted.
+   */
+  public static CatalogOperation fromName(String name) {
+    String normalized = name.replaceAll("[-_]", "").toUpperCase(Locale.ROOT);
+    for (CatalogOperation operation : values()) {
+      if (operation.name().replace("_", "").equals(normalized)) {
+        return operation;
+      }
+    }
+    throw new IllegalArgumentException(
+        String.format(
+            "Unknown catalog operation '%s', should be one of list, load, register, drop, "
+                + "create-namespace",
+            name));
+  }
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.immutables.value.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the target catalog of a {@link CatalogMigrator} in sync with its source catalog, by
+ * registering the new tables and the tables whose metadata location moved in passes repeated on an
+ * interval, with the source and target catalogs kept open in between.
+ *
+ * <p>Every pass runs through a copy of the {@link #catalogMigrator()}, so the results of a pass
+ * are not kept in memory by the next ones, and compares the source tables with the {@link
+ * CatalogMigrator#syncState()}, which is saved after every pass. The tables are handed over from
+ * discovery to registration through a queue of at most {@link #queueCapacity()} tables.
+ *
+ * <p>Without a {@link #sourceChangeFeed()}, every pass reads all the tables of the source catalog
+ * and drops the tables which disappeared from it. With a change feed, only the first pass reads
+ * all the tables, and the next ones only the tables which changed since the previous pass. The
+ * changes which failed to be replicated are retried by the next pass.
+ *
+ * <p>{@link #run()} runs the passes until {@link #stop()} is called, which lets the current pass
+ * complete.
+ */
+@Value.Immutable
+public abstract class CatalogReplicator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CatalogReplicator.class);
+
+  /**
+   * Migrator every pass is run with. Must have a {@link CatalogMigrator#syncState()} and must not
+   * delete the entries from the source catalog.
+   */
+  public abstract CatalogMigrator catalogMigrator();
+
+  /** Regular expression the replicated tables have to match. All the tables if not set. */
+  public abstract Optional<String> identifierRegex();
+
+  /** Follows the changes of the source catalog between passes. See {@link ChangeFeed#forCatalog}. */
+  public abstract Optional<ChangeFeed> sourceChangeFeed();
+
+  /** Interval between the starts of two passes. A pass lasting longer is directly followed. */
+  @Value.Default
+  public Duration pollInterval() {
+    return Duration.ofSeconds(30);
+  }
+
+  /** Maximum number of tables registered concurrently. */
+  @Value.Default
+  public int parallelism() {
+    return 1;
+  }
+
+  /** Maximum number of identified tables waiting to be registered. */
+  @Value.Default
+  public int queueCapacity() {
+    return 1000;
+  }
+
+  /** Receives the metrics after every pass. */
+  public abstract Optional<Consumer<ReplicationMetrics>> passListener();
+
+  @Value.Lazy
+  Optional<IdentifierPattern> identifierPattern() {
+    return identifierRegex().map(IdentifierPattern::compile);
+  }
+
+  @Value.Check
+  void check() {
+    Preconditions.checkArgument(
+        catalogMigrator().syncState().isPresent(), "catalogMigrator has no syncState");
+    Preconditions.checkArgument(
+        !catalogMigrator().deleteEntriesFromSourceCatalog(),
+        "catalogMigrator should not delete the table entries from the source catalog");
+    Preconditions.checkArgument(
+        !pollInterval().isNegative(), "pollInterval should not be negative");
+    Preconditions.checkArgument(parallelism() > 0, "parallelism should be greater than 0");
+    Preconditions.checkArgument(queueCapacity() > 0, "queueCapacity should be greater than 0");
+  }
+
+  // guards the status, shared with the threads stopping the replicator or reading its metrics
+  private final Lock lock = new ReentrantLock();
+  private final Condition statusChanged = lock.newCondition();
+  private final Status status = new Status();
+  // only accessed by the thread running the passes
+  private final Progress progress = new Progress();
+
+  private static final class Status {
+    private boolean stopped;
+    private boolean terminated;
+    private long passes;
+    private long failedPasses;
+    private long registeredTables;
+    private long droppedTables;
+    private long failedTables;
+    private long lastPassNanos;
+    // System.nanoTime() at the start of the last pass which replicated every change, if any
+    private Long syncedAtNanos;
+  }
+
+  private static final class Progress {
+    // whether the next pass only replicates the changes of the feed
+    private boolean followingChanges;
+    // tables which disappeared from the source catalog but failed to be dropped by the last pass
+    private int notDroppedTables;
+    // changes of the feed which failed to be replicated, with a null location for dropped tables
+    private final Map<TableIdentifier, String> pendingChanges = new HashMap<>();
+  }
+
+  /**
+   * Runs the passes until {@link #stop()} is called. A pass which fails as a whole, like when a
+   * catalog can't be reached, is logged and followed by the next pass.
+   */
+  public void run() {
+    try {
+      while (!isStopped()) {
+        long started = System.nanoTime();
+        pass();
+        awaitNextPass(started + pollInterval().toNanos());
+      }
+    } finally {
+      lock.lock();
+      try {
+        status.terminated = true;
+        statusChanged.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /** Makes {@link #run()} return once the current pass completed, or right away between passes. */
+  public void stop() {
+    lock.lock();
+    try {
+      status.stopped = true;
+      statusChanged.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Waits for {@link #run()} to return after {@link #stop()}.
+   *
+   * @return false if {@link #run()} didn't return within the timeout
+   */
+  public boolean awaitTermination(Duration timeout) throws InterruptedException {
+    long remaining = timeout.toNanos();
+    lock.lock();
+    try {
+      while (!status.terminated) {
+        if (remaining <= 0) {
+          return false;
+        }
+        remaining = statusChanged.awaitNanos(remaining);
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns the current metrics. */
+  public ReplicationMetrics metrics() {
+    lock.lock();
+    try {
+      return metrics(System.nanoTime());
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private ReplicationMetrics metrics(long now) {
+    return ImmutableReplicationMetrics.builder()
+        .passes(status.passes)
+        .failedPasses(status.failedPasses)
+        .registeredTables(status.registeredTables)
+        .droppedTables(status.droppedTables)
+        .failedTables(status.failedTables)
+        .lastPassDuration(Duration.ofNanos(status.lastPassNanos))
+        .lag(
+            status.syncedAtNanos == null
+                ? Optional.empty()
+                : Optional.of(Duration.ofNanos(now - status.syncedAtNanos)))
+        .build();
+  }
+
+  private boolean isStopped() {
+    lock.lock();
+    try {
+      return status.stopped;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void awaitNextPass(long deadline) {
+    lock.lock();
+    try {
+      long remaining = deadline - System.nanoTime();
+      while (!status.stopped && remaining > 0) {
+        remaining = statusChanged.awaitNanos(remaining);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      status.stopped = true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Runs a single pass, replicating either all the tables or only the changes. */
+  void pass() {
+    long started = System.nanoTime();
+    CatalogMigrationResult result;
+    int failed;
+    try {
+      CatalogMigrator migrator = progress.followingChanges ? replicateChanges() : null;
+      if (migrator != null) {
+        result = migrator.result();
+        failed = progress.pendingChanges.size();
+      } else {
+        migrator = replicateAllTables();
+        result = migrator.result();
+        failed = result.failedToRegisterTableIdentifiers().size() + progress.notDroppedTables;
+      }
+      catalogMigrator().syncState().get().save();
+    } catch (RuntimeException e) {
+      LOG.error("Replication pass failed, retrying with the next pass", e);
+      // the changes read from the feed might be lost
+      progress.followingChanges = false;
+      result = null;
+      failed = 0;
+    }
+    passCompleted(started, result, failed);
+  }
+
+  /**
+   * Replicates all the tables of the source catalog.
+   *
+   * @return the migrator of the pass
+   */
+  private CatalogMigrator replicateAllTables() {
+    SyncState state = catalogMigrator().syncState().get();
+    state.clearSeen();
+    progress.pendingChanges.clear();
+    TableEnumerator snapshot = sourceChangeFeed().map(ChangeFeed::snapshot).orElse(null);
+    try {
+      ImmutableCatalogMigrator.Builder builder =
+          ImmutableCatalogMigrator.builder().from(catalogMigrator());
+      if (snapshot != null) {
+        builder.sourceTableEnumerator(snapshot);
+      }
+      CatalogMigrator migrator = builder.build();
+      migrator.registerMatchingTablesFromSource(
+          identifierRegex().orElse(null), parallelism(), queueCapacity(), identifier -> {});
+      progress.notDroppedTables = migrator.dropSyncedTables(state.unseen(this::matches)).size();
+      // the failed tables are not changes the feed would pass again
+      progress.followingChanges =
+          snapshot != null
+              && progress.notDroppedTables == 0
+              && migrator.result().failedToRegisterTableIdentifiers().isEmpty();
+      return migrator;
+    } finally {
+      if (snapshot != null) {
+        snapshot.close();
+      }
+    }
+  }
+
+  /**
+   * Replicates the changes of the source catalog since the previous pass and the changes which
+   * failed to be replicated by it.
+   *
+   * @return the migrator of the pass, or null if the changes couldn't be followed
+   */
+  private CatalogMigrator replicateChanges() {
+    Map<TableIdentifier, String> changes = new LinkedHashMap<>(progress.pendingChanges);
+    if (!sourceChangeFeed().get().forEachChange(changes::put)) {
+      progress.followingChanges = false;
+      return null;
+    }
+    progress.pendingChanges.clear();
+
+    SyncState state = catalogMigrator().syncState().get();
+    Map<TableIdentifier, String> changed = new LinkedHashMap<>();
+    List<TableIdentifier> dropped = new ArrayList<>();
+    changes.forEach(
+        (identifier, metadataLocation) -> {
+          if (!matches(identifier)) {
+            return;
+          }
+          if (metadataLocation != null) {
+            changed.put(identifier, metadataLocation);
+          } else if (state.metadataLocation(identifier) != null) {
+            dropped.add(identifier);
+          }
+        });
+
+    CatalogMigrator migrator =
+        ImmutableCatalogMigrator.builder()
+            .from(catalogMigrator())
+            .sourceTableEnumerator(changed::forEach)
+            .build();
+    if (!changed.isEmpty()) {
+      migrator.registerMatchingTablesFromSource(
+          null, parallelism(), queueCapacity(), identifier -> {});
+      migrator
+          .result()
+          .failedToRegisterTableIdentifiers()
+          .forEach(identifier -> progress.pendingChanges.put(identifier, changed.get(identifier)));
+    }
+    migrator
+        .dropSyncedTables(dropped)
+        .forEach(identifier -> progress.pendingChanges.put(identifier, null));
+    return migrator;
+  }
+
+  private void passCompleted(long started, CatalogMigrationResult result, int failed) {
+    long now = System.nanoTime();
+    ReplicationMetrics metrics;
+    lock.lock();
+    try {
+      status.passes++;
+      status.lastPassNanos = now - started;
+      if (result == null) {
+        status.failedPasses++;
+      } else {
+        status.registeredTables += result.registeredTablesCount();
+        status.droppedTables += result.droppedTableIdentifiers().size();
+        status.failedTables = failed;
+        if (failed == 0) {
+          status.syncedAtNanos = started;
+        }
+      }
+      metrics = metrics(now);
+    } finally {
+      lock.unlock();
+    }
+    if (result != null) {
+      LOG.info(
+          "Replication pass took {} ms: registered {} tables, skipped {} unchanged tables, "
+              + "dropped {} tables, failed {} tables",
+          metrics.lastPassDuration().toMillis(),
+          result.registeredTablesCount(),
+          result.unchangedTablesCount(),
+          result.droppedTableIdentifiers().size(),
+          failed);
+    }
+    passListener().ifPresent(listener -> listener.accept(metrics));
+  }
+
+  private boolean matches(TableIdentifier identifier) {
+    return identifierPattern().map(pattern -> pattern.matches(identifier)).orElse(true);
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Throwables;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.http.HttpTimeoutException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import org.apache.iceberg.exceptions.AlreadyExistsException;
+import org.apache.iceberg.exceptions.BadRequestException;
+import org.apache.iceberg.exceptions.ForbiddenException;
+import org.apache.iceberg.exceptions.NoSuchNamespaceException;
+import org.apache.iceberg.exceptions.NoSuchTableException;
+import org.apache.iceberg.exceptions.NotAuthorizedException;
+import org.apache.iceberg.exceptions.RESTException;
+import org.apache.iceberg.exceptions.ServiceFailureException;
+import org.apache.iceberg.exceptions.ServiceUnavailableException;
+import org.apache.iceberg.exceptions.ValidationException;
+import org.projectnessie.client.http.HttpClientException;
+import org.projectnessie.client.rest.NessieNotAuthorizedException;
+import org.projectnessie.client.rest.NessieServiceException;
+import org.projectnessie.error.NessieForbiddenException;
+import org.projectnessie.error.NessieUnavailableException;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+/** Classifies the failures of catalog requests. */
+final class CatalogRequestFailures {
+
+  private static final String AWS_SDK_PACKAGE = "software.amazon.awssdk.";
+  // the Thrift library is only on the classpath with the Hive catalog
+  private static final String THRIFT_TRANSPORT_EXCEPTION =
+      "org.apache.thrift.transport.TTransportException";
+
+  private CatalogRequestFailures() {}
+
+  /**
+   * Returns whether {@code failure}, or one of its causes, signals that the catalog is overloaded:
+   * throttling errors like Glue's {@code ThrottlingException}, HTTP 429 and 503 responses, and
+   * request timeouts like the socket timeouts of the Hive metastore client.
+   */
+  static boolean isThrottlingOrTimeout(Throwable failure) {
+    for (Throwable cause : Throwables.getCausalChain(failure)) {
+      if (cause instanceof InterruptedIOException // socket, connect and read timeouts
+          || cause instanceof HttpTimeoutException
+          || cause instanceof TimeoutException
+          || cause instanceof ServiceUnavailableException
+          || isTooManyRequests(cause)
+          || isAwsThrottlingOrTimeout(cause)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether the request which failed with {@code failure} may succeed when issued again:
+   * when the catalog is overloaded, when it failed with a server error, or when the connection to
+   * it failed. Requests which failed because the table or the namespace exists or doesn't exist, or
+   * because they are not authorized or invalid, are never retried.
+   */
+  static boolean isRetryable(Throwable failure) {
+    List<Throwable> causes = Throwables.getCausalChain(failure);
+    if (causes.stream().anyMatch(CatalogRequestFailures::isPermanent)) {
+      return false;
+    }
+    return isThrottlingOrTimeout(failure)
+        || causes.stream().anyMatch(CatalogRequestFailures::isTransient);
+  }
+
+  private static boolean isPermanent(Throwable failure) {
+    return failure instanceof AlreadyExistsException
+        || failure instanceof NoSuchTableException
+        || failure instanceof NoSuchNamespaceException
+        || failure instanceof NotAuthorizedException
+        || failure instanceof ForbiddenException
+        || failure instanceof BadRequestException
+        || failure instanceof ValidationException
+        || failure instanceof NessieNotAuthorizedException
+        || failure instanceof NessieForbiddenException
+        || failure instanceof SQLIntegrityConstraintViolationException
+        || (isAwsFailure(failure) && AwsFailures.isPermanent(failure));
+  }
+
+  private static boolean isTransient(Throwable failure) {
+    return failure instanceof IOException
+        || failure instanceof ServiceFailureException
+        || failure instanceof NessieUnavailableException
+        || failure instanceof HttpClientException
+        || (failure instanceof NessieServiceException
+            && ((NessieServiceException) failure).getError().getStatus() >= 500)
+        || failure instanceof SQLTransientException
+        || failure instanceof SQLRecoverableException
+        || failure.getClass().getName().equals(THRIFT_TRANSPORT_EXCEPTION)
+        || (isAwsFailure(failure) && AwsFailures.isTransient(failure));
+  }
+
+  /** Returns a short description of {@code failure} for the logs. */
+  static String describe(Throwable failure) {
+    return failure.getClass().getSimpleName()
+        + (failure.getMessage() != null ? ": " + failure.getMessage() : "");
+  }
+
+  private static boolean isTooManyRequests(Throwable failure) {
+    // the Iceberg REST client doesn't keep the status code of the responses it has no dedicated
+    // exception for, only the reason phrase
+    return failure instanceof RESTException
+        && failure.getMessage() != null
+        && failure.getMessage().contains("Too Many Requests");
+  }
+
+  private static boolean isAwsThrottlingOrTimeout(Throwable failure) {
+    return isAwsFailure(failure) && AwsFailures.isThrottlingOrTimeout(failure);
+  }
+
+  private static boolean isAwsFailure(Throwable failure) {
+    // the AWS SDK is only on the classpath with the Glue and DynamoDB catalogs, so its classes are
+    // only loaded for its own exceptions
+    return failure.getClass().getName().startsWith(AWS_SDK_PACKAGE);
+  }
+
+  private static final class AwsFailures {
+
+    private static boolean isThrottlingOrTimeout(Throwable failure) {
+      if (failure instanceof SdkServiceException serviceException) {
+        return serviceException.isThrottlingException()
+            || serviceException.statusCode() == 429
+            || serviceException.statusCode() == 503;
+      }
+      return failure instanceof ApiCallTimeoutException
+          || failure instanceof ApiCallAttemptTimeoutException;
+    }
+
+    private static boolean isPermanent(Throwable failure) {
+      return failure instanceof SdkServiceException serviceException
+          && (serviceException.statusCode() == 401 || serviceException.statusCode() == 403);
+    }
+
+    private static boolean isTransient(Throwable failure) {
+      return (failure instanceof SdkServiceException
+              && ((SdkServiceException) failure).statusCode() >= 500)
+          || (failure instanceof SdkException && ((SdkException) failure).retryable());
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import org.apache.iceberg.catalog.Catalog;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.nessie.NessieCatalog;
+
+/**
+ * Follows the changes of the tables of a catalog, so that a {@link CatalogReplicator} only reads
+ * the tables which changed since its previous pass instead of all the tables of the catalog.
+ * Implementations don't need to be thread-safe.
+ */
+public interface ChangeFeed extends AutoCloseable {
+
+  /**
+   * Returns an enumerator of all the tables of the catalog in its current state, from which the
+   * changes are then followed. The returned enumerator has to be closed.
+   */
+  TableEnumerator snapshot();
+
+  /**
+   * Passes every table which changed since the state of the previous call, or of the last {@link
+   * #snapshot()}, to {@code consumer} with the location of its current metadata file, or {@code
+   * null} if it was dropped, and moves on to the current state of the catalog.
+   *
+   * @param consumer receives the identifier and the metadata location, or {@code null}, of every
+   *     changed table
+   * @return false, without passing any table, if the changes can't be followed from the previous
+   *     state anymore, in which case a new {@link #snapshot()} is needed
+   */
+  boolean forEachChange(BiConsumer<TableIdentifier, String> consumer);
+
+  @Override
+  default void close() {}
+
+  /**
+   * Returns a feed reading the commit log of the reference for the Nessie catalogs, or an empty
+   * optional if there is no change feed for the type of the catalog.
+   *
+   * <p>The returned feed uses its own connections, configured from the same properties as the
+   * catalog, and has to be closed.
+   *
+   * @param catalog catalog containing the tables
+   * @param catalogProperties properties the catalog was initialized with
+   */
+  static Optional<ChangeFeed> forCatalog(Catalog catalog, Map<String, String> catalogProperties) {
+    Preconditions.checkArgument(catalog != null, "catalog is null");
+    Preconditions.checkArgument(catalogProperties != null, "catalog properties is null");
+    if (catalog instanceof NessieCatalog) {
+      return Optional.of(new NessieChangeFeed(catalogProperties));
+    }
+    return Optional.empty();
+  }
+}
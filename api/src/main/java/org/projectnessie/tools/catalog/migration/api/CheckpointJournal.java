@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only journal of the outcome of every table of a registration or migration, which allows
+ * an interrupted run to be resumed. The journal of a run which went through all its tables is
+ * removed by {@link #complete()}, so that only the journal of an interrupted run is left behind.
+ *
+ * <p>Every outcome is a line made of a record type and the table identifier. An outcome is durable
+ * once the method recording it returns. Records are made durable with group commit: a recording
+ * thread which finds no write in progress writes and syncs all the records appended so far, while
+ * the threads recording meanwhile wait for the next write, so that a single sync covers the records
+ * of all the concurrent registrations and the journal keeps up with thousands of tables per second.
+ *
+ * <p>The records are written with a plain {@link FileOutputStream} rather than a file channel, as
+ * interrupting a thread writing to a file channel closes the channel for all the others.
+ */
+public final class CheckpointJournal implements AutoCloseable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CheckpointJournal.class);
+
+  static final char REGISTERED = 'R';
+  static final char DELETED = 'D';
+  static final char FAILED_TO_REGISTER = 'F';
+  static final char FAILED_TO_DELETE = 'X';
+
+  private final Path file;
+  private final FileOutputStream out;
+  // outcomes of the resumed run, not changed after the journal is opened
+  private final Set<TableIdentifier> resumedRegistered;
+  private final Set<TableIdentifier> resumedDeleted;
+
+  // not a monitor, as virtual threads must not be pinned to their carrier thread while syncing
+  private final Lock lock = new ReentrantLock();
+  private final Condition synced = lock.newCondition();
+  private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+  private long appended;
+  private long durable;
+  private boolean syncing;
+  private IOException failure;
+
+  private CheckpointJournal(
+      Path file, Set<TableIdentifier> resumedRegistered, Set<TableIdentifier> resumedDeleted)
+      throws IOException {
+    this.file = file;
+    this.out = new FileOutputStream(file.toFile(), true);
+    this.resumedRegistered = resumedRegistered;
+    this.resumedDeleted = resumedDeleted;
+  }
+
+  /**
+   * Creates an empty journal in {@code file}. Refuses to replace the journal of an interrupted
+   * run, which is either resumed with {@link #resume(Path)} or discarded with {@link
+   * #restart(Path)}.
+   */
+  public static CheckpointJournal create(Path file) {
+    Preconditions.checkState(
+        !Files.exists(file),
+        "The checkpoint journal %s of an interrupted run already exists",
+        file);
+    try {
+      return new CheckpointJournal(file, Set.of(), Set.of());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to create the checkpoint journal " + file, e);
+    }
+  }
+
+  /** Creates an empty journal in {@code file}, discarding the journal of any previous run. */
+  public static CheckpointJournal restart(Path file) {
+    try {
+      if (Files.deleteIfExists(file)) {
+        LOG.warn("Discarded the checkpoint journal {} of a previous run", file);
+      }
+      return new CheckpointJournal(file, Set.of(), Set.of());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to create the checkpoint journal " + file, e);
+    }
+  }
+
+  /**
+   * Opens the journal of an interrupted run in {@code file} to append the outcomes of the resumed
+   * run, creating it if there is none. A record torn by the interruption is discarded.
+   */
+  public static CheckpointJournal resume(Path file) {
+    TableIdentifierSet registered = new TableIdentifierSet();
+    TableIdentifierSet deleted = new TableIdentifierSet();
+    try {
+      if (Files.exists(file)) {
+        truncateTornRecord(file);
+        try (BufferedReader records = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+          for (String record = records.readLine(); record != null; record = records.readLine()) {
+            if (record.length() < 3 || record.charAt(1) != ' ') {
+              LOG.warn(
+                  "Ignoring the invalid record '{}' of the checkpoint journal {}", record, file);
+              continue;
+            }
+            TableIdentifier identifier = TableIdentifier.parse(record.substring(2));
+            switch (record.charAt(0)) {
+              case REGISTERED:
+                registered.add(identifier);
+                break;
+              case DELETED:
+                deleted.add(identifier);
+                break;
+              default:
+                // failures are retried by the resumed run
+                break;
+            }
+          }
+        }
+      }
+      return new CheckpointJournal(file, registered, deleted);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read the checkpoint journal " + file, e);
+    }
+  }
+
+  private static void truncateTornRecord(Path file) throws IOException {
+    try (RandomAccessFile journal = new RandomAccessFile(file.toFile(), "rw")) {
+      long length = journal.length();
+      while (length > 0) {
+        journal.seek(length - 1);
+        if (journal.read() == '\n') {
+          break;
+        }
+        length--;
+      }
+      if (length < journal.length()) {
+        LOG.warn("Discarding the torn last record of the checkpoint journal {}", file);
+        journal.setLength(length);
+      }
+    }
+  }
+
+  /** Whether the resumed run registered the table in the target catalog. */
+  public boolean wasRegistered(TableIdentifier identifier) {
+    return resumedRegistered.contains(identifier);
+  }
+
+  /** Whether the resumed run deleted the table from the source catalog after registering it. */
+  public boolean wasDeleted(TableIdentifier identifier) {
+    return resumedDeleted.contains(identifier);
+  }
+
+  /** Number of tables the resumed run registered in the target catalog. */
+  public int resumedRegisteredCount() {
+    return resumedRegistered.size();
+  }
+
+  /** Number of tables the resumed run deleted from the source catalog. */
+  public int resumedDeletedCount() {
+    return resumedDeleted.size();
+  }
+
+  void registered(TableIdentifier identifier) {
+    append(REGISTERED, identifier);
+  }
+
+  void deleted(TableIdentifier identifier) {
+    append(DELETED, identifier);
+  }
+
+  void failedToRegister(TableIdentifier identifier) {
+    append(FAILED_TO_REGISTER, identifier);
+  }
+
+  void failedToDelete(TableIdentifier identifier) {
+    append(FAILED_TO_DELETE, identifier);
+  }
+
+  private void append(char type, TableIdentifier identifier) {
+    byte[] record = (type + " " + identifier + "\n").getBytes(StandardCharsets.UTF_8);
+    lock.lock();
+    try {
+      pending.writeBytes(record);
+      long sequence = ++appended;
+      while (durable < sequence) {
+        if (failure != null) {
+          throw new UncheckedIOException("Failed to write the checkpoint journal " + file, failure);
+        }
+        if (syncing) {
+          synced.awaitUninterruptibly();
+          continue;
+        }
+        sync();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Writes and syncs the pending records, without holding the lock during the I/O. */
+  private void sync() {
+    syncing = true;
+    byte[] records = pending.toByteArray();
+    pending.reset();
+    long batch = appended;
+    IOException ioFailure = null;
+    lock.unlock();
+    try {
+      out.write(records);
+      out.getFD().sync();
+    } catch (IOException e) {
+      ioFailure = e;
+    } finally {
+      lock.lock();
+    }
+    syncing = false;
+    if (ioFailure != null) {
+      failure = ioFailure;
+    } else {
+      durable = batch;
+    }
+    synced.signalAll();
+  }
+
+  /**
+   * Closes and removes the journal once the run went through all its tables, there is nothing
+   * left to resume. The tables which failed are retried from the files of failed identifiers
+   * instead.
+   */
+  public void complete() {
+    try {
+      out.close();
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to remove the checkpoint journal " + file, e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+}
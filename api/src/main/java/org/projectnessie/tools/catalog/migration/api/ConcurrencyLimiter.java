@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the number of concurrent requests issued to a catalog, either to a fixed number or to a
+ * number adapted to the health of the catalog with additive increase and multiplicative decrease.
+ *
+ * <p>An adaptive limit grows by one once a whole limit worth of requests has succeeded while the
+ * limit was fully used, the latency stayed within {@value #LATENCY_TOLERANCE} times its baseline
+ * and the error rate below {@value #MAX_HEALTHY_ERROR_RATE}. It is halved when a request fails
+ * because the catalog throttles it or times out, at most once per round of in-flight requests so
+ * that a burst of failures of the requests issued before the cut doesn't collapse it.
+ */
+final class ConcurrencyLimiter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+
+  static final int DEFAULT_INITIAL_ADAPTIVE_LIMIT = 8;
+  static final double BACKOFF_RATIO = 0.5;
+  static final double LATENCY_TOLERANCE = 2.0;
+  static final double MAX_HEALTHY_ERROR_RATE = 0.1;
+  // weights of a new sample in the moving averages of the latency and of the error rate
+  private static final double LATENCY_SMOOTHING = 0.2;
+  private static final double ERROR_SMOOTHING = 0.05;
+  // the baseline follows latencies above it this much slower than it follows lower latencies
+  private static final int BASELINE_DRIFT = 100;
+
+  private final String catalog;
+  private final boolean adaptive;
+  private final int maxLimit;
+  private final RequestLimitListener listener;
+  private final LongSupplier nanoClock;
+
+  // not a monitor, as virtual threads must not be pinned to their carrier thread while waiting
+  private final Lock lock = new ReentrantLock();
+  private final Condition available = lock.newCondition();
+  private int limit;
+  private int inFlight;
+  private boolean saturated;
+  private int healthySuccesses;
+  private long lastDecreaseNanos;
+  private double smoothedLatencyNanos;
+  private double baselineLatencyNanos;
+  private double errorRate;
+
+  ConcurrencyLimiter(
+      String catalog,
+      boolean adaptive,
+      int initialLimit,
+      int maxLimit,
+      RequestLimitListener listener,
+      LongSupplier nanoClock) {
+    Preconditions.checkArgument(initialLimit > 0, "initialLimit should be greater than 0");
+    Preconditions.checkArgument(
+        maxLimit >= initialLimit, "maxLimit should not be less than initialLimit");
+    this.catalog = catalog;
+    this.adaptive = adaptive;
+    this.limit = initialLimit;
+    this.maxLimit = maxLimit;
+    this.listener = listener;
+    this.nanoClock = nanoClock;
+    this.lastDecreaseNanos = nanoClock.getAsLong();
+  }
+
+  /** Returns a limiter which allows at most {@code limit} concurrent requests. */
+  static ConcurrencyLimiter fixed(String catalog, int limit) {
+    return new ConcurrencyLimiter(catalog, false, limit, limit, null, System::nanoTime);
+  }
+
+  /**
+   * Returns a limiter which starts with {@code initialLimit} concurrent requests and adapts the
+   * limit between 1 and {@code maxLimit}, notifying {@code listener}, if not null, of every change.
+   */
+  static ConcurrencyLimiter adaptive(
+      String catalog, int initialLimit, int maxLimit, RequestLimitListener listener) {
+    return new ConcurrencyLimiter(
+        catalog, true, initialLimit, maxLimit, listener, System::nanoTime);
+  }
+
+  /** Returns the current limit of concurrent requests. */
+  int limit() {
+    lock.lock();
+    try {
+      return limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Issues {@code request} once fewer requests than the limit are in flight. */
+  <T> T call(Supplier<T> request) {
+    long startNanos = acquire();
+    T result;
+    try {
+      result = request.get();
+    } catch (RuntimeException | Error e) {
+      release(startNanos, e);
+      throw e;
+    }
+    release(startNanos, null);
+    return result;
+  }
+
+  private long acquire() {
+    lock.lock();
+    try {
+      while (inFlight >= limit) {
+        available.await();
+      }
+      inFlight++;
+      if (inFlight >= limit) {
+        saturated = true;
+      }
+      return nanoClock.getAsLong();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting to issue a catalog request", e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void release(long startNanos, Throwable failure) {
+    long endNanos = nanoClock.getAsLong();
+    int previousLimit;
+    int newLimit;
+    String reason = null;
+    lock.lock();
+    try {
+      inFlight--;
+      previousLimit = limit;
+      if (adaptive) {
+        reason = adapt(startNanos, endNanos, failure);
+      }
+      newLimit = limit;
+      available.signalAll();
+    } finally {
+      lock.unlock();
+    }
+
+    if (reason != null) {
+      LOG.info(
+          "Changed the {} catalog request limit from {} to {}: {}",
+          catalog,
+          previousLimit,
+          newLimit,
+          reason);
+      if (listener != null) {
+        listener.limitChanged(catalog, previousLimit, newLimit, reason);
+      }
+    }
+  }
+
+  /** Updates the limit after a request, returning the reason of the change if it changed. */
+  private String adapt(long startNanos, long endNanos, Throwable failure) {
+    if (failure != null && CatalogRequestFailures.isThrottlingOrTimeout(failure)) {
+      // requests issued before the last decrease still see the load from before it
+      if (startNanos - lastDecreaseNanos < 0 || limit == 1) {
+        return null;
+      }
+      limit = Math.max(1, (int) (limit * BACKOFF_RATIO));
+      lastDecreaseNanos = endNanos;
+      resetRound();
+      return "a request was throttled or timed out, " + CatalogRequestFailures.describe(failure);
+    }
+
+    errorRate += ERROR_SMOOTHING * ((failure != null ? 1 : 0) - errorRate);
+    if (failure != null) {
+      return null;
+    }
+    double latencyNanos = endNanos - startNanos;
+    smoothedLatencyNanos =
+        smoothedLatencyNanos == 0
+            ? latencyNanos
+            : smoothedLatencyNanos + LATENCY_SMOOTHING * (latencyNanos - smoothedLatencyNanos);
+    baselineLatencyNanos =
+        baselineLatencyNanos == 0 || latencyNanos < baselineLatencyNanos
+            ? latencyNanos
+            : baselineLatencyNanos + (latencyNanos - baselineLatencyNanos) / BASELINE_DRIFT;
+
+    boolean healthy =
+        errorRate < MAX_HEALTHY_ERROR_RATE
+            && smoothedLatencyNanos <= LATENCY_TOLERANCE * baselineLatencyNanos;
+    if (!healthy || !saturated || limit >= maxLimit || ++healthySuccesses < limit) {
+      return null;
+    }
+    limit++;
+    resetRound();
+    return String.format(
+        "latency of %d ms (baseline %d ms) and error rate of %d%% are healthy",
+        TimeUnit.NANOSECONDS.toMillis((long) smoothedLatencyNanos),
+        TimeUnit.NANOSECONDS.toMillis((long) baselineLatencyNanos),
+        Math.round(errorRate * 100));
+  }
+
+  private void resetRound() {
+    saturated = inFlight >= limit;
+    healthySuccesses = 0;
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.Map;
+import org.apache.iceberg.BaseMetastoreTableOperations;
+import org.apache.iceberg.aws.AwsClientFactories;
+import org.apache.iceberg.aws.AwsProperties;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.exceptions.NoSuchTableException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+
+/** Reads the metadata location from the item of the table in the DynamoDB catalog table. */
+final class DynamoDbMetadataLocationResolver implements MetadataLocationResolver {
+
+  // attribute names used by org.apache.iceberg.aws.dynamodb.DynamoDbCatalog
+  static final String COL_IDENTIFIER = "identifier";
+  static final String COL_NAMESPACE = "namespace";
+  static final String COL_METADATA_LOCATION =
+      "p." + BaseMetastoreTableOperations.METADATA_LOCATION_PROP;
+
+  private final DynamoDbClient dynamo;
+  private final String tableName;
+
+  DynamoDbMetadataLocationResolver(Map<String, String> catalogProperties) {
+    this(
+        AwsClientFactories.from(catalogProperties).dynamo(),
+        new AwsProperties(catalogProperties).dynamoDbTableName());
+  }
+
+  DynamoDbMetadataLocationResolver(DynamoDbClient dynamo, String tableName) {
+    this.dynamo = dynamo;
+    this.tableName = tableName;
+  }
+
+  @Override
+  public String metadataLocation(TableIdentifier identifier) {
+    GetItemResponse response =
+        dynamo.getItem(
+            GetItemRequest.builder()
+                .tableName(tableName)
+                .consistentRead(true)
+                .projectionExpression("#location")
+                .expressionAttributeNames(Map.of("#location", COL_METADATA_LOCATION))
+                .key(
+                    Map.of(
+                        COL_IDENTIFIER,
+                        AttributeValue.builder().s(identifier.toString()).build(),
+                        COL_NAMESPACE,
+                        AttributeValue.builder().s(identifier.namespace().toString()).build()))
+                .build());
+    AttributeValue metadataLocation =
+        response.hasItem() ? response.item().get(COL_METADATA_LOCATION) : null;
+    if (metadataLocation == null || metadataLocation.s() == null) {
+      throw new NoSuchTableException("Table does not exist: %s", identifier);
+    }
+    return metadataLocation.s();
+  }
+
+  @Override
+  public void close() {
+    dynamo.close();
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.iceberg.aws.AwsClientFactories;
+import org.apache.iceberg.aws.AwsProperties;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.util.PropertyUtil;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+/**
+ * Reads the identifiers and metadata locations of all the tables of a DynamoDB catalog with a
+ * parallel segmented {@code Scan} of the catalog table, instead of one query per namespace and one
+ * {@code GetItem} request and metadata file read per table.
+ *
+ * <p>Every segment is scanned by its own worker. The number of segments defaults to the
+ * parallelism and can be set with the {@value #SCAN_SEGMENTS} catalog property. The scan can be
+ * throttled to a number of read capacity units per second with the {@value
+ * #SCAN_READ_CAPACITY_UNITS} catalog property, shared by all the segments. Every scan request
+ * takes one unit from a {@link TokenBucket} before it is issued and the rest of the units it
+ * consumed once it returned.
+ */
+final class DynamoDbTableEnumerator extends PartitionedTableEnumerator<Integer> {
+
+  static final String SCAN_SEGMENTS = "dynamodb.scan.segments";
+  static final String SCAN_READ_CAPACITY_UNITS = "dynamodb.scan.read-capacity-units";
+
+  // the namespaces are stored in the same table, with this identifier
+  static final String NAMESPACE_IDENTIFIER = "NAMESPACE";
+  static final String FILTER_EXPRESSION = "attribute_exists(#location)";
+  static final String PROJECTION_EXPRESSION = "#identifier, #location";
+
+  private final DynamoDbClient dynamo;
+  private final String tableName;
+  private final int segments;
+  private final TokenBucket readCapacity;
+
+  DynamoDbTableEnumerator(Map<String, String> catalogProperties, int parallelism) {
+    // the properties are validated before creating the client
+    this(
+        catalogProperties,
+        scanSegments(catalogProperties, parallelism),
+        readCapacityUnits(catalogProperties));
+  }
+
+  private DynamoDbTableEnumerator(
+      Map<String, String> catalogProperties, int segments, double readCapacityUnits) {
+    this(
+        AwsClientFactories.from(catalogProperties).dynamo(),
+        new AwsProperties(catalogProperties).dynamoDbTableName(),
+        segments,
+        readCapacityUnits);
+  }
+
+  DynamoDbTableEnumerator(
+      DynamoDbClient dynamo, String tableName, int segments, double readCapacityUnits) {
+    super(segments, "catalog-migrator-dynamodb-%d");
+    Preconditions.checkArgument(
+        readCapacityUnits >= 0, "%s should not be negative", SCAN_READ_CAPACITY_UNITS);
+    this.dynamo = dynamo;
+    this.tableName = tableName;
+    this.segments = segments;
+    this.readCapacity = readCapacityUnits > 0 ? new TokenBucket(readCapacityUnits) : null;
+  }
+
+  private static int scanSegments(Map<String, String> catalogProperties, int parallelism) {
+    int segments = PropertyUtil.propertyAsInt(catalogProperties, SCAN_SEGMENTS, parallelism);
+    Preconditions.checkArgument(segments > 0, "%s should be greater than 0", SCAN_SEGMENTS);
+    return segments;
+  }
+
+  private static double readCapacityUnits(Map<String, String> catalogProperties) {
+    double readCapacityUnits =
+        PropertyUtil.propertyAsDouble(catalogProperties, SCAN_READ_CAPACITY_UNITS, 0);
+    Preconditions.checkArgument(
+        readCapacityUnits >= 0, "%s should not be negative", SCAN_READ_CAPACITY_UNITS);
+    return readCapacityUnits;
+  }
+
+  @Override
+  List<Integer> listPartitions(Runnable beforeRequest) {
+    return IntStream.range(0, segments).boxed().collect(Collectors.toList());
+  }
+
+  @Override
+  void forEachTablePage(Integer segment, Runnable beforeRequest, Consumer<Page> consumer) {
+    Map<String, AttributeValue> startKey = null;
+    do {
+      beforeRequest.run();
+      if (readCapacity != null) {
+        readCapacity.acquire();
+      }
+      ScanResponse response =
+          dynamo.scan(
+              ScanRequest.builder()
+                  .tableName(tableName)
+                  .segment(segment)
+                  .totalSegments(segments)
+                  .filterExpression(FILTER_EXPRESSION)
+                  .projectionExpression(PROJECTION_EXPRESSION)
+                  .expressionAttributeNames(
+                      Map.of(
+                          "#identifier",
+                          DynamoDbMetadataLocationResolver.COL_IDENTIFIER,
+                          "#location",
+                          DynamoDbMetadataLocationResolver.COL_METADATA_LOCATION))
+                  .exclusiveStartKey(startKey)
+                  .returnConsumedCapacity(
+                      readCapacity != null
+                          ? ReturnConsumedCapacity.TOTAL
+                          : ReturnConsumedCapacity.NONE)
+                  .build());
+      if (readCapacity != null
+          && response.consumedCapacity() != null
+          && response.consumedCapacity().capacityUnits() != null) {
+        // the unit acquired before the request is part of the consumed ones
+        readCapacity.consume(response.consumedCapacity().capacityUnits() - 1);
+      }
+
+      Page page = new Page(response.count() != null ? response.count() : 0);
+      for (Map<String, AttributeValue> item : response.items()) {
+        AttributeValue identifier = item.get(DynamoDbMetadataLocationResolver.COL_IDENTIFIER);
+        AttributeValue location = item.get(DynamoDbMetadataLocationResolver.COL_METADATA_LOCATION);
+        if (identifier == null
+            || identifier.s() == null
+            || NAMESPACE_IDENTIFIER.equals(identifier.s())
+            || location == null
+            || location.s() == null) {
+          continue;
+        }
+        // same as DynamoDbCatalog#listTables
+        page.add(TableIdentifier.parse(identifier.s()), location.s());
+      }
+      consumer.accept(page);
+      startKey = response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null;
+    } while (startKey != null && !startKey.isEmpty());
+  }
+
+  @Override
+  public void close() {
+    dynamo.close();
+  }
+}
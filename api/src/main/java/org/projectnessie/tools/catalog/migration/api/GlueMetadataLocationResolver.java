@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.Map;
+import org.apache.iceberg.BaseMetastoreTableOperations;
+import org.apache.iceberg.aws.AwsClientFactories;
+import org.apache.iceberg.aws.AwsProperties;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.exceptions.NoSuchTableException;
+import software.amazon.awssdk.services.glue.GlueClient;
+import software.amazon.awssdk.services.glue.model.EntityNotFoundException;
+import software.amazon.awssdk.services.glue.model.GetTableRequest;
+import software.amazon.awssdk.services.glue.model.Table;
+
+/** Reads the metadata location from the parameters of the Glue table. */
+final class GlueMetadataLocationResolver implements MetadataLocationResolver {
+
+  private final GlueClient glue;
+  private final String catalogId;
+
+  GlueMetadataLocationResolver(Map<String, String> catalogProperties) {
+    this(
+        AwsClientFactories.from(catalogProperties).glue(),
+        new AwsProperties(catalogProperties).glueCatalogId());
+  }
+
+  GlueMetadataLocationResolver(GlueClient glue, String catalogId) {
+    this.glue = glue;
+    this.catalogId = catalogId;
+  }
+
+  @Override
+  public String metadataLocation(TableIdentifier identifier) {
+    if (identifier.namespace().levels().length != 1) {
+      throw new NoSuchTableException("Table does not exist: %s", identifier);
+    }
+    Table table;
+    try {
+      table =
+          glue.getTable(
+                  GetTableRequest.builder()
+                      .catalogId(catalogId)
+                      .databaseName(identifier.namespace().level(0))
+                      .name(identifier.name())
+                      .build())
+              .table();
+    } catch (EntityNotFoundException e) {
+      throw new NoSuchTableException(e, "Table does not exist: %s", identifier);
+    }
+    String metadataLocation =
+        table.hasParameters()
+            ? table.parameters().get(BaseMetastoreTableOperations.METADATA_LOCATION_PROP)
+            : null;
+    if (metadataLocation == null) {
+      throw new NoSuchTableException("Table does not exist: %s", identifier);
+    }
+    return metadataLocation;
+  }
+
+  @Override
+  public void close() {
+    glue.close();
+  }
+}
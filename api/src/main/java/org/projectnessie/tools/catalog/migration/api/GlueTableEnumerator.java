@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.apache.iceberg.aws.AwsClientFactories;
+import org.apache.iceberg.aws.AwsProperties;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import software.amazon.awssdk.services.glue.GlueClient;
+import software.amazon.awssdk.services.glue.model.Database;
+import software.amazon.awssdk.services.glue.model.GetDatabasesRequest;
+import software.amazon.awssdk.services.glue.model.GetDatabasesResponse;
+import software.amazon.awssdk.services.glue.model.GetTablesRequest;
+import software.amazon.awssdk.services.glue.model.GetTablesResponse;
+import software.amazon.awssdk.services.glue.model.Table;
+
+/**
+ * Reads the identifiers and metadata locations of all the tables of a Glue catalog from the table
+ * parameters returned by paged {@code GetTables} requests, without a {@code GetTable} request or a
+ * metadata file download per table.
+ *
+ * <p>The tables of up to {@code parallelism} databases are paged concurrently, so at most that many
+ * {@code GetTables} requests are in flight at once.
+ */
+final class GlueTableEnumerator extends PartitionedTableEnumerator<String> {
+
+  private final GlueClient glue;
+  private final String catalogId;
+
+  GlueTableEnumerator(Map<String, String> catalogProperties, int parallelism) {
+    this(
+        AwsClientFactories.from(catalogProperties).glue(),
+        new AwsProperties(catalogProperties).glueCatalogId(),
+        parallelism);
+  }
+
+  GlueTableEnumerator(GlueClient glue, String catalogId, int parallelism) {
+    super(parallelism, "catalog-migrator-glue-%d");
+    this.glue = glue;
+    this.catalogId = catalogId;
+  }
+
+  @Override
+  List<String> listPartitions(Runnable beforeRequest) {
+    List<String> databases = new ArrayList<>();
+    String nextToken = null;
+    do {
+      beforeRequest.run();
+      GetDatabasesResponse response =
+          glue.getDatabases(
+              GetDatabasesRequest.builder().catalogId(catalogId).nextToken(nextToken).build());
+      response.databaseList().stream().map(Database::name).forEach(databases::add);
+      nextToken = response.nextToken();
+    } while (nextToken != null);
+    return databases;
+  }
+
+  @Override
+  void forEachTablePage(String database, Runnable beforeRequest, Consumer<Page> consumer) {
+    Namespace namespace = Namespace.of(database);
+    String nextToken = null;
+    do {
+      beforeRequest.run();
+      GetTablesResponse response =
+          glue.getTables(
+              GetTablesRequest.builder()
+                  .catalogId(catalogId)
+                  .databaseName(database)
+                  .nextToken(nextToken)
+                  .build());
+      Page page = new Page(response.tableList().size());
+      for (Table table : response.tableList()) {
+        String metadataLocation =
+            table.hasParameters() ? icebergMetadataLocation(table.parameters()) : null;
+        if (metadataLocation != null) {
+          page.add(TableIdentifier.of(namespace, table.name()), metadataLocation);
+        }
+      }
+      consumer.accept(page);
+      nextToken = response.nextToken();
+    } while (nextToken != null);
+  }
+
+  @Override
+  public void close() {
+    glue.close();
+  }
+}
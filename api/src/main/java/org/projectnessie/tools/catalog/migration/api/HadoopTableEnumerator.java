@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.hadoop.HadoopCatalog;
+import org.apache.iceberg.hadoop.Util;
+import org.apache.iceberg.util.LocationUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the identifiers and metadata locations of all the tables of a Hadoop catalog by walking
+ * the warehouse directories with a parallel work queue, instead of listing every namespace and
+ * loading every table.
+ *
+ * <p>Every directory is visited by one of {@code parallelism} workers, which lists it with {@code
+ * listStatusIterator}. Like {@code HadoopCatalog}, a directory with metadata files in its {@code
+ * metadata} directory is a table, any other directory is a namespace. The current metadata file
+ * of a table is resolved like {@code HadoopTableOperations} does, from {@code version-hint.text}
+ * and the metadata files which were listed, without parsing the metadata file. Like {@code
+ * HadoopCatalog#listTables}, the tables directly in the warehouse directory are not enumerated.
+ */
+final class HadoopTableEnumerator implements TableEnumerator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(HadoopTableEnumerator.class);
+
+  static final String METADATA_DIRECTORY = "metadata";
+  static final String VERSION_HINT_FILENAME = "version-hint.text";
+  private static final String METADATA_FILE_EXTENSION = ".metadata.json";
+  // v<version>[.<codec>].metadata.json, or v<version>.metadata.json.gz written by old versions
+  private static final Pattern METADATA_FILE =
+      Pattern.compile("v(\\d+)(\\.[^.]+)?\\.metadata\\.json(\\.gz)?");
+
+  private final String warehouseLocation;
+  private final Configuration conf;
+  private final int parallelism;
+
+  HadoopTableEnumerator(
+      HadoopCatalog catalog, Map<String, String> catalogProperties, int parallelism) {
+    this(
+        catalogProperties.get(CatalogProperties.WAREHOUSE_LOCATION),
+        catalog.getConf(),
+        parallelism);
+  }
+
+  HadoopTableEnumerator(String warehouseLocation, Configuration conf, int parallelism) {
+    Preconditions.checkArgument(warehouseLocation != null, "warehouse location is required");
+    Preconditions.checkArgument(parallelism > 0, "parallelism should be greater than 0");
+    this.warehouseLocation = LocationUtil.stripTrailingSlash(warehouseLocation);
+    this.conf = conf;
+    this.parallelism = parallelism;
+  }
+
+  @Override
+  public void forEachTable(BiConsumer<TableIdentifier, String> consumer) {
+    forEachTable(() -> {}, consumer);
+  }
+
+  @Override
+  public void forEachTable(Runnable beforeRequest, BiConsumer<TableIdentifier, String> consumer) {
+    // bounded, so that the workers stop walking while the consumer is behind
+    BlockingQueue<Found> found = new ArrayBlockingQueue<>(parallelism * 64);
+    AtomicInteger pending = new AtomicInteger();
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            parallelism,
+            new ThreadFactoryBuilder()
+                .setNameFormat("catalog-migrator-hadoop-%d")
+                .setDaemon(true)
+                .build());
+    try {
+      new Walk(executor, beforeRequest, found, pending).submit(new String[0]);
+      while (true) {
+        Found next = found.take();
+        if (next.failure != null) {
+          throw next.failure;
+        } else if (next.identifier == null) {
+          return;
+        }
+        consumer.accept(next.identifier, next.metadataLocation);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while walking the warehouse directories", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /** Returns the location of the table or namespace directory, like {@code HadoopCatalog}. */
+  private String location(String[] levels) {
+    return levels.length == 0
+        ? warehouseLocation
+        : warehouseLocation + "/" + String.join("/", levels);
+  }
+
+  /**
+   * Returns the location of the current metadata file of the table directory, or null if the
+   * directory isn't a table.
+   */
+  private String metadataLocation(FileSystem fs, String tableLocation) throws IOException {
+    Path metadataDirectory = new Path(tableLocation, METADATA_DIRECTORY);
+    Map<Integer, String> metadataFiles = new HashMap<>();
+    boolean isTable = false;
+    boolean hasVersionHint = false;
+    try {
+      RemoteIterator<FileStatus> files = fs.listStatusIterator(metadataDirectory);
+      while (files.hasNext()) {
+        String name = files.next().getPath().getName();
+        if (name.equals(VERSION_HINT_FILENAME)) {
+          hasVersionHint = true;
+          continue;
+        }
+        isTable |= name.endsWith(METADATA_FILE_EXTENSION);
+        Matcher matcher = METADATA_FILE.matcher(name);
+        if (matcher.matches()) {
+          int version = Integer.parseInt(matcher.group(1));
+          // prefer the current naming, like HadoopTableOperations#getMetadataFile
+          if (matcher.group(3) == null || !metadataFiles.containsKey(version)) {
+            metadataFiles.put(version, name);
+          }
+        }
+      }
+    } catch (FileNotFoundException e) {
+      return null;
+    }
+    if (!isTable || metadataFiles.isEmpty()) {
+      return null;
+    }
+
+    Integer version = hasVersionHint ? readVersionHint(fs, metadataDirectory) : null;
+    if (version == null) {
+      version = metadataFiles.keySet().stream().max(Integer::compare).get();
+    }
+    // the hint can be behind the metadata files, HadoopTableOperations#refresh moves on to them
+    while (metadataFiles.containsKey(version + 1)) {
+      version++;
+    }
+    String metadataFile = metadataFiles.get(version);
+    if (metadataFile == null) {
+      LOG.warn(
+          "Skipping table {}, its version hint points to the missing metadata version {}",
+          tableLocation,
+          version);
+      return null;
+    }
+    return new Path(metadataDirectory, metadataFile).toString();
+  }
+
+  private static Integer readVersionHint(FileSystem fs, Path metadataDirectory) throws IOException {
+    try (FSDataInputStream in = fs.open(new Path(metadataDirectory, VERSION_HINT_FILENAME));
+        BufferedReader reader =
+            new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      String line = reader.readLine();
+      return line != null ? Integer.parseInt(line.trim()) : null;
+    } catch (FileNotFoundException | NumberFormatException e) {
+      // like HadoopTableOperations#findVersion, fall back to the listed metadata files
+      return null;
+    }
+  }
+
+  @Override
+  public void close() {}
+
+  private static final class Found {
+    private static final Found END = new Found(null, null, null);
+
+    private final TableIdentifier identifier;
+    private final String metadataLocation;
+    private final RuntimeException failure;
+
+    private Found(TableIdentifier identifier, String metadataLocation, RuntimeException failure) {
+      this.identifier = identifier;
+      this.metadataLocation = metadataLocation;
+      this.failure = failure;
+    }
+  }
+
+  /** One walk of the warehouse, with one task per directory. */
+  private final class Walk {
+    private final ExecutorService executor;
+    private final Runnable beforeRequest;
+    private final BlockingQueue<Found> found;
+    private final AtomicInteger pending;
+
+    private Walk(
+        ExecutorService executor,
+        Runnable beforeRequest,
+        BlockingQueue<Found> found,
+        AtomicInteger pending) {
+      this.executor = executor;
+      this.beforeRequest = beforeRequest;
+      this.found = found;
+      this.pending = pending;
+    }
+
+    void submit(String[] levels) {
+      pending.incrementAndGet();
+      executor.execute(
+          () -> {
+            try {
+              visit(levels);
+            } catch (IOException e) {
+              put(
+                  new Found(
+                      null,
+                      null,
+                      new UncheckedIOException("Failed to list " + location(levels), e)));
+            } catch (RuntimeException e) {
+              put(new Found(null, null, e));
+            } finally {
+              if (pending.decrementAndGet() == 0) {
+                put(Found.END);
+              }
+            }
+          });
+    }
+
+    private void visit(String[] levels) throws IOException {
+      String location = location(levels);
+      Path path = new Path(location);
+      FileSystem fs = Util.getFs(path, conf);
+      if (levels.length > 0) {
+        beforeRequest.run();
+        String metadataLocation = metadataLocation(fs, location);
+        if (metadataLocation != null) {
+          if (levels.length > 1) {
+            put(
+                new Found(
+                    TableIdentifier.of(
+                        Namespace.of(Arrays.copyOf(levels, levels.length - 1)),
+                        levels[levels.length - 1]),
+                    metadataLocation,
+                    null));
+          }
+          return;
+        }
+      }
+
+      beforeRequest.run();
+      RemoteIterator<FileStatus> children = fs.listStatusIterator(path);
+      while (children.hasNext()) {
+        FileStatus child = children.next();
+        if (child.isDirectory()) {
+          String[] childLevels = Arrays.copyOf(levels, levels.length + 1);
+          childLevels[levels.length] = child.getPath().getName();
+          submit(childLevels);
+        }
+      }
+    }
+
+    private void put(Found next) {
+      try {
+        found.put(next);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import org.immutables.value.Value;
+
+/** Counters of the hedged source requests of a {@link CatalogMigrator}. */
+@Value.Immutable
+public interface HedgingMetrics {
+
+  /** Number of requests which could be hedged. */
+  long requests();
+
+  /** Number of requests for which a duplicate request was issued because they were slow. */
+  long hedgedRequests();
+
+  /** Number of hedged requests for which the duplicate request returned first. */
+  long hedgeWins();
+
+  /**
+   * Number of slow requests which were not hedged because the maximum number of outstanding
+   * duplicate requests was reached.
+   */
+  long skippedHedges();
+}
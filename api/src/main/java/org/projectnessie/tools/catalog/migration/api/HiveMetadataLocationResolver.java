@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.Map;
+import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.iceberg.BaseMetastoreTableOperations;
+import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.exceptions.NoSuchIcebergTableException;
+import org.apache.iceberg.exceptions.NoSuchTableException;
+import org.apache.iceberg.hive.HiveCatalog;
+import org.apache.iceberg.hive.HiveClientPool;
+import org.apache.iceberg.util.PropertyUtil;
+import org.apache.thrift.TException;
+
+/** Reads the metadata location from the parameters of the Hive Metastore table. */
+final class HiveMetadataLocationResolver implements MetadataLocationResolver {
+
+  private final HiveClientPool clients;
+
+  HiveMetadataLocationResolver(
+      HiveCatalog catalog, Map<String, String> catalogProperties, int parallelism) {
+    int poolSize =
+        Math.max(
+            parallelism,
+            PropertyUtil.propertyAsInt(
+                catalogProperties,
+                CatalogProperties.CLIENT_POOL_SIZE,
+                CatalogProperties.CLIENT_POOL_SIZE_DEFAULT));
+    // the catalog's configuration already contains the metastore URI and warehouse properties
+    this.clients = new HiveClientPool(poolSize, catalog.getConf());
+  }
+
+  @Override
+  public String metadataLocation(TableIdentifier identifier) {
+    if (identifier.namespace().levels().length != 1) {
+      throw new NoSuchTableException("Table does not exist: %s", identifier);
+    }
+    String database = identifier.namespace().level(0);
+    Table table;
+    try {
+      table = clients.run(client -> client.getTable(database, identifier.name()));
+    } catch (NoSuchObjectException e) {
+      throw new NoSuchTableException("Table does not exist: %s", identifier);
+    } catch (TException e) {
+      throw new RuntimeException(
+          String.format("Failed to read the metadata location of table %s", identifier), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(
+          String.format("Interrupted while reading the metadata location of table %s", identifier),
+          e);
+    }
+
+    Map<String, String> parameters = table.getParameters();
+    String tableType =
+        parameters == null ? null : parameters.get(BaseMetastoreTableOperations.TABLE_TYPE_PROP);
+    if (!BaseMetastoreTableOperations.ICEBERG_TABLE_TYPE_VALUE.equalsIgnoreCase(tableType)) {
+      throw new NoSuchIcebergTableException(
+          "Not an iceberg table: %s (type=%s)", identifier, tableType);
+    }
+    String metadataLocation = parameters.get(BaseMetastoreTableOperations.METADATA_LOCATION_PROP);
+    if (metadataLocation == null) {
+      throw new NoSuchTableException("Table does not exist: %s", identifier);
+    }
+    return metadataLocation;
+  }
+
+  @Override
+  public void close() {
+    clients.close();
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import java.util.List;
+import java.util.function.Consumer;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.iceberg.ClientPool;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.hive.HiveCatalog;
+import org.apache.iceberg.hive.HiveClientPool;
+import org.apache.thrift.TException;
+
+/**
+ * Reads the identifiers and metadata locations of all the tables of a Hive Metastore from the
+ * table parameters, fetching the table objects of every database in batches with {@code
+ * getTableObjectsByName} instead of one {@code getTable} request and one metadata file read per
+ * table.
+ *
+ * <p>The tables of up to {@code parallelism} databases are fetched concurrently, each with its own
+ * metastore client.
+ */
+final class HiveTableEnumerator extends PartitionedTableEnumerator<String> {
+
+  static final int DEFAULT_BATCH_SIZE = 100;
+
+  private final HiveClientPool clients;
+  private final int batchSize;
+
+  HiveTableEnumerator(HiveCatalog catalog, int parallelism) {
+    this(catalog, parallelism, DEFAULT_BATCH_SIZE);
+  }
+
+  HiveTableEnumerator(HiveCatalog catalog, int parallelism, int batchSize) {
+    super(parallelism, "catalog-migrator-hive-%d");
+    Preconditions.checkArgument(batchSize > 0, "batchSize should be greater than 0");
+    // the catalog's configuration already contains the metastore URI and warehouse properties
+    this.clients = new HiveClientPool(parallelism, catalog.getConf());
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  List<String> listPartitions(Runnable beforeRequest) {
+    beforeRequest.run();
+    return run(IMetaStoreClient::getAllDatabases, "list the databases");
+  }
+
+  @Override
+  void forEachTablePage(String database, Runnable beforeRequest, Consumer<Page> consumer) {
+    Namespace namespace = Namespace.of(database);
+    beforeRequest.run();
+    List<String> tableNames =
+        run(client -> client.getAllTables(database), "list the tables of database " + database);
+    for (List<String> batch : Lists.partition(tableNames, batchSize)) {
+      beforeRequest.run();
+      List<Table> tables =
+          run(
+              client -> client.getTableObjectsByName(database, batch),
+              "fetch the tables of database " + database);
+      Page page = new Page(tables.size());
+      for (Table table : tables) {
+        String metadataLocation = icebergMetadataLocation(table.getParameters());
+        if (metadataLocation != null) {
+          page.add(TableIdentifier.of(namespace, table.getTableName()), metadataLocation);
+        }
+      }
+      consumer.accept(page);
+    }
+  }
+
+  private <R> R run(ClientPool.Action<R, IMetaStoreClient, TException> action, String what) {
+    try {
+      return clients.run(action);
+    } catch (TException e) {
+      throw new RuntimeException(String.format("Failed to %s", what), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(String.format("Interrupted while trying to %s", what), e);
+    }
+  }
+
+  @Override
+  public void close() {
+    clients.close();
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+
+/**
+ * Regular expression the whole string form of the selected table identifiers, like {@code
+ * db.schema.table}, has to match.
+ *
+ * <p>The literal prefix every matching identifier starts with is extracted from the expression, so
+ * that the namespaces which can't contain any matching table are neither listed nor descended
+ * into: with {@code ^sales\.eu\..*}, only the {@code sales} and {@code sales.eu} namespaces and the
+ * ones below {@code sales.eu} are listed.
+ *
+ * <p>Identifiers are matched through a reusable per-thread view of their characters instead of
+ * their {@link TableIdentifier#toString()}, so that no string is created per table.
+ */
+final class IdentifierPattern {
+
+  private static final String METACHARACTERS = ".[](){}*+?|^$";
+
+  private final Pattern pattern;
+  private final String literalPrefix;
+  private final ThreadLocal<IdentifierMatcher> matchers;
+
+  private IdentifierPattern(Pattern pattern) {
+    this.pattern = pattern;
+    this.literalPrefix = literalPrefix(pattern.pattern());
+    this.matchers = ThreadLocal.withInitial(() -> new IdentifierMatcher(pattern));
+  }
+
+  /**
+   * @throws java.util.regex.PatternSyntaxException if the expression's syntax is invalid
+   */
+  static IdentifierPattern compile(String regex) {
+    return new IdentifierPattern(Pattern.compile(regex));
+  }
+
+  /** The regular expression. */
+  String regex() {
+    return pattern.pattern();
+  }
+
+  /** Characters every matching identifier starts with, empty if there is no such prefix. */
+  String literalPrefix() {
+    return literalPrefix;
+  }
+
+  /** Whether the string form of the identifier matches the regular expression. */
+  boolean matches(TableIdentifier identifier) {
+    return matchers.get().matches(identifier);
+  }
+
+  /**
+   * Whether the namespace or the namespaces below it may contain matching tables, as the string
+   * form of their identifiers, which starts with the levels of the namespace followed by a dot, is
+   * compatible with the {@link #literalPrefix()}.
+   */
+  boolean mayMatchTablesIn(Namespace namespace) {
+    int position = 0;
+    for (String level : namespace.levels()) {
+      for (int i = 0; i < level.length(); i++) {
+        if (position == literalPrefix.length()) {
+          return true;
+        }
+        if (literalPrefix.charAt(position++) != level.charAt(i)) {
+          return false;
+        }
+      }
+      if (position == literalPrefix.length()) {
+        return true;
+      }
+      if (literalPrefix.charAt(position++) != '.') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the characters the expression matches literally at its start, stopping at the first
+   * construct which isn't a plain or escaped character, or which is made optional by a quantifier.
+   * Empty if the expression has a top-level alternation, as each alternative may start differently.
+   */
+  static String literalPrefix(String regex) {
+    if (hasTopLevelAlternation(regex)) {
+      return "";
+    }
+    StringBuilder prefix = new StringBuilder();
+    int index = regex.startsWith("^") ? 1 : 0;
+    while (index < regex.length()) {
+      char c = regex.charAt(index);
+      char literal;
+      int next;
+      if (c == '\\') {
+        // letters and digits are escapes of classes, quotes, back-references or anchors
+        if (index + 1 == regex.length() || Character.isLetterOrDigit(regex.charAt(index + 1))) {
+          break;
+        }
+        literal = regex.charAt(index + 1);
+        next = index + 2;
+      } else if (METACHARACTERS.indexOf(c) >= 0) {
+        break;
+      } else {
+        literal = c;
+        next = index + 1;
+      }
+      // quantifiers apply to whole code points
+      if (Character.isSurrogate(literal)) {
+        break;
+      }
+      if (next < regex.length()) {
+        char quantifier = regex.charAt(next);
+        if (quantifier == '*' || quantifier == '?' || quantifier == '{') {
+          break;
+        }
+        if (quantifier == '+') {
+          prefix.append(literal);
+          break;
+        }
+      }
+      prefix.append(literal);
+      index = next;
+    }
+    return prefix.toString();
+  }
+
+  private static boolean hasTopLevelAlternation(String regex) {
+    int groupDepth = 0;
+    int classDepth = 0;
+    for (int index = 0; index < regex.length(); index++) {
+      char c = regex.charAt(index);
+      if (c == '\\') {
+        if (index + 1 < regex.length() && regex.charAt(index + 1) == 'Q') {
+          int end = regex.indexOf("\\E", index + 2);
+          if (end < 0) {
+            return false;
+          }
+          index = end + 1;
+        } else {
+          index++;
+        }
+      } else if (c == '[') {
+        classDepth++;
+      } else if (c == ']' && classDepth > 0) {
+        classDepth--;
+      } else if (classDepth == 0) {
+        if (c == '(') {
+          groupDepth++;
+        } else if (c == ')') {
+          groupDepth--;
+        } else if (c == '|' && groupDepth == 0) {
+          return true;
+        }
+      }
+    }
+    // unbalanced expressions are not analyzed further
+    return groupDepth != 0 || classDepth != 0;
+  }
+
+  /** Matcher of a single thread, reset to the characters of every identifier it matches. */
+  private static final class IdentifierMatcher implements CharSequence {
+
+    private final Matcher matcher;
+    private String[] levels;
+    private String name;
+    private int length;
+    // segment of the last read character, the levels followed by their dot, then the name
+    private int segment;
+    private int segmentStart;
+
+    private IdentifierMatcher(Pattern pattern) {
+      this.matcher = pattern.matcher("");
+    }
+
+    private boolean matches(TableIdentifier identifier) {
+      levels = identifier.namespace().levels();
+      name = identifier.name();
+      length = name.length();
+      for (String level : levels) {
+        length += level.length() + 1;
+      }
+      segment = 0;
+      segmentStart = 0;
+      try {
+        return matcher.reset(this).matches();
+      } finally {
+        levels = null;
+        name = null;
+      }
+    }
+
+    @Override
+    public int length() {
+      return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < 0 || index >= length) {
+        throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + length);
+      }
+      if (index < segmentStart) {
+        segment = 0;
+        segmentStart = 0;
+      }
+      while (segment < levels.length && index >= segmentStart + levels[segment].length() + 1) {
+        segmentStart += levels[segment].length() + 1;
+        segment++;
+      }
+      int offset = index - segmentStart;
+      if (segment == levels.length) {
+        return name.charAt(offset);
+      }
+      String level = levels[segment];
+      return offset == level.length() ? '.' : level.charAt(offset);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return toString().subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder identifier = new StringBuilder(length);
+      for (String level : levels) {
+        identifier.append(level).append('.');
+      }
+      return identifier.append(name).toString();
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import org.apache.iceberg.catalog.TableIdentifier;
+
+/**
+ * Bounded queue between a producer thread discovering table identifiers and the registration
+ * workers consuming them.
+ *
+ * <p>The producer blocks once {@code capacity} identifiers are waiting to be consumed, so the
+ * number of identifiers held in memory depends on the queue depth and not on the catalog size. A
+ * failure of the producer is rethrown to the consumer once the already queued identifiers are
+ * consumed. The iterator itself is not thread-safe.
+ */
+final class IdentifierQueue implements Iterator<TableIdentifier>, AutoCloseable {
+
+  // queued by the producer once it is done, compared by reference, as a table could have the
+  // same identifier, and never handed out to the consumer
+  private static final TableIdentifier END = TableIdentifier.of("end-of-identifiers");
+
+  private final BlockingQueue<TableIdentifier> queue;
+  private final Thread producer;
+  private volatile Throwable failure;
+  private TableIdentifier next;
+  private boolean exhausted;
+
+  /**
+   * Starts a producer thread which passes every discovered identifier to the queue.
+   *
+   * @param discovery discovers the identifiers and passes each of them to the given consumer
+   * @param capacity maximum number of identifiers waiting to be consumed
+   */
+  IdentifierQueue(Consumer<Consumer<TableIdentifier>> discovery, int capacity) {
+    Preconditions.checkArgument(capacity > 0, "capacity should be greater than 0");
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.producer =
+        new Thread(
+            () -> {
+              try {
+                discovery.accept(this::put);
+              } catch (Throwable t) {
+                failure = t;
+              } finally {
+                // the consumer might be gone already, don't block forever on a full queue
+                if (!Thread.currentThread().isInterrupted()) {
+                  try {
+                    queue.put(END);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                }
+              }
+            },
+            "catalog-migrator-discovery");
+    this.producer.setDaemon(true);
+    this.producer.start();
+  }
+
+  private void put(TableIdentifier identifier) {
+    try {
+      queue.put(identifier);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while queueing the table identifiers", e);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("ReferenceEquality")
+  public boolean hasNext() {
+    if (next != null) {
+      return true;
+    }
+    if (exhausted) {
+      return false;
+    }
+    TableIdentifier identifier;
+    try {
+      identifier = queue.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for the table identifiers", e);
+    }
+    if (identifier == END) {
+      exhausted = true;
+      if (failure != null) {
+        Throwables.throwIfUnchecked(failure);
+        throw new RuntimeException(failure);
+      }
+      return false;
+    }
+    next = identifier;
+    return true;
+  }
+
+  @Override
+  public TableIdentifier next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    TableIdentifier identifier = next;
+    next = null;
+    return identifier;
+  }
+
+  /** Stops the producer if the identifiers are not consumed till the end. */
+  @Override
+  public void close() {
+    producer.interrupt();
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.exceptions.AlreadyExistsException;
+import org.apache.iceberg.jdbc.JdbcClientPool;
+import org.apache.iceberg.jdbc.UncheckedInterruptedException;
+import org.apache.iceberg.jdbc.UncheckedSQLException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Inserts the {@code iceberg_tables} rows of a batch of tables of a JDBC catalog with a JDBC batch
+ * statement in a single transaction.
+ *
+ * <p>If the batch fails, for example because one of the tables exists already, the transaction is
+ * rolled back and the rows of the batch are inserted one by one, so that only the conflicting
+ * tables fail.
+ */
+final class JdbcBatchTableRegistrar implements BatchTableRegistrar {
+
+  private static final Logger LOG = LoggerFactory.getLogger(JdbcBatchTableRegistrar.class);
+
+  static final String INSERT_TABLE_SQL =
+      "INSERT INTO iceberg_tables"
+          + " (catalog_name, table_namespace, table_name, metadata_location,"
+          + " previous_metadata_location) VALUES (?,?,?,?,null)";
+  static final String INSERT_TABLE_WITH_RECORD_TYPE_SQL =
+      "INSERT INTO iceberg_tables"
+          + " (catalog_name, table_namespace, table_name, metadata_location,"
+          + " previous_metadata_location, iceberg_type) VALUES (?,?,?,?,null,?)";
+  static final String TABLE_OR_VIEW_EXISTS_SQL =
+      "SELECT 1 FROM iceberg_tables"
+          + " WHERE catalog_name = ? AND table_namespace = ? AND table_name = ?";
+
+  private final String catalogName;
+  private final JdbcClientPool connections;
+
+  JdbcBatchTableRegistrar(String catalogName, Map<String, String> catalogProperties) {
+    String uri = catalogProperties.get(CatalogProperties.URI);
+    Preconditions.checkArgument(uri != null, "JDBC connection URI is required");
+    this.catalogName = catalogName;
+    this.connections = new JdbcClientPool(uri, catalogProperties);
+  }
+
+  @Override
+  public Map<TableIdentifier, RuntimeException> registerTables(
+      Map<TableIdentifier, String> metadataLocations) {
+    if (metadataLocations.isEmpty()) {
+      return Map.of();
+    }
+    try {
+      return connections.run(
+          connection -> {
+            boolean withRecordType = JdbcCatalogTables.hasRecordTypeColumn(connection);
+            boolean autoCommit = connection.getAutoCommit();
+            try {
+              connection.setAutoCommit(false);
+              try {
+                insertBatch(connection, withRecordType, metadataLocations);
+                connection.commit();
+                return Map.of();
+              } catch (SQLException e) {
+                connection.rollback();
+                LOG.debug(
+                    "Failed to register a batch of {} tables, registering them one by one : {}",
+                    metadataLocations.size(),
+                    e.getMessage());
+              }
+              connection.setAutoCommit(true);
+              return insertOneByOne(connection, withRecordType, metadataLocations);
+            } finally {
+              connection.setAutoCommit(autoCommit);
+            }
+          });
+    } catch (SQLException e) {
+      throw new UncheckedSQLException(
+          e, "Failed to register %s tables in catalog %s", metadataLocations.size(), catalogName);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new UncheckedInterruptedException(
+          e,
+          "Interrupted while registering %s tables in catalog %s",
+          metadataLocations.size(),
+          catalogName);
+    }
+  }
+
+  private void insertBatch(
+      Connection connection, boolean withRecordType, Map<TableIdentifier, String> metadataLocations)
+      throws SQLException {
+    try (PreparedStatement statement =
+        connection.prepareStatement(
+            withRecordType ? INSERT_TABLE_WITH_RECORD_TYPE_SQL : INSERT_TABLE_SQL)) {
+      for (Map.Entry<TableIdentifier, String> entry : metadataLocations.entrySet()) {
+        setInsertParameters(statement, withRecordType, entry.getKey(), entry.getValue());
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+  }
+
+  private Map<TableIdentifier, RuntimeException> insertOneByOne(
+      Connection connection, boolean withRecordType, Map<TableIdentifier, String> metadataLocations)
+      throws SQLException {
+    Map<TableIdentifier, RuntimeException> failures = new LinkedHashMap<>();
+    try (PreparedStatement statement =
+        connection.prepareStatement(
+            withRecordType ? INSERT_TABLE_WITH_RECORD_TYPE_SQL : INSERT_TABLE_SQL)) {
+      for (Map.Entry<TableIdentifier, String> entry : metadataLocations.entrySet()) {
+        TableIdentifier identifier = entry.getKey();
+        try {
+          setInsertParameters(statement, withRecordType, identifier, entry.getValue());
+          statement.executeUpdate();
+        } catch (SQLException e) {
+          // constraint violations are reported differently by every driver
+          failures.put(
+              identifier,
+              exists(connection, identifier)
+                  ? new AlreadyExistsException("Table already exists: %s", identifier)
+                  : new UncheckedSQLException(e, "Failed to register table %s", identifier));
+        }
+      }
+    }
+    return failures;
+  }
+
+  private void setInsertParameters(
+      PreparedStatement statement,
+      boolean withRecordType,
+      TableIdentifier identifier,
+      String metadataLocation)
+      throws SQLException {
+    statement.setString(1, catalogName);
+    statement.setString(2, JdbcCatalogTables.namespaceToString(identifier.namespace()));
+    statement.setString(3, identifier.name());
+    statement.setString(4, metadataLocation);
+    if (withRecordType) {
+      statement.setString(5, JdbcCatalogTables.TABLE_RECORD_TYPE);
+    }
+  }
+
+  private boolean exists(Connection connection, TableIdentifier identifier) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(TABLE_OR_VIEW_EXISTS_SQL)) {
+      statement.setString(1, catalogName);
+      statement.setString(2, JdbcCatalogTables.namespaceToString(identifier.namespace()));
+      statement.setString(3, identifier.name());
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next();
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    connections.close();
+  }
+}
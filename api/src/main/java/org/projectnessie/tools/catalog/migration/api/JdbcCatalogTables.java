@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Splitter;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import org.apache.iceberg.catalog.Namespace;
+
+/**
+ * Layout of the {@code iceberg_tables} table of a JDBC catalog, as defined by {@code
+ * org.apache.iceberg.jdbc.JdbcUtil}, which is not accessible from here.
+ */
+final class JdbcCatalogTables {
+
+  static final String TABLE_NAME = "iceberg_tables";
+  static final String RECORD_TYPE = "iceberg_type";
+  static final String TABLE_RECORD_TYPE = "TABLE";
+
+  private static final Splitter NAMESPACE_SPLITTER = Splitter.on('.');
+
+  private JdbcCatalogTables() {}
+
+  /**
+   * Whether the catalog was initialized with schema version V1, which stores the views along with
+   * the tables and tells them apart by the {@code iceberg_type} column.
+   */
+  static boolean hasRecordTypeColumn(Connection connection) throws SQLException {
+    DatabaseMetaData metaData = connection.getMetaData();
+    // unquoted identifiers are stored in upper case by some databases, like H2
+    return hasColumn(metaData, TABLE_NAME, RECORD_TYPE)
+        || hasColumn(
+            metaData, TABLE_NAME.toUpperCase(Locale.ROOT), RECORD_TYPE.toUpperCase(Locale.ROOT));
+  }
+
+  private static boolean hasColumn(DatabaseMetaData metaData, String table, String column)
+      throws SQLException {
+    try (ResultSet columns = metaData.getColumns(null, null, table, column)) {
+      return columns.next();
+    }
+  }
+
+  static String namespaceToString(Namespace namespace) {
+    return String.join(".", namespace.levels());
+  }
+
+  static Namespace stringToNamespace(String namespace) {
+    return namespace.isEmpty()
+        ? Namespace.empty()
+        : Namespace.of(NAMESPACE_SPLITTER.splitToList(namespace).toArray(new String[0]));
+  }
+}
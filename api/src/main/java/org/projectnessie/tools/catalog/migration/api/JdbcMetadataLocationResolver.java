@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.exceptions.NoSuchTableException;
+import org.apache.iceberg.jdbc.JdbcClientPool;
+import org.apache.iceberg.jdbc.UncheckedInterruptedException;
+import org.apache.iceberg.jdbc.UncheckedSQLException;
+
+/** Reads the metadata location from the {@code iceberg_tables} row of a JDBC catalog. */
+final class JdbcMetadataLocationResolver implements MetadataLocationResolver {
+
+  static final String GET_METADATA_LOCATION_SQL =
+      "SELECT metadata_location FROM iceberg_tables"
+          + " WHERE catalog_name = ? AND table_namespace = ? AND table_name = ?";
+
+  private final String catalogName;
+  private final JdbcClientPool connections;
+
+  JdbcMetadataLocationResolver(String catalogName, Map<String, String> catalogProperties) {
+    String uri = catalogProperties.get(CatalogProperties.URI);
+    Preconditions.checkArgument(uri != null, "JDBC connection URI is required");
+    this.catalogName = catalogName;
+    this.connections = new JdbcClientPool(uri, catalogProperties);
+  }
+
+  @Override
+  public String metadataLocation(TableIdentifier identifier) {
+    String metadataLocation;
+    try {
+      metadataLocation =
+          connections.run(
+              connection -> {
+                try (PreparedStatement statement =
+                    connection.prepareStatement(GET_METADATA_LOCATION_SQL)) {
+                  statement.setString(1, catalogName);
+                  statement.setString(
+                      2, JdbcCatalogTables.namespaceToString(identifier.namespace()));
+                  statement.setString(3, identifier.name());
+                  try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? resultSet.getString(1) : null;
+                  }
+                }
+              });
+    } catch (SQLException e) {
+      throw new UncheckedSQLException(
+          e, "Failed to read the metadata location of table %s", identifier);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new UncheckedInterruptedException(
+          e, "Interrupted while reading the metadata location of table %s", identifier);
+    }
+    if (metadataLocation == null) {
+      throw new NoSuchTableException("Table does not exist: %s", identifier);
+    }
+    return metadataLocation;
+  }
+
+  @Override
+  public void close() {
+    connections.close();
+  }
+}
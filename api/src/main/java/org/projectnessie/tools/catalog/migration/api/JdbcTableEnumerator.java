@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.jdbc.JdbcClientPool;
+import org.apache.iceberg.jdbc.UncheckedInterruptedException;
+import org.apache.iceberg.jdbc.UncheckedSQLException;
+
+/**
+ * Reads the identifiers and metadata locations of all the tables of a JDBC catalog with a single
+ * {@code SELECT} on {@code iceberg_tables}, streaming the rows with a bounded fetch size.
+ */
+final class JdbcTableEnumerator implements TableEnumerator {
+
+  static final int DEFAULT_FETCH_SIZE = 1000;
+
+  static final String LIST_ALL_TABLES_SQL =
+      "SELECT table_namespace, table_name, metadata_location FROM iceberg_tables"
+          + " WHERE catalog_name = ?";
+  // the iceberg_type column only exists once the catalog was initialized with schema version V1,
+  // which stores the views in the same table
+  static final String LIST_ALL_TABLES_EXCLUDING_VIEWS_SQL =
+      LIST_ALL_TABLES_SQL + " AND (iceberg_type = 'TABLE' OR iceberg_type IS NULL)";
+  private static final String ORDER_BY = " ORDER BY table_namespace, table_name";
+
+  private final String catalogName;
+  private final JdbcClientPool connections;
+  private final int fetchSize;
+
+  JdbcTableEnumerator(String catalogName, Map<String, String> catalogProperties) {
+    this(catalogName, catalogProperties, DEFAULT_FETCH_SIZE);
+  }
+
+  JdbcTableEnumerator(String catalogName, Map<String, String> catalogProperties, int fetchSize) {
+    String uri = catalogProperties.get(CatalogProperties.URI);
+    Preconditions.checkArgument(uri != null, "JDBC connection URI is required");
+    Preconditions.checkArgument(fetchSize > 0, "fetchSize should be greater than 0");
+    this.catalogName = catalogName;
+    this.connections = new JdbcClientPool(uri, catalogProperties);
+    this.fetchSize = fetchSize;
+  }
+
+  @Override
+  public void forEachTable(BiConsumer<TableIdentifier, String> consumer) {
+    forEachTable(() -> {}, consumer);
+  }
+
+  @Override
+  public void forEachTable(Runnable beforeRequest, BiConsumer<TableIdentifier, String> consumer) {
+    // a single query, whose rows are streamed
+    beforeRequest.run();
+    try {
+      connections.run(
+          connection -> {
+            String sql =
+                (JdbcCatalogTables.hasRecordTypeColumn(connection)
+                        ? LIST_ALL_TABLES_EXCLUDING_VIEWS_SQL
+                        : LIST_ALL_TABLES_SQL)
+                    + ORDER_BY;
+            // some drivers, like PostgreSQL, only stream the rows when not in auto-commit mode
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement =
+                connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+              statement.setFetchSize(fetchSize);
+              statement.setString(1, catalogName);
+              try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                  consumer.accept(
+                      TableIdentifier.of(
+                          JdbcCatalogTables.stringToNamespace(resultSet.getString(1)),
+                          resultSet.getString(2)),
+                      resultSet.getString(3));
+                }
+              }
+            } finally {
+              connection.rollback();
+              connection.setAutoCommit(autoCommit);
+            }
+            return null;
+          });
+    } catch (SQLException e) {
+      throw new UncheckedSQLException(e, "Failed to list the tables of catalog %s", catalogName);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new UncheckedInterruptedException(
+          e, "Interrupted while listing the tables of catalog %s", catalogName);
+    }
+  }
+
+  @Override
+  public void close() {
+    connections.close();
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.catalog.Catalog;
+import org.apache.iceberg.catalog.TableIdentifier;
+
+/** Resolves the metadata location by loading the table, which works for any catalog. */
+final class LoadTableMetadataLocationResolver implements MetadataLocationResolver {
+
+  private final Catalog catalog;
+
+  LoadTableMetadataLocationResolver(Catalog catalog) {
+    this.catalog = catalog;
+  }
+
+  @Override
+  public String metadataLocation(TableIdentifier identifier) {
+    return ((BaseTable) catalog.loadTable(identifier))
+        .operations()
+        .current()
+        .metadataFileLocation();
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.util.Map;
+import org.apache.iceberg.aws.dynamodb.DynamoDbCatalog;
+import org.apache.iceberg.aws.glue.GlueCatalog;
+import org.apache.iceberg.catalog.Catalog;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.hive.HiveCatalog;
+import org.apache.iceberg.jdbc.JdbcCatalog;
+import org.apache.iceberg.nessie.NessieCatalog;
+
+/**
+ * Resolves the location of the current metadata file of a table, which is all that is needed to
+ * register the table in another catalog.
+ *
+ * <p>Resolvers for the known catalog types read the metadata pointer straight from the catalog's
+ * backing store, without downloading and parsing the metadata file like {@link
+ * Catalog#loadTable(TableIdentifier)} does. Implementations must be thread-safe.
+ */
+public interface MetadataLocationResolver extends AutoCloseable {
+
+  /**
+   * Returns the location of the current metadata file of the table.
+   *
+   * @param identifier table identifier
+   * @throws org.apache.iceberg.exceptions.NoSuchTableException if the table doesn't exist
+   */
+  String metadataLocation(TableIdentifier identifier);
+
+  @Override
+  default void close() {}
+
+  /**
+   * Same as {@link #forCatalog(Catalog, Map, int)} with a parallelism of 1.
+   *
+   * @param catalog catalog containing the tables
+   * @param catalogProperties properties the catalog was initialized with
+   */
+  static MetadataLocationResolver forCatalog(
+      Catalog catalog, Map<String, String> catalogProperties) {
+    return forCatalog(catalog, catalogProperties, 1);
+  }
+
+  /**
+   * Returns a resolver which reads the metadata pointer directly from the backing store of Hive,
+   * JDBC, Glue, DynamoDB and Nessie catalogs, and which loads the table for any other catalog.
+   *
+   * <p>The returned resolver uses its own connections, configured from the same properties as the
+   * catalog, and has to be closed. The Hive resolver keeps at least {@code parallelism} metastore
+   * clients, so that concurrent registrations don't wait for each other's client.
+   *
+   * @param catalog catalog containing the tables
+   * @param catalogProperties properties the catalog was initialized with
+   * @param parallelism number of tables which are resolved concurrently
+   */
+  static MetadataLocationResolver forCatalog(
+      Catalog catalog, Map<String, String> catalogProperties, int parallelism) {
+    Preconditions.checkArgument(catalog != null, "catalog is null");
+    Preconditions.checkArgument(catalogProperties != null, "catalog properties is null");
+    Preconditions.checkArgument(parallelism > 0, "parallelism should be greater than 0");
+    if (catalog instanceof HiveCatalog) {
+      return new HiveMetadataLocationResolver(
+          (HiveCatalog) catalog, catalogProperties, parallelism);
+    } else if (catalog instanceof JdbcCatalog) {
+      return new JdbcMetadataLocationResolver(catalog.name(), catalogProperties);
+    } else if (catalog instanceof GlueCatalog) {
+      return new GlueMetadataLocationResolver(catalogProperties);
+    } else if (catalog instanceof DynamoDbCatalog) {
+      return new DynamoDbMetadataLocationResolver(catalogProperties);
+    } else if (catalog instanceof NessieCatalog) {
+      return new NessieMetadataLocationResolver(catalogProperties);
+    }
+    return loadTable(catalog);
+  }
+
+  /**
+   * Same as {@link #forCatalog(Catalog, Map, int)}, but reads the tables at the state the {@code
+   * tableEnumerator} lists them from. A Nessie resolver reads at the commit the enumerator pinned,
+   * so that the tables it resolves again, like on a retry, match the identified ones.
+   *
+   * @param catalog catalog containing the tables
+   * @param catalogProperties properties the catalog was initialized with
+   * @param parallelism number of tables which are resolved concurrently
+   * @param tableEnumerator enumerator of the tables of the catalog, if any
+   */
+  static MetadataLocationResolver forCatalog(
+      Catalog catalog,
+      Map<String, String> catalogProperties,
+      int parallelism,
+      TableEnumerator tableEnumerator) {
+    if (catalog instanceof NessieCatalog && tableEnumerator instanceof NessieTableEnumerator) {
+      Preconditions.checkArgument(catalogProperties != null, "catalog properties is null");
+      return new NessieMetadataLocationResolver(
+          catalogProperties, ((NessieTableEnumerator) tableEnumerator).hash());
+    }
+    return forCatalog(catalog, catalogProperties, parallelism);
+  }
+
+  /** Returns a resolver which loads the table from the catalog. */
+  static MetadataLocationResolver loadTable(Catalog catalog) {
+    Preconditions.checkArgument(catalog != null, "catalog is null");
+    return new LoadTableMetadataLocationResolver(catalog);
+  }
+}
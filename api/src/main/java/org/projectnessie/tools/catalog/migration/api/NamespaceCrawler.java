@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.apache.iceberg.catalog.Namespace;
+
+/**
+ * Crawls a namespace hierarchy by listing sibling subtrees concurrently.
+ *
+ * <p>Every namespace is listed exactly once. The collected namespaces are returned in the same
+ * depth-first order as a serial recursive walk of the hierarchy.
+ */
+final class NamespaceCrawler {
+
+  private final Function<Namespace, List<Namespace>> listNamespaces;
+  private final int fanOut;
+
+  /**
+   * @param listNamespaces function listing the direct children of a namespace
+   * @param fanOut maximum number of concurrent {@code listNamespaces} calls
+   */
+  NamespaceCrawler(Function<Namespace, List<Namespace>> listNamespaces, int fanOut) {
+    Preconditions.checkArgument(fanOut > 0, "fanOut should be greater than 0");
+    this.listNamespaces = listNamespaces;
+    this.fanOut = fanOut;
+  }
+
+  /** Returns {@code root} and all the namespaces below it. */
+  Set<Namespace> crawl(Namespace root) {
+    Map<Namespace, List<Namespace>> children = new ConcurrentHashMap<>();
+    Set<Namespace> visited = ConcurrentHashMap.newKeySet();
+    AtomicInteger pending = new AtomicInteger();
+    CompletableFuture<Void> done = new CompletableFuture<>();
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            fanOut,
+            new ThreadFactoryBuilder()
+                .setNameFormat("namespace-crawler-%d")
+                .setDaemon(true)
+                .build());
+    try {
+      visited.add(root);
+      schedule(executor, root, children, visited, pending, done);
+      done.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while listing the namespaces", e);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return depthFirstOrder(root, children);
+  }
+
+  private void schedule(
+      ExecutorService executor,
+      Namespace namespace,
+      Map<Namespace, List<Namespace>> children,
+      Set<Namespace> visited,
+      AtomicInteger pending,
+      CompletableFuture<Void> done) {
+    pending.incrementAndGet();
+    executor.execute(
+        () -> {
+          try {
+            if (done.isDone()) {
+              return;
+            }
+            List<Namespace> listed = listNamespaces.apply(namespace);
+            children.put(namespace, listed);
+            for (Namespace child : listed) {
+              if (visited.add(child)) {
+                schedule(executor, child, children, visited, pending, done);
+              }
+            }
+          } catch (Throwable t) {
+            done.completeExceptionally(t);
+          } finally {
+            if (pending.decrementAndGet() == 0) {
+              done.complete(null);
+            }
+          }
+        });
+  }
+
+  private static Set<Namespace> depthFirstOrder(
+      Namespace root, Map<Namespace, List<Namespace>> children) {
+    Set<Namespace> ordered = new LinkedHashSet<>();
+    Deque<Namespace> stack = new ArrayDeque<>();
+    stack.push(root);
+    while (!stack.isEmpty()) {
+      Namespace namespace = stack.pop();
+      if (ordered.add(namespace)) {
+        List<Namespace> listed = children.getOrDefault(namespace, Collections.emptyList());
+        for (int i = listed.size() - 1; i >= 0; i--) {
+          stack.push(listed.get(i));
+        }
+      }
+    }
+    return ordered;
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.CatalogUtil;
+import org.apache.iceberg.TableMetadata;
+import org.apache.iceberg.TableMetadataParser;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.exceptions.AlreadyExistsException;
+import org.apache.iceberg.exceptions.CommitFailedException;
+import org.apache.iceberg.exceptions.NoSuchNamespaceException;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.nessie.NessieIcebergClient;
+import org.projectnessie.error.NessieConflictException;
+import org.projectnessie.error.NessieNotFoundException;
+import org.projectnessie.error.NessieReferenceConflictException;
+import org.projectnessie.error.ReferenceConflicts;
+import org.projectnessie.model.Branch;
+import org.projectnessie.model.CommitMeta;
+import org.projectnessie.model.Conflict;
+import org.projectnessie.model.ContentKey;
+import org.projectnessie.model.IcebergTable;
+import org.projectnessie.model.Operation;
+import org.projectnessie.model.Reference;
+
+/**
+ * Registers a batch of tables in a Nessie catalog with a single commit which puts the {@link
+ * IcebergTable} contents of all the tables, instead of one commit per table.
+ *
+ * <p>The metadata files are read to fill in the current snapshot, schema, spec and sort order ids
+ * of the contents, like {@code NessieCatalog} does. Tables which exist already fail before the
+ * commit. If the commit conflicts with concurrent changes on some of the tables, those tables fail
+ * and the remaining ones are committed again.
+ */
+final class NessieBatchTableRegistrar implements BatchTableRegistrar {
+
+  static final int MAX_COMMIT_ATTEMPTS = 5;
+  private static final String DEFAULT_FILE_IO_IMPL = "org.apache.iceberg.hadoop.HadoopFileIO";
+
+  private final NessieIcebergClient client;
+  private final FileIO io;
+  // the tables of a batch are new keys, so committing on top of an older hash of the branch is
+  // fine, Nessie only rejects the keys which changed since then
+  private final AtomicReference<Branch> branch = new AtomicReference<>();
+
+  NessieBatchTableRegistrar(Map<String, String> catalogProperties, Configuration hadoopConf) {
+    this.client = NessieClients.icebergClient(catalogProperties);
+    Reference reference = client.getReference();
+    Preconditions.checkArgument(
+        reference instanceof Branch,
+        "Nessie reference %s is not a branch, tables can't be registered",
+        reference.getName());
+    this.branch.set((Branch) reference);
+    this.io =
+        CatalogUtil.loadFileIO(
+            catalogProperties.getOrDefault(CatalogProperties.FILE_IO_IMPL, DEFAULT_FILE_IO_IMPL),
+            catalogProperties,
+            hadoopConf);
+  }
+
+  @Override
+  public Map<TableIdentifier, RuntimeException> registerTables(
+      Map<TableIdentifier, String> metadataLocations) {
+    Map<TableIdentifier, RuntimeException> failures = new LinkedHashMap<>();
+    Map<ContentKey, TableIdentifier> identifiers = new LinkedHashMap<>();
+    Map<ContentKey, IcebergTable> contents = new LinkedHashMap<>();
+    metadataLocations.forEach(
+        (identifier, metadataLocation) -> {
+          try {
+            TableMetadata metadata = TableMetadataParser.read(io, metadataLocation);
+            ContentKey key = NessieClients.contentKey(identifier);
+            identifiers.put(key, identifier);
+            contents.put(
+                key,
+                IcebergTable.of(
+                    metadataLocation,
+                    metadata.currentSnapshot() != null
+                        ? metadata.currentSnapshot().snapshotId()
+                        : -1L,
+                    metadata.currentSchemaId(),
+                    metadata.defaultSpecId(),
+                    metadata.sortOrder().orderId()));
+          } catch (RuntimeException e) {
+            failures.put(identifier, e);
+          }
+        });
+    if (contents.isEmpty()) {
+      return failures;
+    }
+
+    try {
+      client
+          .getApi()
+          .getContent()
+          .reference(branch.get())
+          .keys(new ArrayList<>(contents.keySet()))
+          .get()
+          .keySet()
+          .forEach(
+              key -> {
+                contents.remove(key);
+                failures.put(
+                    identifiers.get(key),
+                    new AlreadyExistsException("Table already exists: %s", identifiers.get(key)));
+              });
+      commit(contents, identifiers, failures);
+    } catch (NessieNotFoundException e) {
+      failAll(
+          contents,
+          identifiers,
+          failures,
+          new IllegalStateException(
+              String.format("Nessie reference %s doesn't exist", branch.get().getName()), e));
+    } catch (RuntimeException e) {
+      failAll(contents, identifiers, failures, e);
+    }
+    return failures;
+  }
+
+  private void commit(
+      Map<ContentKey, IcebergTable> contents,
+      Map<ContentKey, TableIdentifier> identifiers,
+      Map<TableIdentifier, RuntimeException> failures)
+      throws NessieNotFoundException {
+    for (int attempt = 1; !contents.isEmpty(); attempt++) {
+      List<Operation> operations = new ArrayList<>(contents.size());
+      contents.forEach((key, content) -> operations.add(Operation.Put.of(key, content)));
+      try {
+        branch.set(
+            client
+                .getApi()
+                .commitMultipleOperations()
+                .branch(branch.get())
+                .commitMeta(
+                    CommitMeta.builder()
+                        .message(String.format("Register %d tables", operations.size()))
+                        .author(System.getProperty("user.name"))
+                        .build())
+                .operations(operations)
+                .commit());
+        return;
+      } catch (NessieConflictException e) {
+        ReferenceConflicts conflicts =
+            e instanceof NessieReferenceConflictException
+                ? ((NessieReferenceConflictException) e).getErrorDetails()
+                : null;
+        int conflicting =
+            conflicts != null ? failConflicting(conflicts, contents, identifiers, failures) : 0;
+        if (conflicting == 0 || attempt >= MAX_COMMIT_ATTEMPTS) {
+          failAll(
+              contents,
+              identifiers,
+              failures,
+              new CommitFailedException(
+                  e, "Failed to commit %d tables: %s", contents.size(), e.getMessage()));
+          return;
+        }
+        Reference reference = client.getApi().getReference().refName(branch.get().getName()).get();
+        if (reference instanceof Branch) {
+          branch.set((Branch) reference);
+        }
+      }
+    }
+  }
+
+  /** Fails the tables of the conflicts and returns the number of failed tables. */
+  private static int failConflicting(
+      ReferenceConflicts conflicts,
+      Map<ContentKey, IcebergTable> contents,
+      Map<ContentKey, TableIdentifier> identifiers,
+      Map<TableIdentifier, RuntimeException> failures) {
+    int conflicting = 0;
+    for (Conflict conflict : conflicts.conflicts()) {
+      ContentKey key = conflict.key();
+      if (key == null || contents.remove(key) == null) {
+        continue;
+      }
+      TableIdentifier identifier = identifiers.get(key);
+      switch (conflict.conflictType()) {
+        case KEY_EXISTS:
+          failures.put(
+              identifier, new AlreadyExistsException("Table already exists: %s", identifier));
+          break;
+        case NAMESPACE_ABSENT:
+          failures.put(
+              identifier,
+              new NoSuchNamespaceException("Namespace does not exist: %s", identifier.namespace()));
+          break;
+        default:
+          failures.put(
+              identifier,
+              new CommitFailedException(
+                  "Failed to register table %s: %s", identifier, conflict.message()));
+      }
+      conflicting++;
+    }
+    return conflicting;
+  }
+
+  private static void failAll(
+      Map<ContentKey, IcebergTable> contents,
+      Map<ContentKey, TableIdentifier> identifiers,
+      Map<TableIdentifier, RuntimeException> failures,
+      RuntimeException failure) {
+    contents.keySet().forEach(key -> failures.put(identifiers.get(key), failure));
+    contents.clear();
+  }
+
+  @Override
+  public void close() {
+    try {
+      io.close();
+    } finally {
+      client.close();
+    }
+  }
+}
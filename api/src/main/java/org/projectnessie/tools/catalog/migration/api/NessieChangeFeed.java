@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.nessie.NessieIcebergClient;
+import org.projectnessie.client.api.NessieApiV1;
+import org.projectnessie.error.NessieNotFoundException;
+import org.projectnessie.model.Content;
+import org.projectnessie.model.FetchOption;
+import org.projectnessie.model.IcebergTable;
+import org.projectnessie.model.LogResponse;
+import org.projectnessie.model.Operation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Follows the tables of a Nessie catalog through the commit log of the configured reference.
+ *
+ * <p>A poll without any new commit costs a single {@code getReference} request. Otherwise, the
+ * commits since the previous poll are read with their operations, and the newest operation of
+ * every table wins. The changes can't be followed anymore if the previous commit is no longer
+ * reachable from the reference, like after the reference was reassigned.
+ */
+final class NessieChangeFeed implements ChangeFeed {
+
+  private static final Logger LOG = LoggerFactory.getLogger(NessieChangeFeed.class);
+
+  private final Map<String, String> catalogProperties;
+  private final NessieIcebergClient client;
+  private final String refName;
+  // commit the changes are followed from
+  private String hash;
+
+  NessieChangeFeed(Map<String, String> catalogProperties) {
+    this.catalogProperties = catalogProperties;
+    this.client = NessieClients.icebergClient(catalogProperties);
+    this.refName = client.getReference().getName();
+  }
+
+  @Override
+  public TableEnumerator snapshot() {
+    NessieTableEnumerator enumerator = new NessieTableEnumerator(catalogProperties);
+    hash = enumerator.hash();
+    return enumerator;
+  }
+
+  @Override
+  public boolean forEachChange(BiConsumer<TableIdentifier, String> consumer) {
+    Preconditions.checkState(hash != null, "snapshot() was not called");
+    NessieApiV1 api = client.getApi();
+    String head;
+    Map<TableIdentifier, String> changes = new LinkedHashMap<>();
+    boolean reachedPrevious = false;
+    try {
+      head = api.getReference().refName(refName).get().getHash();
+      if (head.equals(hash)) {
+        return true;
+      }
+      // newest commits first, up to and including the previous commit
+      try (Stream<LogResponse.LogEntry> log =
+          api
+              .getCommitLog()
+              .refName(refName)
+              .hashOnRef(head)
+              .untilHash(hash)
+              .fetch(FetchOption.ALL)
+              .stream()) {
+        Iterator<LogResponse.LogEntry> entries = log.iterator();
+        while (entries.hasNext()) {
+          LogResponse.LogEntry entry = entries.next();
+          if (hash.equals(entry.getCommitMeta().getHash())) {
+            reachedPrevious = true;
+            break;
+          }
+          if (entry.getOperations() != null) {
+            entry.getOperations().forEach(operation -> collect(operation, changes));
+          }
+        }
+      }
+    } catch (NessieNotFoundException e) {
+      throw new IllegalStateException(
+          String.format("Nessie reference %s doesn't exist", refName), e);
+    }
+    if (!reachedPrevious) {
+      LOG.warn(
+          "Commit {} is no longer reachable from Nessie reference {}, the tables have to be read "
+              + "again",
+          hash,
+          refName);
+      return false;
+    }
+    LOG.info(
+        "{} tables changed on Nessie reference {} between commits {} and {}",
+        changes.size(),
+        refName,
+        hash,
+        head);
+    hash = head;
+    changes.forEach(consumer);
+    return true;
+  }
+
+  private static void collect(Operation operation, Map<TableIdentifier, String> changes) {
+    TableIdentifier identifier = NessieClients.tableIdentifier(operation.getKey());
+    if (changes.containsKey(identifier)) {
+      // changed again by a newer commit
+      return;
+    }
+    if (operation instanceof Operation.Put) {
+      Content content = ((Operation.Put) operation).getContent();
+      if (content instanceof IcebergTable) {
+        changes.put(identifier, ((IcebergTable) content).getMetadataLocation());
+      }
+    } else if (operation instanceof Operation.Delete) {
+      // might not be a table, which the replicator ignores as it never registered it
+      changes.put(identifier, null);
+    }
+  }
+
+  @Override
+  public void close() {
+    client.close();
+  }
+}
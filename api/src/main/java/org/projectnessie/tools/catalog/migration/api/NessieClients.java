@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.nessie.NessieIcebergClient;
+import org.projectnessie.client.NessieClientBuilder;
+import org.projectnessie.client.NessieConfigConstants;
+import org.projectnessie.client.api.NessieApiV1;
+import org.projectnessie.client.api.NessieApiV2;
+import org.projectnessie.client.config.NessieClientConfigSource;
+import org.projectnessie.client.config.NessieClientConfigSources;
+import org.projectnessie.model.ContentKey;
+
+/** Builds Nessie clients from the properties of a Nessie catalog. */
+final class NessieClients {
+
+  private static final String NESSIE_CONFIG_PREFIX = "nessie.";
+  private static final String CLIENT_API_VERSION = "nessie.client-api-version";
+
+  private NessieClients() {}
+
+  /**
+   * Returns a client on the reference configured in the catalog properties, configured like {@code
+   * org.apache.iceberg.nessie.NessieCatalog#initialize} does.
+   */
+  static NessieIcebergClient icebergClient(Map<String, String> catalogProperties) {
+    return icebergClient(
+        catalogProperties,
+        catalogProperties.get(
+            NessieConfigConstants.CONF_NESSIE_REF_HASH.replace(NESSIE_CONFIG_PREFIX, "")));
+  }
+
+  /**
+   * Same as {@link #icebergClient(Map)}, but on the given commit hash of the configured reference.
+   */
+  static NessieIcebergClient icebergClient(Map<String, String> catalogProperties, String hash) {
+    Function<String, String> removePrefix = key -> key.replace(NESSIE_CONFIG_PREFIX, "");
+    NessieClientConfigSource configSource =
+        NessieClientConfigSources.mapConfigSource(catalogProperties)
+            .fallbackTo(key -> catalogProperties.get(removePrefix.apply(key)));
+    NessieClientBuilder clientBuilder =
+        NessieClientBuilder.createClientBuilderFromSystemSettings(configSource);
+
+    String apiVersion = catalogProperties.get(removePrefix.apply(CLIENT_API_VERSION));
+    if (apiVersion == null) {
+      String uri = catalogProperties.get(CatalogProperties.URI);
+      apiVersion = uri != null && uri.endsWith("/v1") ? "1" : "2";
+    }
+    NessieApiV1 api =
+        "1".equals(apiVersion)
+            ? clientBuilder.build(NessieApiV1.class)
+            : clientBuilder.build(NessieApiV2.class);
+
+    return new NessieIcebergClient(
+        api,
+        catalogProperties.get(removePrefix.apply(NessieConfigConstants.CONF_NESSIE_REF)),
+        hash,
+        catalogProperties);
+  }
+
+  /** Returns the Nessie content key of the table, like {@code NessieCatalog} does. */
+  static ContentKey contentKey(TableIdentifier identifier) {
+    String[] elements = new String[identifier.namespace().length() + 1];
+    System.arraycopy(identifier.namespace().levels(), 0, elements, 0, elements.length - 1);
+    elements[elements.length - 1] = identifier.name();
+    return ContentKey.of(elements);
+  }
+
+  /** Returns the identifier of the table with the Nessie content key, like {@code NessieCatalog} does. */
+  static TableIdentifier tableIdentifier(ContentKey key) {
+    List<String> elements = key.getElements();
+    return TableIdentifier.of(
+        Namespace.of(elements.subList(0, elements.size() - 1).toArray(new String[0])),
+        key.getName());
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.Map;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.exceptions.NoSuchTableException;
+import org.apache.iceberg.nessie.NessieIcebergClient;
+import org.projectnessie.model.IcebergTable;
+
+/**
+ * Reads the metadata location from the Iceberg table content on the configured Nessie ref, or on a
+ * given commit of it.
+ */
+final class NessieMetadataLocationResolver implements MetadataLocationResolver {
+
+  private final NessieIcebergClient client;
+
+  NessieMetadataLocationResolver(Map<String, String> catalogProperties) {
+    this.client = NessieClients.icebergClient(catalogProperties);
+  }
+
+  NessieMetadataLocationResolver(Map<String, String> catalogProperties, String hash) {
+    this.client = NessieClients.icebergClient(catalogProperties, hash);
+  }
+
+  @Override
+  public String metadataLocation(TableIdentifier identifier) {
+    IcebergTable table = client.table(identifier);
+    if (table == null) {
+      throw new NoSuchTableException("Table does not exist: %s", identifier);
+    }
+    return table.getMetadataLocation();
+  }
+
+  @Override
+  public void close() {
+    client.close();
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.nessie.NessieIcebergClient;
+import org.projectnessie.client.api.GetEntriesBuilder;
+import org.projectnessie.client.api.NessieApiV1;
+import org.projectnessie.client.api.NessieApiV2;
+import org.projectnessie.error.NessieNotFoundException;
+import org.projectnessie.model.Content;
+import org.projectnessie.model.ContentKey;
+import org.projectnessie.model.EntriesResponse;
+import org.projectnessie.model.IcebergTable;
+import org.projectnessie.model.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the identifiers and metadata locations of all the tables of a Nessie catalog with paged
+ * {@code getEntries} requests on the configured reference, instead of walking the namespaces.
+ *
+ * <p>The commit hash of the reference is pinned when the enumerator is created, so that all the
+ * pages, and every enumeration of the same enumerator, see the same snapshot of the catalog. The
+ * contents are returned with the entries by the Nessie API v2, while the API v1 needs one {@code
+ * getContent} request per page.
+ */
+final class NessieTableEnumerator implements TableEnumerator {
+
+  private static final Logger LOG = LoggerFactory.getLogger(NessieTableEnumerator.class);
+
+  static final int DEFAULT_PAGE_SIZE = 1000;
+  static final String ICEBERG_TABLES_FILTER =
+      "entry.contentType == '" + Content.Type.ICEBERG_TABLE.name() + "'";
+
+  private final NessieIcebergClient client;
+  private final String refName;
+  private final String hash;
+  private final int pageSize;
+
+  NessieTableEnumerator(Map<String, String> catalogProperties) {
+    this(catalogProperties, DEFAULT_PAGE_SIZE);
+  }
+
+  NessieTableEnumerator(Map<String, String> catalogProperties, int pageSize) {
+    Preconditions.checkArgument(pageSize > 0, "pageSize should be greater than 0");
+    this.client = NessieClients.icebergClient(catalogProperties);
+    Reference reference = client.getReference();
+    this.refName = reference.getName();
+    this.hash = reference.getHash();
+    this.pageSize = pageSize;
+    LOG.info("Enumerating the tables of Nessie reference {} at commit {}", refName, hash);
+  }
+
+  /** Returns the commit hash all the tables are read from. */
+  String hash() {
+    return hash;
+  }
+
+  @Override
+  public void forEachTable(BiConsumer<TableIdentifier, String> consumer) {
+    forEachTable(() -> {}, consumer);
+  }
+
+  @Override
+  public void forEachTable(Runnable beforeRequest, BiConsumer<TableIdentifier, String> consumer) {
+    NessieApiV1 api = client.getApi();
+    boolean withContent = api instanceof NessieApiV2;
+    GetEntriesBuilder entries =
+        api.getEntries()
+            .refName(refName)
+            .hashOnRef(hash)
+            .filter(ICEBERG_TABLES_FILTER)
+            .maxRecords(pageSize);
+    if (withContent) {
+      entries.withContent(true);
+    }
+
+    List<ContentKey> page = new ArrayList<>(pageSize);
+    try {
+      String pageToken = null;
+      do {
+        beforeRequest.run();
+        EntriesResponse response = entries.pageToken(pageToken).get();
+        for (EntriesResponse.Entry entry : response.getEntries()) {
+          if (entry.getType() != Content.Type.ICEBERG_TABLE) {
+            continue;
+          }
+          if (withContent && entry.getContent() != null) {
+            accept(entry.getName(), entry.getContent(), consumer);
+            continue;
+          }
+          page.add(entry.getName());
+          if (page.size() == pageSize) {
+            acceptContents(page, beforeRequest, consumer);
+            page.clear();
+          }
+        }
+        pageToken = response.isHasMore() ? response.getToken() : null;
+      } while (pageToken != null);
+      acceptContents(page, beforeRequest, consumer);
+    } catch (NessieNotFoundException e) {
+      throw new IllegalStateException(
+          String.format("Nessie reference %s doesn't exist at commit %s", refName, hash), e);
+    }
+  }
+
+  private void acceptContents(
+      List<ContentKey> keys, Runnable beforeRequest, BiConsumer<TableIdentifier, String> consumer) {
+    if (keys.isEmpty()) {
+      return;
+    }
+    beforeRequest.run();
+    Map<ContentKey, Content> contents;
+    try {
+      contents = client.getApi().getContent().refName(refName).hashOnRef(hash).keys(keys).get();
+    } catch (NessieNotFoundException e) {
+      throw new IllegalStateException(
+          String.format("Nessie reference %s doesn't exist at commit %s", refName, hash), e);
+    }
+    // keep the order of the entries, a key can't disappear from a pinned commit
+    keys.forEach(
+        key -> {
+          Content content = contents.get(key);
+          if (content != null) {
+            accept(key, content, consumer);
+          }
+        });
+  }
+
+  private static void accept(
+      ContentKey key, Content content, BiConsumer<TableIdentifier, String> consumer) {
+    if (!(content instanceof IcebergTable)) {
+      return;
+    }
+    consumer.accept(
+        NessieClients.tableIdentifier(key), ((IcebergTable) content).getMetadataLocation());
+  }
+
+  @Override
+  public void close() {
+    client.close();
+  }
+}
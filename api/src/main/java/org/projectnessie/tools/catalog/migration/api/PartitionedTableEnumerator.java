@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.apache.iceberg.BaseMetastoreTableOperations;
+import org.apache.iceberg.catalog.TableIdentifier;
+
+/**
+ * Base class of the enumerators which list the tables of independent partitions of a catalog page
+ * by page, like the databases of Glue and Hive or the scan segments of DynamoDB.
+ *
+ * <p>The tables of up to {@code parallelism} partitions are listed concurrently, so at most that
+ * many listing requests are in flight at once. The pages are handed over to the thread calling
+ * {@link #forEachTable(BiConsumer)}, which is the only one invoking the consumer.
+ *
+ * @param <P> type of the partitions
+ */
+abstract class PartitionedTableEnumerator<P> implements TableEnumerator {
+
+  private final int parallelism;
+  private final String threadNameFormat;
+
+  PartitionedTableEnumerator(int parallelism, String threadNameFormat) {
+    Preconditions.checkArgument(parallelism > 0, "parallelism should be greater than 0");
+    this.parallelism = parallelism;
+    this.threadNameFormat = threadNameFormat;
+  }
+
+  /**
+   * Returns all the partitions of the catalog.
+   *
+   * @param beforeRequest to run before each listing request
+   */
+  abstract List<P> listPartitions(Runnable beforeRequest);
+
+  /**
+   * Passes the Iceberg tables of the partition to {@code consumer}, one page at a time.
+   *
+   * @param partition partition of the catalog
+   * @param beforeRequest to run before each listing request
+   * @param consumer receives the pages of tables
+   */
+  abstract void forEachTablePage(P partition, Runnable beforeRequest, Consumer<Page> consumer);
+
+  @Override
+  public void forEachTable(BiConsumer<TableIdentifier, String> consumer) {
+    forEachTable(() -> {}, consumer);
+  }
+
+  @Override
+  public void forEachTable(Runnable beforeRequest, BiConsumer<TableIdentifier, String> consumer) {
+    List<P> partitions = listPartitions(beforeRequest);
+    int workers = Math.min(parallelism, partitions.size());
+    if (workers <= 1) {
+      partitions.forEach(
+          partition -> forEachTablePage(partition, beforeRequest, page -> page.accept(consumer)));
+      return;
+    }
+
+    // bounded, so that the workers stop listing while the consumer is behind
+    BlockingQueue<Page> pages = new ArrayBlockingQueue<>(workers * 2);
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            workers,
+            new ThreadFactoryBuilder().setNameFormat(threadNameFormat).setDaemon(true).build());
+    try {
+      for (P partition : partitions) {
+        executor.execute(
+            () -> {
+              Page last;
+              try {
+                forEachTablePage(partition, beforeRequest, page -> put(pages, page));
+                last = Page.last(null);
+              } catch (Throwable e) {
+                // even an error ends the partition, the consumer would wait for it forever
+                // otherwise
+                last = Page.last(e);
+              }
+              put(pages, last);
+            });
+      }
+      int remaining = partitions.size();
+      while (remaining > 0) {
+        Page page = pages.take();
+        if (page.failure != null) {
+          Throwables.throwIfUnchecked(page.failure);
+          throw new RuntimeException(page.failure);
+        }
+        page.accept(consumer);
+        if (page.last) {
+          remaining--;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while listing the tables", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns the metadata location from the parameters of an Iceberg table, or null if the
+   * parameters aren't the ones of an Iceberg table.
+   */
+  static String icebergMetadataLocation(Map<String, String> parameters) {
+    if (parameters == null) {
+      return null;
+    }
+    String tableType = parameters.get(BaseMetastoreTableOperations.TABLE_TYPE_PROP);
+    if (!BaseMetastoreTableOperations.ICEBERG_TABLE_TYPE_VALUE.equalsIgnoreCase(tableType)) {
+      return null;
+    }
+    return parameters.get(BaseMetastoreTableOperations.METADATA_LOCATION_PROP);
+  }
+
+  private static void put(BlockingQueue<Page> pages, Page page) {
+    try {
+      pages.put(page);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while listing the tables", e);
+    }
+  }
+
+  /** Tables of one listing response, or the end of the tables of a partition. */
+  static final class Page {
+    private final List<TableIdentifier> identifiers;
+    private final List<String> metadataLocations;
+    private final boolean last;
+    private final Throwable failure;
+
+    Page(int size) {
+      this(new ArrayList<>(size), new ArrayList<>(size), false, null);
+    }
+
+    private Page(
+        List<TableIdentifier> identifiers,
+        List<String> metadataLocations,
+        boolean last,
+        Throwable failure) {
+      this.identifiers = identifiers;
+      this.metadataLocations = metadataLocations;
+      this.last = last;
+      this.failure = failure;
+    }
+
+    private static Page last(Throwable failure) {
+      return new Page(List.of(), List.of(), true, failure);
+    }
+
+    void add(TableIdentifier identifier, String metadataLocation) {
+      identifiers.add(identifier);
+      metadataLocations.add(metadataLocation);
+    }
+
+    private void accept(BiConsumer<TableIdentifier, String> consumer) {
+      for (int i = 0; i < identifiers.size(); i++) {
+        consumer.accept(identifiers.get(i), metadataLocations.get(i));
+      }
+    }
+  }
+}
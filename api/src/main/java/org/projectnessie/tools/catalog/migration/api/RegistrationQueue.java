@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.iceberg.catalog.TableIdentifier;
+
+/**
+ * Hands out the tables to register to the registration workers, in batches of up to {@code
+ * batchSize} tables, and takes back the tables whose registration has to be retried.
+ *
+ * <p>Tables to retry wait in the queue until their backoff has elapsed, and are handed out before
+ * any new tables once they are due, so that no worker sleeps through a backoff while there are
+ * other tables to register. The queue is only drained once all the tables handed out have been
+ * {@linkplain #finish finished} without any retry left.
+ */
+final class RegistrationQueue {
+
+  /** Tables to register together, and the number of times their registration was retried. */
+  static final class Work {
+    private final List<TableIdentifier> tables;
+    private final int retries;
+    private final long dueNanos;
+
+    private Work(List<TableIdentifier> tables, int retries, long dueNanos) {
+      this.tables = tables;
+      this.retries = retries;
+      this.dueNanos = dueNanos;
+    }
+
+    List<TableIdentifier> tables() {
+      return tables;
+    }
+
+    int retries() {
+      return retries;
+    }
+  }
+
+  private final Iterator<TableIdentifier> identifiers;
+  private final int batchSize;
+  // not a monitor, as virtual threads must not be pinned to their carrier thread while waiting
+  private final Lock lock = new ReentrantLock();
+  private final Condition changed = lock.newCondition();
+  private final PriorityQueue<Work> retries =
+      new PriorityQueue<>(Comparator.comparingLong(work -> work.dueNanos));
+  // work handed out and not finished yet, which may still add retries
+  private int active;
+  private volatile boolean identifiersExhausted;
+
+  RegistrationQueue(Iterator<TableIdentifier> identifiers, int batchSize) {
+    this.identifiers = identifiers;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Returns the next tables to register: the retry which is due first, else the next batch of
+   * tables, else the retry which becomes due first, once it does. Returns null once all the tables
+   * have been registered.
+   */
+  Work take() throws InterruptedException {
+    Work retry = pollDueRetry();
+    if (retry != null) {
+      return retry;
+    }
+
+    if (!identifiersExhausted) {
+      // counted as active while reading the identifiers, so that the other workers wait for the
+      // batch instead of considering the queue drained
+      updateActive(1);
+      List<TableIdentifier> batch = List.of();
+      try {
+        batch = nextBatch();
+      } finally {
+        if (batch.isEmpty()) {
+          updateActive(-1);
+        }
+      }
+      if (!batch.isEmpty()) {
+        return new Work(batch, 0, 0);
+      }
+      identifiersExhausted = true;
+    }
+
+    lock.lock();
+    try {
+      while (true) {
+        Work next = retries.peek();
+        if (next == null) {
+          if (active == 0) {
+            return null;
+          }
+          changed.await();
+          continue;
+        }
+        long waitNanos = next.dueNanos - System.nanoTime();
+        if (waitNanos <= 0) {
+          active++;
+          return retries.poll();
+        }
+        changed.awaitNanos(waitNanos);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Marks {@code work} as finished, queueing the given tables to be retried after {@code
+   * backoffNanos}.
+   */
+  void finish(Work work, List<TableIdentifier> tablesToRetry, long backoffNanos) {
+    lock.lock();
+    try {
+      active--;
+      if (!tablesToRetry.isEmpty()) {
+        retries.add(
+            new Work(
+                new ArrayList<>(tablesToRetry),
+                work.retries + 1,
+                System.nanoTime() + backoffNanos));
+      }
+      changed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Work pollDueRetry() {
+    lock.lock();
+    try {
+      Work next = retries.peek();
+      if (next == null || next.dueNanos - System.nanoTime() > 0) {
+        return null;
+      }
+      active++;
+      return retries.poll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void updateActive(int delta) {
+    lock.lock();
+    try {
+      active += delta;
+      changed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private List<TableIdentifier> nextBatch() {
+    // the identifiers might block while they are being discovered, so they are read without
+    // holding the lock
+    synchronized (identifiers) {
+      List<TableIdentifier> batch = new ArrayList<>(Math.min(batchSize, 1024));
+      while (batch.size() < batchSize && identifiers.hasNext()) {
+        batch.add(identifiers.next());
+      }
+      return batch;
+    }
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.time.Duration;
+import java.util.Optional;
+import org.immutables.value.Value;
+
+/** Counters and lag of a {@link CatalogReplicator}. */
+@Value.Immutable
+public interface ReplicationMetrics {
+
+  /** Number of completed passes. */
+  long passes();
+
+  /** Number of passes which failed as a whole, like when a catalog couldn't be reached. */
+  long failedPasses();
+
+  /** Number of tables registered, or registered again because their metadata location moved. */
+  long registeredTables();
+
+  /** Number of tables dropped from the target catalog as they disappeared from the source. */
+  long droppedTables();
+
+  /** Number of tables which failed to be registered or dropped by the last pass. */
+  long failedTables();
+
+  /** Duration of the last pass. */
+  Duration lastPassDuration();
+
+  /**
+   * Time since the start of the last pass which replicated every change, as all the changes of
+   * the source catalog before that pass are in the target catalog. Empty until such a pass
+   * completed.
+   */
+  Optional<Duration> lag();
+}
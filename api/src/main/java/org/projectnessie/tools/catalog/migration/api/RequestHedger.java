@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Hedges idempotent requests against their tail latency: a request which hasn't returned after
+ * the given percentile of the recent request latencies is issued a second time, and the first of
+ * the two responses is used.
+ *
+ * <p>Requests are not hedged until {@value #WARMUP_SAMPLES} latencies have been observed, and at
+ * most {@code maxOutstandingHedges} duplicate requests are in flight at once, so that a catalog
+ * which is slow as a whole isn't sent twice as many requests. The request which loses the race is
+ * not interrupted but runs to completion, as interrupting the I/O of a catalog client may break
+ * its connections, and its latency is still recorded, so that the hedging delay follows the actual
+ * latencies of the catalog rather than the ones of the winners.
+ */
+final class RequestHedger {
+
+  static final int WARMUP_SAMPLES = 20;
+  // number of recent latencies the percentile is computed from
+  private static final int WINDOW = 1000;
+  // number of new latencies after which the hedging delay is computed again
+  private static final int DELAY_REFRESH_INTERVAL = 50;
+
+  private final double percentile;
+  private final Semaphore hedgePermits;
+  private final LongSupplier nanoClock;
+  private final ThreadFactory threadFactory =
+      Thread.ofVirtual().name("catalog-migrator-hedged-request-", 0).factory();
+
+  // not a monitor, as virtual threads must not be pinned to their carrier thread
+  private final Lock lock = new ReentrantLock();
+  private final long[] latencies = new long[WINDOW];
+  private long samples;
+  private volatile long hedgeDelayNanos = -1;
+
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder hedgedRequests = new LongAdder();
+  private final LongAdder hedgeWins = new LongAdder();
+  private final LongAdder skippedHedges = new LongAdder();
+
+  RequestHedger(double percentile, int maxOutstandingHedges) {
+    this(percentile, maxOutstandingHedges, System::nanoTime);
+  }
+
+  RequestHedger(double percentile, int maxOutstandingHedges, LongSupplier nanoClock) {
+    Preconditions.checkArgument(
+        percentile > 0 && percentile < 100, "percentile should be between 0 and 100");
+    Preconditions.checkArgument(
+        maxOutstandingHedges > 0, "maxOutstandingHedges should be greater than 0");
+    this.percentile = percentile;
+    this.hedgePermits = new Semaphore(maxOutstandingHedges);
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Issues the request and, if it is slower than the hedging delay and the number of outstanding
+   * duplicate requests allows it, a duplicate of it. Returns the first response, or throws the
+   * failure of the original request if both fail.
+   */
+  <T> T call(Supplier<T> request) {
+    requests.increment();
+    long delayNanos = hedgeDelayNanos;
+    if (delayNanos < 0) {
+      // can't be hedged yet, so the request runs on the caller rather than on a thread of its own
+      return timed(request);
+    }
+    CompletableFuture<T> primary = attempt(request, false);
+    try {
+      return primary.get(delayNanos, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      // slower than the hedging delay
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for a request", e);
+    } catch (ExecutionException e) {
+      throw unchecked(e.getCause());
+    }
+
+    if (!hedgePermits.tryAcquire()) {
+      skippedHedges.increment();
+      return await(primary);
+    }
+    hedgedRequests.increment();
+    CompletableFuture<T> hedge = attempt(request, true);
+
+    // the first response wins: each attempt falls back to the other one if it fails, so that both
+    // end with the failure of the original request if both fail
+    CompletableFuture<Boolean> hedgeResponded =
+        hedge
+            .thenApply(response -> true)
+            .exceptionallyCompose(failure -> primary.thenApply(response -> false));
+    CompletableFuture<Boolean> primaryResponded =
+        primary.thenApply(response -> false).exceptionallyCompose(failure -> hedgeResponded);
+    CompletableFuture<Boolean> hedgeWon =
+        primaryResponded.applyToEither(hedgeResponded, Function.identity());
+    if (await(hedgeWon.exceptionally(failure -> false))) {
+      hedgeWins.increment();
+      return await(hedge);
+    }
+    // the response or the failure of the original request
+    return await(primary);
+  }
+
+  HedgingMetrics metrics() {
+    return ImmutableHedgingMetrics.builder()
+        .requests(requests.sum())
+        .hedgedRequests(hedgedRequests.sum())
+        .hedgeWins(hedgeWins.sum())
+        .skippedHedges(skippedHedges.sum())
+        .build();
+  }
+
+  /** Current hedging delay, or -1 while there are too few latencies to compute it. */
+  long hedgeDelayNanos() {
+    return hedgeDelayNanos;
+  }
+
+  /**
+   * Issues the request on a thread of its own. The hedge permit of a duplicate request is released
+   * before its future completes.
+   */
+  private <T> CompletableFuture<T> attempt(Supplier<T> request, boolean hedge) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    threadFactory
+        .newThread(
+            () -> {
+              T response = null;
+              Throwable failure = null;
+              try {
+                response = timed(request);
+              } catch (Throwable t) {
+                failure = t;
+              } finally {
+                if (hedge) {
+                  hedgePermits.release();
+                }
+              }
+              if (failure == null) {
+                future.complete(response);
+              } else {
+                future.completeExceptionally(failure);
+              }
+            })
+        .start();
+    return future;
+  }
+
+  /** Issues the request on the calling thread, recording its latency if it succeeds. */
+  private <T> T timed(Supplier<T> request) {
+    long start = nanoClock.getAsLong();
+    T response = request.get();
+    recordLatency(nanoClock.getAsLong() - start);
+    return response;
+  }
+
+  private void recordLatency(long latencyNanos) {
+    lock.lock();
+    try {
+      latencies[(int) (samples % WINDOW)] = latencyNanos;
+      samples++;
+      if (samples >= WARMUP_SAMPLES
+          && (hedgeDelayNanos < 0 || samples % DELAY_REFRESH_INTERVAL == 0)) {
+        long[] window = Arrays.copyOf(latencies, (int) Math.min(samples, WINDOW));
+        Arrays.sort(window);
+        int index = (int) Math.ceil(percentile / 100 * window.length) - 1;
+        hedgeDelayNanos = window[Math.max(index, 0)];
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for a request", e);
+    } catch (ExecutionException e) {
+      throw unchecked(e.getCause());
+    }
+  }
+
+  private static RuntimeException unchecked(Throwable failure) {
+    Throwables.throwIfUnchecked(failure);
+    return new RuntimeException(failure);
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+/**
+ * Receives the changes of the adaptive limits of concurrent requests issued to the source and
+ * target catalogs by a {@link CatalogMigrator}. Can be invoked concurrently from the registration
+ * workers.
+ */
+@FunctionalInterface
+public interface RequestLimitListener {
+
+  /**
+   * Invoked after the limit of concurrent requests to a catalog has changed.
+   *
+   * @param catalog {@code source} or {@code target}
+   * @param previousLimit limit before the change
+   * @param newLimit limit after the change
+   * @param reason why the limit was changed
+   */
+  void limitChanged(String catalog, int previousLimit, int newLimit, String reason);
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+/**
+ * Rate limits the requests issued to a catalog, with a {@link TokenBucket} for all the requests and
+ * one for each {@link CatalogOperation} with its own limit.
+ */
+final class RequestRateLimiter {
+
+  private final TokenBucket allRequests;
+  private final Map<CatalogOperation, TokenBucket> operationRequests =
+      new EnumMap<>(CatalogOperation.class);
+
+  RequestRateLimiter(OptionalDouble rateLimit, Map<CatalogOperation, Double> operationRateLimits) {
+    this.allRequests = rateLimit.isPresent() ? new TokenBucket(rateLimit.getAsDouble()) : null;
+    operationRateLimits.forEach(
+        (operation, limit) -> operationRequests.put(operation, new TokenBucket(limit)));
+  }
+
+  /** Waits until a request of {@code operation} can be issued. */
+  void acquire(CatalogOperation operation) {
+    TokenBucket bucket = operationRequests.get(operation);
+    if (bucket != null) {
+      bucket.acquire();
+    }
+    if (allRequests != null) {
+      allRequests.acquire();
+    }
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.rest.ErrorHandlers;
+import org.apache.iceberg.rest.HTTPClient;
+import org.apache.iceberg.rest.RESTCatalog;
+import org.apache.iceberg.rest.RESTClient;
+import org.apache.iceberg.rest.RESTResponse;
+import org.apache.iceberg.rest.RESTSessionCatalog;
+import org.apache.iceberg.rest.RESTUtil;
+import org.apache.iceberg.rest.ResourcePaths;
+import org.apache.iceberg.rest.auth.OAuth2Properties;
+import org.apache.iceberg.rest.auth.OAuth2Util;
+import org.apache.iceberg.rest.responses.ConfigResponse;
+import org.apache.iceberg.rest.responses.ListNamespacesResponse;
+import org.apache.iceberg.rest.responses.ListTablesResponse;
+import org.apache.iceberg.util.PropertyUtil;
+
+/**
+ * Lists the identifiers of all the tables of an Iceberg REST catalog with paged {@code
+ * listNamespaces} and {@code listTables} requests, passing every page on as soon as it is read
+ * instead of collecting the identifiers of a whole namespace first.
+ *
+ * <p>Every request carries a {@code pageToken} and a {@code pageSize}, which servers without
+ * pagination ignore by returning everything in a single page. The page size is the {@code
+ * rest-page-size} property, which the server can also advertise with its configuration. The REST
+ * listing returns no metadata locations, so the tables are passed on with a {@code null} location.
+ */
+final class RestTableEnumerator implements TableEnumerator {
+
+  static final int DEFAULT_PAGE_SIZE = 1000;
+  static final String PAGE_TOKEN = "pageToken";
+  static final String PAGE_SIZE = "pageSize";
+  static final String PARENT = "parent";
+
+  private static final String HEADER_PREFIX = "header.";
+  private static final String SIGV4_ENABLED = "rest.sigv4-enabled";
+
+  private final RESTClient client;
+  private final ResourcePaths paths;
+  private final Map<String, String> headers;
+  private final int pageSize;
+
+  RestTableEnumerator(
+      RESTClient client, ResourcePaths paths, Map<String, String> headers, int pageSize) {
+    Preconditions.checkArgument(pageSize > 0, "pageSize should be greater than 0");
+    this.client = client;
+    this.paths = paths;
+    this.headers = Map.copyOf(headers);
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * Returns whether the enumerator can authenticate like a catalog initialized with {@code
+   * catalogProperties}, which is the case for static headers and OAuth2 tokens or credentials, but
+   * not for SigV4 signed requests.
+   */
+  static boolean supports(Map<String, String> catalogProperties) {
+    return !PropertyUtil.propertyAsBoolean(catalogProperties, SIGV4_ENABLED, false);
+  }
+
+  /**
+   * Connects to the catalog server the same way as {@link RESTCatalog}: the OAuth2 token is fetched
+   * once for the given credential, and the server configuration is merged into the properties to
+   * find the URI, prefix and page size to use.
+   */
+  static RestTableEnumerator connect(Map<String, String> catalogProperties) {
+    String uri = catalogProperties.get(CatalogProperties.URI);
+    Preconditions.checkArgument(uri != null, "Invalid uri for RESTCatalog: null");
+
+    Map<String, String> headers =
+        new HashMap<>(RESTUtil.extractPrefixMap(catalogProperties, HEADER_PREFIX));
+    ConfigResponse config;
+    try (RESTClient initClient =
+        HTTPClient.builder(catalogProperties).uri(uri).withHeaders(headers).build()) {
+      String token = catalogProperties.get(OAuth2Properties.TOKEN);
+      String credential = catalogProperties.get(OAuth2Properties.CREDENTIAL);
+      if (token == null && credential != null) {
+        token =
+            OAuth2Util.fetchToken(
+                    initClient,
+                    headers,
+                    credential,
+                    catalogProperties.getOrDefault(
+                        OAuth2Properties.SCOPE, OAuth2Properties.CATALOG_SCOPE),
+                    catalogProperties.getOrDefault(
+                        OAuth2Properties.OAUTH2_SERVER_URI, ResourcePaths.tokens()),
+                    OAuth2Util.buildOptionalParam(catalogProperties))
+                .token();
+      }
+      if (token != null) {
+        headers.putAll(OAuth2Util.authHeaders(token));
+      }
+      String warehouse = catalogProperties.get(CatalogProperties.WAREHOUSE_LOCATION);
+      config =
+          initClient.get(
+              ResourcePaths.config(),
+              warehouse != null
+                  ? Map.of(CatalogProperties.WAREHOUSE_LOCATION, warehouse)
+                  : Map.of(),
+              ConfigResponse.class,
+              headers,
+              ErrorHandlers.defaultErrorHandler());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    Map<String, String> merged = config.merge(catalogProperties);
+    RESTClient client =
+        HTTPClient.builder(merged)
+            .uri(merged.get(CatalogProperties.URI))
+            .withHeaders(RESTUtil.extractPrefixMap(merged, HEADER_PREFIX))
+            .build();
+    return new RestTableEnumerator(
+        client,
+        ResourcePaths.forCatalogProperties(merged),
+        headers,
+        PropertyUtil.propertyAsInt(merged, RESTSessionCatalog.REST_PAGE_SIZE, DEFAULT_PAGE_SIZE));
+  }
+
+  @Override
+  public void forEachTable(BiConsumer<TableIdentifier, String> consumer) {
+    forEachTable(() -> {}, consumer);
+  }
+
+  @Override
+  public void forEachTable(Runnable beforeRequest, BiConsumer<TableIdentifier, String> consumer) {
+    // depth first, so that only the siblings of the namespaces on the current path are pending
+    Deque<Namespace> pending = new ArrayDeque<>();
+    forEachChildNamespace(Namespace.empty(), beforeRequest, pending::push);
+    while (!pending.isEmpty()) {
+      Namespace namespace = pending.pop();
+      forEachPage(
+          paths.tables(namespace),
+          Map.of(),
+          ListTablesResponse.class,
+          ListTablesResponse::nextPageToken,
+          beforeRequest,
+          page -> page.identifiers().forEach(identifier -> consumer.accept(identifier, null)));
+      forEachChildNamespace(namespace, beforeRequest, pending::push);
+    }
+  }
+
+  private void forEachChildNamespace(
+      Namespace parent, Runnable beforeRequest, Consumer<Namespace> consumer) {
+    forEachPage(
+        paths.namespaces(),
+        parent.isEmpty()
+            ? Map.of()
+            : Map.of(PARENT, RESTUtil.NAMESPACE_JOINER.join(parent.levels())),
+        ListNamespacesResponse.class,
+        ListNamespacesResponse::nextPageToken,
+        beforeRequest,
+        page -> page.namespaces().forEach(consumer));
+  }
+
+  private <T extends RESTResponse> void forEachPage(
+      String path,
+      Map<String, String> queryParams,
+      Class<T> responseType,
+      Function<T, String> nextPageToken,
+      Runnable beforeRequest,
+      Consumer<T> consumer) {
+    Map<String, String> params = new HashMap<>(queryParams);
+    params.put(PAGE_SIZE, String.valueOf(pageSize));
+    String pageToken = "";
+    do {
+      params.put(PAGE_TOKEN, pageToken);
+      beforeRequest.run();
+      T page =
+          client.get(path, params, responseType, headers, ErrorHandlers.namespaceErrorHandler());
+      consumer.accept(page);
+      pageToken = nextPageToken.apply(page);
+    } while (pageToken != null && !pageToken.isEmpty());
+  }
+
+  @Override
+  public void close() {
+    try {
+      client.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
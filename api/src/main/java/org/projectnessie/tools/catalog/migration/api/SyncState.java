@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.apache.iceberg.catalog.TableIdentifier;
+
+/**
+ * Metadata location every table was last registered with in the target catalog, kept in a file
+ * between the runs of an incremental re-sync.
+ *
+ * <p>Every line of the file holds a table identifier and its metadata location separated by a tab.
+ * The file is only replaced as a whole by {@link #save()}, so an interrupted run leaves the state
+ * of the previous run in place.
+ */
+public final class SyncState {
+
+  private static final char SEPARATOR = '\t';
+
+  private final Path file;
+  private final Map<TableIdentifier, String> metadataLocations;
+  // tables of the source catalog this run attempted to sync
+  private final Set<TableIdentifier> seen = ConcurrentHashMap.newKeySet();
+  // whether the state changed since it was loaded or saved
+  private volatile boolean changed;
+
+  private SyncState(Path file, Map<TableIdentifier, String> metadataLocations) {
+    this.file = file;
+    this.metadataLocations = metadataLocations;
+  }
+
+  /** Reads the state from {@code file}, or starts with an empty state if there is none. */
+  public static SyncState load(Path file) {
+    Map<TableIdentifier, String> metadataLocations = new ConcurrentHashMap<>();
+    if (Files.exists(file)) {
+      try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+        lines.forEach(
+            line -> {
+              int separator = line.indexOf(SEPARATOR);
+              if (separator <= 0 || separator == line.length() - 1) {
+                throw new IllegalArgumentException(
+                    String.format("Invalid line '%s' in the sync state file %s", line, file));
+              }
+              metadataLocations.put(
+                  TableIdentifier.parse(line.substring(0, separator)),
+                  line.substring(separator + 1));
+            });
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read the sync state file " + file, e);
+      }
+    }
+    return new SyncState(file, metadataLocations);
+  }
+
+  /** Metadata location the table was last registered with, or null if it never was. */
+  public String metadataLocation(TableIdentifier identifier) {
+    return metadataLocations.get(identifier);
+  }
+
+  /** Number of tables in the state. */
+  public int size() {
+    return metadataLocations.size();
+  }
+
+  /**
+   * Writes the state to a temporary file which then replaces the state file, so that the state
+   * file is never left half written. Does nothing if the state file is up to date.
+   */
+  public void save() {
+    if (!changed && Files.exists(file)) {
+      return;
+    }
+    // cleared first, so that the tables synced while the file is written are saved next time
+    changed = false;
+    Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      try (BufferedWriter writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+        for (Map.Entry<TableIdentifier, String> entry : metadataLocations.entrySet()) {
+          writer.write(entry.getKey().toString());
+          writer.write(SEPARATOR);
+          writer.write(entry.getValue());
+          writer.newLine();
+        }
+      }
+      Files.move(
+          temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      changed = true;
+      throw new UncheckedIOException("Failed to write the sync state file " + file, e);
+    }
+  }
+
+  void seen(TableIdentifier identifier) {
+    seen.add(identifier);
+  }
+
+  /** Forgets the tables seen so far, before the tables of the source catalog are seen again. */
+  void clearSeen() {
+    seen.clear();
+  }
+
+  void synced(TableIdentifier identifier, String metadataLocation) {
+    if (!metadataLocation.equals(metadataLocations.put(identifier, metadataLocation))) {
+      changed = true;
+    }
+  }
+
+  void removed(TableIdentifier identifier) {
+    if (metadataLocations.remove(identifier) != null) {
+      changed = true;
+    }
+  }
+
+  /** Tables of the state matching {@code filter} which were not seen by this run. */
+  List<TableIdentifier> unseen(Predicate<TableIdentifier> filter) {
+    List<TableIdentifier> unseen = new ArrayList<>();
+    for (TableIdentifier identifier : metadataLocations.keySet()) {
+      if (!seen.contains(identifier) && filter.test(identifier)) {
+        unseen.add(identifier);
+      }
+    }
+    return unseen;
+  }
+}
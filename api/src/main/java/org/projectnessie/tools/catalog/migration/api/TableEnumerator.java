@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import org.apache.iceberg.aws.dynamodb.DynamoDbCatalog;
+import org.apache.iceberg.aws.glue.GlueCatalog;
+import org.apache.iceberg.catalog.Catalog;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.hadoop.HadoopCatalog;
+import org.apache.iceberg.hive.HiveCatalog;
+import org.apache.iceberg.jdbc.JdbcCatalog;
+import org.apache.iceberg.nessie.NessieCatalog;
+import org.apache.iceberg.rest.RESTCatalog;
+
+/**
+ * Enumerates all the tables of a catalog together with the location of their current metadata
+ * file, using bulk requests against the catalog's backing store instead of one {@code
+ * listNamespaces} and {@code listTables} request per namespace and one {@code loadTable} request
+ * per table. Implementations must be thread-safe.
+ *
+ * <p>Enumerators of catalogs whose listing doesn't return the metadata locations pass the tables
+ * on with a {@code null} location, which is then resolved when the table is registered.
+ */
+public interface TableEnumerator extends AutoCloseable {
+
+  /**
+   * Passes every table of the catalog and the location of its current metadata file to {@code
+   * consumer}, while the tables are still being read from the catalog.
+   *
+   * @param consumer receives the identifier and the metadata location, or {@code null} if it isn't
+   *     known yet, of every table
+   */
+  void forEachTable(BiConsumer<TableIdentifier, String> consumer);
+
+  /**
+   * Same as {@link #forEachTable(BiConsumer)}, but runs {@code beforeRequest} before every listing
+   * request the enumerator issues to the catalog, like the request of each page or batch of tables,
+   * so that the requests can wait for a rate limit. It is run concurrently by the enumerators which
+   * issue concurrent requests.
+   *
+   * @param beforeRequest run before each listing request
+   * @param consumer receives the identifier and the metadata location, or {@code null} if it isn't
+   *     known yet, of every table
+   */
+  default void forEachTable(Runnable beforeRequest, BiConsumer<TableIdentifier, String> consumer) {
+    forEachTable(consumer);
+  }
+
+  @Override
+  default void close() {}
+
+  /**
+   * Same as {@link #forCatalog(Catalog, Map, int)} with a parallelism of 1.
+   *
+   * @param catalog catalog containing the tables
+   * @param catalogProperties properties the catalog was initialized with
+   */
+  static Optional<TableEnumerator> forCatalog(
+      Catalog catalog, Map<String, String> catalogProperties) {
+    return forCatalog(catalog, catalogProperties, 1);
+  }
+
+  /**
+   * Returns an enumerator for the JDBC, Nessie, Glue, Hive, DynamoDB, Hadoop and REST catalogs, or
+   * an empty optional if there is no bulk enumeration for the type of the catalog. The Nessie
+   * enumerator reads all the tables from the commit its reference pointed to when the enumerator
+   * was created. The Glue and Hive enumerators list the tables of up to {@code parallelism}
+   * databases concurrently, the DynamoDB enumerator scans the catalog table with {@code
+   * parallelism} segments by default, and the Hadoop enumerator walks the warehouse directories
+   * with {@code parallelism} workers. The REST enumerator lists the identifiers page by page
+   * without their metadata locations, and is only available for catalogs which don't sign their
+   * requests with SigV4.
+   *
+   * <p>The returned enumerator uses its own connections, configured from the same properties as
+   * the catalog, and has to be closed.
+   *
+   * @param catalog catalog containing the tables
+   * @param catalogProperties properties the catalog was initialized with
+   * @param parallelism maximum number of concurrent listing requests of the enumerator
+   */
+  static Optional<TableEnumerator> forCatalog(
+      Catalog catalog, Map<String, String> catalogProperties, int parallelism) {
+    Preconditions.checkArgument(catalog != null, "catalog is null");
+    Preconditions.checkArgument(catalogProperties != null, "catalog properties is null");
+    Preconditions.checkArgument(parallelism > 0, "parallelism should be greater than 0");
+    if (catalog instanceof JdbcCatalog) {
+      return Optional.of(new JdbcTableEnumerator(catalog.name(), catalogProperties));
+    } else if (catalog instanceof NessieCatalog) {
+      return Optional.of(new NessieTableEnumerator(catalogProperties));
+    } else if (catalog instanceof GlueCatalog) {
+      return Optional.of(new GlueTableEnumerator(catalogProperties, parallelism));
+    } else if (catalog instanceof HiveCatalog) {
+      return Optional.of(new HiveTableEnumerator((HiveCatalog) catalog, parallelism));
+    } else if (catalog instanceof DynamoDbCatalog) {
+      return Optional.of(new DynamoDbTableEnumerator(catalogProperties, parallelism));
+    } else if (catalog instanceof HadoopCatalog) {
+      return Optional.of(
+          new HadoopTableEnumerator((HadoopCatalog) catalog, catalogProperties, parallelism));
+    } else if (catalog instanceof RESTCatalog && RestTableEnumerator.supports(catalogProperties)) {
+      return Optional.of(RestTableEnumerator.connect(catalogProperties));
+    }
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,510 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+
+/**
+ * Insertion-ordered set of table identifiers which takes a small fraction of the memory of a
+ * {@code LinkedHashSet<TableIdentifier>}, for catalogs with millions of tables.
+ *
+ * <p>The namespaces are interned into a trie of levels shared by all their tables, the table names
+ * are kept in a single char arena, and every table is an int handle, its insertion index, into
+ * primitive arrays holding its namespace and the end of its name in the arena. Duplicates are
+ * detected with an open-addressing table of handles. A table takes around 16 bytes plus 2 bytes
+ * per character of its name, instead of a {@link TableIdentifier}, a {@link Namespace}, their
+ * strings and a hash set entry.
+ *
+ * <p>The metadata locations read along with the identifiers by a {@link TableEnumerator} can be
+ * kept in another char arena, so that the tables are registered without reading them again.
+ *
+ * <p>The {@link TableIdentifier} objects are only created when the set is iterated or an element
+ * is read. Elements can't be removed. Not thread-safe, but a {@link #snapshot()} can be read while
+ * elements are added to the set it was taken from.
+ */
+public final class TableIdentifierSet extends AbstractSet<TableIdentifier> {
+
+  private static final int ROOT = 0;
+  private static final float LOAD_FACTOR = 0.5f;
+
+  private final boolean frozen;
+
+  // namespace trie: the parent and the level of every node, the root being the empty namespace
+  private int nodeCount;
+  private int[] nodeParents;
+  private String[] nodeLevels;
+  // created lazily, shared by all the tables of the namespace
+  private Namespace[] nodeNamespaces;
+  // open-addressing table of node + 1 by parent and level, 0 for empty slots
+  private int[] nodeSlots;
+
+  // tables: the namespace node and the end of the name in the arena of every handle
+  private int size;
+  private int[] tableNodes;
+  private int[] nameEnds;
+  private char[] names;
+  // open-addressing table of handle + 1 by namespace node and name, 0 for empty slots
+  private int[] tableSlots;
+
+  // optional metadata locations of the first locatedSize handles, in a char arena as well
+  private int locatedSize;
+  private int[] locationEnds;
+  private char[] locations;
+
+  // namespace of the last added table, which the next tables of a listing usually share
+  private Namespace lastNamespace;
+  private int lastNode;
+
+  /** Creates an empty set. */
+  public TableIdentifierSet() {
+    this.frozen = false;
+    this.nodeParents = new int[16];
+    this.nodeLevels = new String[16];
+    this.nodeNamespaces = new Namespace[16];
+    this.nodeSlots = new int[32];
+    this.nodeCount = 1;
+    this.nodeParents[ROOT] = -1;
+    this.nodeNamespaces[ROOT] = Namespace.empty();
+    this.tableNodes = new int[16];
+    this.nameEnds = new int[16];
+    this.names = new char[256];
+    this.tableSlots = new int[32];
+    this.lastNode = -1;
+  }
+
+  private TableIdentifierSet(TableIdentifierSet set) {
+    this.frozen = true;
+    this.nodeCount = set.nodeCount;
+    this.nodeParents = set.nodeParents;
+    this.nodeLevels = set.nodeLevels;
+    this.nodeNamespaces = set.nodeNamespaces;
+    this.nodeSlots = set.nodeSlots;
+    this.size = set.size;
+    this.tableNodes = set.tableNodes;
+    this.nameEnds = set.nameEnds;
+    this.names = set.names;
+    this.tableSlots = set.tableSlots;
+    this.locatedSize = set.locatedSize;
+    this.locationEnds = set.locationEnds;
+    this.locations = set.locations;
+    this.lastNode = -1;
+  }
+
+  /**
+   * Returns a set of the identifiers in {@code identifiers}, in their iteration order. Sets and
+   * {@link #asList()} views are not copied, a snapshot of their set is returned instead.
+   */
+  public static TableIdentifierSet of(Iterable<TableIdentifier> identifiers) {
+    if (identifiers instanceof TableIdentifierSet set) {
+      return set.snapshot();
+    }
+    if (identifiers instanceof ListView view) {
+      return view.set;
+    }
+    TableIdentifierSet set = new TableIdentifierSet();
+    identifiers.forEach(set::add);
+    return set;
+  }
+
+  /**
+   * Returns an unmodifiable view of the elements of this set at the time of the call, sharing its
+   * storage. The elements are never modified once added, so the view can be read by other threads
+   * while elements are added to this set, as long as it was taken in a way that makes the added
+   * elements visible to them, like under a lock.
+   */
+  public TableIdentifierSet snapshot() {
+    return frozen ? this : new TableIdentifierSet(this);
+  }
+
+  /**
+   * Returns an unmodifiable list view of the elements at the time of the call, in insertion order.
+   */
+  public List<TableIdentifier> asList() {
+    return new ListView(this);
+  }
+
+  /** Whether the list is a view returned by {@link #asList()}. */
+  static boolean isListView(List<TableIdentifier> identifiers) {
+    return identifiers instanceof ListView;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean add(TableIdentifier identifier) {
+    if (frozen) {
+      throw new UnsupportedOperationException("snapshot of a TableIdentifierSet");
+    }
+    int node = internNamespace(identifier.namespace());
+    String name = identifier.name();
+    int hash = tableHash(node, name.hashCode());
+    int mask = tableSlots.length - 1;
+    for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+      int entry = tableSlots[slot];
+      if (entry == 0) {
+        tableSlots[slot] = appendTable(node, name) + 1;
+        if (size > tableSlots.length * LOAD_FACTOR) {
+          tableSlots = rehashTables(tableSlots.length * 2);
+        }
+        return true;
+      }
+      if (tableNodes[entry - 1] == node && nameEquals(entry - 1, name)) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Adds the identifier with the metadata location of the table, which is returned by {@link
+   * #metadataLocation(TableIdentifier)}. The location is ignored if the identifier is already in
+   * the set.
+   */
+  boolean add(TableIdentifier identifier, String metadataLocation) {
+    if (!add(identifier)) {
+      return false;
+    }
+    if (metadataLocation != null && !metadataLocation.isEmpty()) {
+      appendLocation(size - 1, metadataLocation);
+    }
+    return true;
+  }
+
+  /** Returns the metadata location the table was added with, or null if there is none. */
+  String metadataLocation(TableIdentifier identifier) {
+    int handle = handle(identifier);
+    if (handle < 0 || handle >= locatedSize) {
+      return null;
+    }
+    int start = handle == 0 ? 0 : locationEnds[handle - 1];
+    int end = locationEnds[handle];
+    return end == start ? null : new String(locations, start, end - start);
+  }
+
+  /** Whether any table of the set was added with its metadata location. */
+  boolean hasMetadataLocations() {
+    return locatedSize > 0;
+  }
+
+  @Override
+  public boolean contains(Object object) {
+    return object instanceof TableIdentifier && handle((TableIdentifier) object) >= 0;
+  }
+
+  /** Returns the handle of the identifier, or -1 if it isn't in the set. */
+  private int handle(TableIdentifier identifier) {
+    int node = findNamespace(identifier.namespace());
+    if (node < 0) {
+      return -1;
+    }
+    String name = identifier.name();
+    int[] slots = tableSlots;
+    int mask = slots.length - 1;
+    for (int slot = tableHash(node, name.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+      int entry = slots[slot];
+      if (entry == 0) {
+        return -1;
+      }
+      // handles added after a snapshot was taken are not part of it
+      if (entry <= size && tableNodes[entry - 1] == node && nameEquals(entry - 1, name)) {
+        return entry - 1;
+      }
+    }
+  }
+
+  @Override
+  public Iterator<TableIdentifier> iterator() {
+    return new Iterator<>() {
+      private final int end = size;
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < end;
+      }
+
+      @Override
+      public TableIdentifier next() {
+        if (next >= end) {
+          throw new NoSuchElementException();
+        }
+        return get(next++);
+      }
+    };
+  }
+
+  /**
+   * Writes every identifier in insertion order on its own line, formatted like {@link
+   * TableIdentifier#toString()}, without creating the identifiers.
+   */
+  public void writeTo(Writer writer) throws IOException {
+    String lineSeparator = System.lineSeparator();
+    int end = size;
+    for (int handle = 0; handle < end; handle++) {
+      int node = tableNodes[handle];
+      if (node != ROOT) {
+        writeNamespace(writer, node);
+        writer.write('.');
+      }
+      int start = nameStart(handle);
+      writer.write(names, start, nameEnds[handle] - start);
+      writer.write(lineSeparator);
+    }
+  }
+
+  private TableIdentifier get(int handle) {
+    int start = nameStart(handle);
+    return TableIdentifier.of(
+        namespace(tableNodes[handle]), new String(names, start, nameEnds[handle] - start));
+  }
+
+  private Namespace namespace(int node) {
+    Namespace namespace = nodeNamespaces[node];
+    if (namespace == null) {
+      int depth = 0;
+      for (int parent = node; parent != ROOT; parent = nodeParents[parent]) {
+        depth++;
+      }
+      String[] levels = new String[depth];
+      for (int parent = node; parent != ROOT; parent = nodeParents[parent]) {
+        levels[--depth] = nodeLevels[parent];
+      }
+      // a benign race between the readers of a snapshot, as namespaces are immutable
+      namespace = Namespace.of(levels);
+      nodeNamespaces[node] = namespace;
+    }
+    return namespace;
+  }
+
+  private void writeNamespace(Writer writer, int node) throws IOException {
+    int parent = nodeParents[node];
+    if (parent != ROOT) {
+      writeNamespace(writer, parent);
+      writer.write('.');
+    }
+    writer.write(nodeLevels[node]);
+  }
+
+  @SuppressWarnings("ReferenceEquality")
+  private int internNamespace(Namespace namespace) {
+    // reference identity on purpose: the tables of a listing share their Namespace object, equal
+    // namespaces which aren't the same object are interned through the trie
+    if (namespace == lastNamespace) {
+      return lastNode;
+    }
+    int node = ROOT;
+    for (String level : namespace.levels()) {
+      node = internLevel(node, level);
+    }
+    lastNamespace = namespace;
+    lastNode = node;
+    return node;
+  }
+
+  private int internLevel(int parent, String level) {
+    int mask = nodeSlots.length - 1;
+    for (int slot = nodeHash(parent, level) & mask; ; slot = (slot + 1) & mask) {
+      int entry = nodeSlots[slot];
+      if (entry == 0) {
+        int node = appendNode(parent, level);
+        nodeSlots[slot] = node + 1;
+        if (nodeCount > nodeSlots.length * LOAD_FACTOR) {
+          nodeSlots = rehashNodes(nodeSlots.length * 2);
+        }
+        return node;
+      }
+      if (nodeParents[entry - 1] == parent && nodeLevels[entry - 1].equals(level)) {
+        return entry - 1;
+      }
+    }
+  }
+
+  /** Returns the node of the namespace, or -1 if no table of the set is in it. */
+  private int findNamespace(Namespace namespace) {
+    int node = ROOT;
+    int[] slots = nodeSlots;
+    int mask = slots.length - 1;
+    for (String level : namespace.levels()) {
+      int found = -1;
+      for (int slot = nodeHash(node, level) & mask; ; slot = (slot + 1) & mask) {
+        int entry = slots[slot];
+        if (entry == 0) {
+          return -1;
+        }
+        if (entry <= nodeCount
+            && nodeParents[entry - 1] == node
+            && nodeLevels[entry - 1].equals(level)) {
+          found = entry - 1;
+          break;
+        }
+      }
+      node = found;
+    }
+    return node;
+  }
+
+  private int appendNode(int parent, String level) {
+    if (nodeCount == nodeParents.length) {
+      int capacity = nodeCount * 2;
+      nodeParents = Arrays.copyOf(nodeParents, capacity);
+      nodeLevels = Arrays.copyOf(nodeLevels, capacity);
+      nodeNamespaces = Arrays.copyOf(nodeNamespaces, capacity);
+    }
+    nodeParents[nodeCount] = parent;
+    nodeLevels[nodeCount] = level;
+    return nodeCount++;
+  }
+
+  private int appendTable(int node, String name) {
+    if (size == tableNodes.length) {
+      int capacity = size * 2;
+      tableNodes = Arrays.copyOf(tableNodes, capacity);
+      nameEnds = Arrays.copyOf(nameEnds, capacity);
+    }
+    int start = nameStart(size);
+    int end = start + name.length();
+    if (end > names.length) {
+      names = Arrays.copyOf(names, Math.max(end, names.length * 2));
+    }
+    name.getChars(0, name.length(), names, start);
+    tableNodes[size] = node;
+    nameEnds[size] = end;
+    return size++;
+  }
+
+  private void appendLocation(int handle, String metadataLocation) {
+    if (locationEnds == null || locationEnds.length <= handle) {
+      locationEnds =
+          Arrays.copyOf(
+              locationEnds == null ? new int[0] : locationEnds,
+              Math.max(handle + 1, tableNodes.length));
+    }
+    int start = locatedSize == 0 ? 0 : locationEnds[locatedSize - 1];
+    // the tables added without a location in between have an empty one
+    Arrays.fill(locationEnds, locatedSize, handle, start);
+    int end = start + metadataLocation.length();
+    if (locations == null || end > locations.length) {
+      locations =
+          Arrays.copyOf(
+              locations == null ? new char[0] : locations,
+              Math.max(end, locations == null ? 256 : locations.length * 2));
+    }
+    metadataLocation.getChars(0, metadataLocation.length(), locations, start);
+    locationEnds[handle] = end;
+    locatedSize = handle + 1;
+  }
+
+  private int[] rehashNodes(int capacity) {
+    int[] slots = new int[capacity];
+    int mask = capacity - 1;
+    for (int node = 1; node < nodeCount; node++) {
+      int slot = nodeHash(nodeParents[node], nodeLevels[node]) & mask;
+      while (slots[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      slots[slot] = node + 1;
+    }
+    return slots;
+  }
+
+  private int[] rehashTables(int capacity) {
+    int[] slots = new int[capacity];
+    int mask = capacity - 1;
+    for (int handle = 0; handle < size; handle++) {
+      int slot = tableHash(tableNodes[handle], nameHash(handle)) & mask;
+      while (slots[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      slots[slot] = handle + 1;
+    }
+    return slots;
+  }
+
+  private int nameStart(int handle) {
+    return handle == 0 ? 0 : nameEnds[handle - 1];
+  }
+
+  private boolean nameEquals(int handle, String name) {
+    int start = nameStart(handle);
+    if (nameEnds[handle] - start != name.length()) {
+      return false;
+    }
+    for (int i = 0; i < name.length(); i++) {
+      if (names[start + i] != name.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Same as {@link String#hashCode()} of the name of the table. */
+  private int nameHash(int handle) {
+    int hash = 0;
+    for (int i = nameStart(handle); i < nameEnds[handle]; i++) {
+      hash = 31 * hash + names[i];
+    }
+    return hash;
+  }
+
+  private static int nodeHash(int parent, String level) {
+    return mix(31 * parent + level.hashCode());
+  }
+
+  private static int tableHash(int node, int nameHash) {
+    return mix(31 * node + nameHash);
+  }
+
+  private static int mix(int hash) {
+    // spreads the bits of the hash codes of similar names over the slots
+    int mixed = hash * 0x9E3779B9;
+    return mixed ^ (mixed >>> 16);
+  }
+
+  private static final class ListView extends AbstractList<TableIdentifier>
+      implements RandomAccess {
+
+    private final TableIdentifierSet set;
+
+    private ListView(TableIdentifierSet set) {
+      this.set = set.snapshot();
+    }
+
+    @Override
+    public TableIdentifier get(int index) {
+      if (index < 0 || index >= set.size) {
+        throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + set.size);
+      }
+      return set.get(index);
+    }
+
+    @Override
+    public int size() {
+      return set.size;
+    }
+  }
+}
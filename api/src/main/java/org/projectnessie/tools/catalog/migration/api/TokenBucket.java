@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket which hands out at most {@code permitsPerSecond} permits per second, holding a
+ * single token so that requests are spread evenly instead of bursting after an idle period.
+ *
+ * <p>The bucket is tracked as the time at which the next permit is available, which every caller
+ * advances with a single compare-and-set, and then waits for its permit without holding any lock.
+ * Many workers can therefore share it without contending on a lock.
+ */
+final class TokenBucket {
+
+  private final long nanosPerPermit;
+  private final LongSupplier nanoClock;
+  private final AtomicLong nextPermitNanos;
+
+  TokenBucket(double permitsPerSecond) {
+    this(permitsPerSecond, System::nanoTime);
+  }
+
+  TokenBucket(double permitsPerSecond, LongSupplier nanoClock) {
+    Preconditions.checkArgument(permitsPerSecond > 0, "permitsPerSecond should be greater than 0");
+    this.nanosPerPermit = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+    this.nanoClock = nanoClock;
+    this.nextPermitNanos = new AtomicLong(nanoClock.getAsLong() - nanosPerPermit);
+  }
+
+  /** Waits until a permit is available and takes it. */
+  void acquire() {
+    long waitNanos = reserve();
+    if (waitNanos > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting to issue a catalog request", e);
+      }
+    }
+  }
+
+  /**
+   * Takes {@code permits} more permits without waiting for them, like the remaining cost of a
+   * request which turned out to be more expensive, so that the next permits are delayed instead.
+   */
+  void consume(double permits) {
+    long nanos = (long) (permits * nanosPerPermit);
+    if (nanos <= 0) {
+      return;
+    }
+    while (true) {
+      long now = nanoClock.getAsLong();
+      long next = nextPermitNanos.get();
+      if (nextPermitNanos.compareAndSet(next, Math.max(next, now) + nanos)) {
+        return;
+      }
+    }
+  }
+
+  /** Takes the next permit and returns how long to wait for it, in nanoseconds. */
+  long reserve() {
+    while (true) {
+      long now = nanoClock.getAsLong();
+      long next = nextPermitNanos.get();
+      // a token left unused while idle is available right away, but never more than one
+      long permitNanos = next - now < 0 ? now : next;
+      if (nextPermitNanos.compareAndSet(next, permitNanos + nanosPerPermit)) {
+        return permitNanos - now;
+      }
+    }
+  }
+}
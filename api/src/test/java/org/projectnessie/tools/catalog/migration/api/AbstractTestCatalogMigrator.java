@@ -15,11 +15,14 @@
  */
 package org.projectnessie.tools.catalog.migration.api;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 import nl.altindag.log.LogCaptor;
 import nl.altindag.log.model.LogEvent;
+import org.apache.iceberg.BaseTable;
 import org.apache.iceberg.catalog.Catalog;
 import org.apache.iceberg.catalog.Namespace;
 import org.apache.iceberg.catalog.TableIdentifier;
@@ -28,6 +31,7 @@ import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -35,6 +39,9 @@ import org.projectnessie.tools.catalog.migration.api.test.AbstractTest;
 
 public abstract class AbstractTestCatalogMigrator extends AbstractTest {
 
+  protected static Map<String, String> sourceCatalogProperties;
+  protected static Map<String, String> targetCatalogProperties;
+
   protected static final Namespace NS1 = Namespace.of("ns1");
   protected static final Namespace NS2 = Namespace.of("ns2");
   protected static final Namespace NS3 = Namespace.of("ns3");
@@ -105,8 +112,10 @@ public abstract class AbstractTestCatalogMigrator extends AbstractTest {
             null);
     if (isSourceCatalog) {
       sourceCatalog = catalog;
+      sourceCatalogProperties = properties;
     } else {
       targetCatalog = catalog;
+      targetCatalogProperties = properties;
     }
   }
 
@@ -247,6 +256,66 @@ public abstract class AbstractTestCatalogMigrator extends AbstractTest {
         .containsExactlyInAnyOrder(BAR_TBL3, BAR_TBL4);
   }
 
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void testRegisterTablesInParallel(boolean deleteSourceTables) {
+    validateAssumptionForHadoopCatalogAsSource(deleteSourceTables);
+
+    // additionally create 240 tables along with 4 tables created in beforeEach()
+    IntStream.range(0, 240)
+        .forEach(val -> sourceCatalog.createTable(TableIdentifier.of(DB1, "tblx" + val), schema));
+
+    CatalogMigrator catalogMigrator = catalogMigratorWithDefaultArgs(deleteSourceTables);
+    Set<TableIdentifier> identifiers = catalogMigrator.getMatchingTableIdentifiersFromSource(null);
+    AtomicInteger processed = new AtomicInteger();
+    CatalogMigrationResult result =
+        catalogMigrator
+            .registerTables(identifiers, 8, identifier -> processed.incrementAndGet())
+            .result();
+
+    Assertions.assertThat(processed).hasValue(244);
+    Assertions.assertThat(result.registeredTableIdentifiers())
+        .containsExactlyInAnyOrderElementsOf(identifiers);
+    Assertions.assertThat(result.failedToRegisterTableIdentifiers()).isEmpty();
+    Assertions.assertThat(result.failedToDeleteTableIdentifiers()).isEmpty();
+
+    // namespace "db1" exists only in source catalog and is created concurrently on target catalog
+    Assertions.assertThat(targetCatalog.listTables(DB1)).hasSize(240);
+    Assertions.assertThat(targetCatalog.listTables(BAR))
+        .containsExactlyInAnyOrder(BAR_TBL3, BAR_TBL4);
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void testRegisterMatchingTablesWhileIdentifying(boolean deleteSourceTables) {
+    validateAssumptionForHadoopCatalogAsSource(deleteSourceTables);
+
+    // additionally create 240 tables along with 4 tables created in beforeEach()
+    IntStream.range(0, 240)
+        .forEach(val -> sourceCatalog.createTable(TableIdentifier.of(DB1, "tblx" + val), schema));
+
+    CatalogMigrator catalogMigrator = catalogMigratorWithDefaultArgs(deleteSourceTables);
+    AtomicInteger processed = new AtomicInteger();
+    // queue is much smaller than the number of tables, so identification has to wait for workers
+    CatalogMigrationResult result =
+        catalogMigrator
+            .registerMatchingTablesFromSource(
+                "^(db1|bar)\\..*", 4, 8, identifier -> processed.incrementAndGet())
+            .result();
+
+    Assertions.assertThat(processed).hasValue(242);
+    Assertions.assertThat(result.registeredTableIdentifiers())
+        .hasSize(242)
+        .contains(BAR_TBL3, BAR_TBL4)
+        .doesNotContain(FOO_TBL1, FOO_TBL2);
+    Assertions.assertThat(result.failedToRegisterTableIdentifiers()).isEmpty();
+    Assertions.assertThat(result.failedToDeleteTableIdentifiers()).isEmpty();
+
+    Assertions.assertThat(targetCatalog.listTables(DB1)).hasSize(240);
+    Assertions.assertThat(targetCatalog.listTables(BAR))
+        .containsExactlyInAnyOrder(BAR_TBL3, BAR_TBL4);
+  }
+
   @ParameterizedTest
   @ValueSource(booleans = {true, false})
   public void testListingTableIdentifiers(boolean deleteSourceTables) {
@@ -269,6 +338,21 @@ public abstract class AbstractTestCatalogMigrator extends AbstractTest {
     Assertions.assertThat(matchingTableIdentifiers).isEmpty();
   }
 
+  @Test
+  public void testMetadataLocationResolver() throws Exception {
+    try (MetadataLocationResolver resolver =
+        MetadataLocationResolver.forCatalog(sourceCatalog, sourceCatalogProperties)) {
+      for (TableIdentifier identifier : List.of(FOO_TBL1, FOO_TBL2, BAR_TBL3, BAR_TBL4)) {
+        Assertions.assertThat(resolver.metadataLocation(identifier))
+            .isEqualTo(
+                ((BaseTable) sourceCatalog.loadTable(identifier))
+                    .operations()
+                    .current()
+                    .metadataFileLocation());
+      }
+    }
+  }
+
   @ParameterizedTest
   @ValueSource(booleans = {true, false})
   public void testRegisterWithNewNamespace(boolean deleteSourceTables) {
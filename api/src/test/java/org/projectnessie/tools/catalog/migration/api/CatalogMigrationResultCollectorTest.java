@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CatalogMigrationResultCollectorTest {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+
+  protected static @TempDir Path logDir;
+
+  @BeforeAll
+  protected static void initLogDir() {
+    System.setProperty("catalog.migration.log.dir", logDir.toAbsolutePath().toString());
+  }
+
+  @Test
+  public void testConcurrentUpdates() throws Exception {
+    CatalogMigrationResultCollector collector = new CatalogMigrationResultCollector();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      IntStream.range(0, 1000)
+          .forEach(
+              i ->
+                  executor.execute(
+                      () -> {
+                        TableIdentifier identifier = TableIdentifier.of("db", "tbl" + i);
+                        collector.started();
+                        if (i % 10 == 0) {
+                          collector.failedToRegister(identifier);
+                        } else {
+                          collector.registered(identifier);
+                          if (i % 10 == 1) {
+                            collector.failedToDelete(identifier);
+                          }
+                        }
+                        collector.finished();
+                      }));
+    } finally {
+      executor.shutdown();
+      Assertions.assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+    }
+
+    Assertions.assertThat(collector.inFlightCount()).isZero();
+    Assertions.assertThat(collector.registeredCount()).isEqualTo(900);
+    Assertions.assertThat(collector.failedToRegisterCount()).isEqualTo(100);
+    Assertions.assertThat(collector.failedToDeleteCount()).isEqualTo(100);
+
+    CatalogMigrationResult result = collector.result();
+    Assertions.assertThat(result.registeredTableIdentifiers()).hasSize(900).doesNotHaveDuplicates();
+    Assertions.assertThat(result.registeredTablesCount()).isEqualTo(900);
+    Assertions.assertThat(result.failedToRegisterTableIdentifiers())
+        .hasSize(100)
+        .contains(TableIdentifier.of("db", "tbl0"), TableIdentifier.of("db", "tbl990"));
+    Assertions.assertThat(result.failedToDeleteTableIdentifiers())
+        .hasSize(100)
+        .contains(TableIdentifier.of("db", "tbl1"), TableIdentifier.of("db", "tbl991"));
+    Assertions.assertThat(result.failedToRegisterTables())
+        .containsExactlyElementsOf(result.failedToRegisterTableIdentifiers());
+  }
+
+  @Test
+  public void testResultLists() {
+    CatalogMigrationResultCollector collector = new CatalogMigrationResultCollector();
+    collector.registered(TableIdentifier.of("db", "tbl1"));
+    collector.registered(TableIdentifier.of("db", "tbl2"));
+
+    // the collected identifiers are handed over as views of their sets, not copied
+    CatalogMigrationResult result = collector.result();
+    Assertions.assertThat(TableIdentifierSet.isListView(result.registeredTableIdentifiers()))
+        .isTrue();
+    Assertions.assertThat(result.registeredTableIdentifiers())
+        .containsExactly(TableIdentifier.of("db", "tbl1"), TableIdentifier.of("db", "tbl2"));
+    Assertions.assertThat(result.registeredTables())
+        .containsExactlyElementsOf(result.registeredTableIdentifiers());
+
+    // lists given to the builder are copied unless they are immutable, duplicates are kept
+    List<TableIdentifier> failed = new ArrayList<>();
+    failed.add(TableIdentifier.of("db", "tbl3"));
+    failed.add(TableIdentifier.of("db", "tbl3"));
+    result =
+        ImmutableCatalogMigrationResult.builder()
+            .from(result)
+            .failedToRegisterTableIdentifiers(failed)
+            .build();
+    failed.clear();
+    Assertions.assertThat(result.failedToRegisterTableIdentifiers())
+        .containsExactly(TableIdentifier.of("db", "tbl3"), TableIdentifier.of("db", "tbl3"));
+    Assertions.assertThat(result.failedToRegisterTables())
+        .containsExactly(TableIdentifier.of("db", "tbl3"));
+    Assertions.assertThat(TableIdentifierSet.isListView(result.registeredTableIdentifiers()))
+        .isTrue();
+  }
+
+  @Test
+  public void testRegisteredIdentifiersSink() {
+    String warehouse = "/tmp/" + UUID.randomUUID();
+    LatencyInjectingCatalog sourceCatalog =
+        new LatencyInjectingCatalog("source", warehouse + "/source");
+    LatencyInjectingCatalog targetCatalog =
+        new LatencyInjectingCatalog("target", warehouse + "/target");
+    Namespace namespace = Namespace.of("ns");
+    sourceCatalog.createNamespace(namespace);
+    IntStream.range(0, 100)
+        .forEach(i -> sourceCatalog.createTable(TableIdentifier.of(namespace, "tbl" + i), SCHEMA));
+    sourceCatalog.withLatency(1);
+
+    Set<TableIdentifier> sink = ConcurrentHashMap.newKeySet();
+    CatalogMigrator catalogMigrator =
+        ImmutableCatalogMigrator.builder()
+            .sourceCatalog(sourceCatalog)
+            .targetCatalog(targetCatalog)
+            .deleteEntriesFromSourceCatalog(false)
+            .registeredTableIdentifiersSink(sink::add)
+            .build();
+    CatalogMigrationResultCollector collector = catalogMigrator.resultCollector();
+
+    AtomicLong maxInFlight = new AtomicLong();
+    CatalogMigrationResult result =
+        catalogMigrator
+            .registerTables(
+                catalogMigrator.getMatchingTableIdentifiersFromSource(null),
+                4,
+                identifier -> maxInFlight.accumulateAndGet(collector.inFlightCount(), Math::max))
+            .result();
+
+    Assertions.assertThat(maxInFlight.get()).isBetween(0L, 4L);
+    Assertions.assertThat(sink).hasSize(100);
+    Assertions.assertThat(result.registeredTableIdentifiers()).isEmpty();
+    Assertions.assertThat(result.registeredTablesCount()).isEqualTo(100);
+    Assertions.assertThat(result.failedToRegisterTableIdentifiers()).isEmpty();
+    Assertions.assertThat(collector.registeredCount()).isEqualTo(100);
+    Assertions.assertThat(collector.inFlightCount()).isZero();
+  }
+}
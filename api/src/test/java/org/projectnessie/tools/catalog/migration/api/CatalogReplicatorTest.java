@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CatalogReplicatorTest {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+  private static final Namespace NAMESPACE = Namespace.of("db");
+  private static final TableIdentifier TABLE_1 = TableIdentifier.of(NAMESPACE, "tbl1");
+  private static final TableIdentifier TABLE_2 = TableIdentifier.of(NAMESPACE, "tbl2");
+  private static final TableIdentifier TABLE_3 = TableIdentifier.of(NAMESPACE, "tbl3");
+  private static final TableIdentifier TABLE_4 = TableIdentifier.of(NAMESPACE, "tbl4");
+
+  protected static @TempDir Path logDir;
+
+  private @TempDir Path tempDir;
+  private LatencyInjectingCatalog sourceCatalog;
+  private LatencyInjectingCatalog targetCatalog;
+  private SyncState state;
+
+  @BeforeAll
+  protected static void initLogDir() {
+    System.setProperty("catalog.migration.log.dir", logDir.toAbsolutePath().toString());
+  }
+
+  @BeforeEach
+  protected void beforeEach() {
+    sourceCatalog = new LatencyInjectingCatalog("source", "/tmp/" + UUID.randomUUID());
+    targetCatalog = new LatencyInjectingCatalog("target", "/tmp/" + UUID.randomUUID());
+    sourceCatalog.createNamespace(NAMESPACE);
+    for (TableIdentifier table : List.of(TABLE_1, TABLE_2, TABLE_3)) {
+      sourceCatalog.createTable(table, SCHEMA);
+    }
+    state = SyncState.load(tempDir.resolve("sync_state"));
+  }
+
+  @Test
+  public void testPollingPasses() {
+    CatalogReplicator replicator = replicator(null).build();
+
+    replicator.pass();
+    Assertions.assertThat(targetCatalog.listTables(NAMESPACE))
+        .containsExactlyInAnyOrder(TABLE_1, TABLE_2, TABLE_3);
+
+    sourceCatalog.loadTable(TABLE_1).updateProperties().set("key", "value").commit();
+    sourceCatalog.dropTable(TABLE_2, false);
+    sourceCatalog.createTable(TABLE_4, SCHEMA);
+    replicator.pass();
+
+    Assertions.assertThat(targetCatalog.listTables(NAMESPACE))
+        .containsExactlyInAnyOrder(TABLE_1, TABLE_3, TABLE_4);
+    Assertions.assertThat(metadataLocation(targetCatalog, TABLE_1))
+        .isEqualTo(metadataLocation(sourceCatalog, TABLE_1));
+    Assertions.assertThat(SyncState.load(tempDir.resolve("sync_state")).size()).isEqualTo(3);
+
+    ReplicationMetrics metrics = replicator.metrics();
+    Assertions.assertThat(metrics.passes()).isEqualTo(2);
+    Assertions.assertThat(metrics.failedPasses()).isZero();
+    Assertions.assertThat(metrics.registeredTables()).isEqualTo(5);
+    Assertions.assertThat(metrics.droppedTables()).isEqualTo(1);
+    Assertions.assertThat(metrics.failedTables()).isZero();
+    Assertions.assertThat(metrics.lag()).isPresent();
+  }
+
+  @Test
+  public void testChangeFeed() {
+    TestChangeFeed feed = new TestChangeFeed();
+    CatalogReplicator replicator = replicator(feed).build();
+
+    replicator.pass();
+    Assertions.assertThat(feed.snapshots).isEqualTo(1);
+    Assertions.assertThat(targetCatalog.listTables(NAMESPACE))
+        .containsExactlyInAnyOrder(TABLE_1, TABLE_2, TABLE_3);
+
+    // only the tables passed by the feed are replicated
+    sourceCatalog.loadTable(TABLE_1).updateProperties().set("key", "value").commit();
+    sourceCatalog.dropTable(TABLE_2, false);
+    sourceCatalog.createTable(TABLE_4, SCHEMA);
+    Map<TableIdentifier, String> changes = new HashMap<>();
+    changes.put(TABLE_1, metadataLocation(sourceCatalog, TABLE_1));
+    changes.put(TABLE_2, null);
+    changes.put(TABLE_3, "file:/tmp/" + UUID.randomUUID() + "/missing.metadata.json");
+    feed.changes.add(changes);
+    replicator.pass();
+
+    Assertions.assertThat(feed.snapshots).isEqualTo(1);
+    // the moved table is dropped before it is registered again
+    Assertions.assertThat(targetCatalog.listTables(NAMESPACE)).containsExactly(TABLE_1);
+    Assertions.assertThat(metadataLocation(targetCatalog, TABLE_1))
+        .isEqualTo(metadataLocation(sourceCatalog, TABLE_1));
+    ReplicationMetrics metrics = replicator.metrics();
+    Assertions.assertThat(metrics.droppedTables()).isEqualTo(1);
+    Assertions.assertThat(metrics.failedTables()).isEqualTo(1);
+
+    // the failed change is retried until a newer change of the table replaces it
+    replicator.pass();
+    Assertions.assertThat(replicator.metrics().failedTables()).isEqualTo(1);
+    feed.changes.add(Map.of(TABLE_3, metadataLocation(sourceCatalog, TABLE_3)));
+    replicator.pass();
+    Assertions.assertThat(replicator.metrics().failedTables()).isZero();
+    Assertions.assertThat(metadataLocation(targetCatalog, TABLE_3))
+        .isEqualTo(metadataLocation(sourceCatalog, TABLE_3));
+
+    // all the tables are read again once the changes can't be followed anymore
+    feed.reassigned = true;
+    replicator.pass();
+    Assertions.assertThat(feed.snapshots).isEqualTo(2);
+    Assertions.assertThat(targetCatalog.listTables(NAMESPACE))
+        .containsExactlyInAnyOrder(TABLE_1, TABLE_3, TABLE_4);
+    Assertions.assertThat(replicator.metrics().passes()).isEqualTo(5);
+  }
+
+  @Test
+  public void testStopBetweenPasses() throws Exception {
+    CountDownLatch firstPass = new CountDownLatch(1);
+    CatalogReplicator replicator =
+        replicator(null)
+            .pollInterval(Duration.ofHours(1))
+            .passListener(metrics -> firstPass.countDown())
+            .build();
+
+    Thread thread = new Thread(replicator::run);
+    thread.start();
+    Assertions.assertThat(firstPass.await(30, TimeUnit.SECONDS)).isTrue();
+    Assertions.assertThat(replicator.awaitTermination(Duration.ofMillis(10))).isFalse();
+
+    replicator.stop();
+    Assertions.assertThat(replicator.awaitTermination(Duration.ofSeconds(30))).isTrue();
+    thread.join(TimeUnit.SECONDS.toMillis(30));
+    Assertions.assertThat(thread.isAlive()).isFalse();
+    Assertions.assertThat(replicator.metrics().passes()).isEqualTo(1);
+    Assertions.assertThat(SyncState.load(tempDir.resolve("sync_state")).size()).isEqualTo(3);
+  }
+
+  @Test
+  public void testRequiresSyncState() {
+    Assertions.assertThatThrownBy(
+            () ->
+                ImmutableCatalogReplicator.builder()
+                    .catalogMigrator(
+                        ImmutableCatalogMigrator.builder()
+                            .sourceCatalog(sourceCatalog)
+                            .targetCatalog(targetCatalog)
+                            .deleteEntriesFromSourceCatalog(false)
+                            .build())
+                    .build())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("catalogMigrator has no syncState");
+  }
+
+  private ImmutableCatalogReplicator.Builder replicator(ChangeFeed feed) {
+    ImmutableCatalogReplicator.Builder builder =
+        ImmutableCatalogReplicator.builder()
+            .catalogMigrator(
+                ImmutableCatalogMigrator.builder()
+                    .sourceCatalog(sourceCatalog)
+                    .targetCatalog(targetCatalog)
+                    .deleteEntriesFromSourceCatalog(false)
+                    .syncState(state)
+                    .build())
+            .parallelism(2)
+            .queueCapacity(2);
+    if (feed != null) {
+      builder.sourceChangeFeed(feed);
+    }
+    return builder;
+  }
+
+  private static String metadataLocation(LatencyInjectingCatalog catalog, TableIdentifier table) {
+    return ((BaseTable) catalog.loadTable(table)).operations().current().metadataFileLocation();
+  }
+
+  /** Passes the changes queued by the test. */
+  private final class TestChangeFeed implements ChangeFeed {
+
+    private final Queue<Map<TableIdentifier, String>> changes = new ArrayDeque<>();
+    private int snapshots;
+    private boolean reassigned;
+
+    @Override
+    public TableEnumerator snapshot() {
+      snapshots++;
+      reassigned = false;
+      return consumer ->
+          sourceCatalog
+              .listTables(NAMESPACE)
+              .forEach(table -> consumer.accept(table, metadataLocation(sourceCatalog, table)));
+    }
+
+    @Override
+    public boolean forEachChange(BiConsumer<TableIdentifier, String> consumer) {
+      if (reassigned) {
+        return false;
+      }
+      Map<TableIdentifier, String> next = changes.poll();
+      if (next != null) {
+        next.forEach(consumer);
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CheckpointJournalTest {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+  private static final TableIdentifier TABLE_1 = TableIdentifier.of("db", "tbl1");
+  private static final TableIdentifier TABLE_2 = TableIdentifier.of("db", "tbl2");
+  private static final TableIdentifier TABLE_3 = TableIdentifier.of("db", "tbl3");
+  private static final TableIdentifier TABLE_4 = TableIdentifier.of("db", "tbl4");
+
+  protected static @TempDir Path logDir;
+
+  private @TempDir Path tempDir;
+
+  @BeforeAll
+  protected static void initLogDir() {
+    System.setProperty("catalog.migration.log.dir", logDir.toAbsolutePath().toString());
+  }
+
+  @Test
+  public void testResume() throws Exception {
+    Path file = tempDir.resolve("journal");
+    try (CheckpointJournal journal = CheckpointJournal.create(file)) {
+      journal.registered(TABLE_1);
+      journal.deleted(TABLE_1);
+      journal.registered(TABLE_2);
+      journal.failedToDelete(TABLE_2);
+      journal.failedToRegister(TABLE_3);
+    }
+
+    try (CheckpointJournal journal = CheckpointJournal.resume(file)) {
+      Assertions.assertThat(journal.wasRegistered(TABLE_1)).isTrue();
+      Assertions.assertThat(journal.wasDeleted(TABLE_1)).isTrue();
+      Assertions.assertThat(journal.wasRegistered(TABLE_2)).isTrue();
+      Assertions.assertThat(journal.wasDeleted(TABLE_2)).isFalse();
+      Assertions.assertThat(journal.wasRegistered(TABLE_3)).isFalse();
+      Assertions.assertThat(journal.resumedRegisteredCount()).isEqualTo(2);
+      Assertions.assertThat(journal.resumedDeletedCount()).isEqualTo(1);
+      journal.registered(TABLE_3);
+    }
+
+    Assertions.assertThat(Files.readAllLines(file))
+        .containsExactly(
+            "R db.tbl1", "D db.tbl1", "R db.tbl2", "X db.tbl2", "F db.tbl3", "R db.tbl3");
+
+    // a new run doesn't silently replace the journal of an interrupted run, it has to start over
+    // explicitly
+    Assertions.assertThatThrownBy(() -> CheckpointJournal.create(file))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("already exists");
+    Assertions.assertThat(Files.readAllLines(file)).hasSize(6);
+    try (CheckpointJournal journal = CheckpointJournal.restart(file)) {
+      Assertions.assertThat(journal.wasRegistered(TABLE_1)).isFalse();
+    }
+    Assertions.assertThat(Files.size(file)).isZero();
+  }
+
+  @Test
+  public void testComplete() throws Exception {
+    Path file = tempDir.resolve("journal");
+    try (CheckpointJournal journal = CheckpointJournal.create(file)) {
+      journal.registered(TABLE_1);
+      journal.failedToRegister(TABLE_2);
+      journal.complete();
+    }
+    Assertions.assertThat(file).doesNotExist();
+
+    // nothing is left to resume, a new run starts without discarding anything
+    try (CheckpointJournal journal = CheckpointJournal.create(file)) {
+      journal.registered(TABLE_2);
+    }
+    Assertions.assertThat(Files.readAllLines(file)).containsExactly("R db.tbl2");
+  }
+
+  @Test
+  public void testTornRecordIsDiscarded() throws Exception {
+    Path file = tempDir.resolve("journal");
+    Files.writeString(file, "R db.tbl1\nR db.tb", StandardCharsets.UTF_8);
+
+    try (CheckpointJournal journal = CheckpointJournal.resume(file)) {
+      Assertions.assertThat(journal.wasRegistered(TABLE_1)).isTrue();
+      Assertions.assertThat(journal.resumedRegisteredCount()).isEqualTo(1);
+      journal.registered(TABLE_2);
+    }
+
+    Assertions.assertThat(Files.readAllLines(file)).containsExactly("R db.tbl1", "R db.tbl2");
+  }
+
+  @Test
+  public void testResumeWithoutJournal() throws Exception {
+    Path file = tempDir.resolve("journal");
+    try (CheckpointJournal journal = CheckpointJournal.resume(file)) {
+      Assertions.assertThat(journal.resumedRegisteredCount()).isZero();
+      journal.registered(TABLE_1);
+    }
+    Assertions.assertThat(Files.readAllLines(file)).containsExactly("R db.tbl1");
+  }
+
+  @Test
+  public void testConcurrentRecords() throws Exception {
+    Path file = tempDir.resolve("journal");
+    int threads = 8;
+    int recordsPerThread = 500;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try (CheckpointJournal journal = CheckpointJournal.create(file)) {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int thread = t;
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < recordsPerThread; i++) {
+                    journal.registered(TableIdentifier.of("db" + thread, "tbl" + i));
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    try (CheckpointJournal journal = CheckpointJournal.resume(file)) {
+      Assertions.assertThat(journal.resumedRegisteredCount()).isEqualTo(threads * recordsPerThread);
+    }
+  }
+
+  @Test
+  public void testResumeMigration() throws Exception {
+    LatencyInjectingCatalog sourceCatalog =
+        new LatencyInjectingCatalog("source", "/tmp/" + UUID.randomUUID());
+    LatencyInjectingCatalog targetCatalog =
+        new LatencyInjectingCatalog("target", "/tmp/" + UUID.randomUUID());
+    sourceCatalog.createNamespace(Namespace.of("db"));
+    targetCatalog.createNamespace(Namespace.of("db"));
+    for (TableIdentifier table : List.of(TABLE_1, TABLE_2, TABLE_3, TABLE_4)) {
+      sourceCatalog.createTable(table, SCHEMA);
+    }
+
+    // the interrupted run migrated the first table and registered the second one
+    for (TableIdentifier table : List.of(TABLE_1, TABLE_2)) {
+      targetCatalog.registerTable(
+          table,
+          ((BaseTable) sourceCatalog.loadTable(table))
+              .operations()
+              .current()
+              .metadataFileLocation());
+    }
+    sourceCatalog.dropTable(TABLE_1, false);
+    Path file = tempDir.resolve("journal");
+    Files.writeString(file, "R db.tbl1\nD db.tbl1\nR db.tbl2\nF db.tbl3\n");
+
+    CatalogMigrationResult result;
+    try (CheckpointJournal journal = CheckpointJournal.resume(file)) {
+      result =
+          ImmutableCatalogMigrator.builder()
+              .sourceCatalog(sourceCatalog)
+              .targetCatalog(targetCatalog)
+              .deleteEntriesFromSourceCatalog(true)
+              .checkpointJournal(journal)
+              .build()
+              .registerTables(List.of(TABLE_1, TABLE_2, TABLE_3, TABLE_4), 2)
+              .result();
+    }
+
+    Assertions.assertThat(result.registeredTableIdentifiers())
+        .containsExactlyInAnyOrder(TABLE_2, TABLE_3, TABLE_4);
+    Assertions.assertThat(result.failedToRegisterTableIdentifiers()).isEmpty();
+    Assertions.assertThat(result.failedToDeleteTableIdentifiers()).isEmpty();
+    Assertions.assertThat(sourceCatalog.listTables(Namespace.of("db"))).isEmpty();
+    Assertions.assertThat(targetCatalog.listTables(Namespace.of("db")))
+        .containsExactlyInAnyOrder(TABLE_1, TABLE_2, TABLE_3, TABLE_4);
+    List<String> records = Files.readAllLines(file);
+    Assertions.assertThat(records.subList(4, records.size()))
+        .containsExactlyInAnyOrder("D db.tbl2", "R db.tbl3", "D db.tbl3", "R db.tbl4", "D db.tbl4");
+  }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iceberg.exceptions.NoSuchTableException;
+import org.apache.iceberg.exceptions.RESTException;
+import org.apache.iceberg.exceptions.ServiceUnavailableException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.glue.model.GlueException;
+
+public class ConcurrencyLimiterTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private final List<String> changes = new ArrayList<>();
+
+  @Test
+  public void testAdditiveIncreaseOnlyWhenSaturated() {
+    ConcurrencyLimiter limiter = adaptive(1, 3);
+
+    request(limiter, 10);
+    Assertions.assertThat(limiter.limit()).isEqualTo(2);
+    Assertions.assertThat(changes)
+        .containsExactly(
+            "source 1 -> 2: latency of 10 ms (baseline 10 ms) and error rate of 0% are healthy");
+
+    // one request at a time never uses the limit of 2, so there is no reason to raise it
+    for (int i = 0; i < 10; i++) {
+      request(limiter, 10);
+    }
+    Assertions.assertThat(limiter.limit()).isEqualTo(2);
+
+    // two requests at a time use the whole limit
+    limiter.call(() -> request(limiter, 10));
+    Assertions.assertThat(limiter.limit()).isEqualTo(3);
+    for (int i = 0; i < 10; i++) {
+      limiter.call(() -> limiter.call(() -> request(limiter, 10)));
+    }
+    Assertions.assertThat(limiter.limit()).isEqualTo(3);
+  }
+
+  @Test
+  public void testNoIncreaseWhileLatencyDegrades() {
+    ConcurrencyLimiter limiter = adaptive(1, 4);
+    request(limiter, 10);
+    Assertions.assertThat(limiter.limit()).isEqualTo(2);
+
+    for (int i = 0; i < 5; i++) {
+      limiter.call(() -> request(limiter, 1000));
+    }
+    Assertions.assertThat(limiter.limit()).isEqualTo(2);
+    Assertions.assertThat(changes).hasSize(1);
+  }
+
+  @Test
+  public void testMultiplicativeDecreaseOnThrottling() {
+    ConcurrencyLimiter limiter = adaptive(8, 8);
+
+    Assertions.assertThatThrownBy(
+            () ->
+                limiter.call(
+                    () -> {
+                      // fails after the inner request has cut the limit, but was issued before
+                      throttledRequest(limiter);
+                      throw new ServiceUnavailableException("Slow down");
+                    }))
+        .isInstanceOf(ServiceUnavailableException.class);
+    Assertions.assertThat(limiter.limit()).isEqualTo(4);
+    Assertions.assertThat(changes)
+        .containsExactly(
+            "source 8 -> 4: a request was throttled or timed out, RuntimeException: "
+                + "java.net.SocketTimeoutException: Read timed out");
+
+    throttledRequest(limiter);
+    throttledRequest(limiter);
+    throttledRequest(limiter);
+    Assertions.assertThat(limiter.limit()).isEqualTo(1);
+    Assertions.assertThat(changes).hasSize(3);
+  }
+
+  @Test
+  public void testErrorRate() {
+    ConcurrencyLimiter limiter = adaptive(1, 4);
+
+    for (int i = 0; i < 3; i++) {
+      Assertions.assertThatThrownBy(
+              () ->
+                  limiter.call(
+                      () -> {
+                        throw new NoSuchTableException("Table does not exist: tbl%d", 0);
+                      }))
+          .isInstanceOf(NoSuchTableException.class);
+    }
+    // other failures don't cut the limit, but keep it from growing
+    Assertions.assertThat(limiter.limit()).isEqualTo(1);
+    request(limiter, 10);
+    Assertions.assertThat(limiter.limit()).isEqualTo(1);
+    Assertions.assertThat(changes).isEmpty();
+  }
+
+  @Test
+  public void testFixedLimit() throws Exception {
+    ConcurrencyLimiter limiter = ConcurrencyLimiter.fixed("target", 2);
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(2);
+
+    ExecutorService executor = Executors.newFixedThreadPool(6);
+    try {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < 6; i++) {
+        futures.add(
+            executor.submit(
+                () ->
+                    limiter.call(
+                        () -> {
+                          maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                          started.countDown();
+                          try {
+                            Thread.sleep(20);
+                          } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                          }
+                          inFlight.decrementAndGet();
+                          return 1;
+                        })));
+      }
+      Assertions.assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+      for (Future<Integer> future : futures) {
+        Assertions.assertThat(future.get()).isEqualTo(1);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Assertions.assertThat(maxInFlight.get()).isEqualTo(2);
+    Assertions.assertThatThrownBy(
+            () ->
+                limiter.call(
+                    () -> {
+                      throw new ServiceUnavailableException("Slow down");
+                    }))
+        .isInstanceOf(ServiceUnavailableException.class);
+    Assertions.assertThat(limiter.limit()).isEqualTo(2);
+  }
+
+  @Test
+  public void testThrottlingOrTimeoutFailures() {
+    Assertions.assertThat(
+            CatalogRequestFailures.isThrottlingOrTimeout(
+                new RuntimeException(new SocketTimeoutException("Read timed out"))))
+        .isTrue();
+    Assertions.assertThat(
+            CatalogRequestFailures.isThrottlingOrTimeout(
+                GlueException.builder()
+                    .awsErrorDetails(
+                        AwsErrorDetails.builder().errorCode("ThrottlingException").build())
+                    .statusCode(400)
+                    .build()))
+        .isTrue();
+    Assertions.assertThat(
+            CatalogRequestFailures.isThrottlingOrTimeout(
+                new RESTException("Unable to process: Too Many Requests")))
+        .isTrue();
+    Assertions.assertThat(
+            CatalogRequestFailures.isThrottlingOrTimeout(new ServiceUnavailableException("down")))
+        .isTrue();
+    Assertions.assertThat(
+            CatalogRequestFailures.isThrottlingOrTimeout(
+                GlueException.builder().statusCode(400).build()))
+        .isFalse();
+    Assertions.assertThat(
+            CatalogRequestFailures.isThrottlingOrTimeout(
+                new NoSuchTableException("Table does not exist: %s", "db.tbl")))
+        .isFalse();
+  }
+
+  private ConcurrencyLimiter adaptive(int initialLimit, int maxLimit) {
+    return new ConcurrencyLimiter(
+        "source",
+        true,
+        initialLimit,
+        maxLimit,
+        (catalog, previousLimit, newLimit, reason) ->
+            changes.add(catalog + " " + previousLimit + " -> " + newLimit + ": " + reason),
+        clock::get);
+  }
+
+  private Integer request(ConcurrencyLimiter limiter, long latencyMillis) {
+    return limiter.call(
+        () -> {
+          clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+          return 1;
+        });
+  }
+
+  private void throttledRequest(ConcurrencyLimiter limiter) {
+    Assertions.assertThatThrownBy(
+            () ->
+                limiter.call(
+                    () -> {
+                      clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+                      throw new RuntimeException(new SocketTimeoutException("Read timed out"));
+                    }))
+        .hasRootCauseInstanceOf(SocketTimeoutException.class);
+  }
+}
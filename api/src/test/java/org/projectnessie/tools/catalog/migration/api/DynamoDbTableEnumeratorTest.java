@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+public class DynamoDbTableEnumeratorTest {
+
+  private static final String TABLE_NAME = "iceberg";
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 4})
+  public void testScanSegments(int segments) {
+    StubDynamoDbClient dynamo = new StubDynamoDbClient(20);
+    Map<TableIdentifier, String> tables = new HashMap<>();
+
+    try (DynamoDbTableEnumerator enumerator =
+        new DynamoDbTableEnumerator(dynamo, TABLE_NAME, segments, 0)) {
+      enumerator.forEachTable(
+          (identifier, location) ->
+              Assertions.assertThat(tables.put(identifier, location)).isNull());
+    }
+
+    Assertions.assertThat(tables).hasSize(20);
+    for (int i = 0; i < 20; i++) {
+      Assertions.assertThat(tables).containsEntry(identifier(i), location(i));
+    }
+    Assertions.assertThat(dynamo.scannedSegments).hasSize(segments);
+    Assertions.assertThat(dynamo.closed).isTrue();
+  }
+
+  @Test
+  public void testReadCapacityThrottle() {
+    // 0.5 capacity units per table, 10 units in total
+    StubDynamoDbClient dynamo = new StubDynamoDbClient(20);
+    List<TableIdentifier> identifiers = new ArrayList<>();
+
+    long start = System.nanoTime();
+    try (DynamoDbTableEnumerator enumerator =
+        new DynamoDbTableEnumerator(dynamo, TABLE_NAME, 2, 50)) {
+      enumerator.forEachTable((identifier, location) -> identifiers.add(identifier));
+    }
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    Assertions.assertThat(identifiers).hasSize(20);
+    // all but the units of the last page of each segment have to be paid for, at 50 units/s
+    Assertions.assertThat(elapsedMillis).isGreaterThanOrEqualTo((long) ((10 - 2 * 1.5) * 20));
+  }
+
+  @Test
+  public void testInvalidSegments() {
+    Assertions.assertThatThrownBy(
+            () ->
+                new DynamoDbTableEnumerator(Map.of(DynamoDbTableEnumerator.SCAN_SEGMENTS, "0"), 4))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("dynamodb.scan.segments should be greater than 0");
+  }
+
+  @Test
+  public void testInvalidReadCapacityUnits() {
+    Assertions.assertThatThrownBy(
+            () ->
+                new DynamoDbTableEnumerator(
+                    Map.of(DynamoDbTableEnumerator.SCAN_READ_CAPACITY_UNITS, "-1"), 4))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("dynamodb.scan.read-capacity-units should not be negative");
+  }
+
+  private static TableIdentifier identifier(int index) {
+    return TableIdentifier.of(Namespace.of("db" + index % 3, "nested"), "tbl" + index);
+  }
+
+  private static String location(int index) {
+    return "s3://bucket/tbl" + index + "/metadata/00001.metadata.json";
+  }
+
+  /**
+   * Holds {@code tables} table items and one item per namespace, in the layout of {@code
+   * DynamoDbCatalog}, and returns them by segment in pages of three items.
+   */
+  private static final class StubDynamoDbClient implements DynamoDbClient {
+
+    private final List<Map<String, AttributeValue>> items = new ArrayList<>();
+    private final Set<Integer> scannedSegments = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    private StubDynamoDbClient(int tables) {
+      for (int i = 0; i < 3; i++) {
+        items.add(
+            Map.of(
+                DynamoDbMetadataLocationResolver.COL_IDENTIFIER,
+                string(DynamoDbTableEnumerator.NAMESPACE_IDENTIFIER),
+                DynamoDbMetadataLocationResolver.COL_NAMESPACE,
+                string("db" + i + ".nested")));
+      }
+      for (int i = 0; i < tables; i++) {
+        TableIdentifier identifier = identifier(i);
+        items.add(
+            Map.of(
+                DynamoDbMetadataLocationResolver.COL_IDENTIFIER,
+                string(identifier.toString()),
+                DynamoDbMetadataLocationResolver.COL_NAMESPACE,
+                string(identifier.namespace().toString()),
+                DynamoDbMetadataLocationResolver.COL_METADATA_LOCATION,
+                string(location(i))));
+      }
+    }
+
+    @Override
+    public ScanResponse scan(ScanRequest request) {
+      Assertions.assertThat(request.tableName()).isEqualTo(TABLE_NAME);
+      Assertions.assertThat(request.filterExpression())
+          .isEqualTo(DynamoDbTableEnumerator.FILTER_EXPRESSION);
+      scannedSegments.add(request.segment());
+
+      List<Map<String, AttributeValue>> segment = new ArrayList<>();
+      for (int i = 0; i < items.size(); i++) {
+        if (i % request.totalSegments() == request.segment()) {
+          segment.add(items.get(i));
+        }
+      }
+      int from =
+          request.hasExclusiveStartKey()
+              ? Integer.parseInt(request.exclusiveStartKey().get("index").n())
+              : 0;
+      int to = Math.min(from + 3, segment.size());
+      List<Map<String, AttributeValue>> page = new ArrayList<>();
+      for (Map<String, AttributeValue> item : segment.subList(from, to)) {
+        // only the items with a metadata location pass the filter expression
+        if (item.containsKey(DynamoDbMetadataLocationResolver.COL_METADATA_LOCATION)) {
+          Map<String, AttributeValue> projected = new HashMap<>(item);
+          projected.remove(DynamoDbMetadataLocationResolver.COL_NAMESPACE);
+          page.add(projected);
+        }
+      }
+      ScanResponse.Builder response = ScanResponse.builder().items(page).count(page.size());
+      if (to < segment.size()) {
+        response.lastEvaluatedKey(
+            Map.of("index", AttributeValue.builder().n(String.valueOf(to)).build()));
+      }
+      if (request.returnConsumedCapacity() == ReturnConsumedCapacity.TOTAL) {
+        response.consumedCapacity(
+            ConsumedCapacity.builder().capacityUnits(0.5 * (to - from)).build());
+      }
+      return response.build();
+    }
+
+    @Override
+    public String serviceName() {
+      return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    private static AttributeValue string(String value) {
+      return AttributeValue.builder().s(value).build();
+    }
+  }
+}
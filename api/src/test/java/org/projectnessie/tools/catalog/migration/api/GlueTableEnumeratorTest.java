@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.iceberg.BaseMetastoreTableOperations;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import software.amazon.awssdk.services.glue.GlueClient;
+import software.amazon.awssdk.services.glue.model.Database;
+import software.amazon.awssdk.services.glue.model.EntityNotFoundException;
+import software.amazon.awssdk.services.glue.model.GetDatabasesRequest;
+import software.amazon.awssdk.services.glue.model.GetDatabasesResponse;
+import software.amazon.awssdk.services.glue.model.GetTablesRequest;
+import software.amazon.awssdk.services.glue.model.GetTablesResponse;
+import software.amazon.awssdk.services.glue.model.Table;
+
+public class GlueTableEnumeratorTest {
+
+  private static final String CATALOG_ID = "123456789012";
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 3, 16})
+  public void testEnumerateIcebergTables(int parallelism) {
+    StubGlueClient glue = new StubGlueClient(5, 7);
+    Map<TableIdentifier, String> tables = new HashMap<>();
+    Thread caller = Thread.currentThread();
+    AtomicInteger permits = new AtomicInteger();
+
+    try (GlueTableEnumerator enumerator = new GlueTableEnumerator(glue, CATALOG_ID, parallelism)) {
+      enumerator.forEachTable(
+          permits::incrementAndGet,
+          (identifier, metadataLocation) -> {
+            Assertions.assertThat(Thread.currentThread()).isSameAs(caller);
+            Assertions.assertThat(tables.put(identifier, metadataLocation)).isNull();
+          });
+    }
+
+    // every database has one non Iceberg table which is skipped
+    Assertions.assertThat(tables).hasSize(5 * 6);
+    for (int db = 0; db < 5; db++) {
+      for (int tbl = 0; tbl < 6; tbl++) {
+        Assertions.assertThat(tables)
+            .containsEntry(TableIdentifier.of("db" + db, "tbl" + tbl), location(db, tbl));
+      }
+    }
+    // 3 pages of databases, 3 pages of tables per database
+    Assertions.assertThat(glue.requests.get()).isEqualTo(3 + 5 * 3);
+    Assertions.assertThat(permits.get()).isEqualTo(glue.requests.get());
+    Assertions.assertThat(glue.maxInFlight.get()).isBetween(1, Math.min(parallelism, 5));
+    Assertions.assertThat(glue.closed).isTrue();
+  }
+
+  @Test
+  public void testFailurePropagated() {
+    StubGlueClient glue = new StubGlueClient(4, 2);
+    glue.missingDatabase = "db2";
+    List<TableIdentifier> identifiers = new ArrayList<>();
+
+    try (GlueTableEnumerator enumerator = new GlueTableEnumerator(glue, CATALOG_ID, 2)) {
+      Assertions.assertThatThrownBy(
+              () -> enumerator.forEachTable((identifier, location) -> identifiers.add(identifier)))
+          .isInstanceOf(EntityNotFoundException.class)
+          .hasMessageContaining("db2");
+    }
+  }
+
+  @Test
+  // the consumer must not wait forever for the end of the failed database
+  @Timeout(30)
+  public void testErrorPropagated() {
+    StubGlueClient glue = new StubGlueClient(4, 2);
+    glue.missingDatabase = "db2";
+    glue.missingDatabaseError = new StackOverflowError("db2");
+
+    try (GlueTableEnumerator enumerator = new GlueTableEnumerator(glue, CATALOG_ID, 2)) {
+      Assertions.assertThatThrownBy(() -> enumerator.forEachTable((identifier, location) -> {}))
+          .isSameAs(glue.missingDatabaseError);
+    }
+  }
+
+  @Test
+  public void testRateLimitedEnumeration() {
+    StubGlueClient glue = new StubGlueClient(5, 7);
+    try (GlueTableEnumerator enumerator = new GlueTableEnumerator(glue, CATALOG_ID, 4)) {
+      CatalogMigrator catalogMigrator =
+          ImmutableCatalogMigrator.builder()
+              .sourceCatalog(new LatencyInjectingCatalog("source", "/tmp/" + UUID.randomUUID()))
+              .targetCatalog(new LatencyInjectingCatalog("target", "/tmp/" + UUID.randomUUID()))
+              .deleteEntriesFromSourceCatalog(false)
+              .sourceTableEnumerator(enumerator)
+              .putSourceOperationRateLimits(CatalogOperation.LIST, 100.0)
+              .build();
+
+      long start = System.nanoTime();
+      Assertions.assertThat(catalogMigrator.getMatchingTableIdentifiersFromSource(null))
+          .hasSize(5 * 6);
+
+      // 18 listing requests, 10 ms apart
+      Assertions.assertThat(glue.requests.get()).isEqualTo(3 + 5 * 3);
+      Assertions.assertThat(System.nanoTime() - start)
+          .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(17 * 10));
+    }
+  }
+
+  @Test
+  public void testInvalidParallelism() {
+    Assertions.assertThatThrownBy(() -> new GlueTableEnumerator(new StubGlueClient(1, 1), null, 0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("parallelism should be greater than 0");
+  }
+
+  private static String location(int db, int tbl) {
+    return String.format("s3://bucket/db%d/tbl%d/metadata/00001.metadata.json", db, tbl);
+  }
+
+  /**
+   * Serves {@code databases} databases, two per page, with {@code tables} tables each, three per
+   * page, the last one of which isn't an Iceberg table.
+   */
+  private static final class StubGlueClient implements GlueClient {
+
+    private final int databases;
+    private final int tables;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile String missingDatabase;
+    private volatile Error missingDatabaseError;
+    private volatile boolean closed;
+
+    private StubGlueClient(int databases, int tables) {
+      this.databases = databases;
+      this.tables = tables;
+    }
+
+    @Override
+    public GetDatabasesResponse getDatabases(GetDatabasesRequest request) {
+      Assertions.assertThat(request.catalogId()).isEqualTo(CATALOG_ID);
+      requests.incrementAndGet();
+      int from = request.nextToken() == null ? 0 : Integer.parseInt(request.nextToken());
+      int to = Math.min(from + 2, databases);
+      List<Database> page = new ArrayList<>();
+      for (int db = from; db < to; db++) {
+        page.add(Database.builder().name("db" + db).build());
+      }
+      return GetDatabasesResponse.builder()
+          .databaseList(page)
+          .nextToken(to < databases ? String.valueOf(to) : null)
+          .build();
+    }
+
+    @Override
+    public GetTablesResponse getTables(GetTablesRequest request) {
+      Assertions.assertThat(request.catalogId()).isEqualTo(CATALOG_ID);
+      requests.incrementAndGet();
+      int current = inFlight.incrementAndGet();
+      maxInFlight.accumulateAndGet(current, Math::max);
+      try {
+        // give the other workers a chance to overlap
+        Thread.sleep(5);
+        if (request.databaseName().equals(missingDatabase) && missingDatabaseError != null) {
+          throw missingDatabaseError;
+        }
+        if (request.databaseName().equals(missingDatabase)) {
+          throw EntityNotFoundException.builder()
+              .message("Database " + request.databaseName() + " not found")
+              .build();
+        }
+        int db = Integer.parseInt(request.databaseName().substring(2));
+        int from = request.nextToken() == null ? 0 : Integer.parseInt(request.nextToken());
+        int to = Math.min(from + 3, tables);
+        List<Table> page = new ArrayList<>();
+        for (int tbl = from; tbl < to; tbl++) {
+          Map<String, String> parameters =
+              tbl == tables - 1
+                  ? Map.of(BaseMetastoreTableOperations.TABLE_TYPE_PROP, "HIVE")
+                  : Map.of(
+                      BaseMetastoreTableOperations.TABLE_TYPE_PROP,
+                      "ICEBERG",
+                      BaseMetastoreTableOperations.METADATA_LOCATION_PROP,
+                      location(db, tbl));
+          page.add(Table.builder().name("tbl" + tbl).parameters(parameters).build());
+        }
+        return GetTablesResponse.builder()
+            .tableList(page)
+            .nextToken(to < tables ? String.valueOf(to) : null)
+            .build();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    }
+
+    @Override
+    public String serviceName() {
+      return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
@@ -112,7 +112,8 @@ public class HadoopCatalogMigratorTest extends AbstractTestCatalogMigrator {
         namespace -> ((SupportsNamespaces) sourceCatalog).createNamespace(namespace));
     Set<Namespace> listedNamespaces = new HashSet<>();
     // collect all the namespaces from all levels
-    catalogMigrator.getAllNamespacesFromCatalog(Namespace.empty(), listedNamespaces);
+    catalogMigrator.getAllNamespacesFromCatalog(
+        catalogMigrator.sourceCatalog(), Namespace.empty(), listedNamespaces);
     Assertions.assertThat(listedNamespaces).containsAll(namespaceList);
 
     Collections.reverse(namespaceList);
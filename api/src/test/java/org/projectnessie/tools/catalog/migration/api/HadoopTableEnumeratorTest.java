@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.hadoop.HadoopCatalog;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class HadoopTableEnumeratorTest {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+  private static final TableIdentifier ROOT_TABLE = TableIdentifier.of("t0");
+  private static final TableIdentifier A_T1 = TableIdentifier.of(Namespace.of("a"), "t1");
+  private static final TableIdentifier A_B_T2 = TableIdentifier.of(Namespace.of("a", "b"), "t2");
+  private static final TableIdentifier C_T3 = TableIdentifier.of(Namespace.of("c"), "t3");
+
+  protected static @TempDir Path logDir;
+
+  private @TempDir Path tempDir;
+  private Map<String, String> properties;
+  private HadoopCatalog catalog;
+
+  @BeforeAll
+  protected static void initLogDir() {
+    System.setProperty("catalog.migration.log.dir", logDir.toAbsolutePath().toString());
+  }
+
+  @BeforeEach
+  protected void beforeEach() {
+    properties = new HashMap<>();
+    properties.put(CatalogProperties.WAREHOUSE_LOCATION, tempDir.resolve("warehouse") + "/");
+    catalog = new HadoopCatalog();
+    catalog.setConf(new Configuration());
+    catalog.initialize("hadoop", properties);
+    for (TableIdentifier identifier : List.of(ROOT_TABLE, A_T1, A_B_T2, C_T3)) {
+      catalog.createTable(identifier, SCHEMA);
+    }
+    catalog.createNamespace(Namespace.of("empty"));
+    // a few more metadata versions
+    for (int i = 0; i < 3; i++) {
+      catalog.loadTable(A_B_T2).updateProperties().set("version", String.valueOf(i)).commit();
+    }
+  }
+
+  @AfterEach
+  protected void afterEach() throws Exception {
+    catalog.close();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 8})
+  public void testWalkWarehouse(int parallelism) {
+    Map<TableIdentifier, String> tables = enumerate(parallelism);
+
+    // like HadoopCatalog#listTables, the tables in the warehouse directory are not listed
+    Assertions.assertThat(tables).containsOnlyKeys(A_T1, A_B_T2, C_T3);
+    tables.forEach(
+        (identifier, metadataLocation) ->
+            Assertions.assertThat(metadataLocation).isEqualTo(loadedMetadataLocation(identifier)));
+    Assertions.assertThat(tables.get(A_B_T2)).endsWith("/a/b/t2/metadata/v4.metadata.json");
+  }
+
+  @Test
+  public void testVersionHintBehindOrMissing() throws Exception {
+    Path metadataDirectory =
+        tempDir.resolve("warehouse/a/b/t2").resolve(HadoopTableEnumerator.METADATA_DIRECTORY);
+    Path versionHint = metadataDirectory.resolve(HadoopTableEnumerator.VERSION_HINT_FILENAME);
+
+    // the checksum of the local file system would no longer match
+    Files.deleteIfExists(
+        metadataDirectory.resolve("." + HadoopTableEnumerator.VERSION_HINT_FILENAME + ".crc"));
+    Files.write(versionHint, "2".getBytes(StandardCharsets.UTF_8));
+    Assertions.assertThat(enumerate(4).get(A_B_T2)).isEqualTo(loadedMetadataLocation(A_B_T2));
+
+    Files.delete(versionHint);
+    Assertions.assertThat(enumerate(4).get(A_B_T2))
+        .isEqualTo(loadedMetadataLocation(A_B_T2))
+        .endsWith("v4.metadata.json");
+  }
+
+  @Test
+  public void testMigratorWithEnumerator() throws Exception {
+    try (TableEnumerator enumerator =
+        TableEnumerator.forCatalog(catalog, properties, 4).orElseThrow()) {
+      Assertions.assertThat(enumerator).isInstanceOf(HadoopTableEnumerator.class);
+      CatalogMigrator catalogMigrator =
+          ImmutableCatalogMigrator.builder()
+              .sourceCatalog(catalog)
+              .targetCatalog(catalog)
+              .deleteEntriesFromSourceCatalog(false)
+              .sourceTableEnumerator(enumerator)
+              .build();
+
+      Assertions.assertThat(catalogMigrator.getMatchingTableIdentifiersFromSource("^a\\..*"))
+          .containsExactlyInAnyOrder(A_T1, A_B_T2);
+    }
+  }
+
+  private Map<TableIdentifier, String> enumerate(int parallelism) {
+    Map<TableIdentifier, String> tables = new HashMap<>();
+    try (HadoopTableEnumerator enumerator =
+        new HadoopTableEnumerator(catalog, properties, parallelism)) {
+      enumerator.forEachTable(
+          (identifier, metadataLocation) ->
+              Assertions.assertThat(tables.put(identifier, metadataLocation)).isNull());
+    }
+    return tables;
+  }
+
+  private String loadedMetadataLocation(TableIdentifier identifier) {
+    return ((BaseTable) catalog.loadTable(identifier))
+        .operations()
+        .current()
+        .metadataFileLocation();
+  }
+}
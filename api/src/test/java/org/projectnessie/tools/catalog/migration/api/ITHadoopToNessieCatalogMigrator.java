@@ -20,14 +20,18 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import org.apache.iceberg.BaseTable;
 import org.apache.iceberg.catalog.Catalog;
 import org.apache.iceberg.catalog.Namespace;
 import org.apache.iceberg.catalog.SupportsNamespaces;
 import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.nessie.NessieIcebergClient;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.projectnessie.client.api.NessieApiV1;
+import org.projectnessie.error.NessieNotFoundException;
 
 public class ITHadoopToNessieCatalogMigrator extends AbstractTestCatalogMigrator {
 
@@ -112,7 +116,8 @@ public class ITHadoopToNessieCatalogMigrator extends AbstractTestCatalogMigrator
         namespace -> ((SupportsNamespaces) sourceCatalog).createNamespace(namespace));
     Set<Namespace> listedNamespaces = new HashSet<>();
     // collect all the namespaces from all levels
-    catalogMigrator.getAllNamespacesFromCatalog(Namespace.empty(), listedNamespaces);
+    catalogMigrator.getAllNamespacesFromCatalog(
+        catalogMigrator.sourceCatalog(), Namespace.empty(), listedNamespaces);
     Assertions.assertThat(listedNamespaces).containsAll(namespaceList);
 
     Collections.reverse(namespaceList);
@@ -138,10 +143,54 @@ public class ITHadoopToNessieCatalogMigrator extends AbstractTestCatalogMigrator
     namespaceList.forEach(namespace -> ((SupportsNamespaces) nessie).createNamespace(namespace));
     Set<Namespace> listedNamespaces = new HashSet<>();
     // collect all the namespaces from all levels
-    catalogMigrator.getAllNamespacesFromCatalog(Namespace.empty(), listedNamespaces);
+    catalogMigrator.getAllNamespacesFromCatalog(
+        catalogMigrator.sourceCatalog(), Namespace.empty(), listedNamespaces);
     Assertions.assertThat(listedNamespaces).containsAll(namespaceList);
 
     Collections.reverse(namespaceList);
     namespaceList.forEach(((SupportsNamespaces) nessie)::dropNamespace);
   }
+
+  @Test
+  public void testRegisterWithSingleCommitPerBatch() throws Exception {
+    targetCatalog.registerTable(
+        FOO_TBL2,
+        ((BaseTable) sourceCatalog.loadTable(FOO_TBL2))
+            .operations()
+            .current()
+            .metadataFileLocation());
+
+    try (NessieIcebergClient client = NessieClients.icebergClient(targetCatalogProperties);
+        BatchTableRegistrar registrar =
+            BatchTableRegistrar.forCatalog(targetCatalog, targetCatalogProperties).orElseThrow()) {
+      Assertions.assertThat(registrar).isInstanceOf(NessieBatchTableRegistrar.class);
+      NessieApiV1 api = client.getApi();
+      String hashBefore = api.getReference().refName("main").get().getHash();
+
+      CatalogMigrationResult result =
+          ImmutableCatalogMigrator.builder()
+              .sourceCatalog(sourceCatalog)
+              .targetCatalog(targetCatalog)
+              .deleteEntriesFromSourceCatalog(false)
+              .targetBatchTableRegistrar(registrar)
+              .registrationBatchSize(10)
+              .build()
+              .registerTables(List.of(FOO_TBL1, FOO_TBL2, BAR_TBL3, BAR_TBL4), 1)
+              .result();
+
+      Assertions.assertThat(result.failedToRegisterTableIdentifiers()).containsExactly(FOO_TBL2);
+      Assertions.assertThat(result.registeredTableIdentifiers())
+          .containsExactlyInAnyOrder(FOO_TBL1, BAR_TBL3, BAR_TBL4);
+      // the existing table is filtered out before committing, so the batch is a single commit
+      Assertions.assertThat(commitsSince(api, hashBefore)).isEqualTo(1);
+      Assertions.assertThat(targetCatalog.listTables(BAR))
+          .containsExactlyInAnyOrder(BAR_TBL3, BAR_TBL4);
+    }
+  }
+
+  private static long commitsSince(NessieApiV1 api, String hash) throws NessieNotFoundException {
+    return api.getCommitLog().refName("main").stream()
+        .takeWhile(entry -> !hash.equals(entry.getCommitMeta().getHash()))
+        .count();
+  }
 }
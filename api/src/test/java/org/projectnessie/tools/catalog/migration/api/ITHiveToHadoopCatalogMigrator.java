@@ -16,10 +16,19 @@
 package org.projectnessie.tools.catalog.migration.api;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.hive.HiveCatalog;
 import org.apache.iceberg.hive.HiveMetastoreExtension;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 
 public class ITHiveToHadoopCatalogMigrator extends AbstractTestCatalogMigrator {
 
@@ -40,4 +49,34 @@ public class ITHiveToHadoopCatalogMigrator extends AbstractTestCatalogMigrator {
   protected static void tearDown() throws Exception {
     dropNamespaces();
   }
+
+  @Test
+  public void testTableEnumeratorForCatalog() throws Exception {
+    try (TableEnumerator enumerator =
+        TableEnumerator.forCatalog(sourceCatalog, sourceCatalogProperties, 4).orElseThrow()) {
+      Assertions.assertThat(enumerator).isInstanceOf(HiveTableEnumerator.class);
+    }
+  }
+
+  @ParameterizedTest
+  @CsvSource({"1, 100", "4, 1"})
+  public void testTableEnumerator(int parallelism, int batchSize) {
+    Map<TableIdentifier, String> tables = new HashMap<>();
+    try (HiveTableEnumerator enumerator =
+        new HiveTableEnumerator((HiveCatalog) sourceCatalog, parallelism, batchSize)) {
+      enumerator.forEachTable(
+          (identifier, metadataLocation) ->
+              Assertions.assertThat(tables.put(identifier, metadataLocation)).isNull());
+    }
+
+    Assertions.assertThat(tables).containsOnlyKeys(FOO_TBL1, FOO_TBL2, BAR_TBL3, BAR_TBL4);
+    tables.forEach(
+        (identifier, metadataLocation) ->
+            Assertions.assertThat(metadataLocation)
+                .isEqualTo(
+                    ((BaseTable) sourceCatalog.loadTable(identifier))
+                        .operations()
+                        .current()
+                        .metadataFileLocation()));
+  }
 }
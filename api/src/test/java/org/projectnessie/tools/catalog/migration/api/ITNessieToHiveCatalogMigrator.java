@@ -16,8 +16,12 @@
 package org.projectnessie.tools.catalog.migration.api;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import org.apache.iceberg.BaseTable;
 import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.exceptions.NoSuchTableException;
 import org.apache.iceberg.hive.HiveMetastoreExtension;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.AfterAll;
@@ -63,4 +67,59 @@ public class ITNessieToHiveCatalogMigrator extends AbstractTestCatalogMigrator {
     Assertions.assertThat(result.failedToRegisterTableIdentifiers()).containsExactly(TBL);
     Assertions.assertThat(result.failedToDeleteTableIdentifiers()).isEmpty();
   }
+
+  @Test
+  public void testTableEnumeratorOnPinnedCommit() throws Exception {
+    try (TableEnumerator enumerator =
+        TableEnumerator.forCatalog(sourceCatalog, sourceCatalogProperties).orElseThrow()) {
+      Assertions.assertThat(enumerator).isInstanceOf(NessieTableEnumerator.class);
+      // created after the enumerator pinned the commit hash of the reference
+      sourceCatalog.createTable(TBL, schema);
+
+      Map<TableIdentifier, String> tables = new HashMap<>();
+      enumerator.forEachTable(tables::put);
+
+      Assertions.assertThat(tables).containsOnlyKeys(FOO_TBL1, FOO_TBL2, BAR_TBL3, BAR_TBL4);
+      tables.forEach(
+          (identifier, metadataLocation) ->
+              Assertions.assertThat(metadataLocation)
+                  .isEqualTo(
+                      ((BaseTable) sourceCatalog.loadTable(identifier))
+                          .operations()
+                          .current()
+                          .metadataFileLocation()));
+    } finally {
+      sourceCatalog.dropTable(TBL);
+    }
+  }
+
+  @Test
+  public void testMetadataLocationResolverOnEnumeratorCommit() throws Exception {
+    String metadataLocation =
+        ((BaseTable) sourceCatalog.loadTable(FOO_TBL1))
+            .operations()
+            .current()
+            .metadataFileLocation();
+    try (TableEnumerator enumerator =
+            TableEnumerator.forCatalog(sourceCatalog, sourceCatalogProperties).orElseThrow();
+        MetadataLocationResolver resolver =
+            MetadataLocationResolver.forCatalog(
+                sourceCatalog, sourceCatalogProperties, 1, enumerator)) {
+      // committed after the enumerator pinned the commit hash of the reference
+      sourceCatalog.loadTable(FOO_TBL1).updateProperties().set("k", "v").commit();
+
+      Assertions.assertThat(resolver.metadataLocation(FOO_TBL1)).isEqualTo(metadataLocation);
+      Assertions.assertThatThrownBy(() -> resolver.metadataLocation(TBL))
+          .isInstanceOf(NoSuchTableException.class);
+    }
+  }
+
+  @Test
+  public void testTableEnumeratorWithSmallPages() throws Exception {
+    try (NessieTableEnumerator enumerator = new NessieTableEnumerator(sourceCatalogProperties, 3)) {
+      Map<TableIdentifier, String> tables = new HashMap<>();
+      enumerator.forEachTable(tables::put);
+      Assertions.assertThat(tables).containsOnlyKeys(FOO_TBL1, FOO_TBL2, BAR_TBL3, BAR_TBL4);
+    }
+  }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class IdentifierPatternTest {
+
+  private static final List<TableIdentifier> IDENTIFIERS =
+      List.of(
+          TableIdentifier.of("tbl"),
+          TableIdentifier.of("sales", "tbl"),
+          TableIdentifier.of("sales", "eu.tbl"),
+          TableIdentifier.of("sales", "eu", "tbl"),
+          TableIdentifier.of("sales", "eu", "orders", "tbl"),
+          TableIdentifier.of("sales", "us", "tbl"),
+          TableIdentifier.of("sales_eu", "tbl"),
+          TableIdentifier.of("hr", "eu", "tbl"));
+
+  @ParameterizedTest
+  @CsvSource(
+      delimiter = ';',
+      value = {
+        "^sales\\.eu\\..*;sales.eu.",
+        "sales\\.eu\\..*;sales.eu.",
+        "^sales\\.(eu|us)\\..*;sales.",
+        "^sales\\.eu|^hr\\..*;''",
+        "(?i)sales\\..*;''",
+        "sales_?eu.*;sales",
+        "sales+\\..*;sales",
+        "sales{1}.*;sale",
+        "sa[l]es\\..*;sa",
+        "\\Qsales.\\E.*;''",
+        "sales\\d\\..*;sales",
+        "sales\\[eu\\]\\..*;sales[eu].",
+        "^sales\\.eu\\.tbl$;sales.eu.tbl",
+        "sales(\\.eu;''",
+        ".*\\.tbl;''"
+      })
+  public void testLiteralPrefix(String regex, String prefix) {
+    Assertions.assertThat(IdentifierPattern.literalPrefix(regex)).isEqualTo(prefix);
+  }
+
+  @ParameterizedTest
+  @CsvSource(
+      delimiter = ';',
+      value = {
+        "^sales\\.eu\\..*",
+        "^sales\\.(eu|us)\\..*",
+        "^sales\\.eu|^hr\\..*",
+        "(?i)SALES\\..*",
+        "sales_?eu.*",
+        ".*\\.tbl",
+        "(\\w+)\\.\\1\\.tbl",
+        "tbl"
+      })
+  public void testMatchesLikeStringForm(String regex) {
+    IdentifierPattern identifierPattern = IdentifierPattern.compile(regex);
+    Pattern pattern = Pattern.compile(regex);
+    for (TableIdentifier identifier : IDENTIFIERS) {
+      Assertions.assertThat(identifierPattern.matches(identifier))
+          .describedAs(identifier.toString())
+          .isEqualTo(pattern.matcher(identifier.toString()).matches());
+      if (identifierPattern.matches(identifier)) {
+        // a namespace containing a matching table is never pruned, nor are its parents
+        Namespace namespace = identifier.namespace();
+        for (int depth = 0; depth <= namespace.length(); depth++) {
+          Assertions.assertThat(identifierPattern.mayMatchTablesIn(parent(namespace, depth)))
+              .isTrue();
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMayMatchTablesIn() {
+    IdentifierPattern pattern = IdentifierPattern.compile("^sales\\.eu\\..*");
+
+    Assertions.assertThat(pattern.mayMatchTablesIn(Namespace.empty())).isTrue();
+    Assertions.assertThat(pattern.mayMatchTablesIn(Namespace.of("sales"))).isTrue();
+    Assertions.assertThat(pattern.mayMatchTablesIn(Namespace.of("sales", "eu"))).isTrue();
+    Assertions.assertThat(pattern.mayMatchTablesIn(Namespace.of("sales", "eu", "orders"))).isTrue();
+    Assertions.assertThat(pattern.mayMatchTablesIn(Namespace.of("sales.eu"))).isTrue();
+    Assertions.assertThat(pattern.mayMatchTablesIn(Namespace.of("sales", "us"))).isFalse();
+    Assertions.assertThat(pattern.mayMatchTablesIn(Namespace.of("sales", "europe"))).isFalse();
+    Assertions.assertThat(pattern.mayMatchTablesIn(Namespace.of("sales_eu"))).isFalse();
+    Assertions.assertThat(pattern.mayMatchTablesIn(Namespace.of("hr"))).isFalse();
+
+    IdentifierPattern anyPattern = IdentifierPattern.compile(".*");
+    Assertions.assertThat(anyPattern.mayMatchTablesIn(Namespace.of("hr", "eu"))).isTrue();
+  }
+
+  private static Namespace parent(Namespace namespace, int depth) {
+    String[] levels = new String[depth];
+    System.arraycopy(namespace.levels(), 0, levels, 0, depth);
+    return Namespace.of(levels);
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IdentifierQueueTest {
+
+  @Test
+  public void testIdentifiersInDiscoveryOrder() {
+    List<TableIdentifier> expected = new ArrayList<>();
+    IntStream.range(0, 100).forEach(i -> expected.add(TableIdentifier.of("db", "tbl" + i)));
+
+    List<TableIdentifier> consumed = new ArrayList<>();
+    try (IdentifierQueue queue = new IdentifierQueue(expected::forEach, 4)) {
+      queue.forEachRemaining(consumed::add);
+      Assertions.assertThat(queue.hasNext()).isFalse();
+    }
+
+    Assertions.assertThat(consumed).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  public void testDiscoveryWaitsForConsumer() throws Exception {
+    AtomicInteger discovered = new AtomicInteger();
+    CountDownLatch blocked = new CountDownLatch(1);
+    try (IdentifierQueue queue =
+        new IdentifierQueue(
+            consumer -> {
+              for (int i = 0; i < 100; i++) {
+                if (i == 4) {
+                  blocked.countDown();
+                }
+                consumer.accept(TableIdentifier.of("db", "tbl" + i));
+                discovered.incrementAndGet();
+              }
+            },
+            4)) {
+      Assertions.assertThat(blocked.await(10, TimeUnit.SECONDS)).isTrue();
+      Thread.sleep(100);
+      // the producer must be blocked on the full queue
+      Assertions.assertThat(discovered).hasValue(4);
+
+      Assertions.assertThat(queue.next()).isEqualTo(TableIdentifier.of("db", "tbl0"));
+      int consumed = 1;
+      while (queue.hasNext()) {
+        queue.next();
+        consumed++;
+      }
+      Assertions.assertThat(consumed).isEqualTo(100);
+      Assertions.assertThat(discovered).hasValue(100);
+    }
+  }
+
+  @Test
+  public void testDiscoveryFailure() {
+    try (IdentifierQueue queue =
+        new IdentifierQueue(
+            consumer -> {
+              consumer.accept(TableIdentifier.of("db", "tbl1"));
+              throw new IllegalStateException("listing failed");
+            },
+            4)) {
+      Assertions.assertThat(queue.next()).isEqualTo(TableIdentifier.of("db", "tbl1"));
+      Assertions.assertThatThrownBy(queue::hasNext)
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessage("listing failed");
+    }
+  }
+
+  @Test
+  public void testInvalidCapacity() {
+    Assertions.assertThatThrownBy(() -> new IdentifierQueue(consumer -> {}, 0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("capacity should be greater than 0");
+  }
+}
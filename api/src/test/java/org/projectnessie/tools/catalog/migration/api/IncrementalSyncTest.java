@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class IncrementalSyncTest {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+  private static final Namespace NAMESPACE = Namespace.of("db");
+  private static final TableIdentifier TABLE_1 = TableIdentifier.of(NAMESPACE, "tbl1");
+  private static final TableIdentifier TABLE_2 = TableIdentifier.of(NAMESPACE, "tbl2");
+  private static final TableIdentifier TABLE_3 = TableIdentifier.of(NAMESPACE, "tbl3");
+
+  protected static @TempDir Path logDir;
+
+  private @TempDir Path tempDir;
+  private Path stateFile;
+  private LatencyInjectingCatalog sourceCatalog;
+  private LatencyInjectingCatalog targetCatalog;
+
+  @BeforeAll
+  protected static void initLogDir() {
+    System.setProperty("catalog.migration.log.dir", logDir.toAbsolutePath().toString());
+  }
+
+  @BeforeEach
+  protected void beforeEach() {
+    stateFile = tempDir.resolve("sync_state");
+    sourceCatalog = new LatencyInjectingCatalog("source", "/tmp/" + UUID.randomUUID());
+    targetCatalog = new LatencyInjectingCatalog("target", "/tmp/" + UUID.randomUUID());
+    sourceCatalog.createNamespace(NAMESPACE);
+    for (TableIdentifier table : List.of(TABLE_1, TABLE_2, TABLE_3)) {
+      sourceCatalog.createTable(table, SCHEMA);
+    }
+  }
+
+  @Test
+  public void testIncrementalRuns() throws Exception {
+    CatalogMigrationResult result = sync();
+    Assertions.assertThat(result.registeredTableIdentifiers())
+        .containsExactlyInAnyOrder(TABLE_1, TABLE_2, TABLE_3);
+    Assertions.assertThat(Files.readAllLines(stateFile)).hasSize(3);
+
+    // nothing changed
+    result = sync();
+    Assertions.assertThat(result.registeredTableIdentifiers()).isEmpty();
+    Assertions.assertThat(result.unchangedTablesCount()).isEqualTo(3);
+    Assertions.assertThat(result.droppedTableIdentifiers()).isEmpty();
+
+    // a table was committed to, another one dropped and a new one created
+    sourceCatalog.loadTable(TABLE_1).updateProperties().set("key", "value").commit();
+    sourceCatalog.dropTable(TABLE_2, false);
+    TableIdentifier table4 = TableIdentifier.of(NAMESPACE, "tbl4");
+    sourceCatalog.createTable(table4, SCHEMA);
+
+    result = sync();
+    Assertions.assertThat(result.registeredTableIdentifiers())
+        .containsExactlyInAnyOrder(TABLE_1, table4);
+    Assertions.assertThat(result.unchangedTablesCount()).isEqualTo(1);
+    Assertions.assertThat(result.droppedTableIdentifiers()).containsExactly(TABLE_2);
+    Assertions.assertThat(result.failedToRegisterTableIdentifiers()).isEmpty();
+    Assertions.assertThat(targetCatalog.listTables(NAMESPACE))
+        .containsExactlyInAnyOrder(TABLE_1, TABLE_3, table4);
+    Assertions.assertThat(metadataLocation(targetCatalog, TABLE_1))
+        .isEqualTo(metadataLocation(sourceCatalog, TABLE_1));
+
+    SyncState state = SyncState.load(stateFile);
+    Assertions.assertThat(state.size()).isEqualTo(3);
+    Assertions.assertThat(state.metadataLocation(TABLE_1))
+        .isEqualTo(metadataLocation(sourceCatalog, TABLE_1));
+    Assertions.assertThat(state.metadataLocation(TABLE_2)).isNull();
+  }
+
+  @Test
+  public void testAdoptAlreadyRegisteredTables() {
+    targetCatalog.createNamespace(NAMESPACE);
+    targetCatalog.registerTable(TABLE_1, metadataLocation(sourceCatalog, TABLE_1));
+    // an unrelated table of the same name
+    targetCatalog.createTable(TABLE_2, SCHEMA);
+
+    CatalogMigrationResult result = sync();
+
+    Assertions.assertThat(result.registeredTableIdentifiers()).containsExactly(TABLE_3);
+    Assertions.assertThat(result.unchangedTablesCount()).isEqualTo(1);
+    Assertions.assertThat(result.failedToRegisterTableIdentifiers()).containsExactly(TABLE_2);
+    SyncState state = SyncState.load(stateFile);
+    Assertions.assertThat(state.metadataLocation(TABLE_1))
+        .isEqualTo(metadataLocation(sourceCatalog, TABLE_1));
+    Assertions.assertThat(state.metadataLocation(TABLE_2)).isNull();
+  }
+
+  @Test
+  public void testNotApplicableToMigration() {
+    Assertions.assertThatThrownBy(
+            () ->
+                ImmutableCatalogMigrator.builder()
+                    .sourceCatalog(sourceCatalog)
+                    .targetCatalog(targetCatalog)
+                    .deleteEntriesFromSourceCatalog(true)
+                    .syncState(SyncState.load(stateFile))
+                    .build())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage(
+            "syncState is not applicable when deleting the table entries from the source catalog");
+  }
+
+  private CatalogMigrationResult sync() {
+    SyncState state = SyncState.load(stateFile);
+    CatalogMigrator catalogMigrator =
+        ImmutableCatalogMigrator.builder()
+            .sourceCatalog(sourceCatalog)
+            .targetCatalog(targetCatalog)
+            .deleteEntriesFromSourceCatalog(false)
+            .syncState(state)
+            .build();
+    catalogMigrator
+        .registerTables(catalogMigrator.getMatchingTableIdentifiersFromSource(null), 2)
+        .dropDisappearedTables(null);
+    state.save();
+    return catalogMigrator.result();
+  }
+
+  private static String metadataLocation(LatencyInjectingCatalog catalog, TableIdentifier table) {
+    return ((BaseTable) catalog.loadTable(table)).operations().current().metadataFileLocation();
+  }
+}
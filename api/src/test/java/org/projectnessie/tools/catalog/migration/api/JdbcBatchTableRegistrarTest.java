@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.exceptions.AlreadyExistsException;
+import org.apache.iceberg.jdbc.JdbcCatalog;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class JdbcBatchTableRegistrarTest {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+  private static final Namespace DB1 = Namespace.of("db1");
+  private static final Namespace DB1_NESTED = Namespace.of("db1", "nested");
+
+  protected static @TempDir Path logDir;
+
+  private @TempDir Path tempDir;
+  private JdbcCatalog sourceCatalog;
+  private String metadataLocation;
+
+  @BeforeAll
+  protected static void initLogDir() {
+    System.setProperty("catalog.migration.log.dir", logDir.toAbsolutePath().toString());
+  }
+
+  @BeforeEach
+  protected void beforeEach() {
+    sourceCatalog = new JdbcCatalog();
+    sourceCatalog.initialize("source_catalog", catalogProperties("source"));
+    TableIdentifier table = TableIdentifier.of(DB1, "tbl");
+    sourceCatalog.createNamespace(DB1);
+    sourceCatalog.createTable(table, SCHEMA);
+    metadataLocation = metadataLocation(sourceCatalog, table);
+  }
+
+  @AfterEach
+  protected void afterEach() throws Exception {
+    sourceCatalog.close();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"V0", "V1"})
+  public void testRegisterTables(String schemaVersion) throws Exception {
+    Map<String, String> properties = catalogProperties("target");
+    properties.put("jdbc.schema-version", schemaVersion);
+    try (JdbcCatalog targetCatalog = new JdbcCatalog()) {
+      targetCatalog.initialize("target_catalog", properties);
+      targetCatalog.createNamespace(DB1);
+      targetCatalog.createNamespace(DB1_NESTED);
+      TableIdentifier existing = TableIdentifier.of(DB1, "tbl2");
+      targetCatalog.registerTable(existing, metadataLocation);
+
+      Map<TableIdentifier, String> metadataLocations = new LinkedHashMap<>();
+      metadataLocations.put(TableIdentifier.of(DB1, "tbl1"), metadataLocation);
+      metadataLocations.put(existing, metadataLocation);
+      metadataLocations.put(TableIdentifier.of(DB1_NESTED, "tbl3"), metadataLocation);
+
+      Map<TableIdentifier, RuntimeException> failures;
+      try (BatchTableRegistrar registrar =
+          BatchTableRegistrar.forCatalog(targetCatalog, properties).orElseThrow()) {
+        failures = registrar.registerTables(metadataLocations);
+      }
+
+      Assertions.assertThat(failures).containsOnlyKeys(existing);
+      Assertions.assertThat(failures.get(existing))
+          .isInstanceOf(AlreadyExistsException.class)
+          .hasMessage("Table already exists: db1.tbl2");
+      Assertions.assertThat(targetCatalog.listTables(DB1))
+          .containsExactlyInAnyOrder(TableIdentifier.of(DB1, "tbl1"), existing);
+      Assertions.assertThat(targetCatalog.listTables(DB1_NESTED))
+          .containsExactly(TableIdentifier.of(DB1_NESTED, "tbl3"));
+      Assertions.assertThat(metadataLocation(targetCatalog, TableIdentifier.of(DB1, "tbl1")))
+          .isEqualTo(metadataLocation);
+    }
+  }
+
+  @Test
+  public void testRegisterTablesInBatches() throws Exception {
+    Map<String, String> properties = catalogProperties("target");
+    List<TableIdentifier> identifiers =
+        IntStream.range(0, 25)
+            .mapToObj(index -> TableIdentifier.of(DB1_NESTED, "tbl" + index))
+            .collect(Collectors.toList());
+    try (JdbcCatalog targetCatalog = new JdbcCatalog();
+        BatchTableRegistrar registrar = new JdbcBatchTableRegistrar("target_catalog", properties)) {
+      targetCatalog.initialize("target_catalog", properties);
+      targetCatalog.createNamespace(DB1);
+      targetCatalog.createNamespace(DB1_NESTED);
+      targetCatalog.registerTable(identifiers.get(7), metadataLocation);
+
+      CatalogMigrator catalogMigrator =
+          ImmutableCatalogMigrator.builder()
+              .sourceCatalog(sourceCatalog)
+              .targetCatalog(targetCatalog)
+              .deleteEntriesFromSourceCatalog(false)
+              .sourceMetadataLocationResolver(identifier -> metadataLocation)
+              .targetBatchTableRegistrar(registrar)
+              .registrationBatchSize(10)
+              .build();
+      CatalogMigrationResult result = catalogMigrator.registerTables(identifiers, 2).result();
+
+      Assertions.assertThat(result.failedToRegisterTableIdentifiers())
+          .containsExactly(identifiers.get(7));
+      Assertions.assertThat(result.registeredTableIdentifiers())
+          .hasSize(24)
+          .doesNotContain(identifiers.get(7));
+      Assertions.assertThat(targetCatalog.listTables(DB1_NESTED))
+          .containsExactlyInAnyOrderElementsOf(identifiers);
+    }
+  }
+
+  private Map<String, String> catalogProperties(String name) {
+    Map<String, String> properties = new HashMap<>();
+    properties.put(CatalogProperties.URI, "jdbc:sqlite:" + tempDir.resolve(name + ".db"));
+    properties.put(CatalogProperties.WAREHOUSE_LOCATION, tempDir.resolve("warehouse").toString());
+    return properties;
+  }
+
+  private static String metadataLocation(JdbcCatalog catalog, TableIdentifier identifier) {
+    return ((BaseTable) catalog.loadTable(identifier))
+        .operations()
+        .current()
+        .metadataFileLocation();
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.jdbc.JdbcCatalog;
+import org.apache.iceberg.types.Types;
+
+/**
+ * Compares the registration of tables in a JDBC target catalog one by one with the batched
+ * registration of {@link JdbcBatchTableRegistrar}, on an embedded SQLite database.
+ *
+ * <p>Usage: {@code JdbcRegistrationBenchmark [tables] [batch size] [parallelism]}
+ */
+public final class JdbcRegistrationBenchmark {
+
+  private static final Namespace NAMESPACE = Namespace.of("db");
+
+  private JdbcRegistrationBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    int tables = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+    Path dir = Files.createTempDirectory("jdbc-registration-benchmark");
+    try (JdbcCatalog sourceCatalog = new JdbcCatalog()) {
+      sourceCatalog.initialize("source", catalogProperties(dir, "source"));
+      sourceCatalog.createNamespace(NAMESPACE);
+      TableIdentifier table = TableIdentifier.of(NAMESPACE, "source_table");
+      sourceCatalog.createTable(
+          table, new Schema(Types.NestedField.required(1, "id", Types.LongType.get())));
+      // all the target tables share the metadata file, which is enough for registration
+      String metadataLocation =
+          ((BaseTable) sourceCatalog.loadTable(table))
+              .operations()
+              .current()
+              .metadataFileLocation();
+      List<TableIdentifier> identifiers =
+          IntStream.range(0, tables)
+              .mapToObj(index -> TableIdentifier.of(NAMESPACE, "tbl" + index))
+              .collect(Collectors.toList());
+
+      long perTable =
+          run(dir, "per_table", sourceCatalog, metadataLocation, identifiers, parallelism, 0);
+      long batched =
+          run(dir, "batched", sourceCatalog, metadataLocation, identifiers, parallelism, batchSize);
+
+      System.out.printf(
+          "Registered %d tables with parallelism %d%n"
+              + "  one by one:           %6d ms (%.0f tables/s)%n"
+              + "  batches of %-5d      %6d ms (%.0f tables/s)%n",
+          tables,
+          parallelism,
+          perTable,
+          tables * 1000.0 / perTable,
+          batchSize,
+          batched,
+          tables * 1000.0 / batched);
+    }
+  }
+
+  private static long run(
+      Path dir,
+      String name,
+      JdbcCatalog sourceCatalog,
+      String metadataLocation,
+      List<TableIdentifier> identifiers,
+      int parallelism,
+      int batchSize)
+      throws Exception {
+    Map<String, String> properties = catalogProperties(dir, name);
+    try (JdbcCatalog targetCatalog = new JdbcCatalog();
+        JdbcBatchTableRegistrar registrar = new JdbcBatchTableRegistrar(name, properties)) {
+      targetCatalog.initialize(name, properties);
+      ImmutableCatalogMigrator.Builder builder =
+          ImmutableCatalogMigrator.builder()
+              .sourceCatalog(sourceCatalog)
+              .targetCatalog(targetCatalog)
+              .deleteEntriesFromSourceCatalog(false)
+              .sourceMetadataLocationResolver(identifier -> metadataLocation);
+      if (batchSize > 0) {
+        builder.targetBatchTableRegistrar(registrar).registrationBatchSize(batchSize);
+      }
+      CatalogMigrator catalogMigrator = builder.build();
+
+      long start = System.nanoTime();
+      CatalogMigrationResult result =
+          catalogMigrator.registerTables(identifiers, parallelism).result();
+      long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      if (result.registeredTablesCount() != identifiers.size()) {
+        throw new IllegalStateException(
+            String.format(
+                "Registered %d out of %d tables",
+                result.registeredTablesCount(), identifiers.size()));
+      }
+      return elapsed;
+    }
+  }
+
+  private static Map<String, String> catalogProperties(Path dir, String name) {
+    return Map.of(
+        CatalogProperties.URI,
+        "jdbc:sqlite:" + dir.resolve(name + ".db"),
+        CatalogProperties.WAREHOUSE_LOCATION,
+        dir.resolve("warehouse").toString());
+  }
+}
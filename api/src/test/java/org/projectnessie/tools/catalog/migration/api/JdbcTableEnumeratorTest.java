@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.jdbc.JdbcCatalog;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class JdbcTableEnumeratorTest {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+  private static final Namespace DB1 = Namespace.of("db1");
+  private static final Namespace DB1_NESTED = Namespace.of("db1", "nested");
+  private static final Namespace DB2 = Namespace.of("db2");
+
+  protected static @TempDir Path logDir;
+
+  private @TempDir Path tempDir;
+
+  @BeforeAll
+  protected static void initLogDir() {
+    System.setProperty("catalog.migration.log.dir", logDir.toAbsolutePath().toString());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"sqlite", "h2"})
+  public void testForEachTable(String database) throws Exception {
+    Map<String, String> properties = catalogProperties(database, "catalog");
+    Map<TableIdentifier, String> expected = new LinkedHashMap<>();
+    try (JdbcCatalog catalog = new JdbcCatalog();
+        JdbcCatalog otherCatalog = new JdbcCatalog()) {
+      catalog.initialize("jdbc_catalog", properties);
+      for (TableIdentifier identifier :
+          List.of(
+              TableIdentifier.of(DB1, "tbl1"),
+              TableIdentifier.of(DB1, "tbl2"),
+              TableIdentifier.of(DB1_NESTED, "tbl3"),
+              TableIdentifier.of(DB2, "tbl4"))) {
+        expected.put(identifier, createTable(catalog, identifier));
+      }
+      // another catalog sharing the same database
+      otherCatalog.initialize("other_catalog", properties);
+      createTable(otherCatalog, TableIdentifier.of(DB1, "other"));
+
+      Map<TableIdentifier, String> enumerated = new LinkedHashMap<>();
+      try (JdbcTableEnumerator enumerator =
+          new JdbcTableEnumerator(catalog.name(), properties, 2)) {
+        enumerator.forEachTable(enumerated::put);
+      }
+
+      Assertions.assertThat(enumerated).containsExactlyEntriesOf(expected);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"sqlite", "h2"})
+  public void testViewsAreSkipped(String database) throws Exception {
+    Map<String, String> properties = catalogProperties(database, "catalog");
+    properties.put("jdbc.schema-version", "V1");
+    try (JdbcCatalog catalog = new JdbcCatalog()) {
+      catalog.initialize("jdbc_catalog", properties);
+      TableIdentifier table = TableIdentifier.of(DB1, "tbl1");
+      String metadataLocation = createTable(catalog, table);
+      catalog
+          .buildView(TableIdentifier.of(DB1, "view1"))
+          .withSchema(SCHEMA)
+          .withDefaultNamespace(DB1)
+          .withQuery("spark", "SELECT * FROM db1.tbl1")
+          .create();
+
+      Map<TableIdentifier, String> enumerated = new LinkedHashMap<>();
+      try (TableEnumerator enumerator =
+          TableEnumerator.forCatalog(catalog, properties).orElseThrow()) {
+        enumerator.forEachTable(enumerated::put);
+      }
+
+      Assertions.assertThat(enumerated).containsExactly(Map.entry(table, metadataLocation));
+    }
+  }
+
+  @Test
+  public void testRegisterMatchingTablesWithEnumerator() throws Exception {
+    Map<String, String> sourceProperties = catalogProperties("sqlite", "source");
+    try (JdbcCatalog sourceCatalog =
+            new JdbcCatalog() {
+              @Override
+              public List<Namespace> listNamespaces(Namespace namespace) {
+                throw new UnsupportedOperationException("namespaces must not be listed");
+              }
+            };
+        JdbcCatalog targetCatalog = new JdbcCatalog()) {
+      sourceCatalog.initialize("source_catalog", sourceProperties);
+      targetCatalog.initialize("target_catalog", catalogProperties("sqlite", "target"));
+      Map<TableIdentifier, String> expected = new LinkedHashMap<>();
+      expected.put(
+          TableIdentifier.of(DB1, "tbl1"),
+          createTable(sourceCatalog, TableIdentifier.of(DB1, "tbl1")));
+      expected.put(
+          TableIdentifier.of(DB1_NESTED, "tbl2"),
+          createTable(sourceCatalog, TableIdentifier.of(DB1_NESTED, "tbl2")));
+      createTable(sourceCatalog, TableIdentifier.of(DB2, "tbl3"));
+
+      try (TableEnumerator enumerator =
+          TableEnumerator.forCatalog(sourceCatalog, sourceProperties).orElseThrow()) {
+        CatalogMigrator catalogMigrator =
+            ImmutableCatalogMigrator.builder()
+                .sourceCatalog(sourceCatalog)
+                .targetCatalog(targetCatalog)
+                .deleteEntriesFromSourceCatalog(false)
+                .sourceTableEnumerator(enumerator)
+                .sourceMetadataLocationResolver(
+                    identifier -> {
+                      throw new AssertionError("metadata location of " + identifier + " resolved");
+                    })
+                .build();
+
+        Assertions.assertThat(catalogMigrator.getMatchingTableIdentifiersFromSource("db1\\..*"))
+            .containsExactlyElementsOf(expected.keySet());
+
+        CatalogMigrationResult result =
+            catalogMigrator
+                .registerMatchingTablesFromSource("db1\\..*", 2, 1, identifier -> {})
+                .result();
+
+        Assertions.assertThat(result.registeredTableIdentifiers())
+            .containsExactlyInAnyOrderElementsOf(expected.keySet());
+        Assertions.assertThat(result.failedToRegisterTableIdentifiers()).isEmpty();
+      }
+      expected.forEach(
+          (identifier, metadataLocation) ->
+              Assertions.assertThat(metadataLocation(targetCatalog, identifier))
+                  .isEqualTo(metadataLocation));
+    }
+  }
+
+  @Test
+  public void testRegisterIdentifiedTablesWithEnumerator() throws Exception {
+    Map<String, String> sourceProperties = catalogProperties("sqlite", "source");
+    try (JdbcCatalog sourceCatalog = new JdbcCatalog();
+        JdbcCatalog targetCatalog = new JdbcCatalog()) {
+      sourceCatalog.initialize("source_catalog", sourceProperties);
+      targetCatalog.initialize("target_catalog", catalogProperties("sqlite", "target"));
+      Map<TableIdentifier, String> expected = new LinkedHashMap<>();
+      expected.put(
+          TableIdentifier.of(DB1, "tbl1"),
+          createTable(sourceCatalog, TableIdentifier.of(DB1, "tbl1")));
+      expected.put(
+          TableIdentifier.of(DB2, "tbl2"),
+          createTable(sourceCatalog, TableIdentifier.of(DB2, "tbl2")));
+
+      try (TableEnumerator enumerator =
+          TableEnumerator.forCatalog(sourceCatalog, sourceProperties).orElseThrow()) {
+        CatalogMigrator catalogMigrator =
+            ImmutableCatalogMigrator.builder()
+                .sourceCatalog(sourceCatalog)
+                .targetCatalog(targetCatalog)
+                .deleteEntriesFromSourceCatalog(false)
+                .sourceTableEnumerator(enumerator)
+                .sourceMetadataLocationResolver(
+                    identifier -> {
+                      throw new AssertionError("metadata location of " + identifier + " resolved");
+                    })
+                .build();
+
+        CatalogMigrationResult result =
+            catalogMigrator
+                .registerTables(
+                    catalogMigrator.getMatchingTableIdentifiersFromSource(null),
+                    2,
+                    identifier -> {})
+                .result();
+
+        Assertions.assertThat(result.registeredTableIdentifiers())
+            .containsExactlyInAnyOrderElementsOf(expected.keySet());
+        Assertions.assertThat(result.failedToRegisterTableIdentifiers()).isEmpty();
+      }
+      expected.forEach(
+          (identifier, metadataLocation) ->
+              Assertions.assertThat(metadataLocation(targetCatalog, identifier))
+                  .isEqualTo(metadataLocation));
+    }
+  }
+
+  private Map<String, String> catalogProperties(String database, String name) {
+    Map<String, String> properties = new HashMap<>();
+    properties.put(
+        CatalogProperties.URI,
+        "h2".equals(database)
+            // the JDBC catalog expects lower case table names when checking for existing tables
+            ? "jdbc:h2:" + tempDir.resolve(name) + ";DATABASE_TO_LOWER=TRUE"
+            : "jdbc:sqlite:" + tempDir.resolve(name + ".db"));
+    properties.put(CatalogProperties.WAREHOUSE_LOCATION, tempDir.resolve("warehouse").toString());
+    return properties;
+  }
+
+  private static String createTable(JdbcCatalog catalog, TableIdentifier identifier) {
+    if (!catalog.namespaceExists(identifier.namespace())) {
+      catalog.createNamespace(identifier.namespace());
+    }
+    catalog.createTable(identifier, SCHEMA);
+    return metadataLocation(catalog, identifier);
+  }
+
+  private static String metadataLocation(JdbcCatalog catalog, TableIdentifier identifier) {
+    return ((BaseTable) catalog.loadTable(identifier))
+        .operations()
+        .current()
+        .metadataFileLocation();
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.inmemory.InMemoryCatalog;
+
+/**
+ * {@link InMemoryCatalog} which delays every catalog request by a fixed latency to simulate a
+ * remote catalog, and keeps track of the number of concurrent requests.
+ */
+public class LatencyInjectingCatalog extends InMemoryCatalog {
+
+  private volatile long latencyMillis;
+  private final ThreadLocal<Boolean> inRequest = ThreadLocal.withInitial(() -> false);
+  private final AtomicInteger inFlightRequests = new AtomicInteger();
+  private final AtomicInteger maxInFlightRequests = new AtomicInteger();
+  private final AtomicInteger totalRequests = new AtomicInteger();
+
+  public LatencyInjectingCatalog(String name, String warehouse) {
+    initialize(name, Map.of(CatalogProperties.WAREHOUSE_LOCATION, warehouse));
+  }
+
+  /** Sets the latency which is added to every subsequent catalog request. */
+  public LatencyInjectingCatalog withLatency(long millis) {
+    this.latencyMillis = millis;
+    return this;
+  }
+
+  public int maxInFlightRequests() {
+    return maxInFlightRequests.get();
+  }
+
+  public int totalRequests() {
+    return totalRequests.get();
+  }
+
+  @Override
+  public Table loadTable(TableIdentifier identifier) {
+    return request(() -> super.loadTable(identifier));
+  }
+
+  @Override
+  public Table registerTable(TableIdentifier identifier, String metadataFileLocation) {
+    return request(() -> super.registerTable(identifier, metadataFileLocation));
+  }
+
+  @Override
+  public boolean dropTable(TableIdentifier identifier, boolean purge) {
+    return request(() -> super.dropTable(identifier, purge));
+  }
+
+  @Override
+  public List<TableIdentifier> listTables(Namespace namespace) {
+    return request(() -> super.listTables(namespace));
+  }
+
+  @Override
+  public List<Namespace> listNamespaces(Namespace namespace) {
+    return request(() -> super.listNamespaces(namespace));
+  }
+
+  @Override
+  public void createNamespace(Namespace namespace, Map<String, String> metadata) {
+    request(
+        () -> {
+          super.createNamespace(namespace, metadata);
+          return null;
+        });
+  }
+
+  private <T> T request(Supplier<T> call) {
+    if (inRequest.get()) {
+      // nested call of the same request, e.g. registerTable() checking tableExists()
+      return call.get();
+    }
+    inRequest.set(true);
+    totalRequests.incrementAndGet();
+    maxInFlightRequests.accumulateAndGet(inFlightRequests.incrementAndGet(), Math::max);
+    try {
+      Thread.sleep(latencyMillis);
+      return call.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } finally {
+      inFlightRequests.decrementAndGet();
+      inRequest.set(false);
+    }
+  }
+}
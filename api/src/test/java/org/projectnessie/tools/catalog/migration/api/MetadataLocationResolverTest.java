@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.exceptions.NoSuchTableException;
+import org.apache.iceberg.jdbc.JdbcCatalog;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MetadataLocationResolverTest {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+  private static final TableIdentifier TABLE = TableIdentifier.of(Namespace.of("db", "ns"), "tbl");
+
+  protected static @TempDir Path logDir;
+
+  private @TempDir Path tempDir;
+  private Map<String, String> properties;
+  private JdbcCatalog catalog;
+
+  @BeforeAll
+  protected static void initLogDir() {
+    System.setProperty("catalog.migration.log.dir", logDir.toAbsolutePath().toString());
+  }
+
+  @BeforeEach
+  protected void beforeEach() {
+    properties = new HashMap<>();
+    properties.put(CatalogProperties.URI, "jdbc:sqlite:" + tempDir.resolve("catalog.db"));
+    properties.put(CatalogProperties.WAREHOUSE_LOCATION, tempDir.resolve("warehouse").toString());
+    catalog = new JdbcCatalog();
+    catalog.initialize("jdbc_catalog", properties);
+    catalog.createNamespace(TABLE.namespace());
+    catalog.createTable(TABLE, SCHEMA);
+  }
+
+  @AfterEach
+  protected void afterEach() throws Exception {
+    catalog.close();
+  }
+
+  @Test
+  public void testJdbcCatalogWithoutLoadingTable() throws Exception {
+    String expected =
+        ((BaseTable) catalog.loadTable(TABLE)).operations().current().metadataFileLocation();
+
+    try (MetadataLocationResolver resolver =
+        MetadataLocationResolver.forCatalog(catalog, properties)) {
+      Assertions.assertThat(resolver).isInstanceOf(JdbcMetadataLocationResolver.class);
+      Assertions.assertThat(resolver.metadataLocation(TABLE)).isEqualTo(expected);
+
+      // only the pointer is read, the metadata file itself is never accessed
+      Files.delete(Paths.get(expected.replaceFirst("^file:", "")));
+      Assertions.assertThat(resolver.metadataLocation(TABLE)).isEqualTo(expected);
+
+      TableIdentifier missing = TableIdentifier.of(TABLE.namespace(), "missing");
+      Assertions.assertThatThrownBy(() -> resolver.metadataLocation(missing))
+          .isInstanceOf(NoSuchTableException.class)
+          .hasMessage("Table does not exist: db.ns.missing");
+    }
+  }
+
+  @Test
+  public void testRegisterWithResolver() throws Exception {
+    try (JdbcCatalog targetCatalog = new JdbcCatalog();
+        MetadataLocationResolver resolver =
+            MetadataLocationResolver.forCatalog(catalog, properties)) {
+      targetCatalog.initialize(
+          "target_catalog",
+          Map.of(
+              CatalogProperties.URI,
+              "jdbc:sqlite:" + tempDir.resolve("target.db"),
+              CatalogProperties.WAREHOUSE_LOCATION,
+              tempDir.resolve("target").toString()));
+      targetCatalog.createNamespace(TABLE.namespace());
+
+      CatalogMigrator catalogMigrator =
+          ImmutableCatalogMigrator.builder()
+              .sourceCatalog(catalog)
+              .targetCatalog(targetCatalog)
+              .deleteEntriesFromSourceCatalog(false)
+              .sourceMetadataLocationResolver(resolver)
+              .build();
+
+      CatalogMigrationResult result = catalogMigrator.registerTable(TABLE).result();
+
+      Assertions.assertThat(result.registeredTableIdentifiers()).containsExactly(TABLE);
+      Assertions.assertThat(
+              ((BaseTable) targetCatalog.loadTable(TABLE))
+                  .operations()
+                  .current()
+                  .metadataFileLocation())
+          .isEqualTo(resolver.metadataLocation(TABLE));
+    }
+  }
+
+  @Test
+  public void testFallbackToLoadTable() {
+    LatencyInjectingCatalog inMemoryCatalog =
+        new LatencyInjectingCatalog("in_memory", "/tmp/" + UUID.randomUUID());
+    inMemoryCatalog.createNamespace(TABLE.namespace());
+    inMemoryCatalog.createTable(TABLE, SCHEMA);
+
+    try (MetadataLocationResolver resolver =
+        MetadataLocationResolver.forCatalog(inMemoryCatalog, Map.of())) {
+      Assertions.assertThat(resolver).isInstanceOf(LoadTableMetadataLocationResolver.class);
+      Assertions.assertThat(resolver.metadataLocation(TABLE))
+          .isEqualTo(
+              ((BaseTable) inMemoryCatalog.loadTable(TABLE))
+                  .operations()
+                  .current()
+                  .metadataFileLocation());
+    }
+  }
+}
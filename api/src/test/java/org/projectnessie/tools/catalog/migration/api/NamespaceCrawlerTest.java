@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class NamespaceCrawlerTest {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+
+  protected static @TempDir Path logDir;
+
+  private LatencyInjectingCatalog sourceCatalog;
+  private LatencyInjectingCatalog targetCatalog;
+
+  @BeforeAll
+  protected static void initLogDir() {
+    System.setProperty("catalog.migration.log.dir", logDir.toAbsolutePath().toString());
+  }
+
+  @BeforeEach
+  protected void beforeEach() {
+    String warehouse = "/tmp/" + UUID.randomUUID();
+    sourceCatalog = new LatencyInjectingCatalog("source", warehouse + "/source");
+    targetCatalog = new LatencyInjectingCatalog("target", warehouse + "/target");
+    // three levels deep hierarchy with four children per namespace
+    IntStream.range(0, 4)
+        .forEach(
+            a -> {
+              sourceCatalog.createNamespace(Namespace.of("a" + a));
+              IntStream.range(0, 4)
+                  .forEach(
+                      b -> {
+                        sourceCatalog.createNamespace(Namespace.of("a" + a, "b" + b));
+                        IntStream.range(0, 4)
+                            .forEach(
+                                c -> {
+                                  Namespace namespace = Namespace.of("a" + a, "b" + b, "c" + c);
+                                  sourceCatalog.createNamespace(namespace);
+                                  sourceCatalog.createTable(
+                                      TableIdentifier.of(namespace, "tbl"), SCHEMA);
+                                });
+                      });
+            });
+    sourceCatalog.withLatency(2);
+  }
+
+  @Test
+  public void testCrawlMatchesSerialWalk() {
+    CatalogMigrator catalogMigrator = catalogMigrator(1);
+    Set<Namespace> serial = new LinkedHashSet<>();
+    catalogMigrator.getAllNamespacesFromCatalog(sourceCatalog, Namespace.empty(), serial);
+
+    Set<Namespace> crawled =
+        new NamespaceCrawler(sourceCatalog::listNamespaces, 8).crawl(Namespace.empty());
+
+    Assertions.assertThat(crawled).hasSize(1 + 4 + 16 + 64).containsExactlyElementsOf(serial);
+    Assertions.assertThat(sourceCatalog.maxInFlightRequests()).isBetween(2, 8);
+  }
+
+  @Test
+  public void testMatchingTablesWithDiscoveryParallelism() {
+    Set<TableIdentifier> serial = catalogMigrator(1).getMatchingTableIdentifiersFromSource(null);
+    Set<TableIdentifier> concurrent =
+        catalogMigrator(8).getMatchingTableIdentifiersFromSource("a1\\..*");
+
+    Assertions.assertThat(serial).hasSize(64);
+    Assertions.assertThat(concurrent)
+        .hasSize(16)
+        .containsExactlyElementsOf(
+            serial.stream().filter(identifier -> identifier.toString().startsWith("a1.")).toList());
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 8})
+  public void testRegexPrunesNamespaces(int discoveryParallelism) {
+    CatalogMigrator catalogMigrator = catalogMigrator(discoveryParallelism);
+    int requests = sourceCatalog.totalRequests();
+
+    Set<TableIdentifier> matching =
+        catalogMigrator.getMatchingTableIdentifiersFromSource("^a1\\.b2\\.c[0-2]\\..*");
+
+    Assertions.assertThat(matching)
+        .containsExactly(
+            TableIdentifier.of("a1", "b2", "c0", "tbl"),
+            TableIdentifier.of("a1", "b2", "c1", "tbl"),
+            TableIdentifier.of("a1", "b2", "c2", "tbl"));
+    // the namespaces and tables of the root, a1, a1.b2 and a1.b2.c0 to a1.b2.c3 only
+    Assertions.assertThat(sourceCatalog.totalRequests() - requests).isEqualTo(2 * 7);
+  }
+
+  @Test
+  public void testCrawlFailure() {
+    Namespace broken = Namespace.of("a2", "b1");
+    NamespaceCrawler crawler =
+        new NamespaceCrawler(
+            namespace -> {
+              if (namespace.equals(broken)) {
+                throw new IllegalStateException("listing failed for " + namespace);
+              }
+              return sourceCatalog.listNamespaces(namespace);
+            },
+            4);
+
+    Assertions.assertThatThrownBy(() -> crawler.crawl(Namespace.empty()))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("listing failed for a2.b1");
+  }
+
+  @Test
+  public void testInvalidFanOut() {
+    Assertions.assertThatThrownBy(() -> new NamespaceCrawler(sourceCatalog::listNamespaces, 0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("fanOut should be greater than 0");
+  }
+
+  private CatalogMigrator catalogMigrator(int discoveryParallelism) {
+    return ImmutableCatalogMigrator.builder()
+        .sourceCatalog(sourceCatalog)
+        .targetCatalog(targetCatalog)
+        .deleteEntriesFromSourceCatalog(false)
+        .namespaceDiscoveryParallelism(discoveryParallelism)
+        .build();
+  }
+}
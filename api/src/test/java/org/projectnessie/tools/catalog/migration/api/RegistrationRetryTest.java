@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.exceptions.AlreadyExistsException;
+import org.apache.iceberg.exceptions.ForbiddenException;
+import org.apache.iceberg.exceptions.NoSuchTableException;
+import org.apache.iceberg.exceptions.NotAuthorizedException;
+import org.apache.iceberg.exceptions.ServiceFailureException;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RegistrationRetryTest {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+  private static final Namespace NAMESPACE = Namespace.of("db");
+
+  protected static @TempDir Path logDir;
+
+  private LatencyInjectingCatalog sourceCatalog;
+  private FailingCatalog targetCatalog;
+  private List<TableIdentifier> tables;
+
+  @BeforeAll
+  protected static void initLogDir() {
+    System.setProperty("catalog.migration.log.dir", logDir.toAbsolutePath().toString());
+  }
+
+  @BeforeEach
+  protected void beforeEach() {
+    sourceCatalog = new LatencyInjectingCatalog("source", "/tmp/" + UUID.randomUUID());
+    targetCatalog = new FailingCatalog("target", "/tmp/" + UUID.randomUUID());
+    sourceCatalog.createNamespace(NAMESPACE);
+    tables =
+        IntStream.range(0, 5)
+            .mapToObj(i -> TableIdentifier.of(NAMESPACE, "tbl" + i))
+            .collect(Collectors.toList());
+    tables.forEach(table -> sourceCatalog.createTable(table, SCHEMA));
+  }
+
+  @Test
+  public void testRetryableFailures() {
+    Assertions.assertThat(CatalogRequestFailures.isRetryable(new ServiceFailureException("5xx")))
+        .isTrue();
+    Assertions.assertThat(CatalogRequestFailures.isRetryable(new SocketTimeoutException()))
+        .isTrue();
+    Assertions.assertThat(
+            CatalogRequestFailures.isRetryable(new RuntimeException(new IOException("reset"))))
+        .isTrue();
+
+    Assertions.assertThat(
+            CatalogRequestFailures.isRetryable(new AlreadyExistsException("Table exists")))
+        .isFalse();
+    Assertions.assertThat(CatalogRequestFailures.isRetryable(new NoSuchTableException("Missing")))
+        .isFalse();
+    Assertions.assertThat(CatalogRequestFailures.isRetryable(new NotAuthorizedException("401")))
+        .isFalse();
+    Assertions.assertThat(
+            CatalogRequestFailures.isRetryable(
+                new IOException("Request failed", new ForbiddenException("403"))))
+        .isFalse();
+    Assertions.assertThat(CatalogRequestFailures.isRetryable(new IllegalStateException("bug")))
+        .isFalse();
+  }
+
+  @Test
+  public void testTransientFailuresAreRetried() {
+    targetCatalog.failures = 2;
+
+    CatalogMigrationResult result = migrator(3).registerTables(tables, 2).result();
+
+    Assertions.assertThat(result.registeredTableIdentifiers())
+        .containsExactlyInAnyOrderElementsOf(tables);
+    Assertions.assertThat(result.failedToRegisterTableIdentifiers()).isEmpty();
+    tables.forEach(table -> Assertions.assertThat(targetCatalog.attempts.get(table)).hasValue(3));
+  }
+
+  @Test
+  public void testRetriesExhausted() {
+    targetCatalog.failures = Integer.MAX_VALUE;
+
+    CatalogMigrationResult result = migrator(2).registerTable(tables.get(0)).result();
+
+    Assertions.assertThat(result.registeredTableIdentifiers()).isEmpty();
+    Assertions.assertThat(result.failedToRegisterTableIdentifiers()).containsExactly(tables.get(0));
+    Assertions.assertThat(targetCatalog.attempts.get(tables.get(0))).hasValue(3);
+  }
+
+  @Test
+  public void testPermanentFailuresAreNotRetried() {
+    targetCatalog.createNamespace(NAMESPACE);
+    targetCatalog.createTable(tables.get(0), SCHEMA);
+
+    CatalogMigrationResult result = migrator(3).registerTable(tables.get(0)).result();
+
+    Assertions.assertThat(result.failedToRegisterTableIdentifiers()).containsExactly(tables.get(0));
+    Assertions.assertThat(targetCatalog.attempts.get(tables.get(0))).hasValue(1);
+  }
+
+  @Test
+  public void testRetryAfterLostResponse() {
+    targetCatalog.failures = 1;
+    targetCatalog.loseResponses = true;
+
+    CatalogMigrationResult result = migrator(1).registerTables(tables, 2).result();
+
+    // the retry finds the tables registered with their metadata location by the first attempt
+    Assertions.assertThat(result.registeredTableIdentifiers())
+        .containsExactlyInAnyOrderElementsOf(tables);
+    Assertions.assertThat(result.failedToRegisterTableIdentifiers()).isEmpty();
+    tables.forEach(table -> Assertions.assertThat(targetCatalog.attempts.get(table)).hasValue(2));
+  }
+
+  @Test
+  public void testRetryOfTableRegisteredElsewhere() {
+    targetCatalog.failures = 1;
+    targetCatalog.createNamespace(NAMESPACE);
+    targetCatalog.createTable(tables.get(0), SCHEMA);
+
+    CatalogMigrationResult result = migrator(1).registerTable(tables.get(0)).result();
+
+    // the table which already existed has another metadata location
+    Assertions.assertThat(result.registeredTableIdentifiers()).isEmpty();
+    Assertions.assertThat(result.failedToRegisterTableIdentifiers()).containsExactly(tables.get(0));
+    Assertions.assertThat(targetCatalog.attempts.get(tables.get(0))).hasValue(2);
+  }
+
+  @Test
+  public void testRetryDoesNotHoldWorker() {
+    targetCatalog.failures = 1;
+    targetCatalog.failingTable = tables.get(0);
+    List<TableIdentifier> processed = new CopyOnWriteArrayList<>();
+
+    CatalogMigrationResult result =
+        ImmutableCatalogMigrator.builder()
+            .sourceCatalog(sourceCatalog)
+            .targetCatalog(targetCatalog)
+            .deleteEntriesFromSourceCatalog(false)
+            .maxRetries(1)
+            .retryInitialBackoff(Duration.ofMillis(500))
+            .build()
+            .registerTables(tables, 1, processed::add)
+            .result();
+
+    Assertions.assertThat(result.registeredTableIdentifiers())
+        .containsExactlyInAnyOrderElementsOf(tables);
+    // the only worker registered all the other tables while the first one was backing off
+    Assertions.assertThat(processed).containsExactlyElementsOf(rotate(tables));
+  }
+
+  @Test
+  public void testInvalidRetryParams() {
+    Assertions.assertThatThrownBy(
+            () ->
+                ImmutableCatalogMigrator.builder()
+                    .sourceCatalog(sourceCatalog)
+                    .targetCatalog(targetCatalog)
+                    .deleteEntriesFromSourceCatalog(false)
+                    .maxRetries(-1)
+                    .build())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("maxRetries should not be negative");
+    Assertions.assertThatThrownBy(
+            () ->
+                ImmutableCatalogMigrator.builder()
+                    .sourceCatalog(sourceCatalog)
+                    .targetCatalog(targetCatalog)
+                    .deleteEntriesFromSourceCatalog(false)
+                    .retryInitialBackoff(Duration.ofSeconds(10))
+                    .retryMaxBackoff(Duration.ofSeconds(5))
+                    .build())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("retryMaxBackoff should not be less than retryInitialBackoff");
+  }
+
+  private CatalogMigrator migrator(int maxRetries) {
+    return ImmutableCatalogMigrator.builder()
+        .sourceCatalog(sourceCatalog)
+        .targetCatalog(targetCatalog)
+        .deleteEntriesFromSourceCatalog(false)
+        .maxRetries(maxRetries)
+        .retryInitialBackoff(Duration.ofMillis(1))
+        .retryMaxBackoff(Duration.ofMillis(5))
+        .build();
+  }
+
+  private static List<TableIdentifier> rotate(List<TableIdentifier> tables) {
+    List<TableIdentifier> rotated = new ArrayList<>(tables.subList(1, tables.size()));
+    rotated.add(tables.get(0));
+    return rotated;
+  }
+
+  /**
+   * Fails the first {@code failures} registrations of every table with a server error, after
+   * registering the table if {@code loseResponses} is set.
+   */
+  private static final class FailingCatalog extends LatencyInjectingCatalog {
+
+    private final Map<TableIdentifier, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    private volatile int failures;
+    private volatile TableIdentifier failingTable;
+    private volatile boolean loseResponses;
+
+    FailingCatalog(String name, String warehouse) {
+      super(name, warehouse);
+    }
+
+    @Override
+    public Table registerTable(TableIdentifier identifier, String metadataFileLocation) {
+      int attempt =
+          attempts.computeIfAbsent(identifier, id -> new AtomicInteger()).incrementAndGet();
+      if (attempt <= failures && (failingTable == null || failingTable.equals(identifier))) {
+        if (loseResponses) {
+          super.registerTable(identifier, metadataFileLocation);
+        }
+        throw new ServiceFailureException("Service failed: 503 Service Unavailable");
+      }
+      return super.registerTable(identifier, metadataFileLocation);
+    }
+  }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.exceptions.NoSuchTableException;
+import org.apache.iceberg.exceptions.ServiceFailureException;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RequestHedgerTest {
+
+  protected static @TempDir Path logDir;
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @BeforeAll
+  protected static void initLogDir() {
+    System.setProperty("catalog.migration.log.dir", logDir.toAbsolutePath().toString());
+  }
+
+  @AfterEach
+  protected void afterEach() {
+    release.countDown();
+  }
+
+  @Test
+  public void testNoHedgingDuringWarmup() {
+    RequestHedger hedger = new RequestHedger(90, 1);
+    Thread caller = Thread.currentThread();
+    for (int i = 1; i < RequestHedger.WARMUP_SAMPLES; i++) {
+      // nothing to hedge, so no thread is started for the request
+      Assertions.assertThat(hedger.call(Thread::currentThread)).isSameAs(caller);
+    }
+    Assertions.assertThat(hedger.hedgeDelayNanos()).isEqualTo(-1);
+
+    hedger.call(() -> "response");
+    Assertions.assertThat(hedger.hedgeDelayNanos()).isGreaterThanOrEqualTo(0);
+    Assertions.assertThat(hedger.metrics())
+        .isEqualTo(
+            ImmutableHedgingMetrics.builder()
+                .requests(RequestHedger.WARMUP_SAMPLES)
+                .hedgedRequests(0)
+                .hedgeWins(0)
+                .skippedHedges(0)
+                .build());
+  }
+
+  @Test
+  public void testHedgeWins() {
+    RequestHedger hedger = warmedUp(1);
+    AtomicInteger attempts = new AtomicInteger();
+
+    String response =
+        hedger.call(() -> attempts.incrementAndGet() == 1 ? awaitRelease("primary") : "hedge");
+
+    Assertions.assertThat(response).isEqualTo("hedge");
+    Assertions.assertThat(attempts).hasValue(2);
+    Assertions.assertThat(hedger.metrics().hedgedRequests()).isEqualTo(1);
+    Assertions.assertThat(hedger.metrics().hedgeWins()).isEqualTo(1);
+  }
+
+  @Test
+  public void testOutstandingHedgesAreCapped() throws Exception {
+    RequestHedger hedger = warmedUp(1);
+
+    // both the request and its hedge hang until released, holding the only hedge permit
+    CompletableFuture<String> hanging =
+        CompletableFuture.supplyAsync(() -> hedger.call(() -> awaitRelease("released")));
+    while (hedger.metrics().hedgedRequests() == 0) {
+      Thread.sleep(1);
+    }
+
+    AtomicInteger attempts = new AtomicInteger();
+    String response =
+        hedger.call(
+            () -> {
+              attempts.incrementAndGet();
+              sleep(50);
+              return "slow";
+            });
+
+    Assertions.assertThat(response).isEqualTo("slow");
+    Assertions.assertThat(attempts).hasValue(1);
+    Assertions.assertThat(hedger.metrics().skippedHedges()).isEqualTo(1);
+
+    release.countDown();
+    Assertions.assertThat(hanging.get(10, TimeUnit.SECONDS)).isEqualTo("released");
+  }
+
+  @Test
+  public void testFailureOfOriginalRequestWhenBothFail() {
+    RequestHedger hedger = warmedUp(1);
+    AtomicInteger attempts = new AtomicInteger();
+
+    Assertions.assertThatThrownBy(
+            () ->
+                hedger.call(
+                    () -> {
+                      if (attempts.incrementAndGet() == 1) {
+                        sleep(50);
+                        throw new ServiceFailureException("primary");
+                      }
+                      throw new ServiceFailureException("hedge");
+                    }))
+        .isInstanceOf(ServiceFailureException.class)
+        .hasMessage("primary");
+    Assertions.assertThat(hedger.metrics().hedgeWins()).isEqualTo(0);
+  }
+
+  @Test
+  public void testSuccessOfHedgeWhenOriginalRequestFails() {
+    RequestHedger hedger = warmedUp(1);
+    AtomicInteger attempts = new AtomicInteger();
+
+    String response =
+        hedger.call(
+            () -> {
+              if (attempts.incrementAndGet() == 1) {
+                sleep(20);
+                throw new ServiceFailureException("primary");
+              }
+              sleep(100);
+              return "hedge";
+            });
+
+    Assertions.assertThat(response).isEqualTo("hedge");
+  }
+
+  @Test
+  public void testHedgedSourceLoads() {
+    Schema schema = new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+    LatencyInjectingCatalog sourceCatalog =
+        new LatencyInjectingCatalog("source", "/tmp/" + UUID.randomUUID());
+    LatencyInjectingCatalog targetCatalog =
+        new LatencyInjectingCatalog("target", "/tmp/" + UUID.randomUUID());
+    sourceCatalog.createNamespace(Namespace.of("db"));
+    List<TableIdentifier> tables =
+        IntStream.range(0, RequestHedger.WARMUP_SAMPLES + 10)
+            .mapToObj(i -> TableIdentifier.of("db", "tbl" + i))
+            .collect(Collectors.toList());
+    tables.forEach(table -> sourceCatalog.createTable(table, schema));
+
+    CatalogMigrator catalogMigrator =
+        ImmutableCatalogMigrator.builder()
+            .sourceCatalog(sourceCatalog)
+            .targetCatalog(targetCatalog)
+            .deleteEntriesFromSourceCatalog(false)
+            .sourceLoadHedgePercentile(OptionalDouble.of(50))
+            .build();
+    CatalogMigrationResult result = catalogMigrator.registerTables(tables, 4).result();
+
+    Assertions.assertThat(result.registeredTableIdentifiers())
+        .containsExactlyInAnyOrderElementsOf(tables);
+    Assertions.assertThat(catalogMigrator.sourceLoadHedgingMetrics().requests())
+        .isEqualTo(tables.size());
+  }
+
+  @Test
+  public void testHedgingDelayExcludesWaitForSaturatedLimits() {
+    Schema schema = new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+    LatencyInjectingCatalog sourceCatalog =
+        new LatencyInjectingCatalog("source", "/tmp/" + UUID.randomUUID());
+    LatencyInjectingCatalog targetCatalog =
+        new LatencyInjectingCatalog("target", "/tmp/" + UUID.randomUUID());
+    sourceCatalog.createNamespace(Namespace.of("db"));
+    List<TableIdentifier> tables =
+        IntStream.range(0, RequestHedger.WARMUP_SAMPLES + 20)
+            .mapToObj(i -> TableIdentifier.of("db", "tbl" + i))
+            .collect(Collectors.toList());
+    tables.forEach(table -> sourceCatalog.createTable(table, schema));
+    sourceCatalog.withLatency(5);
+
+    // the 8 registrations queue for the single source request slot, each load waiting for up to 7
+    // others before it is issued
+    CatalogMigrator catalogMigrator =
+        ImmutableCatalogMigrator.builder()
+            .sourceCatalog(sourceCatalog)
+            .targetCatalog(targetCatalog)
+            .deleteEntriesFromSourceCatalog(false)
+            .maxConcurrentSourceRequests(1)
+            .sourceLoadHedgePercentile(OptionalDouble.of(50))
+            .build();
+    CatalogMigrationResult result = catalogMigrator.registerTables(tables, 8).result();
+
+    Assertions.assertThat(result.registeredTableIdentifiers())
+        .containsExactlyInAnyOrderElementsOf(tables);
+    // the hedging delay follows the latency of the loads, not the time they waited for the slot
+    Assertions.assertThat(catalogMigrator.sourceLoadHedger().orElseThrow().hedgeDelayNanos())
+        .isBetween(TimeUnit.MILLISECONDS.toNanos(5), TimeUnit.MILLISECONDS.toNanos(20));
+  }
+
+  @Test
+  public void testMissingTableIsNotHedgedAway() {
+    RequestHedger hedger = warmedUp(1);
+    Assertions.assertThatThrownBy(
+            () ->
+                hedger.call(
+                    () -> {
+                      throw new NoSuchTableException("Table does not exist: db.tbl");
+                    }))
+        .isInstanceOf(NoSuchTableException.class)
+        .hasMessage("Table does not exist: db.tbl");
+  }
+
+  private static RequestHedger warmedUp(int maxOutstandingHedges) {
+    RequestHedger hedger = new RequestHedger(50, maxOutstandingHedges);
+    Supplier<String> fast = () -> "fast";
+    for (int i = 0; i < RequestHedger.WARMUP_SAMPLES; i++) {
+      hedger.call(fast);
+    }
+    return hedger;
+  }
+
+  private String awaitRelease(String response) {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+    return response;
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    }
+  }
+}
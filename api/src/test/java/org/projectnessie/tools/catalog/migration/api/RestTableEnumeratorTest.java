@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.exceptions.NoSuchNamespaceException;
+import org.apache.iceberg.rest.RESTClient;
+import org.apache.iceberg.rest.RESTRequest;
+import org.apache.iceberg.rest.RESTResponse;
+import org.apache.iceberg.rest.RESTUtil;
+import org.apache.iceberg.rest.ResourcePaths;
+import org.apache.iceberg.rest.responses.ErrorResponse;
+import org.apache.iceberg.rest.responses.ListNamespacesResponse;
+import org.apache.iceberg.rest.responses.ListTablesResponse;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RestTableEnumeratorTest {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+  private static final ResourcePaths PATHS = new ResourcePaths("prefix");
+  private static final Map<String, String> HEADERS = Map.of("Authorization", "Bearer token");
+
+  private LatencyInjectingCatalog catalog;
+  private List<TableIdentifier> tables;
+
+  @BeforeEach
+  protected void beforeEach() {
+    catalog = new LatencyInjectingCatalog("source", "/tmp/" + UUID.randomUUID());
+    tables = new ArrayList<>();
+    for (Namespace namespace :
+        List.of(Namespace.of("db0"), Namespace.of("db1"), Namespace.of("db1", "sub"))) {
+      catalog.createNamespace(namespace);
+      for (int tbl = 0; tbl < 5; tbl++) {
+        TableIdentifier identifier = TableIdentifier.of(namespace, "tbl" + tbl);
+        catalog.createTable(identifier, SCHEMA);
+        tables.add(identifier);
+      }
+    }
+  }
+
+  @Test
+  public void testEnumeratePageByPage() {
+    StubRestClient client = new StubRestClient(true);
+    Map<TableIdentifier, String> identified = new HashMap<>();
+
+    try (RestTableEnumerator enumerator = new RestTableEnumerator(client, PATHS, HEADERS, 2)) {
+      enumerator.forEachTable(
+          (identifier, metadataLocation) -> {
+            Assertions.assertThat(identified.put(identifier, metadataLocation)).isNull();
+            // every page is passed on before the next one is requested
+            Assertions.assertThat(client.served).contains(identifier);
+          });
+    }
+
+    Assertions.assertThat(identified.keySet()).containsExactlyInAnyOrderElementsOf(tables);
+    Assertions.assertThat(identified.values()).containsOnlyNulls();
+    // 3 pages of tables per namespace, a page of namespaces below the root, db0, db1 and db1.sub
+    Assertions.assertThat(client.requests).hasSize(3 * 3 + 4);
+    Assertions.assertThat(client.requests)
+        .allSatisfy(params -> Assertions.assertThat(params).containsEntry("pageSize", "2"));
+    Assertions.assertThat(client.closed).isTrue();
+  }
+
+  @Test
+  public void testServerWithoutPagination() {
+    StubRestClient client = new StubRestClient(false);
+    List<TableIdentifier> identified = new ArrayList<>();
+
+    try (RestTableEnumerator enumerator = new RestTableEnumerator(client, PATHS, HEADERS, 2)) {
+      enumerator.forEachTable((identifier, metadataLocation) -> identified.add(identifier));
+    }
+
+    Assertions.assertThat(identified).containsExactlyInAnyOrderElementsOf(tables);
+    Assertions.assertThat(client.requests).hasSize(3 + 4);
+  }
+
+  @Test
+  public void testRegisterWithoutMetadataLocations() {
+    LatencyInjectingCatalog targetCatalog =
+        new LatencyInjectingCatalog("target", "/tmp/" + UUID.randomUUID());
+
+    try (RestTableEnumerator enumerator =
+        new RestTableEnumerator(new StubRestClient(true), PATHS, HEADERS, 2)) {
+      CatalogMigrator catalogMigrator =
+          ImmutableCatalogMigrator.builder()
+              .sourceCatalog(catalog)
+              .targetCatalog(targetCatalog)
+              .deleteEntriesFromSourceCatalog(false)
+              .sourceTableEnumerator(enumerator)
+              .build();
+
+      CatalogMigrationResult result =
+          catalogMigrator.registerMatchingTablesFromSource(null, 4, 3, identifier -> {}).result();
+
+      Assertions.assertThat(result.registeredTableIdentifiers())
+          .containsExactlyInAnyOrderElementsOf(tables);
+      Assertions.assertThat(result.failedToRegisterTableIdentifiers()).isEmpty();
+      for (TableIdentifier identifier : tables) {
+        Assertions.assertThat(metadataLocation(targetCatalog, identifier))
+            .isEqualTo(metadataLocation(catalog, identifier));
+      }
+    }
+  }
+
+  @Test
+  public void testMissingNamespace() {
+    StubRestClient client = new StubRestClient(true);
+    client.missingNamespace = Namespace.of("db1", "sub");
+
+    try (RestTableEnumerator enumerator = new RestTableEnumerator(client, PATHS, HEADERS, 2)) {
+      Assertions.assertThatThrownBy(() -> enumerator.forEachTable((identifier, location) -> {}))
+          .isInstanceOf(NoSuchNamespaceException.class)
+          .hasMessageContaining("db1.sub");
+    }
+  }
+
+  @Test
+  public void testInvalidPageSize() {
+    Assertions.assertThatThrownBy(
+            () -> new RestTableEnumerator(new StubRestClient(true), PATHS, HEADERS, 0))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("pageSize should be greater than 0");
+  }
+
+  private static String metadataLocation(
+      LatencyInjectingCatalog catalog, TableIdentifier identifier) {
+    return ((BaseTable) catalog.loadTable(identifier))
+        .operations()
+        .current()
+        .metadataFileLocation();
+  }
+
+  /**
+   * Serves the namespaces and tables of the source catalog like a REST catalog server, one page of
+   * at most {@code pageSize} entries per request if {@code paginated}, or all the entries at once
+   * otherwise.
+   */
+  private final class StubRestClient implements RESTClient {
+
+    private final boolean paginated;
+    private final List<Map<String, String>> requests = new ArrayList<>();
+    private final Set<TableIdentifier> served = new HashSet<>();
+    private Namespace missingNamespace;
+    private boolean closed;
+
+    private StubRestClient(boolean paginated) {
+      this.paginated = paginated;
+    }
+
+    @Override
+    public <T extends RESTResponse> T get(
+        String path,
+        Map<String, String> queryParams,
+        Class<T> responseType,
+        Map<String, String> headers,
+        Consumer<ErrorResponse> errorHandler) {
+      Assertions.assertThat(headers).isEqualTo(HEADERS);
+      Assertions.assertThat(queryParams).containsKeys("pageToken", "pageSize");
+      requests.add(Map.copyOf(queryParams));
+      String token = queryParams.get("pageToken");
+      int from = token.isEmpty() ? 0 : Integer.parseInt(token);
+      int pageSize = paginated ? Integer.parseInt(queryParams.get("pageSize")) : Integer.MAX_VALUE;
+
+      if (path.equals(PATHS.namespaces())) {
+        String parent = queryParams.get("parent");
+        Namespace namespace =
+            parent == null ? Namespace.empty() : Namespace.of(parent.split("\u001f"));
+        List<Namespace> namespaces = new ArrayList<>(catalog.listNamespaces(namespace));
+        namespaces.sort(Comparator.comparing(Namespace::toString));
+        int to = (int) Math.min((long) from + pageSize, namespaces.size());
+        return responseType.cast(
+            ListNamespacesResponse.builder()
+                .addAll(namespaces.subList(from, to))
+                .nextPageToken(to < namespaces.size() ? String.valueOf(to) : null)
+                .build());
+      }
+
+      String[] segments = path.split("/");
+      Assertions.assertThat(path).isEqualTo(PATHS.tables(namespace(segments)));
+      Namespace namespace = namespace(segments);
+      if (namespace.equals(missingNamespace)) {
+        errorHandler.accept(
+            ErrorResponse.builder()
+                .responseCode(404)
+                .withType(NoSuchNamespaceException.class.getSimpleName())
+                .withMessage("Namespace does not exist: " + namespace)
+                .build());
+      }
+      List<TableIdentifier> identifiers = new ArrayList<>(catalog.listTables(namespace));
+      identifiers.sort(Comparator.comparing(TableIdentifier::toString));
+      int to = (int) Math.min((long) from + pageSize, identifiers.size());
+      identifiers.subList(from, to).forEach(identifier -> served.add(identifier));
+      return responseType.cast(
+          ListTablesResponse.builder()
+              .addAll(identifiers.subList(from, to))
+              .nextPageToken(to < identifiers.size() ? String.valueOf(to) : null)
+              .build());
+    }
+
+    private Namespace namespace(String[] segments) {
+      return RESTUtil.decodeNamespace(segments[segments.length - 2]);
+    }
+
+    @Override
+    public void head(
+        String path, Map<String, String> headers, Consumer<ErrorResponse> errorHandler) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T extends RESTResponse> T delete(
+        String path,
+        Class<T> responseType,
+        Map<String, String> headers,
+        Consumer<ErrorResponse> errorHandler) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T extends RESTResponse> T post(
+        String path,
+        RESTRequest body,
+        Class<T> responseType,
+        Map<String, String> headers,
+        Consumer<ErrorResponse> errorHandler) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T extends RESTResponse> T postForm(
+        String path,
+        Map<String, String> formData,
+        Class<T> responseType,
+        Map<String, String> headers,
+        Consumer<ErrorResponse> errorHandler) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
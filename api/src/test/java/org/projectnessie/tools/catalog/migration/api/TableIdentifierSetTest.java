@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TableIdentifierSetTest {
+
+  @Test
+  public void testAddAndIterateInInsertionOrder() {
+    List<TableIdentifier> identifiers =
+        IntStream.range(0, 10_000)
+            .mapToObj(
+                i ->
+                    TableIdentifier.of(
+                        Namespace.of("db" + (i % 7), "schema" + (i % 13)), "tbl" + (i % 5000)))
+            .collect(Collectors.toList());
+    Set<TableIdentifier> expected = new LinkedHashSet<>(identifiers);
+
+    TableIdentifierSet set = new TableIdentifierSet();
+    identifiers.forEach(set::add);
+
+    Assertions.assertThat(set).hasSize(expected.size()).containsExactlyElementsOf(expected);
+    Assertions.assertThat(set.asList()).containsExactlyElementsOf(expected);
+    Assertions.assertThat(set).isEqualTo(expected);
+    Assertions.assertThat(set.hashCode()).isEqualTo(expected.hashCode());
+    Assertions.assertThat(set.add(identifiers.get(0))).isFalse();
+    Assertions.assertThat(set.contains(TableIdentifier.of(Namespace.of("db0"), "tbl0"))).isFalse();
+    Assertions.assertThat(set.contains(TableIdentifier.of(Namespace.of("other"), "tbl0")))
+        .isFalse();
+    // contains(Object) of an element of a foreign type
+    Object foreign = "db0.schema0.tbl0";
+    Assertions.assertThat(set.contains(foreign)).isFalse();
+  }
+
+  @Test
+  public void testNamespacesAndNames() throws IOException {
+    TableIdentifierSet set = new TableIdentifierSet();
+    set.add(TableIdentifier.of("tbl"));
+    set.add(TableIdentifier.of("a", "b", "tbl"));
+    set.add(TableIdentifier.of("a", "tbl"));
+    set.add(TableIdentifier.of("a", "b"));
+    set.add(TableIdentifier.of("a", "b", "c"));
+    set.add(TableIdentifier.of("tbl"));
+
+    Assertions.assertThat(set)
+        .containsExactly(
+            TableIdentifier.of("tbl"),
+            TableIdentifier.of("a", "b", "tbl"),
+            TableIdentifier.of("a", "tbl"),
+            TableIdentifier.of("a", "b"),
+            TableIdentifier.of("a", "b", "c"));
+    Assertions.assertThat(set.contains(TableIdentifier.of("b", "tbl"))).isFalse();
+
+    StringWriter writer = new StringWriter();
+    set.writeTo(writer);
+    Assertions.assertThat(writer.toString())
+        .isEqualTo(
+            set.stream()
+                .map(identifier -> identifier + System.lineSeparator())
+                .collect(Collectors.joining()));
+  }
+
+  @Test
+  public void testSnapshot() {
+    TableIdentifierSet set = new TableIdentifierSet();
+    set.add(TableIdentifier.of("db", "tbl0"));
+    TableIdentifierSet snapshot = set.snapshot();
+    List<TableIdentifier> list = set.asList();
+
+    // grows every array the snapshot shares with the set
+    IntStream.range(1, 1000).forEach(i -> set.add(TableIdentifier.of("db" + i, "tbl" + i)));
+
+    Assertions.assertThat(set).hasSize(1000);
+    Assertions.assertThat(snapshot).containsExactly(TableIdentifier.of("db", "tbl0"));
+    Assertions.assertThat(list).containsExactly(TableIdentifier.of("db", "tbl0"));
+    Assertions.assertThat(snapshot.contains(TableIdentifier.of("db1", "tbl1"))).isFalse();
+    Assertions.assertThat(snapshot.snapshot()).isSameAs(snapshot);
+    Assertions.assertThat(TableIdentifierSet.of(set)).isEqualTo(set);
+    Assertions.assertThatThrownBy(() -> snapshot.add(TableIdentifier.of("db", "tbl1")))
+        .isInstanceOf(UnsupportedOperationException.class);
+    Assertions.assertThatThrownBy(() -> list.get(1)).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  @Test
+  public void testMetadataLocations() {
+    TableIdentifierSet set = new TableIdentifierSet();
+    set.add(TableIdentifier.of("db", "tbl0"));
+    Assertions.assertThat(set.hasMetadataLocations()).isFalse();
+
+    IntStream.range(1, 1000)
+        .forEach(i -> set.add(TableIdentifier.of("db", "tbl" + i), "s3://bucket/tbl" + i));
+    // the location of an identifier already in the set is not replaced
+    Assertions.assertThat(set.add(TableIdentifier.of("db", "tbl1"), "s3://other/tbl1")).isFalse();
+    TableIdentifierSet snapshot = set.snapshot();
+    set.add(TableIdentifier.of("db", "tbl1000"), "s3://bucket/tbl1000");
+
+    Assertions.assertThat(set.hasMetadataLocations()).isTrue();
+    Assertions.assertThat(set.metadataLocation(TableIdentifier.of("db", "tbl0"))).isNull();
+    Assertions.assertThat(set.metadataLocation(TableIdentifier.of("db", "tbl1")))
+        .isEqualTo("s3://bucket/tbl1");
+    Assertions.assertThat(set.metadataLocation(TableIdentifier.of("db", "tbl999")))
+        .isEqualTo("s3://bucket/tbl999");
+    Assertions.assertThat(set.metadataLocation(TableIdentifier.of("db", "tbl1000")))
+        .isEqualTo("s3://bucket/tbl1000");
+    Assertions.assertThat(set.metadataLocation(TableIdentifier.of("db", "unknown"))).isNull();
+    Assertions.assertThat(snapshot.metadataLocation(TableIdentifier.of("db", "tbl999")))
+        .isEqualTo("s3://bucket/tbl999");
+    Assertions.assertThat(snapshot.metadataLocation(TableIdentifier.of("db", "tbl1000"))).isNull();
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class TargetNamespaceCreationTest {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+
+  protected static @TempDir Path logDir;
+
+  private LatencyInjectingCatalog sourceCatalog;
+  private LatencyInjectingCatalog targetCatalog;
+
+  @BeforeAll
+  protected static void initLogDir() {
+    System.setProperty("catalog.migration.log.dir", logDir.toAbsolutePath().toString());
+  }
+
+  @BeforeEach
+  protected void beforeEach() {
+    String warehouse = "/tmp/" + UUID.randomUUID();
+    sourceCatalog = new LatencyInjectingCatalog("source", warehouse + "/source");
+    targetCatalog = new LatencyInjectingCatalog("target", warehouse + "/target");
+
+    Stream.of("a", "a.b", "a.b.c", "a.x", "d", "d.e", "d.e.f")
+        .map(namespace -> Namespace.of(namespace.split("\\.")))
+        .forEach(sourceCatalog::createNamespace);
+    Stream.of("a.b.c.tbl1", "a.b.c.tbl2", "a.b.c.tbl3", "a.x.tbl1", "a.x.tbl2")
+        .forEach(table -> sourceCatalog.createTable(TableIdentifier.parse(table), SCHEMA));
+    Stream.of("d.e.f.tbl1", "d.e.f.tbl2", "a.b.tbl1")
+        .forEach(table -> sourceCatalog.createTable(TableIdentifier.parse(table), SCHEMA));
+
+    // partially existing hierarchy on the target catalog
+    targetCatalog.createNamespace(Namespace.of("a"));
+    targetCatalog.createNamespace(Namespace.of("a", "b"));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 4})
+  public void testCreateMissingNamespacesFirst(int parallelism) {
+    CatalogMigrator catalogMigrator =
+        ImmutableCatalogMigrator.builder()
+            .sourceCatalog(sourceCatalog)
+            .targetCatalog(targetCatalog)
+            .deleteEntriesFromSourceCatalog(false)
+            .build();
+    Set<TableIdentifier> identifiers = catalogMigrator.getMatchingTableIdentifiersFromSource(null);
+    Assertions.assertThat(identifiers).hasSize(8);
+
+    int requestsBeforeCreation = targetCatalog.totalRequests();
+    catalogMigrator.createMissingNamespacesOnTargetCatalog(identifiers, parallelism);
+
+    // listings of "", "a" and "a.b" as well as the creation of the five missing namespaces
+    Assertions.assertThat(targetCatalog.totalRequests() - requestsBeforeCreation).isEqualTo(8);
+    Assertions.assertThat(targetCatalog.listNamespaces(Namespace.of("a")))
+        .containsExactlyInAnyOrder(Namespace.of("a", "b"), Namespace.of("a", "x"));
+    Assertions.assertThat(targetCatalog.listNamespaces(Namespace.of("d", "e")))
+        .containsExactly(Namespace.of("d", "e", "f"));
+    Assertions.assertThat(targetCatalog.listNamespaces(Namespace.of("a", "b")))
+        .containsExactly(Namespace.of("a", "b", "c"));
+
+    int requestsBeforeRegistration = targetCatalog.totalRequests();
+    CatalogMigrationResult result =
+        catalogMigrator.registerTables(identifiers, parallelism).result();
+
+    Assertions.assertThat(result.registeredTableIdentifiers())
+        .containsExactlyInAnyOrderElementsOf(identifiers);
+    // registration issued a single registerTable request per table and no namespace requests
+    Assertions.assertThat(targetCatalog.totalRequests() - requestsBeforeRegistration)
+        .isEqualTo(identifiers.size());
+  }
+
+  @Test
+  public void testConcurrentCreationPerNamespace() throws Exception {
+    CatalogMigrator catalogMigrator =
+        ImmutableCatalogMigrator.builder()
+            .sourceCatalog(sourceCatalog)
+            .targetCatalog(targetCatalog)
+            .deleteEntriesFromSourceCatalog(false)
+            .build();
+    targetCatalog.withLatency(50);
+    List<Namespace> namespaces =
+        IntStream.range(0, 8).mapToObj(i -> Namespace.of("n" + i)).collect(Collectors.toList());
+
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    try {
+      int requestsBeforeCreation = targetCatalog.totalRequests();
+      List<Future<?>> futures = new ArrayList<>();
+      // two registrations per namespace
+      for (Namespace namespace : namespaces) {
+        for (int i = 0; i < 2; i++) {
+          futures.add(
+              executor.submit(
+                  () -> catalogMigrator.createNamespacesIfNotExistOnTargetCatalog(namespace)));
+        }
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+
+      // unrelated namespaces are created concurrently, and each of them only once
+      Assertions.assertThat(targetCatalog.maxInFlightRequests()).isGreaterThan(1);
+      Assertions.assertThat(targetCatalog.totalRequests() - requestsBeforeCreation)
+          .isEqualTo(namespaces.size());
+      Assertions.assertThat(targetCatalog.listNamespaces(Namespace.empty()))
+          .containsAll(namespaces);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
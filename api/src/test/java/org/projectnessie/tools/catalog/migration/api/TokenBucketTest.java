@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TokenBucketTest {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+
+  protected static @TempDir Path logDir;
+
+  @BeforeAll
+  protected static void initLogDir() {
+    System.setProperty("catalog.migration.log.dir", logDir.toAbsolutePath().toString());
+  }
+
+  @Test
+  public void testReserve() {
+    AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(5));
+    TokenBucket bucket = new TokenBucket(10, clock::get);
+
+    Assertions.assertThat(bucket.reserve()).isEqualTo(0);
+    Assertions.assertThat(bucket.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    Assertions.assertThat(bucket.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+
+    // a single token is kept while idle, so there is no burst afterward
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    Assertions.assertThat(bucket.reserve()).isEqualTo(0);
+    Assertions.assertThat(bucket.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(150));
+    Assertions.assertThat(bucket.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+  }
+
+  @Test
+  public void testConsume() {
+    AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(5));
+    TokenBucket bucket = new TokenBucket(10, clock::get);
+
+    Assertions.assertThat(bucket.reserve()).isEqualTo(0);
+    // the request turned out to cost 3.5 permits
+    bucket.consume(2.5);
+    Assertions.assertThat(bucket.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(350));
+
+    // permits consumed while idle delay the next permit as well
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    bucket.consume(1);
+    Assertions.assertThat(bucket.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    bucket.consume(0);
+    Assertions.assertThat(bucket.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+  }
+
+  @Test
+  public void testConcurrentAcquire() throws Exception {
+    TokenBucket bucket = new TokenBucket(500);
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    long start = System.nanoTime();
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int permit = 0; permit < 5; permit++) {
+                    bucket.acquire();
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // 80 permits, 2 ms apart
+    Assertions.assertThat(System.nanoTime() - start)
+        .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(79 * 2));
+  }
+
+  @Test
+  public void testRateLimitedRegistration() {
+    LatencyInjectingCatalog sourceCatalog =
+        new LatencyInjectingCatalog("source", "/tmp/" + UUID.randomUUID());
+    LatencyInjectingCatalog targetCatalog =
+        new LatencyInjectingCatalog("target", "/tmp/" + UUID.randomUUID());
+    sourceCatalog.createNamespace(Namespace.of("ns"));
+    for (int tbl = 0; tbl < 20; tbl++) {
+      sourceCatalog.createTable(TableIdentifier.of("ns", "tbl" + tbl), SCHEMA);
+    }
+
+    CatalogMigrator catalogMigrator =
+        ImmutableCatalogMigrator.builder()
+            .sourceCatalog(sourceCatalog)
+            .targetCatalog(targetCatalog)
+            .deleteEntriesFromSourceCatalog(false)
+            .sourceRateLimit(1000)
+            .putTargetOperationRateLimits(CatalogOperation.REGISTER, 100.0)
+            .build();
+
+    Set<TableIdentifier> identifiers = catalogMigrator.getMatchingTableIdentifiersFromSource(null);
+    long start = System.nanoTime();
+    CatalogMigrationResult result = catalogMigrator.registerTables(identifiers, 8).result();
+
+    Assertions.assertThat(result.registeredTableIdentifiers()).hasSize(20);
+    // 20 registrations, 10 ms apart
+    Assertions.assertThat(System.nanoTime() - start)
+        .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(19 * 10));
+  }
+
+  @Test
+  public void testInvalidRateLimits() {
+    LatencyInjectingCatalog catalog =
+        new LatencyInjectingCatalog("catalog", "/tmp/" + UUID.randomUUID());
+    Assertions.assertThatThrownBy(
+            () ->
+                ImmutableCatalogMigrator.builder()
+                    .sourceCatalog(catalog)
+                    .targetCatalog(catalog)
+                    .deleteEntriesFromSourceCatalog(false)
+                    .sourceRateLimit(0)
+                    .build())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("source rate limit should be greater than 0");
+    Assertions.assertThatThrownBy(
+            () ->
+                ImmutableCatalogMigrator.builder()
+                    .sourceCatalog(catalog)
+                    .targetCatalog(catalog)
+                    .deleteEntriesFromSourceCatalog(false)
+                    .putTargetOperationRateLimits(CatalogOperation.DROP, -1.0)
+                    .build())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("target DROP rate limit should be greater than 0");
+  }
+
+  @Test
+  public void testOperationNames() {
+    Assertions.assertThat(CatalogOperation.fromName("list")).isEqualTo(CatalogOperation.LIST);
+    Assertions.assertThat(CatalogOperation.fromName("create-namespace"))
+        .isEqualTo(CatalogOperation.CREATE_NAMESPACE);
+    Assertions.assertThat(CatalogOperation.fromName("createNamespace"))
+        .isEqualTo(CatalogOperation.CREATE_NAMESPACE);
+    Assertions.assertThatThrownBy(() -> CatalogOperation.fromName("commit"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage(
+            "Unknown catalog operation 'commit', should be one of list, load, register, drop, "
+                + "create-namespace");
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class VirtualThreadCatalogMigratorTest {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+  private static final long LATENCY_MILLIS = 5;
+  private static final int NAMESPACES = 4;
+  private static final int TABLES_PER_NAMESPACE = 100;
+
+  protected static @TempDir Path logDir;
+
+  private LatencyInjectingCatalog sourceCatalog;
+  private LatencyInjectingCatalog targetCatalog;
+
+  @BeforeAll
+  protected static void initLogDir() {
+    System.setProperty("catalog.migration.log.dir", logDir.toAbsolutePath().toString());
+  }
+
+  @BeforeEach
+  protected void beforeEach() {
+    String warehouse = "/tmp/" + UUID.randomUUID();
+    sourceCatalog = new LatencyInjectingCatalog("source", warehouse + "/source");
+    targetCatalog = new LatencyInjectingCatalog("target", warehouse + "/target");
+    IntStream.range(0, NAMESPACES)
+        .mapToObj(ns -> Namespace.of("ns" + ns))
+        .forEach(
+            namespace -> {
+              sourceCatalog.createNamespace(namespace);
+              IntStream.range(0, TABLES_PER_NAMESPACE)
+                  .forEach(
+                      tbl ->
+                          sourceCatalog.createTable(
+                              TableIdentifier.of(namespace, "tbl" + tbl), SCHEMA));
+            });
+    sourceCatalog.withLatency(LATENCY_MILLIS);
+    targetCatalog.withLatency(LATENCY_MILLIS);
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  public void testRegisterOnVirtualThreads(boolean deleteSourceTables) {
+    CatalogMigrator catalogMigrator =
+        ImmutableCatalogMigrator.builder()
+            .sourceCatalog(sourceCatalog)
+            .targetCatalog(targetCatalog)
+            .deleteEntriesFromSourceCatalog(deleteSourceTables)
+            .useVirtualThreads(true)
+            .maxConcurrentSourceRequests(8)
+            .maxConcurrentTargetRequests(4)
+            .build();
+
+    Set<TableIdentifier> identifiers = catalogMigrator.getMatchingTableIdentifiersFromSource(null);
+    // parallelism is ignored with virtual threads
+    CatalogMigrationResult result = catalogMigrator.registerTables(identifiers, 1).result();
+
+    Assertions.assertThat(result.registeredTableIdentifiers())
+        .hasSize(NAMESPACES * TABLES_PER_NAMESPACE)
+        .containsExactlyInAnyOrderElementsOf(identifiers);
+    Assertions.assertThat(result.failedToRegisterTableIdentifiers()).isEmpty();
+    Assertions.assertThat(result.failedToDeleteTableIdentifiers()).isEmpty();
+
+    // in-flight requests must be capped per catalog even though every table has its own thread
+    Assertions.assertThat(sourceCatalog.maxInFlightRequests()).isBetween(1, 8);
+    Assertions.assertThat(targetCatalog.maxInFlightRequests()).isBetween(2, 4);
+    Assertions.assertThat(sourceCatalog.listTables(Namespace.of("ns0")))
+        .hasSize(deleteSourceTables ? 0 : TABLES_PER_NAMESPACE);
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.api;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.types.Types;
+
+/**
+ * Compares the registration of tables on a pool of platform threads with their registration on
+ * virtual threads, with a fixed latency injected into every catalog request.
+ *
+ * <p>Usage: {@code VirtualThreadRegistrationBenchmark [tables] [latency ms] [platform threads]}
+ */
+public final class VirtualThreadRegistrationBenchmark {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+  private static final Namespace NAMESPACE = Namespace.of("db");
+
+  private VirtualThreadRegistrationBenchmark() {}
+
+  public static void main(String[] args) {
+    int tables = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+    long latencyMillis = args.length > 1 ? Long.parseLong(args[1]) : 5;
+    int platformThreads = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+
+    String warehouse = "/tmp/" + UUID.randomUUID();
+    LatencyInjectingCatalog sourceCatalog =
+        new LatencyInjectingCatalog("source", warehouse + "/source");
+    sourceCatalog.createNamespace(NAMESPACE);
+    IntStream.range(0, tables)
+        .forEach(
+            index ->
+                sourceCatalog.createTable(TableIdentifier.of(NAMESPACE, "tbl" + index), SCHEMA));
+    sourceCatalog.withLatency(latencyMillis);
+
+    long platform =
+        run(sourceCatalog, warehouse + "/platform", latencyMillis, false, platformThreads);
+    // parallelism is ignored with virtual threads
+    long virtual = run(sourceCatalog, warehouse + "/virtual", latencyMillis, true, 1);
+
+    System.out.printf(
+        "Registered %d tables with %d ms injected latency per request%n"
+            + "  %-4d platform threads: %6d ms (%.0f tables/s)%n"
+            + "  virtual threads:      %6d ms (%.0f tables/s)%n",
+        tables,
+        latencyMillis,
+        platformThreads,
+        platform,
+        tables * 1000.0 / platform,
+        virtual,
+        tables * 1000.0 / virtual);
+  }
+
+  private static long run(
+      LatencyInjectingCatalog sourceCatalog,
+      String warehouse,
+      long latencyMillis,
+      boolean useVirtualThreads,
+      int parallelism) {
+    LatencyInjectingCatalog targetCatalog =
+        new LatencyInjectingCatalog("target", warehouse).withLatency(latencyMillis);
+    CatalogMigrator catalogMigrator =
+        ImmutableCatalogMigrator.builder()
+            .sourceCatalog(sourceCatalog)
+            .targetCatalog(targetCatalog)
+            .deleteEntriesFromSourceCatalog(false)
+            .useVirtualThreads(useVirtualThreads)
+            .maxConcurrentSourceRequests(256)
+            .maxConcurrentTargetRequests(256)
+            .build();
+    Set<TableIdentifier> identifiers = catalogMigrator.getMatchingTableIdentifiersFromSource(null);
+
+    long start = System.nanoTime();
+    CatalogMigrationResult result =
+        catalogMigrator.registerTables(identifiers, parallelism).result();
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    if (result.registeredTablesCount() != identifiers.size()) {
+      throw new IllegalStateException(
+          String.format(
+              "Registered %d out of %d tables",
+              result.registeredTablesCount(), identifiers.size()));
+    }
+    return elapsed;
+  }
+}
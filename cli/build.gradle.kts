@@ -84,6 +84,7 @@ dependencies {
   testImplementation(libs.junit.jupiter.engine)
   testImplementation(libs.assertj)
   testImplementation(libs.logcaptor)
+  testImplementation(libs.sqlite.jdbc)
 
   testImplementation(project(":iceberg-catalog-migrator-api-test"))
 
@@ -19,18 +19,33 @@ import com.google.common.base.Preconditions;
 import java.io.Console;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collection;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
 import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.iceberg.catalog.Catalog;
 import org.apache.iceberg.catalog.TableIdentifier;
+import org.projectnessie.tools.catalog.migration.api.BatchTableRegistrar;
 import org.projectnessie.tools.catalog.migration.api.CatalogMigrationResult;
+import org.projectnessie.tools.catalog.migration.api.CatalogMigrationResultCollector;
 import org.projectnessie.tools.catalog.migration.api.CatalogMigrator;
+import org.projectnessie.tools.catalog.migration.api.CatalogOperation;
+import org.projectnessie.tools.catalog.migration.api.CheckpointJournal;
+import org.projectnessie.tools.catalog.migration.api.HedgingMetrics;
+import org.projectnessie.tools.catalog.migration.api.ImmutableCatalogMigrator;
+import org.projectnessie.tools.catalog.migration.api.MetadataLocationResolver;
+import org.projectnessie.tools.catalog.migration.api.SyncState;
+import org.projectnessie.tools.catalog.migration.api.TableEnumerator;
+import org.projectnessie.tools.catalog.migration.api.TableIdentifierSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
@@ -57,7 +72,7 @@ public abstract class BaseRegisterCommand implements Callable<Integer> {
       defaultValue = "",
       description = {
         "Optional local output directory path to write CLI output files like `failed_identifiers.txt`, "
-            + "`failed_to_delete_at_source.txt`, `dry_run_identifiers.txt`. "
+            + "`failed_to_delete_at_source.txt`, `dry_run_identifiers.txt`, `checkpoint.journal`. "
             + "If not specified, uses the present working directory.",
         "Example: --output-dir /tmp/output/",
         "         --output-dir $PWD/output_folder"
@@ -69,7 +84,39 @@ public abstract class BaseRegisterCommand implements Callable<Integer> {
       description =
           "Optional configuration to simulate the registration without actually registering. Can learn about a list "
               + "of tables that will be registered by running this.")
-  private boolean isDryRun;
+  protected boolean isDryRun;
+
+  @CommandLine.Option(
+      names = {"--resume"},
+      description =
+          "Optional configuration to resume an interrupted run from the `checkpoint.journal` file "
+              + "in `--output-dir`, in which every run records the outcome of each table as soon as "
+              + "it is known. Tables already registered, or migrated, by the interrupted run are "
+              + "skipped, and tables it registered but didn't delete from the source catalog yet "
+              + "are only deleted. The journal is removed once a run went through all its "
+              + "tables. Without it, or `--restart`, a run refuses to start if there is a journal "
+              + "of an interrupted run.")
+  protected boolean resume;
+
+  @CommandLine.Option(
+      names = {"--restart"},
+      description =
+          "Optional configuration to discard the `checkpoint.journal` file of an interrupted run "
+              + "in `--output-dir` and start over, instead of resuming that run with `--resume`.")
+  protected boolean restart;
+
+  @CommandLine.Option(
+      names = {"--sync-state-file"},
+      description = {
+        "Optional file in which the metadata location of every registered table is kept between "
+            + "runs, for an incremental re-sync. Tables whose metadata location didn't move since "
+            + "the previous run are skipped, tables whose metadata location moved are dropped from "
+            + "the target catalog and registered again, and tables which disappeared from the "
+            + "source catalog are dropped from the target catalog. Only applicable to `register` "
+            + "and `replicate`, which requires it.",
+        "Example: --sync-state-file /var/lib/catalog-migrator/sync_state.txt"
+      })
+  protected Path syncStateFile;
 
   @CommandLine.Option(
       names = {"--disable-safety-prompts"},
@@ -82,17 +129,211 @@ public abstract class BaseRegisterCommand implements Callable<Integer> {
           "Optional configuration to enable capturing stacktrace in logs in case of failures.")
   private boolean enableStackTrace;
 
+  @CommandLine.Option(
+      names = {"--parallelism"},
+      defaultValue = "1",
+      description = {
+        "Optional number of tables to register or migrate concurrently. "
+            + "If not specified, tables are processed one after another.",
+        "Example: --parallelism 16"
+      })
+  protected int parallelism;
+
+  @CommandLine.Option(
+      names = {"--use-virtual-threads"},
+      description =
+          "Optional configuration to register or migrate each table on its own virtual thread. "
+              + "`--parallelism` is ignored, cap the catalog requests with "
+              + "`--source-max-concurrent-requests` and `--target-max-concurrent-requests` instead.")
+  private boolean useVirtualThreads;
+
+  @CommandLine.Option(
+      names = {"--source-max-concurrent-requests"},
+      description = {
+        "Optional maximum number of concurrent requests issued to the source catalog. "
+            + "If not specified, the number of requests is only limited by `--parallelism`, "
+            + "or not limited with `--use-virtual-threads`.",
+        "Example: --source-max-concurrent-requests 64"
+      })
+  private Integer maxConcurrentSourceRequests;
+
+  @CommandLine.Option(
+      names = {"--target-max-concurrent-requests"},
+      description = {
+        "Optional maximum number of concurrent requests issued to the target catalog. "
+            + "If not specified, the number of requests is only limited by `--parallelism`, "
+            + "or not limited with `--use-virtual-threads`.",
+        "Example: --target-max-concurrent-requests 64"
+      })
+  private Integer maxConcurrentTargetRequests;
+
+  @CommandLine.Option(
+      names = {"--adaptive-concurrency"},
+      description =
+          "Optional configuration to adapt the number of concurrent requests issued to each "
+              + "catalog to its health. The limit starts at 8, grows while the requests succeed "
+              + "without their latency degrading and is halved when the catalog throttles a request "
+              + "or a request times out, within `--source-max-concurrent-requests` and "
+              + "`--target-max-concurrent-requests`. Every change is logged with its reason.")
+  private boolean adaptiveConcurrency;
+
+  @CommandLine.Option(
+      names = {"--source-rate-limit"},
+      split = ",",
+      description = {
+        "Optional maximum number of requests per second issued to the source catalog. Either a "
+            + "limit for all the requests, a limit per class of requests among `list`, `load`, "
+            + "`register`, `drop` and `create-namespace`, or both. If not specified, the requests "
+            + "are not rate limited.",
+        "Example: --source-rate-limit 50",
+        "         --source-rate-limit 50,list=10,load=40"
+      })
+  private List<String> sourceRateLimit;
+
+  @CommandLine.Option(
+      names = {"--target-rate-limit"},
+      split = ",",
+      description = {
+        "Optional maximum number of requests per second issued to the target catalog. Either a "
+            + "limit for all the requests, a limit per class of requests among `list`, `load`, "
+            + "`register`, `drop` and `create-namespace`, or both. If not specified, the requests "
+            + "are not rate limited.",
+        "Example: --target-rate-limit 20,register=10"
+      })
+  private List<String> targetRateLimit;
+
+  @CommandLine.Option(
+      names = {"--max-retries"},
+      defaultValue = "0",
+      description = {
+        "Optional maximum number of times the registration of a table is retried after failing "
+            + "with a transient error, like a network failure, a throttled request or a server "
+            + "error. Tables which already exist, don't exist or can't be accessed are never "
+            + "retried. If not specified, failed tables are not retried.",
+        "Example: --max-retries 3"
+      })
+  private int maxRetries;
+
+  @CommandLine.Option(
+      names = {"--retry-initial-backoff-ms"},
+      defaultValue = "1000",
+      description = {
+        "Optional backoff in milliseconds before the first retry of a table, doubled for every "
+            + "further retry up to `--retry-max-backoff-ms`. Other tables are registered while a "
+            + "table is backing off. If not specified, the first retry happens after up to 1 "
+            + "second.",
+        "Example: --retry-initial-backoff-ms 200"
+      })
+  private long retryInitialBackoffMs;
+
+  @CommandLine.Option(
+      names = {"--retry-max-backoff-ms"},
+      defaultValue = "30000",
+      description = {
+        "Optional maximum backoff in milliseconds before a retry of a table. If not specified, "
+            + "the backoff is at most 30 seconds.",
+        "Example: --retry-max-backoff-ms 60000"
+      })
+  private long retryMaxBackoffMs;
+
+  @CommandLine.Option(
+      names = {"--source-load-hedge-percentile"},
+      description = {
+        "Optional percentile of the recent latencies of the source table loads after which a load "
+            + "which hasn't returned yet is issued a second time, using the first response. "
+            + "Shortens the runs against catalogs with a few very slow loads, like Hive "
+            + "metastores and REST catalogs. If not specified, loads are not hedged.",
+        "Example: --source-load-hedge-percentile 95"
+      })
+  private Double sourceLoadHedgePercentile;
+
+  @CommandLine.Option(
+      names = {"--max-outstanding-hedges"},
+      defaultValue = "10",
+      description = {
+        "Optional maximum number of duplicate source table loads in flight at once with "
+            + "`--source-load-hedge-percentile`. Duplicate loads are sent in addition to the "
+            + "requests allowed by `--source-rate-limit` and `--source-max-concurrent-requests`. "
+            + "If not specified, up to 10 loads are duplicated at once.",
+        "Example: --max-outstanding-hedges 32"
+      })
+  private int maxOutstandingHedges;
+
+  @CommandLine.Option(
+      names = {"--discovery-parallelism"},
+      defaultValue = "1",
+      description = {
+        "Optional number of concurrent namespace listings while identifying the tables "
+            + "from the source catalog. For Glue source catalogs, the number of databases whose "
+            + "tables are listed concurrently. If not specified, namespaces are listed one after "
+            + "another.",
+        "Example: --discovery-parallelism 8"
+      })
+  private int discoveryParallelism;
+
+  @CommandLine.Option(
+      names = {"--stream-discovery"},
+      description =
+          "Optional configuration to start registering or migrating the tables while the tables of "
+              + "the source catalog are still being identified. Only applies when the tables are "
+              + "selected by `--identifiers-regex` or when no identifiers are specified. "
+              + "Successfully registered or migrated tables are written into "
+              + "`registered_identifiers.txt`.")
+  private boolean streamDiscovery;
+
+  @CommandLine.Option(
+      names = {"--discovery-queue-size"},
+      defaultValue = "1000",
+      description = {
+        "Optional maximum number of identified tables waiting to be registered or migrated "
+            + "with `--stream-discovery`. Identification pauses while the queue is full.",
+        "Example: --discovery-queue-size 10000"
+      })
+  protected int discoveryQueueSize;
+
+  @CommandLine.Option(
+      names = {"--create-namespaces-first"},
+      description =
+          "Optional configuration to create all the missing namespaces on the target catalog "
+              + "before registering or migrating the tables, using up to `--parallelism` "
+              + "concurrent requests. Not applicable with `--stream-discovery`.")
+  private boolean createNamespacesFirst;
+
+  @CommandLine.Option(
+      names = {"--target-batch-size"},
+      defaultValue = "1",
+      description = {
+        "Optional number of tables to register with a single request on the target catalog. "
+            + "Only supported by JDBC target catalogs, which insert the tables of a batch in a "
+            + "single transaction without reading their metadata files, and by Nessie target "
+            + "catalogs, which register the tables of a batch with a single commit. "
+            + "If not specified, tables are registered one by one.",
+        "Example: --target-batch-size 500"
+      })
+  private int targetBatchSize;
+
   private static final int BATCH_SIZE = 100;
   public static final String FAILED_IDENTIFIERS_FILE = "failed_identifiers.txt";
   public static final String FAILED_TO_DELETE_AT_SOURCE_FILE = "failed_to_delete_at_source.txt";
   public static final String DRY_RUN_FILE = "dry_run_identifiers.txt";
+  public static final String REGISTERED_IDENTIFIERS_FILE = "registered_identifiers.txt";
+  public static final String CHECKPOINT_JOURNAL_FILE = "checkpoint.journal";
 
   private static final Logger consoleLog = LoggerFactory.getLogger("console-log");
 
+  // receives the registered identifiers with `--stream-discovery` instead of keeping them in memory
+  private Writer registeredIdentifiersWriter;
+  private MetadataLocationResolver sourceMetadataLocationResolver;
+  private TableEnumerator sourceTableEnumerator;
+  private BatchTableRegistrar targetBatchTableRegistrar;
+  private CheckpointJournal checkpointJournal;
+  private SyncState syncState;
+  private RateLimits sourceRateLimits;
+  private RateLimits targetRateLimits;
+
   public BaseRegisterCommand() {}
 
-  protected abstract CatalogMigrator catalogMigrator(
-      Catalog sourceCatalog, Catalog targetCatalog, boolean enableStackTrace);
+  protected abstract CatalogMigrator catalogMigrator(Catalog sourceCatalog, Catalog targetCatalog);
 
   protected abstract boolean canProceed(Catalog sourceCatalog);
 
@@ -102,6 +343,11 @@ public abstract class BaseRegisterCommand implements Callable<Integer> {
 
   protected abstract String operate();
 
+  /** Whether the command keeps registering the changed source tables until it is stopped. */
+  protected boolean isContinuous() {
+    return false;
+  }
+
   @Override
   public Integer call() {
     Set<TableIdentifier> identifiers = Collections.emptySet();
@@ -113,24 +359,127 @@ public abstract class BaseRegisterCommand implements Callable<Integer> {
     checkAndWarnAboutIdentifiers(identifiers, identifierRegEx);
 
     validateOutputDir();
+    Preconditions.checkArgument(
+        !(resume && isDryRun), "`--resume` is not applicable with `--dry-run`");
+    Preconditions.checkArgument(
+        !(resume && restart), "`--resume` is not applicable with `--restart`");
+    Preconditions.checkArgument(parallelism > 0, "`--parallelism` should be greater than 0");
+    Preconditions.checkArgument(
+        discoveryParallelism > 0, "`--discovery-parallelism` should be greater than 0");
+    Preconditions.checkArgument(
+        discoveryQueueSize > 0, "`--discovery-queue-size` should be greater than 0");
+    Preconditions.checkArgument(
+        targetBatchSize > 0, "`--target-batch-size` should be greater than 0");
+    Preconditions.checkArgument(maxRetries >= 0, "`--max-retries` should not be negative");
+    Preconditions.checkArgument(
+        retryInitialBackoffMs >= 0, "`--retry-initial-backoff-ms` should not be negative");
+    Preconditions.checkArgument(
+        retryMaxBackoffMs >= retryInitialBackoffMs,
+        "`--retry-max-backoff-ms` should not be less than `--retry-initial-backoff-ms`");
+    Preconditions.checkArgument(
+        sourceLoadHedgePercentile == null
+            || (sourceLoadHedgePercentile > 0 && sourceLoadHedgePercentile < 100),
+        "`--source-load-hedge-percentile` should be between 0 and 100");
+    Preconditions.checkArgument(
+        maxOutstandingHedges > 0, "`--max-outstanding-hedges` should be greater than 0");
+    sourceRateLimits = RateLimits.parse("--source-rate-limit", sourceRateLimit);
+    targetRateLimits = RateLimits.parse("--target-rate-limit", targetRateLimit);
 
     Catalog sourceCatalog = null;
     Catalog targetCatalog = null;
 
     try {
+      if (!isDryRun) {
+        // a continuous run keeps its progress in the sync state file, its journal would only grow
+        if (!isContinuous()) {
+          openCheckpointJournal();
+        }
+        if (syncStateFile != null) {
+          syncState = SyncState.load(syncStateFile);
+          consoleLog.info(
+              "Loaded the metadata locations of {} tables from `{}`.",
+              syncState.size(),
+              syncStateFile);
+        }
+      }
+      if (registerWhileIdentifying(identifiers)) {
+        registeredIdentifiersWriter = newRegisteredIdentifiersWriter();
+      }
+
       sourceCatalog = sourceCatalogOptions.build();
       consoleLog.info("Configured source catalog: {}", sourceCatalog.name());
+      sourceTableEnumerator =
+          sourceCatalogOptions
+              .tableEnumerator(sourceCatalog, sourceRequestParallelism(discoveryParallelism))
+              .orElse(null);
+      // reads the tables at the same commit as the enumerator, for the catalogs which have them,
+      // unless the latest commit is read again and again
+      sourceMetadataLocationResolver =
+          sourceCatalogOptions.metadataLocationResolver(
+              sourceCatalog,
+              sourceRequestParallelism(parallelism),
+              isContinuous() ? null : sourceTableEnumerator);
 
       targetCatalog = targetCatalogOptions.build();
       consoleLog.info("Configured target catalog: {}", targetCatalog.name());
+      if (targetBatchSize > 1) {
+        targetBatchTableRegistrar =
+            targetCatalogOptions.batchTableRegistrar(targetCatalog).orElse(null);
+        if (targetBatchTableRegistrar == null) {
+          consoleLog.warn(
+              "`--target-batch-size` is not supported by the target catalog {}. "
+                  + "Tables are registered one by one.",
+              targetCatalog.name());
+        }
+      }
 
       if (!isDryRun && !disablePrompts && !canProceed(sourceCatalog)) {
         return 1;
       }
 
-      CatalogMigrator catalogMigrator =
-          catalogMigrator(sourceCatalog, targetCatalog, enableStackTrace);
+      int exitCode =
+          run(catalogMigrator(sourceCatalog, targetCatalog), identifiers, identifierRegEx);
+      if (checkpointJournal != null) {
+        // went through all the tables, the failed ones are in the files of failed identifiers
+        checkpointJournal.complete();
+      }
+      return exitCode;
+    } finally {
+      AutoCloseable saveSyncState = syncState != null ? syncState::save : null;
+      close(
+          saveSyncState,
+          registeredIdentifiersWriter,
+          checkpointJournal,
+          sourceMetadataLocationResolver,
+          sourceTableEnumerator,
+          targetBatchTableRegistrar,
+          sourceCatalog,
+          targetCatalog);
+    }
+  }
 
+  /**
+   * Registers or migrates the tables with the configured {@link CatalogMigrator}, once the catalogs
+   * are built and the safety prompts passed.
+   *
+   * @return the exit code of the command
+   */
+  protected Integer run(
+      CatalogMigrator catalogMigrator, Set<TableIdentifier> identifiers, String identifierRegEx) {
+    // whether all the tables of the source catalog matching the regex are registered
+    boolean identifiedFromSource = identifiers.isEmpty();
+    CatalogMigrationResult result;
+    if (registerWhileIdentifying(identifiers)) {
+      result = registerWhileIdentifying(catalogMigrator, identifierRegEx);
+      if (result.registeredTablesCount() == 0
+          && result.unchangedTablesCount() == 0
+          && result.failedToRegisterTableIdentifiers().isEmpty()) {
+        consoleLog.warn(
+            "No tables were identified for {}. Please check `catalog_migration.log` file for more info.",
+            operation());
+        return 1;
+      }
+    } else {
       if (identifiers.isEmpty()) {
         consoleLog.info("Identifying tables for {} ...", operation());
         identifiers = catalogMigrator.getMatchingTableIdentifiersFromSource(identifierRegEx);
@@ -150,50 +499,261 @@ public abstract class BaseRegisterCommand implements Callable<Integer> {
 
       consoleLog.info("Identified {} tables for {}.", identifiers.size(), operation());
 
-      consoleLog.info("Started {} ...", operation());
+      result = register(catalogMigrator, identifiers, identifierRegEx, identifiedFromSource);
+    }
 
-      CatalogMigrationResult result;
-      try {
-        int processedIdentifiersCount = 0;
-        for (TableIdentifier identifier : identifiers) {
-          catalogMigrator.registerTable(identifier);
-          processedIdentifiersCount++;
-          if (processedIdentifiersCount % BATCH_SIZE == 0
-              || processedIdentifiersCount == identifiers.size()) {
-            consoleLog.info(
-                "Attempted {} for {} tables out of {} tables.",
-                operation(),
-                processedIdentifiersCount,
-                identifiers.size());
-          }
-        }
-      } finally {
-        consoleLog.info("Finished {} ...", operation());
-        result = catalogMigrator.result();
-        handleResults(result);
-      }
+    if (!result.failedToRegisterTableIdentifiers().isEmpty()
+        || !result.failedToDeleteTableIdentifiers().isEmpty()
+        || (result.registeredTablesCount() == 0 && result.unchangedTablesCount() == 0)) {
+      return 1;
+    }
 
-      if (!result.failedToRegisterTableIdentifiers().isEmpty()
-          || !result.failedToDeleteTableIdentifiers().isEmpty()
-          || result.registeredTableIdentifiers().isEmpty()) {
-        return 1;
+    return 0;
+  }
+
+  private boolean registerWhileIdentifying(Set<TableIdentifier> identifiers) {
+    return identifiers.isEmpty() && streamDiscovery && !isDryRun;
+  }
+
+  private CatalogMigrationResult register(
+      CatalogMigrator catalogMigrator,
+      Set<TableIdentifier> identifiers,
+      String identifierRegEx,
+      boolean identifiedFromSource) {
+    if (createNamespacesFirst) {
+      consoleLog.info("Creating the missing namespaces on target catalog ...");
+      catalogMigrator.createMissingNamespacesOnTargetCatalog(identifiers, parallelism);
+    }
+
+    consoleLog.info("Started {} ...", operation());
+
+    CatalogMigrationResult result;
+    try {
+      int totalIdentifiersCount = identifiers.size();
+      AtomicInteger processedIdentifiersCount = new AtomicInteger();
+      catalogMigrator.registerTables(
+          identifiers,
+          parallelism,
+          identifier -> {
+            int processed = processedIdentifiersCount.incrementAndGet();
+            if (processed % BATCH_SIZE == 0 || processed == totalIdentifiersCount) {
+              consoleLog.info(
+                  "Attempted {} for {} tables out of {} tables.",
+                  operation(),
+                  processed,
+                  totalIdentifiersCount);
+            }
+          });
+      if (syncState != null && identifiedFromSource) {
+        dropDisappearedTables(catalogMigrator, identifierRegEx);
       }
+    } finally {
+      consoleLog.info("Finished {} ...", operation());
+      printHedgingMetrics(catalogMigrator);
+      result = catalogMigrator.result();
+      handleResults(result);
+    }
+    return result;
+  }
+
+  private CatalogMigrationResult registerWhileIdentifying(
+      CatalogMigrator catalogMigrator, String identifierRegEx) {
+    consoleLog.info("Started {} while identifying the tables ...", operation());
 
-      return 0;
+    AtomicInteger processedIdentifiersCount = new AtomicInteger();
+    CatalogMigrationResult result;
+    try {
+      catalogMigrator.registerMatchingTablesFromSource(
+          identifierRegEx,
+          parallelism,
+          discoveryQueueSize,
+          identifier -> {
+            int processed = processedIdentifiersCount.incrementAndGet();
+            if (processed % BATCH_SIZE == 0) {
+              CatalogMigrationResultCollector collector = catalogMigrator.resultCollector();
+              consoleLog.info(
+                  "Attempted {} for {} tables. Succeeded: {}, failed: {}, in progress: {}.",
+                  operation(),
+                  processed,
+                  collector.registeredCount(),
+                  collector.failedToRegisterCount(),
+                  collector.inFlightCount());
+            }
+          });
+      if (syncState != null) {
+        dropDisappearedTables(catalogMigrator, identifierRegEx);
+      }
     } finally {
-      close(sourceCatalog);
-      close(targetCatalog);
+      consoleLog.info(
+          "Finished {} ... Attempted {} for {} tables.",
+          operation(),
+          operation(),
+          processedIdentifiersCount.get());
+      printHedgingMetrics(catalogMigrator);
+      result = catalogMigrator.result();
+      if (processedIdentifiersCount.get() > 0) {
+        handleResults(result);
+      }
+    }
+    return result;
+  }
+
+  /** Returns a {@link CatalogMigrator} builder configured with the common command options. */
+  protected ImmutableCatalogMigrator.Builder catalogMigratorBuilder(
+      Catalog sourceCatalog, Catalog targetCatalog) {
+    ImmutableCatalogMigrator.Builder builder =
+        ImmutableCatalogMigrator.builder()
+            .sourceCatalog(sourceCatalog)
+            .targetCatalog(targetCatalog)
+            .enableStacktrace(enableStackTrace)
+            .useVirtualThreads(useVirtualThreads)
+            .namespaceDiscoveryParallelism(discoveryParallelism)
+            .adaptiveConcurrency(adaptiveConcurrency)
+            .maxRetries(maxRetries)
+            .retryInitialBackoff(Duration.ofMillis(retryInitialBackoffMs))
+            .retryMaxBackoff(Duration.ofMillis(retryMaxBackoffMs))
+            .maxOutstandingHedges(maxOutstandingHedges);
+    if (sourceLoadHedgePercentile != null) {
+      builder.sourceLoadHedgePercentile(sourceLoadHedgePercentile);
+    }
+    if (adaptiveConcurrency) {
+      builder.requestLimitListener(
+          (catalog, previousLimit, newLimit, reason) ->
+              consoleLog.info(
+                  "Changed the {} catalog request limit from {} to {}: {}",
+                  catalog,
+                  previousLimit,
+                  newLimit,
+                  reason));
+    }
+    if (maxConcurrentSourceRequests != null) {
+      builder.maxConcurrentSourceRequests(maxConcurrentSourceRequests);
+    }
+    if (sourceRateLimits != null) {
+      sourceRateLimits.all.ifPresent(builder::sourceRateLimit);
+      builder.sourceOperationRateLimits(sourceRateLimits.operations);
+    }
+    if (targetRateLimits != null) {
+      targetRateLimits.all.ifPresent(builder::targetRateLimit);
+      builder.targetOperationRateLimits(targetRateLimits.operations);
+    }
+    if (maxConcurrentTargetRequests != null) {
+      builder.maxConcurrentTargetRequests(maxConcurrentTargetRequests);
+    }
+    if (checkpointJournal != null) {
+      builder.checkpointJournal(checkpointJournal);
+    }
+    if (syncState != null) {
+      builder.syncState(syncState);
+    }
+    if (sourceMetadataLocationResolver != null) {
+      builder.sourceMetadataLocationResolver(sourceMetadataLocationResolver);
+    }
+    if (sourceTableEnumerator != null) {
+      builder.sourceTableEnumerator(sourceTableEnumerator);
+    }
+    if (targetBatchTableRegistrar != null) {
+      builder
+          .targetBatchTableRegistrar(targetBatchTableRegistrar)
+          .registrationBatchSize(targetBatchSize);
+    }
+    if (registeredIdentifiersWriter != null) {
+      builder.registeredTableIdentifiersSink(this::writeRegisteredIdentifier);
+    }
+    return builder;
+  }
+
+  private Writer newRegisteredIdentifiersWriter() {
+    try {
+      return Files.newBufferedWriter(outputDirPath.resolve(REGISTERED_IDENTIFIERS_FILE));
+    } catch (IOException e) {
+      throw new UncheckedIOException(
+          "Failed to write the file:" + outputDirPath.resolve(REGISTERED_IDENTIFIERS_FILE), e);
     }
   }
 
-  private void close(Catalog catalog) {
-    if (catalog instanceof AutoCloseable) {
+  private void writeRegisteredIdentifier(TableIdentifier identifier) {
+    try {
+      // a single write call, as the writer is shared by the registration workers
+      registeredIdentifiersWriter.write(identifier + System.lineSeparator());
+    } catch (IOException e) {
+      throw new UncheckedIOException(
+          "Failed to write the file:" + outputDirPath.resolve(REGISTERED_IDENTIFIERS_FILE), e);
+    }
+  }
+
+  /** Requests per second of a catalog, parsed from `--source-rate-limit` or `--target-rate-limit`. */
+  private static final class RateLimits {
+
+    private OptionalDouble all = OptionalDouble.empty();
+    private final Map<CatalogOperation, Double> operations = new EnumMap<>(CatalogOperation.class);
+
+    private static RateLimits parse(String option, List<String> values) {
+      RateLimits limits = new RateLimits();
+      if (values == null) {
+        return limits;
+      }
+      for (String value : values) {
+        int separator = value.indexOf('=');
+        double limit = parseLimit(option, value.substring(separator + 1));
+        if (separator < 0) {
+          limits.all = OptionalDouble.of(limit);
+        } else {
+          try {
+            limits.operations.put(
+                CatalogOperation.fromName(value.substring(0, separator).trim()), limit);
+          } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                String.format("Invalid `%s`: %s", option, e.getMessage()), e);
+          }
+        }
+      }
+      return limits;
+    }
+
+    private static double parseLimit(String option, String value) {
+      double limit;
       try {
-        ((AutoCloseable) catalog).close();
-      } catch (Exception e) {
-        throw new RuntimeException(e);
+        limit = Double.parseDouble(value.trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(
+            String.format("Invalid `%s`: '%s' is not a number", option, value.trim()), e);
+      }
+      Preconditions.checkArgument(limit > 0, "`%s` should be greater than 0", option);
+      return limit;
+    }
+  }
+
+  /** Caps the number of concurrent source requests with `--source-max-concurrent-requests`. */
+  private int sourceRequestParallelism(int requested) {
+    return maxConcurrentSourceRequests != null
+        ? Math.max(1, Math.min(requested, maxConcurrentSourceRequests))
+        : requested;
+  }
+
+  /**
+   * Closes every given resource, even if closing an earlier one failed. The first failure is
+   * thrown, with the later ones suppressed, as by a try-with-resources statement.
+   */
+  private static void close(Object... closeables) {
+    RuntimeException failure = null;
+    for (Object closeable : closeables) {
+      if (closeable instanceof AutoCloseable) {
+        try {
+          ((AutoCloseable) closeable).close();
+        } catch (Exception e) {
+          if (failure == null) {
+            failure =
+                e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
+          } else {
+            failure.addSuppressed(e);
+          }
+        }
       }
     }
+    if (failure != null) {
+      throw failure;
+    }
   }
 
   private void checkAndWarnAboutIdentifiers(
@@ -213,6 +773,30 @@ public abstract class BaseRegisterCommand implements Callable<Integer> {
     }
   }
 
+  private void openCheckpointJournal() {
+    Path journalPath = outputDirPath.resolve(CHECKPOINT_JOURNAL_FILE);
+    if (restart) {
+      checkpointJournal = CheckpointJournal.restart(journalPath);
+      return;
+    }
+    if (!resume) {
+      Preconditions.checkArgument(
+          !Files.exists(journalPath),
+          "`%s` of an interrupted run exists in `--output-dir`. Use `--resume` to resume that run "
+              + "or `--restart` to discard it and start over.",
+          CHECKPOINT_JOURNAL_FILE);
+      checkpointJournal = CheckpointJournal.create(journalPath);
+      return;
+    }
+    checkpointJournal = CheckpointJournal.resume(journalPath);
+    consoleLog.info(
+        "Resuming from `{}`: {} tables were registered and {} tables were deleted from the source "
+            + "catalog by the interrupted run.",
+        journalPath,
+        checkpointJournal.resumedRegisteredCount(),
+        checkpointJournal.resumedDeletedCount());
+  }
+
   private void validateOutputDir() {
     if (!Files.exists(outputDirPath)) {
       try {
@@ -228,21 +812,37 @@ public abstract class BaseRegisterCommand implements Callable<Integer> {
 
   private void handleResults(CatalogMigrationResult result) {
     try {
+      writeToFile(outputDirPath.resolve(FAILED_IDENTIFIERS_FILE), result.failedToRegisterTables());
       writeToFile(
-          outputDirPath.resolve(FAILED_IDENTIFIERS_FILE),
-          result.failedToRegisterTableIdentifiers());
-      writeToFile(
-          outputDirPath.resolve(FAILED_TO_DELETE_AT_SOURCE_FILE),
-          result.failedToDeleteTableIdentifiers());
+          outputDirPath.resolve(FAILED_TO_DELETE_AT_SOURCE_FILE), result.failedToDeleteTables());
     } finally {
       printSummary(result);
       printDetails(result);
     }
   }
 
+  private void dropDisappearedTables(CatalogMigrator catalogMigrator, String identifierRegEx) {
+    consoleLog.info("Dropping the tables which disappeared from the source catalog ...");
+    catalogMigrator.dropDisappearedTables(identifierRegEx);
+  }
+
+  private void printHedgingMetrics(CatalogMigrator catalogMigrator) {
+    if (sourceLoadHedgePercentile == null) {
+      return;
+    }
+    HedgingMetrics metrics = catalogMigrator.sourceLoadHedgingMetrics();
+    consoleLog.info(
+        "Hedged {} of {} source table loads, the duplicate load returned first for {} of them. "
+            + "{} slow loads were not hedged because of `--max-outstanding-hedges`.",
+        metrics.hedgedRequests(),
+        metrics.requests(),
+        metrics.hedgeWins(),
+        metrics.skippedHedges());
+  }
+
   private void handleDryRunResult(Set<TableIdentifier> identifiers) {
     try {
-      writeToFile(outputDirPath.resolve(DRY_RUN_FILE), identifiers);
+      writeToFile(outputDirPath.resolve(DRY_RUN_FILE), TableIdentifierSet.of(identifiers));
     } finally {
       printDryRunResult(identifiers);
     }
@@ -250,14 +850,27 @@ public abstract class BaseRegisterCommand implements Callable<Integer> {
 
   private void printSummary(CatalogMigrationResult result) {
     consoleLog.info("Summary: ");
-    if (!result.registeredTableIdentifiers().isEmpty()) {
+    if (result.registeredTablesCount() > 0) {
       consoleLog.info(
           "Successfully {} {} tables from {} catalog to {} catalog.",
           operated(),
-          result.registeredTableIdentifiers().size(),
+          result.registeredTablesCount(),
           sourceCatalogOptions.type.name(),
           targetCatalogOptions.type.name());
     }
+    if (result.unchangedTablesCount() > 0) {
+      consoleLog.info(
+          "Skipped {} tables whose metadata location didn't move since they were last {}.",
+          result.unchangedTablesCount(),
+          operated());
+    }
+    if (!result.droppedTableIdentifiers().isEmpty()) {
+      consoleLog.info(
+          "Dropped {} tables from {} catalog, as they disappeared from {} catalog.",
+          result.droppedTableIdentifiers().size(),
+          targetCatalogOptions.type.name(),
+          sourceCatalogOptions.type.name());
+    }
     if (!result.failedToRegisterTableIdentifiers().isEmpty()) {
       consoleLog.error(
           "Failed to {} {} tables from {} catalog to {} catalog. "
@@ -291,6 +904,9 @@ public abstract class BaseRegisterCommand implements Callable<Integer> {
           operated(),
           System.lineSeparator(),
           result.registeredTableIdentifiers());
+    } else if (result.registeredTablesCount() > 0) {
+      consoleLog.info(
+          "Successfully {} tables are written into `{}`.", operated(), REGISTERED_IDENTIFIERS_FILE);
     }
 
     if (!result.failedToRegisterTableIdentifiers().isEmpty()) {
@@ -301,6 +917,13 @@ public abstract class BaseRegisterCommand implements Callable<Integer> {
           result.failedToRegisterTableIdentifiers());
     }
 
+    if (!result.droppedTableIdentifiers().isEmpty()) {
+      consoleLog.info(
+          "Dropped these tables from target catalog:{}{}",
+          System.lineSeparator(),
+          result.droppedTableIdentifiers());
+    }
+
     if (!result.failedToDeleteTableIdentifiers().isEmpty()) {
       consoleLog.error(
           "Failed to delete these tables from source catalog:{}{}",
@@ -325,11 +948,9 @@ public abstract class BaseRegisterCommand implements Callable<Integer> {
         result);
   }
 
-  private static void writeToFile(Path filePath, Collection<TableIdentifier> identifiers) {
-    List<String> identifiersString =
-        identifiers.stream().map(TableIdentifier::toString).collect(Collectors.toList());
-    try {
-      Files.write(filePath, identifiersString);
+  private static void writeToFile(Path filePath, TableIdentifierSet identifiers) {
+    try (Writer writer = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
+      identifiers.writeTo(writer);
     } catch (IOException e) {
       throw new UncheckedIOException("Failed to write the file:" + filePath, e);
     }
@@ -24,7 +24,12 @@ import picocli.CommandLine;
     name = "iceberg-catalog-migrator",
     mixinStandardHelpOptions = true,
     versionProvider = CLIVersionProvider.class,
-    subcommands = {MigrateCommand.class, RegisterCommand.class, SyncPolarisCommand.class})
+    subcommands = {
+      MigrateCommand.class,
+      RegisterCommand.class,
+      ReplicateCommand.class,
+      SyncPolarisCommand.class
+    })
 public class CatalogMigrationCLI {
 
   public CatalogMigrationCLI() {}
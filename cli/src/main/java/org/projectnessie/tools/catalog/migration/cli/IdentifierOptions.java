@@ -17,17 +17,18 @@ package org.projectnessie.tools.catalog.migration.cli;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Sets;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 import org.apache.iceberg.catalog.TableIdentifier;
+import org.projectnessie.tools.catalog.migration.api.TableIdentifierSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
@@ -58,7 +59,9 @@ public class IdentifierOptions {
       names = {"--identifiers-regex"},
       description = {
         "Optional regular expression pattern used to register only the tables whose identifiers match this pattern. "
-            + "Should not be used with `--identifiers` or '--identifiers-from-file' option.",
+            + "Should not be used with `--identifiers` or '--identifiers-from-file' option. "
+            + "Namespaces which can't contain matching tables according to the literal prefix of the pattern are not "
+            + "listed.",
         "Example: --identifiers-regex ^foo\\..*"
       })
   protected String identifiersRegEx;
@@ -70,18 +73,22 @@ public class IdentifierOptions {
     if (!identifiers.isEmpty()) {
       return identifiers.stream()
           .map(TableIdentifier::parse)
-          .collect(Collectors.toCollection(LinkedHashSet::new));
+          .collect(Collectors.toCollection(TableIdentifierSet::new));
     } else if (identifiersFromFile != null) {
       Preconditions.checkArgument(
           Files.exists(Paths.get(identifiersFromFile)),
           "File specified in `--identifiers-from-file` option does not exist");
-      try {
-        consoleLog.info("Collecting identifiers from the file {} ...", identifiersFromFile);
-        return Files.readAllLines(Paths.get(identifiersFromFile)).stream()
-            .map(String::trim)
-            .filter(string -> !string.isEmpty())
-            .map(TableIdentifier::parse)
-            .collect(Collectors.toCollection(LinkedHashSet::new));
+      consoleLog.info("Collecting identifiers from the file {} ...", identifiersFromFile);
+      // read line by line into a compact set, as the file can list millions of tables
+      try (BufferedReader reader = Files.newBufferedReader(Paths.get(identifiersFromFile))) {
+        TableIdentifierSet identifierSet = new TableIdentifierSet();
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+          String identifier = line.trim();
+          if (!identifier.isEmpty()) {
+            identifierSet.add(TableIdentifier.parse(identifier));
+          }
+        }
+        return identifierSet;
       } catch (IOException e) {
         throw new UncheckedIOException(
             String.format("Failed to read the file: %s", identifiersFromFile), e);
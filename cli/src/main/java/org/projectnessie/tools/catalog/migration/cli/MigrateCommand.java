@@ -18,7 +18,6 @@ package org.projectnessie.tools.catalog.migration.cli;
 import org.apache.iceberg.catalog.Catalog;
 import org.projectnessie.tools.catalog.migration.api.CatalogMigrationUtil;
 import org.projectnessie.tools.catalog.migration.api.CatalogMigrator;
-import org.projectnessie.tools.catalog.migration.api.ImmutableCatalogMigrator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
@@ -41,14 +40,9 @@ public class MigrateCommand extends BaseRegisterCommand {
   private static final Logger consoleLog = LoggerFactory.getLogger("console-log");
 
   @Override
-  protected CatalogMigrator catalogMigrator(
-      Catalog sourceCatalog, Catalog targetCatalog, boolean enableStackTrace) {
-
-    return ImmutableCatalogMigrator.builder()
-        .sourceCatalog(sourceCatalog)
-        .targetCatalog(targetCatalog)
+  protected CatalogMigrator catalogMigrator(Catalog sourceCatalog, Catalog targetCatalog) {
+    return catalogMigratorBuilder(sourceCatalog, targetCatalog)
         .deleteEntriesFromSourceCatalog(true)
-        .enableStacktrace(enableStackTrace)
         .build();
   }
 
@@ -60,6 +54,12 @@ public class MigrateCommand extends BaseRegisterCommand {
               + "Please use 'register' command instead.");
       return 1;
     }
+    if (syncStateFile != null) {
+      consoleLog.error(
+          "`--sync-state-file` is not applicable to migration, as the migrated tables are deleted "
+              + "from the source catalog. Please use 'register' command instead.");
+      return 1;
+    }
     return super.call();
   }
 
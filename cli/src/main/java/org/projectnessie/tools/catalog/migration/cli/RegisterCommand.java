@@ -17,7 +17,6 @@ package org.projectnessie.tools.catalog.migration.cli;
 
 import org.apache.iceberg.catalog.Catalog;
 import org.projectnessie.tools.catalog.migration.api.CatalogMigrator;
-import org.projectnessie.tools.catalog.migration.api.ImmutableCatalogMigrator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
@@ -38,13 +37,9 @@ public class RegisterCommand extends BaseRegisterCommand {
   private static final Logger consoleLog = LoggerFactory.getLogger("console-log");
 
   @Override
-  protected CatalogMigrator catalogMigrator(
-      Catalog sourceCatalog, Catalog targetCatalog, boolean enableStackTrace) {
-    return ImmutableCatalogMigrator.builder()
-        .sourceCatalog(sourceCatalog)
-        .targetCatalog(targetCatalog)
+  protected CatalogMigrator catalogMigrator(Catalog sourceCatalog, Catalog targetCatalog) {
+    return catalogMigratorBuilder(sourceCatalog, targetCatalog)
         .deleteEntriesFromSourceCatalog(false)
-        .enableStacktrace(enableStackTrace)
         .build();
   }
 
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.cli;
+
+import com.google.common.base.Preconditions;
+import java.time.Duration;
+import java.util.Set;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.projectnessie.tools.catalog.migration.api.CatalogMigrator;
+import org.projectnessie.tools.catalog.migration.api.CatalogReplicator;
+import org.projectnessie.tools.catalog.migration.api.ChangeFeed;
+import org.projectnessie.tools.catalog.migration.api.ImmutableCatalogReplicator;
+import org.projectnessie.tools.catalog.migration.api.ReplicationMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+@CommandLine.Command(
+    name = "replicate",
+    mixinStandardHelpOptions = true,
+    versionProvider = CLIVersionProvider.class,
+    // As both source and target catalog has similar configurations,
+    // documentation is easy to read if the target and source property is one after another instead
+    // of sorted order.
+    sortOptions = false,
+    description =
+        "Continuously register the new and changed iceberg tables from source catalog to target catalog "
+            + "without data copy, until the process is stopped.")
+public class ReplicateCommand extends RegisterCommand {
+
+  private static final Logger consoleLog = LoggerFactory.getLogger("console-log");
+
+  @CommandLine.Option(
+      names = {"--poll-interval-ms"},
+      defaultValue = "30000",
+      description = {
+        "Optional interval in milliseconds between the starts of two replication passes. Every pass "
+            + "reads the tables of the source catalog, or only the tables changed since the "
+            + "previous pass for Nessie source catalogs, whose commit log is followed. If not "
+            + "specified, a pass starts every 30 seconds.",
+        "Example: --poll-interval-ms 5000"
+      })
+  private long pollIntervalMs;
+
+  @CommandLine.Option(
+      names = {"--shutdown-timeout-ms"},
+      defaultValue = "60000",
+      description = {
+        "Optional time in milliseconds a stopped replication waits for the current pass to complete "
+            + "before exiting. If not specified, waits for up to 60 seconds.",
+        "Example: --shutdown-timeout-ms 300000"
+      })
+  private long shutdownTimeoutMs;
+
+  @Override
+  public Integer call() {
+    Preconditions.checkArgument(
+        syncStateFile != null, "`--sync-state-file` is required for replication");
+    Preconditions.checkArgument(!isDryRun, "`--dry-run` is not applicable to replication");
+    Preconditions.checkArgument(!resume, "`--resume` is not applicable to replication");
+    Preconditions.checkArgument(!restart, "`--restart` is not applicable to replication");
+    Preconditions.checkArgument(pollIntervalMs >= 0, "`--poll-interval-ms` should not be negative");
+    Preconditions.checkArgument(
+        shutdownTimeoutMs >= 0, "`--shutdown-timeout-ms` should not be negative");
+    return super.call();
+  }
+
+  @Override
+  protected boolean isContinuous() {
+    return true;
+  }
+
+  @Override
+  protected Integer run(
+      CatalogMigrator catalogMigrator, Set<TableIdentifier> identifiers, String identifierRegEx) {
+    if (!identifiers.isEmpty()) {
+      consoleLog.error(
+          "Replication only supports selecting the tables with `--identifiers-regex`, as the new "
+              + "tables of the source catalog are replicated as well.");
+      return 1;
+    }
+
+    ChangeFeed changeFeed = sourceChangeFeed(catalogMigrator);
+    ImmutableCatalogReplicator.Builder builder =
+        ImmutableCatalogReplicator.builder()
+            .catalogMigrator(catalogMigrator)
+            .pollInterval(Duration.ofMillis(pollIntervalMs))
+            .parallelism(parallelism)
+            .queueCapacity(discoveryQueueSize)
+            .passListener(ReplicateCommand::printMetrics);
+    if (identifierRegEx != null) {
+      builder.identifierRegex(identifierRegEx);
+    }
+    if (changeFeed != null) {
+      builder.sourceChangeFeed(changeFeed);
+    }
+    CatalogReplicator replicator = builder.build();
+
+    Thread shutdownHook = new Thread(() -> stop(replicator), "replication-shutdown");
+    Runtime.getRuntime().addShutdownHook(shutdownHook);
+    try {
+      consoleLog.info(
+          "Started replication, a pass starts every {} ms. Stop the process to stop it.",
+          pollIntervalMs);
+      replicator.run();
+      return 0;
+    } finally {
+      removeShutdownHook(shutdownHook);
+      if (changeFeed != null) {
+        changeFeed.close();
+      }
+    }
+  }
+
+  private ChangeFeed sourceChangeFeed(CatalogMigrator catalogMigrator) {
+    ChangeFeed changeFeed =
+        sourceCatalogOptions.changeFeed(catalogMigrator.sourceCatalog()).orElse(null);
+    if (changeFeed != null) {
+      consoleLog.info(
+          "Following the changes of source catalog {}, only the first pass reads all the tables.",
+          catalogMigrator.sourceCatalog().name());
+    }
+    return changeFeed;
+  }
+
+  private static void removeShutdownHook(Thread shutdownHook) {
+    try {
+      Runtime.getRuntime().removeShutdownHook(shutdownHook);
+    } catch (IllegalStateException e) {
+      // the JVM is already shutting down, and running the hook
+    }
+  }
+
+  private void stop(CatalogReplicator replicator) {
+    consoleLog.info("Stopping replication once the current pass completed ...");
+    replicator.stop();
+    try {
+      if (!replicator.awaitTermination(Duration.ofMillis(shutdownTimeoutMs))) {
+        consoleLog.warn(
+            "The current pass didn't complete within `--shutdown-timeout-ms`, the next run "
+                + "replicates its tables again.");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void printMetrics(ReplicationMetrics metrics) {
+    consoleLog.info(
+        "Replication pass {} took {} ms. Registered {} tables and dropped {} tables so far, {} tables "
+            + "failed in the last pass, {} passes failed. Replication lag: {}.",
+        metrics.passes(),
+        metrics.lastPassDuration().toMillis(),
+        metrics.registeredTables(),
+        metrics.droppedTables(),
+        metrics.failedTables(),
+        metrics.failedPasses(),
+        metrics.lag().map(lag -> lag.toMillis() + " ms").orElse("unknown"));
+  }
+}
@@ -17,8 +17,12 @@ package org.projectnessie.tools.catalog.migration.cli;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import org.apache.iceberg.catalog.Catalog;
 import org.projectnessie.tools.catalog.migration.api.CatalogMigrationUtil;
+import org.projectnessie.tools.catalog.migration.api.ChangeFeed;
+import org.projectnessie.tools.catalog.migration.api.MetadataLocationResolver;
+import org.projectnessie.tools.catalog.migration.api.TableEnumerator;
 import picocli.CommandLine;
 
 public class SourceCatalogOptions {
@@ -66,4 +70,17 @@ public class SourceCatalogOptions {
     return CatalogMigrationUtil.buildCatalog(
         properties, type, "SOURCE_CATALOG_" + type.name(), customCatalogImpl, hadoopConf);
   }
+
+  MetadataLocationResolver metadataLocationResolver(
+      Catalog catalog, int parallelism, TableEnumerator tableEnumerator) {
+    return MetadataLocationResolver.forCatalog(catalog, properties, parallelism, tableEnumerator);
+  }
+
+  Optional<TableEnumerator> tableEnumerator(Catalog catalog, int parallelism) {
+    return TableEnumerator.forCatalog(catalog, properties, parallelism);
+  }
+
+  Optional<ChangeFeed> changeFeed(Catalog catalog) {
+    return ChangeFeed.forCatalog(catalog, properties);
+  }
 }
@@ -17,7 +17,9 @@ package org.projectnessie.tools.catalog.migration.cli;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import org.apache.iceberg.catalog.Catalog;
+import org.projectnessie.tools.catalog.migration.api.BatchTableRegistrar;
 import org.projectnessie.tools.catalog.migration.api.CatalogMigrationUtil;
 import picocli.CommandLine;
 
@@ -66,4 +68,8 @@ public class TargetCatalogOptions {
     return CatalogMigrationUtil.buildCatalog(
         properties, type, "TARGET_CATALOG_" + type.name(), customCatalogImpl, hadoopConf);
   }
+
+  Optional<BatchTableRegistrar> batchTableRegistrar(Catalog catalog) {
+    return BatchTableRegistrar.forCatalog(catalog, properties, hadoopConf);
+  }
 }
@@ -210,6 +210,167 @@ public class CLIOptionsTest {
                 "--output-dir",
                 readOnlyDirLocation()),
             "Error during CLI execution: Path specified in `--output-dir` is not writable"),
+        arguments(
+            Lists.newArrayList(
+                "--source-catalog-type",
+                "HIVE",
+                "--source-catalog-properties",
+                "k1=v1,k2=v2",
+                "--target-catalog-type",
+                "HADOOP",
+                "--target-catalog-properties",
+                "k3=v3, k4=v4",
+                "--parallelism",
+                "0"),
+            "Error during CLI execution: `--parallelism` should be greater than 0"),
+        arguments(
+            Lists.newArrayList(
+                "--source-catalog-type",
+                "HIVE",
+                "--source-catalog-properties",
+                "k1=v1,k2=v2",
+                "--target-catalog-type",
+                "HADOOP",
+                "--target-catalog-properties",
+                "k3=v3, k4=v4",
+                "--discovery-parallelism",
+                "0"),
+            "Error during CLI execution: `--discovery-parallelism` should be greater than 0"),
+        arguments(
+            Lists.newArrayList(
+                "--source-catalog-type",
+                "HIVE",
+                "--source-catalog-properties",
+                "k1=v1,k2=v2",
+                "--target-catalog-type",
+                "HADOOP",
+                "--target-catalog-properties",
+                "k3=v3, k4=v4",
+                "--stream-discovery",
+                "--discovery-queue-size",
+                "0"),
+            "Error during CLI execution: `--discovery-queue-size` should be greater than 0"),
+        arguments(
+            Lists.newArrayList(
+                "--source-catalog-type",
+                "HIVE",
+                "--source-catalog-properties",
+                "k1=v1,k2=v2",
+                "--target-catalog-type",
+                "HADOOP",
+                "--target-catalog-properties",
+                "k3=v3, k4=v4",
+                "--target-batch-size",
+                "0"),
+            "Error during CLI execution: `--target-batch-size` should be greater than 0"),
+        arguments(
+            Lists.newArrayList(
+                "--source-catalog-type",
+                "HIVE",
+                "--source-catalog-properties",
+                "k1=v1,k2=v2",
+                "--target-catalog-type",
+                "HADOOP",
+                "--target-catalog-properties",
+                "k3=v3, k4=v4",
+                "--source-rate-limit",
+                "50,load=0"),
+            "Error during CLI execution: `--source-rate-limit` should be greater than 0"),
+        arguments(
+            Lists.newArrayList(
+                "--source-catalog-type",
+                "HIVE",
+                "--source-catalog-properties",
+                "k1=v1,k2=v2",
+                "--target-catalog-type",
+                "HADOOP",
+                "--target-catalog-properties",
+                "k3=v3, k4=v4",
+                "--target-rate-limit",
+                "commit=10"),
+            "Error during CLI execution: Invalid `--target-rate-limit`: Unknown catalog operation "
+                + "'commit', should be one of list, load, register, drop, create-namespace"),
+        arguments(
+            Lists.newArrayList(
+                "--source-catalog-type",
+                "HIVE",
+                "--source-catalog-properties",
+                "k1=v1,k2=v2",
+                "--target-catalog-type",
+                "HADOOP",
+                "--target-catalog-properties",
+                "k3=v3, k4=v4",
+                "--target-rate-limit",
+                "fast"),
+            "Error during CLI execution: Invalid `--target-rate-limit`: 'fast' is not a number"),
+        arguments(
+            Lists.newArrayList(
+                "--source-catalog-type",
+                "HIVE",
+                "--source-catalog-properties",
+                "k1=v1,k2=v2",
+                "--target-catalog-type",
+                "HADOOP",
+                "--target-catalog-properties",
+                "k3=v3, k4=v4",
+                "--max-retries",
+                "-1"),
+            "Error during CLI execution: `--max-retries` should not be negative"),
+        arguments(
+            Lists.newArrayList(
+                "--source-catalog-type",
+                "HIVE",
+                "--source-catalog-properties",
+                "k1=v1,k2=v2",
+                "--target-catalog-type",
+                "HADOOP",
+                "--target-catalog-properties",
+                "k3=v3, k4=v4",
+                "--retry-initial-backoff-ms",
+                "2000",
+                "--retry-max-backoff-ms",
+                "1000"),
+            "Error during CLI execution: `--retry-max-backoff-ms` should not be less than "
+                + "`--retry-initial-backoff-ms`"),
+        arguments(
+            Lists.newArrayList(
+                "--source-catalog-type",
+                "HIVE",
+                "--source-catalog-properties",
+                "k1=v1,k2=v2",
+                "--target-catalog-type",
+                "HADOOP",
+                "--target-catalog-properties",
+                "k3=v3, k4=v4",
+                "--source-load-hedge-percentile",
+                "100"),
+            "Error during CLI execution: `--source-load-hedge-percentile` should be between 0 and 100"),
+        arguments(
+            Lists.newArrayList(
+                "--source-catalog-type",
+                "HIVE",
+                "--source-catalog-properties",
+                "k1=v1,k2=v2",
+                "--target-catalog-type",
+                "HADOOP",
+                "--target-catalog-properties",
+                "k3=v3, k4=v4",
+                "--max-outstanding-hedges",
+                "0"),
+            "Error during CLI execution: `--max-outstanding-hedges` should be greater than 0"),
+        arguments(
+            Lists.newArrayList(
+                "--source-catalog-type",
+                "HIVE",
+                "--source-catalog-properties",
+                "k1=v1,k2=v2",
+                "--target-catalog-type",
+                "HADOOP",
+                "--target-catalog-properties",
+                "k3=v3, k4=v4",
+                "--dry-run",
+                "--resume"),
+            "Error during CLI execution: `--resume` is not applicable with `--dry-run`"),
         // test with stacktrace
         arguments(
             Lists.newArrayList(
@@ -241,6 +402,57 @@ public class CLIOptionsTest {
     executeAndValidateResults("migrate", args, expectedMessage, 1);
   }
 
+  private static Stream<Arguments> invalidReplicateArgs() {
+    return Stream.of(
+        arguments(
+            Lists.newArrayList(
+                "--source-catalog-type",
+                "HIVE",
+                "--source-catalog-properties",
+                "k1=v1,k2=v2",
+                "--target-catalog-type",
+                "HADOOP",
+                "--target-catalog-properties",
+                "k3=v3, k4=v4"),
+            "Error during CLI execution: `--sync-state-file` is required for replication"),
+        arguments(
+            Lists.newArrayList(
+                "--source-catalog-type",
+                "HIVE",
+                "--source-catalog-properties",
+                "k1=v1,k2=v2",
+                "--target-catalog-type",
+                "HADOOP",
+                "--target-catalog-properties",
+                "k3=v3, k4=v4",
+                "--sync-state-file",
+                "sync_state.txt",
+                "--dry-run"),
+            "Error during CLI execution: `--dry-run` is not applicable to replication"),
+        arguments(
+            Lists.newArrayList(
+                "--source-catalog-type",
+                "HIVE",
+                "--source-catalog-properties",
+                "k1=v1,k2=v2",
+                "--target-catalog-type",
+                "HADOOP",
+                "--target-catalog-properties",
+                "k3=v3, k4=v4",
+                "--sync-state-file",
+                "sync_state.txt",
+                "--poll-interval-ms",
+                "-1"),
+            "Error during CLI execution: `--poll-interval-ms` should not be negative"));
+  }
+
+  @ParameterizedTest
+  @MethodSource("invalidReplicateArgs")
+  public void testInvalidArgsForReplicate(List<String> args, String expectedMessage)
+      throws Exception {
+    executeAndValidateResults("replicate", args, expectedMessage, 1);
+  }
+
   @Test
   public void version() throws Exception {
     RunCLI run = RunCLI.runWithPrintWriter("--version");
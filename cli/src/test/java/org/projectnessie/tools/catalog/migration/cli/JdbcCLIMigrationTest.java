@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2023 Dremio
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projectnessie.tools.catalog.migration.cli;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.CatalogProperties;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.catalog.Namespace;
+import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.jdbc.JdbcCatalog;
+import org.apache.iceberg.types.Types;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JdbcCLIMigrationTest {
+
+  private static final Schema SCHEMA =
+      new Schema(Types.NestedField.required(1, "id", Types.LongType.get()));
+
+  private @TempDir Path tempDir;
+
+  @Test
+  public void testRegisterWithEnumeratedMetadataLocations() throws Exception {
+    Map<String, String> sourceProperties = catalogProperties("source");
+    Map<String, String> targetProperties = catalogProperties("target");
+    try (JdbcCatalog sourceCatalog = new JdbcCatalog();
+        JdbcCatalog targetCatalog = new JdbcCatalog()) {
+      sourceCatalog.initialize("source", sourceProperties);
+      targetCatalog.initialize("target", targetProperties);
+      Map<TableIdentifier, String> expected = new LinkedHashMap<>();
+      for (TableIdentifier identifier :
+          new TableIdentifier[] {
+            TableIdentifier.of("db1", "tbl1"),
+            TableIdentifier.of("db1", "tbl2"),
+            TableIdentifier.of("db2", "tbl3")
+          }) {
+        if (!sourceCatalog.namespaceExists(identifier.namespace())) {
+          sourceCatalog.createNamespace(identifier.namespace());
+        }
+        sourceCatalog.createTable(identifier, SCHEMA);
+        expected.put(identifier, metadataLocation(sourceCatalog, identifier));
+      }
+
+      // without `--stream-discovery` the tables are identified before they are registered, the
+      // metadata locations read by the JDBC enumerator are used without loading any table
+      RunCLI run =
+          RunCLI.run(
+              "register",
+              "--source-catalog-type",
+              "JDBC",
+              "--source-catalog-properties",
+              Joiner.on(",").withKeyValueSeparator("=").join(sourceProperties),
+              "--target-catalog-type",
+              "JDBC",
+              "--target-catalog-properties",
+              Joiner.on(",").withKeyValueSeparator("=").join(targetProperties),
+              "--source-load-hedge-percentile",
+              "99",
+              "--output-dir",
+              tempDir.toAbsolutePath().toString(),
+              "--disable-safety-prompts");
+
+      Assertions.assertThat(run.getExitCode()).as(run.toString()).isEqualTo(0);
+      Assertions.assertThat(run.getOut())
+          .contains("Successfully registered 3 tables from JDBC catalog to JDBC catalog.")
+          .contains("Hedged 0 of 0 source table loads");
+      expected.forEach(
+          (identifier, metadataLocation) ->
+              Assertions.assertThat(metadataLocation(targetCatalog, identifier))
+                  .isEqualTo(metadataLocation));
+    }
+  }
+
+  @Test
+  public void testCheckpointJournalOfInterruptedRunIsNotReplaced() throws Exception {
+    Map<String, String> sourceProperties = catalogProperties("source");
+    try (JdbcCatalog sourceCatalog = new JdbcCatalog()) {
+      sourceCatalog.initialize("source", sourceProperties);
+      sourceCatalog.createNamespace(Namespace.of("db1"));
+      sourceCatalog.createTable(TableIdentifier.of("db1", "tbl1"), SCHEMA);
+    }
+    Path journal = tempDir.resolve(BaseRegisterCommand.CHECKPOINT_JOURNAL_FILE);
+
+    // a run which went through all its tables leaves no journal behind
+    RunCLI run = RunCLI.run(registerArgs(sourceProperties));
+    Assertions.assertThat(run.getExitCode()).as(run.toString()).isEqualTo(0);
+    Assertions.assertThat(journal).doesNotExist();
+
+    // so does a run whose tables failed, the table is already in the target catalog
+    run = RunCLI.run(registerArgs(sourceProperties));
+    Assertions.assertThat(run.getExitCode()).as(run.toString()).isEqualTo(1);
+    Assertions.assertThat(run.getErr()).doesNotContain("of an interrupted run exists");
+    Assertions.assertThat(
+            Files.readAllLines(tempDir.resolve(BaseRegisterCommand.FAILED_IDENTIFIERS_FILE)))
+        .containsExactly("db1.tbl1");
+    Assertions.assertThat(journal).doesNotExist();
+
+    // the journal of an interrupted run
+    List<String> records = List.of("R db1.tbl1");
+    Files.write(journal, records);
+    run = RunCLI.run(registerArgs(sourceProperties));
+    Assertions.assertThat(run.getExitCode()).as(run.toString()).isEqualTo(1);
+    Assertions.assertThat(run.getErr())
+        .contains(
+            "`checkpoint.journal` of an interrupted run exists in `--output-dir`. Use `--resume` "
+                + "to resume that run or `--restart` to discard it and start over.");
+    Assertions.assertThat(Files.readAllLines(journal)).isEqualTo(records);
+
+    run = RunCLI.run(registerArgs(sourceProperties, "--restart"));
+    Assertions.assertThat(run.getErr()).doesNotContain("of an interrupted run exists");
+    Assertions.assertThat(journal).doesNotExist();
+  }
+
+  private String[] registerArgs(Map<String, String> sourceProperties, String... extraArgs) {
+    List<String> args =
+        Lists.newArrayList(
+            "register",
+            "--source-catalog-type",
+            "JDBC",
+            "--source-catalog-properties",
+            Joiner.on(",").withKeyValueSeparator("=").join(sourceProperties),
+            "--target-catalog-type",
+            "JDBC",
+            "--target-catalog-properties",
+            Joiner.on(",").withKeyValueSeparator("=").join(catalogProperties("target")),
+            "--output-dir",
+            tempDir.toAbsolutePath().toString(),
+            "--disable-safety-prompts");
+    args.addAll(Arrays.asList(extraArgs));
+    return args.toArray(new String[0]);
+  }
+
+  private Map<String, String> catalogProperties(String name) {
+    Map<String, String> properties = new HashMap<>();
+    properties.put("name", name);
+    properties.put(CatalogProperties.URI, "jdbc:sqlite:" + tempDir.resolve(name + ".db"));
+    properties.put(CatalogProperties.WAREHOUSE_LOCATION, tempDir.resolve("warehouse").toString());
+    return properties;
+  }
+
+  private static String metadataLocation(JdbcCatalog catalog, TableIdentifier identifier) {
+    return ((BaseTable) catalog.loadTable(identifier))
+        .operations()
+        .current()
+        .metadataFileLocation();
+  }
+}